@@ -2,7 +2,7 @@ package com.filex;
 
 import com.filex.service.DatabaseService;
 import com.filex.model.FileEvent;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class CheckDatabase {
     public static void main(String[] args) {
@@ -12,16 +12,15 @@ public class CheckDatabase {
             DatabaseService dbService = DatabaseService.getInstance();
             dbService.initialize();
             
-            List<FileEvent> events = dbService.getAllEvents();
-            System.out.println("Found " + events.size() + " events in the database");
+            System.out.println("Found " + dbService.getEventCount() + " events in the database");
             
-            for (int i = 0; i < events.size(); i++) {
-                FileEvent event = events.get(i);
-                System.out.println("Event " + (i+1) + ": " + event.getFileName() + 
+            // Stream the events page by page rather than loading the whole table
+            AtomicLong counter = new AtomicLong();
+            dbService.streamEvents(null, null, false).forEach(event ->
+                System.out.println("Event " + counter.incrementAndGet() + ": " + event.getFileName() + 
                                  " - " + event.getEventType() + 
                                  " at " + event.getTimestamp() +
-                                 " (suspicious: " + event.isSuspicious() + ")");
-            }
+                                 " (suspicious: " + event.isSuspicious() + ")"));
             
             dbService.close();
         } catch (Exception e) {
@@ -0,0 +1,21 @@
+package com.filex;
+
+import com.filex.service.DatabaseService;
+
+/**
+ * Rewrites the database without free pages and switches it to incremental vacuum,
+ * so the background maintenance can shrink it from then on.
+ * Needed once for databases created before incremental vacuum; run it while FileX is closed.
+ */
+public class CompactDatabase {
+    public static void main(String[] args) {
+        System.out.println("Compacting database...");
+
+        DatabaseService dbService = DatabaseService.getInstance();
+        dbService.initialize();
+        boolean compacted = dbService.compact();
+        dbService.close();
+
+        System.out.println(compacted ? "Database compacted." : "Database could not be compacted.");
+    }
+}
@@ -0,0 +1,25 @@
+package com.filex;
+
+import com.filex.service.DatabaseService;
+
+/**
+ * Rebuilds the event and alert rollup tables from the stored rows.
+ * Safe to run while the application is ingesting events.
+ */
+public class RebuildRollups {
+    public static void main(String[] args) {
+        System.out.println("Rebuilding rollups...");
+
+        DatabaseService dbService = DatabaseService.getInstance();
+        dbService.initialize();
+        long start = System.currentTimeMillis();
+        boolean completed = dbService.rebuildRollups();
+        dbService.close();
+
+        if (completed) {
+            System.out.println("Rollups rebuilt in " + (System.currentTimeMillis() - start) + " ms.");
+        } else {
+            System.err.println("Rollup rebuild did not complete; run it again to resume.");
+        }
+    }
+}
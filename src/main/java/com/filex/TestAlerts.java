@@ -2,6 +2,8 @@ package com.filex;
 
 import com.filex.model.FileEvent;
 import com.filex.model.Alert;
+import com.filex.model.AlertDetails;
+import com.filex.model.AlertPage;
 import com.filex.service.DatabaseService;
 import com.filex.controller.AlertsController;
 import java.time.LocalDateTime;
@@ -27,29 +29,28 @@ public class TestAlerts {
             fileEvent.setSha256("test_hash");
             fileEvent.setSuspicious(true);
             
-            // Save the file event
-            databaseService.saveEvent(fileEvent);
-            System.out.println("File event saved successfully");
-            
             // Create a test alert
             Alert alert = new Alert();
-            alert.setFileEventId(1);
             alert.setSeverity("HIGH");
             alert.setAcknowledged(false);
             alert.setCreatedAt(LocalDateTime.now());
             alert.setActionsTaken("Test alert for suspicious file");
             
-            // Save the alert
-            databaseService.saveAlert(alert);
-            System.out.println("Alert saved successfully");
+            // Save the file event and its alert together
+            long eventId = databaseService.saveEvent(fileEvent, alert);
+            System.out.println("File event " + eventId + " and alert " + alert.getId() + " saved successfully");
             
-            // Retrieve alerts
-            var alerts = databaseService.getAllAlerts();
-            System.out.println("Retrieved " + alerts.size() + " alerts from database");
+            // Retrieve the newest open alerts with their events
+            AlertPage page = databaseService.getAlertsPage(null, false, null, 20);
+            System.out.println("Retrieved " + page.getAlerts().size() + " open alerts from database");
+            for (AlertDetails details : page.getAlerts()) {
+                System.out.println("  " + details.getAlert().getSeverity() + " "
+                    + (details.getEvent() != null ? details.getEvent().getFileName() : "(event deleted)"));
+            }
             
             // Retrieve suspicious events
-            var suspiciousEvents = databaseService.getSuspiciousEvents();
-            System.out.println("Retrieved " + suspiciousEvents.size() + " suspicious events from database");
+            long suspiciousCount = databaseService.getEventCount(null, null, true);
+            System.out.println("Retrieved " + suspiciousCount + " suspicious events from database");
             
             System.out.println("Alerts test completed successfully!");
             
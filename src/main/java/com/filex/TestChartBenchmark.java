@@ -0,0 +1,126 @@
+package com.filex;
+
+import com.filex.model.FileEvent;
+import com.filex.model.RollupResolution;
+import com.filex.service.DatabaseService;
+import com.filex.util.ChartDownsampler;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark of the chart downsampling: first LTTB and min/max bucketing on large
+ * synthetic series, checking that an isolated spike survives, then the full
+ * "Events Over Time" pipeline (rollup resolution for the range, zero-filled counts
+ * from the rollups, LTTB to the chart's width) for ranges from an hour to a year.
+ *
+ * Usage: TestChartBenchmark [rows]
+ * Defaults to 500,000 events over one year in a temporary database.
+ */
+public class TestChartBenchmark {
+
+    private static final int RUNS = 5;
+    private static final int BATCH = 500; // The group-commit writer's batch size
+    private static final int WIDTH = 1_000; // Chart width in pixels
+    private static final int BUCKETS_PER_PIXEL = 4;
+    private static final String[] TYPES = {"CREATE", "MODIFY", "DELETE", "RENAME"};
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+
+        System.out.println("Downsampling to " + WIDTH + " points:");
+        for (int points : new int[] {100_000, 1_000_000, 10_000_000}) {
+            double[] xs = new double[points];
+            double[] ys = new double[points];
+            Random random = new Random(42);
+            for (int i = 0; i < points; i++) {
+                xs[i] = i;
+                ys[i] = 50 + 20 * Math.sin(i / (points / 20.0)) + random.nextGaussian() * 5;
+            }
+            int spike = points / 3 + 7;
+            ys[spike] = 1_000;
+            int[][] kept = new int[2][];
+            double lttb = median(() -> (kept[0] = ChartDownsampler.largestTriangleThreeBuckets(xs, ys, WIDTH)).length);
+            double minMax = median(() -> (kept[1] = ChartDownsampler.minMax(xs, ys, WIDTH / 2)).length);
+            System.out.printf("  %,12d points: LTTB %7.2f ms (%d points, spike %s), min/max %7.2f ms (%d points, spike %s)%n",
+                points, lttb, kept[0].length, contains(kept[0], spike) ? "kept" : "LOST",
+                minMax, kept[1].length, contains(kept[1], spike) ? "kept" : "LOST");
+        }
+
+        Path dbFile = Files.createTempFile("filex-chart-bench", ".db");
+        Files.deleteIfExists(dbFile);
+        System.setProperty("filex.db.url", "jdbc:sqlite:" + dbFile);
+        DatabaseService dbService = DatabaseService.getInstance();
+        dbService.initialize();
+        try {
+            LocalDateTime end = LocalDateTime.now();
+            LocalDateTime start = end.minusDays(365);
+            long spanSeconds = java.time.Duration.between(start, end).getSeconds();
+            Random random = new Random(42);
+            List<FileEvent> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < rows; i++) {
+                LocalDateTime time = start.plusSeconds(spanSeconds * i / rows);
+                batch.add(new FileEvent("file" + (i % 5_000) + ".txt", TYPES[random.nextInt(TYPES.length)], time,
+                    String.format("%064x", i), random.nextInt(100) == 0));
+                if (batch.size() == BATCH || i == rows - 1) {
+                    dbService.insertEvents(batch);
+                    batch.clear();
+                }
+            }
+            System.out.printf("%nInserted %,d events over one year%n", rows);
+
+            System.out.printf("%-10s %-8s %9s %8s %10s%n", "range", "buckets", "of size", "points", "ms");
+            String[] labels = {"1 hour", "1 day", "7 days", "30 days", "365 days"};
+            LocalDateTime[] starts = {end.minusHours(1), end.minusDays(1), end.minusDays(7), end.minusDays(30), start};
+            for (int r = 0; r < labels.length; r++) {
+                LocalDateTime rangeStart = starts[r];
+                RollupResolution resolution = RollupResolution.forRange(rangeStart, end, WIDTH * BUCKETS_PER_PIXEL);
+                int[] buckets = new int[1];
+                double time = median(() -> {
+                    long[] counts = dbService.getEventCountSeries(resolution, rangeStart, end);
+                    double[] xs = new double[counts.length];
+                    double[] ys = new double[counts.length];
+                    for (int i = 0; i < counts.length; i++) {
+                        xs[i] = i;
+                        ys[i] = counts[i];
+                    }
+                    buckets[0] = counts.length;
+                    return ChartDownsampler.largestTriangleThreeBuckets(xs, ys, WIDTH / 2).length;
+                });
+                System.out.printf("%-10s %,8d %9s %8d %10.2f%n", labels[r], buckets[0], resolution,
+                    Math.min(buckets[0], WIDTH / 2), time);
+            }
+        } finally {
+            dbService.close();
+            Files.deleteIfExists(dbFile);
+            Files.deleteIfExists(Path.of(dbFile + "-wal"));
+            Files.deleteIfExists(Path.of(dbFile + "-shm"));
+        }
+    }
+
+    private interface Task {
+        int run() throws Exception;
+    }
+
+    private static double median(Task task) throws Exception {
+        double[] times = new double[RUNS];
+        for (int run = -1; run < RUNS; run++) { // One warm-up run
+            long t0 = System.nanoTime();
+            task.run();
+            if (run >= 0) {
+                times[run] = (System.nanoTime() - t0) / 1e6;
+            }
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+
+    private static boolean contains(int[] indexes, int index) {
+        return Arrays.binarySearch(indexes, index) >= 0;
+    }
+}
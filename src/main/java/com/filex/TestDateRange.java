@@ -13,14 +13,15 @@ public class TestDateRange {
             DatabaseService dbService = DatabaseService.getInstance();
             dbService.initialize();
             
-            // Get all events first
-            List<FileEvent> allEvents = dbService.getAllEvents();
-            System.out.println("Total events: " + allEvents.size());
+            // Count the events first
+            System.out.println("Total events: " + dbService.getEventCount());
             
-            if (!allEvents.isEmpty()) {
-                // Get the date range from the first and last events
-                FileEvent firstEvent = allEvents.get(0);
-                FileEvent lastEvent = allEvents.get(allEvents.size() - 1);
+            List<FileEvent> newest = dbService.getEventsPage(null, 1).getEvents();
+            if (!newest.isEmpty()) {
+                // Get the date range from the newest and oldest events
+                FileEvent firstEvent = newest.get(0);
+                FileEvent lastEvent = dbService.streamEvents(null, null, false)
+                    .reduce((a, b) -> b).orElse(firstEvent);
                 
                 System.out.println("First event: " + firstEvent.getTimestamp());
                 System.out.println("Last event: " + lastEvent.getTimestamp());
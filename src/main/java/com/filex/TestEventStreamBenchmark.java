@@ -0,0 +1,106 @@
+package com.filex;
+
+import com.filex.model.FileEvent;
+import com.filex.service.DatabaseService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the heap retained by {@code getAllEvents()} with the heap used while
+ * consuming the same table through {@code streamEvents()}, for growing table sizes.
+ * Uses a temporary database selected through the {@code filex.db.url} property.
+ *
+ * Usage: TestEventStreamBenchmark [size...]
+ * Defaults to 10,000, 100,000 and 1,000,000 events. Run with a heap large enough
+ * for the list of the largest size, e.g. -Xmx2g.
+ */
+public class TestEventStreamBenchmark {
+
+    private static final int BATCH = 10_000;
+    private static final int SAMPLE_EVERY = 50_000;
+
+    @SuppressWarnings("deprecation")
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0
+            ? java.util.Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+            : new int[] {10_000, 100_000, 1_000_000};
+        Path dbFile = Files.createTempFile("filex-stream-bench", ".db");
+        Files.deleteIfExists(dbFile);
+        System.setProperty("filex.db.url", "jdbc:sqlite:" + dbFile);
+
+        DatabaseService dbService = DatabaseService.getInstance();
+        dbService.initialize();
+        try {
+            System.out.printf("%-12s %16s %14s %16s %14s%n",
+                "events", "list retained", "list ms", "stream peak", "stream ms");
+            int loaded = 0;
+            for (int size : sizes) {
+                loaded = populate(dbService, loaded, size);
+
+                long baseline = usedAfterGc();
+                long t0 = System.nanoTime();
+                List<FileEvent> all = dbService.getAllEvents();
+                double listMillis = (System.nanoTime() - t0) / 1e6;
+                long listRetained = usedAfterGc() - baseline;
+                if (all.size() != size) {
+                    throw new IllegalStateException("Expected " + size + " events, got " + all.size());
+                }
+                all = null;
+
+                baseline = usedAfterGc();
+                AtomicLong count = new AtomicLong();
+                AtomicLong peak = new AtomicLong();
+                t0 = System.nanoTime();
+                dbService.streamEvents(null, null, false).forEach(event -> {
+                    // Sample what the stream keeps alive, not what is waiting for collection
+                    if (count.incrementAndGet() % SAMPLE_EVERY == 0) {
+                        peak.accumulateAndGet(usedAfterGc(), Math::max);
+                    }
+                });
+                double streamMillis = (System.nanoTime() - t0) / 1e6;
+                long streamPeak = Math.max(0, peak.get() - baseline);
+                if (count.get() != size) {
+                    throw new IllegalStateException("Expected " + size + " streamed events, got " + count.get());
+                }
+
+                System.out.printf("%,-12d %13.1f MB %14.0f %13.1f MB %14.0f%n", size,
+                    listRetained / 1048576.0, listMillis, streamPeak / 1048576.0, streamMillis);
+            }
+        } finally {
+            dbService.close();
+            Files.deleteIfExists(dbFile);
+            Files.deleteIfExists(Path.of(dbFile + "-wal"));
+            Files.deleteIfExists(Path.of(dbFile + "-shm"));
+        }
+    }
+
+    private static int populate(DatabaseService dbService, int from, int to) throws Exception {
+        LocalDateTime start = LocalDateTime.now().minusDays(365);
+        List<FileEvent> batch = new ArrayList<>(BATCH);
+        for (int i = from; i < to; i++) {
+            String name = "file" + i + ".txt";
+            FileEvent event = new FileEvent(name, "MODIFY", start.plusSeconds(i * 10L),
+                String.format("%064x", i), i % 100 == 0);
+            event.setFilePath("/data/dir" + (i % 1000) + "/" + name);
+            batch.add(event);
+            if (batch.size() == BATCH || i == to - 1) {
+                dbService.insertEvents(batch);
+                batch.clear();
+            }
+        }
+        return to;
+    }
+
+    private static long usedAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
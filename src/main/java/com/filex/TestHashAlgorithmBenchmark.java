@@ -0,0 +1,53 @@
+package com.filex;
+
+import com.filex.util.HashProvider;
+import com.filex.util.HashProviders;
+import com.filex.util.HashUtil;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Benchmark of every registered hash algorithm on in-memory data, so the numbers
+ * reflect the algorithm rather than the disk. Reports GB/s per algorithm.
+ *
+ * Usage: TestHashAlgorithmBenchmark [sizeMB] [iterations]
+ */
+public class TestHashAlgorithmBenchmark {
+
+    public static void main(String[] args) {
+        int sizeMB = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        byte[] chunk = new byte[1 << 20];
+        new Random(42).nextBytes(chunk);
+        ByteBuffer data = ByteBuffer.allocateDirect(sizeMB << 20);
+        while (data.hasRemaining()) {
+            data.put(chunk, 0, Math.min(chunk.length, data.remaining()));
+        }
+
+        System.out.println("Hash algorithm benchmark: " + sizeMB + " MB x " + iterations + " iterations, "
+            + Runtime.getRuntime().availableProcessors() + " CPUs, " + System.getProperty("java.vm.name")
+            + " " + System.getProperty("java.version"));
+        for (String name : HashProviders.getAvailableNames()) {
+            HashProvider provider = HashProviders.get(name);
+            HashProvider.Hasher hasher = provider.newHasher();
+            String digest = "";
+            // Warm up so the JIT has compiled the hot loop before measuring
+            for (int i = 0; i < 2; i++) {
+                hasher.update(data.duplicate().clear());
+                digest = HashUtil.toHex(hasher.digest());
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                hasher.update(data.duplicate().clear());
+                hasher.digest();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double gbPerSecond = (double) sizeMB * iterations / 1024 / seconds;
+            System.out.printf("%-12s %-17s %6.2f GB/s  %s...%n", name,
+                provider.isCryptographic() ? "cryptographic" : "non-cryptographic",
+                gbPerSecond, digest.substring(0, 16));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.filex;
+
+import com.filex.util.HashUtil;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+/**
+ * Benchmark comparing the FileChannel hashing engine in {@link HashUtil}
+ * with the original stream-based SHA-256 implementation.
+ * Reports MB/s and bytes allocated per call for 4 KB, 1 MB and 1 GB files.
+ *
+ * Usage: TestHashBenchmark [maxSizeMB]
+ * Pass a smaller maximum (e.g. 1) to skip the 1 GB file on machines short of disk space.
+ * Allocations are only counted when run with {@code --add-modules jdk.management}.
+ */
+public class TestHashBenchmark {
+
+    private static final long[] SIZES = {4L << 10, 1L << 20, 1L << 30};
+
+    public static void main(String[] args) throws Exception {
+        long maxSize = args.length > 0 ? Long.parseLong(args[0]) << 20 : Long.MAX_VALUE;
+        Path dir = Files.createTempDirectory("filex-hash-bench");
+        try {
+            for (long size : SIZES) {
+                if (size > maxSize) {
+                    continue;
+                }
+                Path file = createFile(dir, size);
+                // Aim for roughly 2 GB hashed per variant, at least 3 iterations
+                int iterations = (int) Math.max(3, Math.min(20_000, (2L << 30) / size));
+                String expected = legacySHA256(file.toString());
+                if (!expected.equals(HashUtil.computeSHA256(file))) {
+                    throw new IllegalStateException("Hash mismatch for " + size + " byte file");
+                }
+                run("legacy", size, iterations, () -> legacySHA256(file.toString()));
+                run("channel", size, iterations, () -> HashUtil.computeSHA256(file));
+                Files.delete(file);
+            }
+        } finally {
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private interface Task {
+        String run() throws Exception;
+    }
+
+    private static void run(String name, long size, int iterations, Task task) throws Exception {
+        // Warm up, then measure
+        for (int i = 0; i < Math.min(iterations, 1000); i++) {
+            task.run();
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        double seconds = elapsed / 1e9;
+        double mbPerSecond = (double) size * iterations / (1 << 20) / seconds;
+        System.out.printf("%-8s %10s  %8.1f MB/s  %10.1f us/op  %8d bytes allocated/op%n",
+            name, formatSize(size), mbPerSecond, elapsed / 1e3 / iterations, allocated / iterations);
+    }
+
+    private static final boolean ALLOCATION_COUNTERS =
+        ModuleLayer.boot().findModule("jdk.management").isPresent();
+
+    private static long allocatedBytes() {
+        if (!ALLOCATION_COUNTERS) {
+            return 0;
+        }
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    private static Path createFile(Path dir, long size) throws IOException {
+        Path file = dir.resolve("bench-" + size + ".bin");
+        byte[] chunk = new byte[1 << 20];
+        new Random(42).nextBytes(chunk);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (long written = 0; written < size; written += chunk.length) {
+                out.write(chunk, 0, (int) Math.min(chunk.length, size - written));
+            }
+        }
+        return file;
+    }
+
+    private static String formatSize(long size) {
+        if (size >= 1L << 30) {
+            return (size >> 30) + " GB";
+        }
+        if (size >= 1L << 20) {
+            return (size >> 20) + " MB";
+        }
+        return (size >> 10) + " KB";
+    }
+
+    /**
+     * The original HashUtil implementation, kept here as the baseline.
+     */
+    private static String legacySHA256(String filePath) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        FileInputStream fis = new FileInputStream(filePath);
+
+        byte[] byteArray = new byte[1024];
+        int bytesCount = 0;
+
+        while ((bytesCount = fis.read(byteArray)) != -1) {
+            digest.update(byteArray, 0, bytesCount);
+        }
+
+        fis.close();
+
+        byte[] bytes = digest.digest();
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < bytes.length; i++) {
+            sb.append(Integer.toString((bytes[i] & 0xff) + 0x100, 16).substring(1));
+        }
+
+        return sb.toString();
+    }
+}
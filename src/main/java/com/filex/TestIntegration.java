@@ -58,12 +58,12 @@ public class TestIntegration {
         System.out.println("File event saved successfully");
         
         // Retrieve events
-        var events = dbService.getAllEvents();
-        System.out.println("Retrieved " + events.size() + " events from database");
+        long eventCount = dbService.getEventCount();
+        System.out.println("Retrieved " + eventCount + " events from database");
         
         // Retrieve suspicious events
-        var suspiciousEvents = dbService.getSuspiciousEvents();
-        System.out.println("Retrieved " + suspiciousEvents.size() + " suspicious events from database");
+        long suspiciousCount = dbService.getEventCount(null, null, true);
+        System.out.println("Retrieved " + suspiciousCount + " suspicious events from database");
         
         // Don't close the database service here as it's a singleton
         System.out.println("DatabaseService test completed!");
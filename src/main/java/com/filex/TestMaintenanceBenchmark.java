@@ -0,0 +1,140 @@
+package com.filex;
+
+import com.filex.model.FileEvent;
+import com.filex.service.DatabaseService;
+import com.filex.service.MaintenanceScheduler;
+import com.filex.util.RetentionPolicy;
+import com.filex.util.TimeUtil;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures event save latency while expired events are pruned, comparing the
+ * sliced {@link MaintenanceScheduler} with a single DELETE of the same rows.
+ *
+ * Usage: TestMaintenanceBenchmark [rows]
+ * Defaults to 1,000,000 events over 180 days, half of them past a 90-day retention.
+ */
+public class TestMaintenanceBenchmark {
+
+    private static final int BATCH = 5_000;
+    private static final long SAVE_INTERVAL_MILLIS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dbFile = Files.createTempFile("filex-maintenance-bench", ".db");
+        Files.deleteIfExists(dbFile);
+        String url = "jdbc:sqlite:" + dbFile;
+        System.setProperty("filex.db.url", url);
+
+        DatabaseService dbService = DatabaseService.getInstance();
+        dbService.initialize();
+        // Keep the built-in scheduler out of the measurements
+        RetentionPolicy idle = new RetentionPolicy();
+        idle.setEventRetentionDays(0);
+        idle.setMinuteRollupRetentionDays(0);
+        idle.setRollupRetentionMonths(0);
+        idle.setAcknowledgedAlertRetentionDays(0);
+        idle.setMaintenanceIntervalMillis(Long.MAX_VALUE / 2);
+        dbService.setRetentionPolicy(idle);
+        RetentionPolicy policy = new RetentionPolicy();
+        policy.setEventRetentionDays(90);
+        try {
+            populate(dbService, rows);
+            System.out.printf("Loaded %,d events, %,d MB%n", rows, Files.size(dbFile) >> 20);
+            report("idle", measure(dbService, () -> Thread.sleep(5_000)));
+
+            MaintenanceScheduler scheduler = new MaintenanceScheduler(dbService, policy);
+            long[] duration = new long[1];
+            List<Long> sliced = measure(dbService, () -> {
+                long t0 = System.currentTimeMillis();
+                scheduler.runOnce();
+                duration[0] = System.currentTimeMillis() - t0;
+            });
+            report("sliced maintenance", sliced);
+            System.out.printf("  took %.1f s; database now %,d MB, %,d events%n", duration[0] / 1e3,
+                Files.size(dbFile) >> 20, dbService.getEventCount());
+
+            populate(dbService, rows);
+            List<Long> single = measure(dbService, () -> {
+                try (Connection connection = DriverManager.getConnection(url);
+                     PreparedStatement stmt = connection.prepareStatement("DELETE FROM file_events WHERE timestamp < ?")) {
+                    long t0 = System.currentTimeMillis();
+                    stmt.setLong(1, TimeUtil.toEpochMillis(LocalDateTime.now().minusDays(90)));
+                    int deleted = stmt.executeUpdate();
+                    duration[0] = System.currentTimeMillis() - t0;
+                    System.out.printf("  single DELETE removed %,d events in %.1f s%n", deleted, duration[0] / 1e3);
+                }
+            });
+            report("single DELETE", single);
+        } finally {
+            dbService.close();
+            Files.deleteIfExists(dbFile);
+            Files.deleteIfExists(Path.of(dbFile + "-wal"));
+            Files.deleteIfExists(Path.of(dbFile + "-shm"));
+        }
+    }
+
+    private interface Work {
+        void run() throws Exception;
+    }
+
+    /**
+     * Save an event every few milliseconds on another thread while the work runs.
+     */
+    private static List<Long> measure(DatabaseService dbService, Work work) throws Exception {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        Thread saver = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                long t0 = System.nanoTime();
+                dbService.saveEvent(new FileEvent("live.txt", "MODIFY", LocalDateTime.now(), "", false));
+                latencies.add(System.nanoTime() - t0);
+                try {
+                    Thread.sleep(SAVE_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        saver.start();
+        try {
+            work.run();
+        } finally {
+            saver.interrupt();
+            saver.join();
+        }
+        return latencies;
+    }
+
+    private static void report(String label, List<Long> latencies) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("%-20s %,6d saves  p50 %6.2f ms  p99 %7.2f ms  max %8.2f ms%n", label, sorted.size(),
+            sorted.get(sorted.size() / 2) / 1e6, sorted.get((int) (sorted.size() * 0.99)) / 1e6,
+            sorted.get(sorted.size() - 1) / 1e6);
+    }
+
+    private static void populate(DatabaseService dbService, int rows) throws Exception {
+        LocalDateTime start = LocalDateTime.now().minusDays(180);
+        long spanSeconds = 180L * 24 * 3600;
+        List<FileEvent> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < rows; i++) {
+            FileEvent event = new FileEvent("file" + i + ".txt", "MODIFY", start.plusSeconds(spanSeconds * i / rows),
+                String.format("%064x", i), false);
+            event.setFilePath("/data/dir" + (i % 1000) + "/file" + i + ".txt");
+            batch.add(event);
+            if (batch.size() == BATCH || i == rows - 1) {
+                dbService.insertEvents(batch);
+                batch.clear();
+            }
+        }
+    }
+}
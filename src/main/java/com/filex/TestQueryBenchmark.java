@@ -0,0 +1,188 @@
+package com.filex;
+
+import com.filex.service.SchemaMigrations;
+import com.filex.service.SchemaMigrator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Benchmark of the common file_events and alerts queries before and after the
+ * index migrations. Builds a synthetic database at schema version 1 (no indexes),
+ * times each query, applies the index migrations and times them again.
+ *
+ * Usage: TestQueryBenchmark [rows] [dbFile]
+ * Defaults to 10,000,000 events in a temporary file; the file is deleted afterwards
+ * unless given explicitly.
+ */
+public class TestQueryBenchmark {
+
+    private static final int RUNS = 5;
+    private static final int BATCH = 50_000;
+    private static final int DISTINCT_NAMES = 100_000;
+    private static final long SPAN_MILLIS = 365L * 24 * 3600 * 1000;
+
+    private static final String[][] QUERIES = {
+        {"date range (1 day)", "SELECT * FROM file_events WHERE timestamp BETWEEN ? AND ? ORDER BY timestamp DESC"},
+        {"suspicious", "SELECT * FROM file_events WHERE suspicious = TRUE ORDER BY timestamp DESC"},
+        {"latest 100", "SELECT * FROM file_events ORDER BY timestamp DESC LIMIT 100"},
+        {"by sha256", "SELECT * FROM file_events WHERE sha256 = ?"},
+        {"by file name", "SELECT * FROM file_events WHERE file_name = ?"},
+        {"open alerts", "SELECT * FROM alerts WHERE acknowledged = FALSE ORDER BY created_at DESC"},
+    };
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Path dbFile = args.length > 1 ? Path.of(args[1]) : Files.createTempFile("filex-query-bench", ".db");
+        boolean temporary = args.length <= 1;
+        Files.deleteIfExists(dbFile);
+        Class.forName("org.sqlite.JDBC");
+        long end = System.currentTimeMillis();
+        long start = end - SPAN_MILLIS;
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile)) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA journal_mode = WAL");
+                stmt.execute("PRAGMA synchronous = NORMAL");
+                stmt.execute("PRAGMA cache_size = -65536");
+            }
+            SchemaMigrator migrator = new SchemaMigrator(connection);
+            migrator.migrate(SchemaMigrations.all(), 1);
+
+            long loadStart = System.nanoTime();
+            populate(connection, rows, start, end);
+            System.out.printf("Loaded %,d events in %.1f s (%,d MB)%n", rows,
+                (System.nanoTime() - loadStart) / 1e9, Files.size(dbFile) >> 20);
+
+            double[] before = runQueries(connection, "schema version " + migrator.getVersion(), start, end);
+
+            long migrateStart = System.nanoTime();
+            // Later versions move the strings into dictionaries, which these queries predate
+            int version = migrator.migrate(SchemaMigrations.all(), 3);
+            System.out.printf("Migrated to version %d in %.1f s%n", version, (System.nanoTime() - migrateStart) / 1e9);
+
+            double[] after = runQueries(connection, "schema version " + version, start, end);
+
+            System.out.println();
+            System.out.printf("%-20s %12s %12s %9s%n", "query", "before ms", "after ms", "speedup");
+            for (int i = 0; i < QUERIES.length; i++) {
+                System.out.printf("%-20s %12.2f %12.2f %8.0fx%n", QUERIES[i][0], before[i], after[i],
+                    before[i] / Math.max(after[i], 0.001));
+            }
+        } finally {
+            if (temporary) {
+                Files.deleteIfExists(dbFile);
+                Files.deleteIfExists(Path.of(dbFile + "-wal"));
+                Files.deleteIfExists(Path.of(dbFile + "-shm"));
+            }
+        }
+    }
+
+    private static void populate(Connection connection, int rows, long start, long end) throws SQLException {
+        Random random = new Random(42);
+        String eventSql = "INSERT INTO file_events (file_name, file_path, event_type, timestamp, sha256, suspicious) VALUES (?, ?, ?, ?, ?, ?)";
+        String alertSql = "INSERT INTO alerts (file_event_id, severity, acknowledged, created_at, actions_taken) VALUES (?, ?, ?, ?, ?)";
+        String[] types = {"CREATE", "MODIFY", "DELETE", "RENAME"};
+        connection.setAutoCommit(false);
+        try (PreparedStatement events = connection.prepareStatement(eventSql);
+             PreparedStatement alerts = connection.prepareStatement(alertSql)) {
+            for (int i = 1; i <= rows; i++) {
+                // Timestamps increase with the id, as they do for live events
+                long time = start + (end - start) * i / rows;
+                String name = "file" + random.nextInt(DISTINCT_NAMES) + ".txt";
+                boolean suspicious = random.nextInt(100) == 0;
+                events.setString(1, name);
+                events.setString(2, "/data/dir" + random.nextInt(1000) + "/" + name);
+                events.setString(3, types[random.nextInt(types.length)]);
+                events.setTimestamp(4, new Timestamp(time));
+                events.setString(5, sha256Of(i));
+                events.setBoolean(6, suspicious);
+                events.addBatch();
+                if (suspicious) {
+                    alerts.setInt(1, i);
+                    alerts.setString(2, "HIGH");
+                    alerts.setBoolean(3, random.nextInt(10) != 0); // 10% still open
+                    alerts.setTimestamp(4, new Timestamp(time));
+                    alerts.setString(5, "File event detected as suspicious: " + name);
+                    alerts.addBatch();
+                }
+                if (i % BATCH == 0 || i == rows) {
+                    events.executeBatch();
+                    alerts.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static String sha256Of(int i) {
+        // Not a real hash, just 64 unique hex characters per row
+        return String.format("%016x%016x%016x%016x", i * 0x9E3779B97F4A7C15L, i, ~i * 31L, i * 17L);
+    }
+
+    private static double[] runQueries(Connection connection, String label, long start, long end) throws SQLException {
+        System.out.println();
+        System.out.println("Queries at " + label + ":");
+        double[] medians = new double[QUERIES.length];
+        for (int q = 0; q < QUERIES.length; q++) {
+            String sql = QUERIES[q][1];
+            try (PreparedStatement plan = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+                bind(plan, q, start, end);
+                try (ResultSet rs = plan.executeQuery()) {
+                    StringBuilder detail = new StringBuilder();
+                    while (rs.next()) {
+                        detail.append(detail.length() > 0 ? "; " : "").append(rs.getString("detail"));
+                    }
+                    System.out.printf("  %-20s plan: %s%n", QUERIES[q][0], detail);
+                }
+            }
+            double[] times = new double[RUNS];
+            int count = 0;
+            for (int run = -1; run < RUNS; run++) { // One warm-up run
+                long t0 = System.nanoTime();
+                count = 0;
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    bind(stmt, q, start, end);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            rs.getString(2);
+                            count++;
+                        }
+                    }
+                }
+                if (run >= 0) {
+                    times[run] = (System.nanoTime() - t0) / 1e6;
+                }
+            }
+            Arrays.sort(times);
+            medians[q] = times[RUNS / 2];
+            System.out.printf("  %-20s %,10d rows %10.2f ms%n", QUERIES[q][0], count, medians[q]);
+        }
+        return medians;
+    }
+
+    private static void bind(PreparedStatement stmt, int query, long start, long end) throws SQLException {
+        switch (query) {
+            case 0 -> {
+                long middle = start + (end - start) / 2;
+                stmt.setTimestamp(1, new Timestamp(middle));
+                stmt.setTimestamp(2, new Timestamp(middle + 24L * 3600 * 1000));
+            }
+            case 3 -> stmt.setString(1, sha256Of(12_345));
+            case 4 -> stmt.setString(1, "file4242.txt");
+            default -> {
+            }
+        }
+    }
+}
@@ -1,12 +1,10 @@
 package com.filex;
 
 import com.filex.service.DatabaseService;
-import com.filex.model.FileEvent;
+import com.filex.service.ReportService;
+import com.filex.model.EventReport;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 public class TestReports {
     public static void main(String[] args) {
@@ -27,29 +25,18 @@ public class TestReports {
             
             System.out.println("DateTime range: " + startDateTime + " to " + endDateTime);
             
-            // Get events within date range
-            List<FileEvent> events = dbService.getEventsByDateRange(startDateTime, endDateTime);
-            System.out.println("Found " + events.size() + " events in date range");
-            
-            // Calculate statistics
-            long totalEvents = events.size();
-            long suspiciousCount = events.stream()
-                    .filter(FileEvent::isSuspicious)
-                    .count();
-            long filesAccessed = events.stream()
-                    .map(FileEvent::getFileName)
-                    .distinct()
-                    .count();
-            
-            System.out.println("Total events: " + totalEvents);
-            System.out.println("Suspicious events: " + suspiciousCount);
-            System.out.println("Files accessed: " + filesAccessed);
-            
-            // Count events by type
-            Map<String, Long> eventTypeCounts = events.stream()
-                    .collect(Collectors.groupingBy(FileEvent::getEventType, Collectors.counting()));
-            
-            System.out.println("Event type counts: " + eventTypeCounts);
+            // Build the report in one pass, as the Reports view's background task does
+            ReportService reportService = new ReportService(dbService);
+            EventReport report = reportService.buildReport(startDateTime, endDateTime, false,
+                    (fraction, partial) -> System.out.printf("Progress: %.0f%% (%d events so far)%n",
+                            fraction * 100, partial.getTotalEvents()),
+                    () -> false);
+            
+            System.out.println("Total events: " + report.getTotalEvents());
+            System.out.println("Suspicious events: " + report.getSuspiciousEvents());
+            System.out.println("Files accessed: " + report.getFilesAccessed());
+            System.out.println("Event type counts: " + report.getEventTypeCounts());
+            System.out.println("Newest events loaded: " + report.getNewestEvents().size());
             
             dbService.close();
         } catch (Exception e) {
@@ -0,0 +1,132 @@
+package com.filex;
+
+import com.filex.model.EventRollup;
+import com.filex.model.FileEvent;
+import com.filex.model.RollupResolution;
+import com.filex.service.DatabaseService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark of chart queries answered from the rollup tables against the same
+ * counts computed from every event, plus the cost of maintaining the rollups in
+ * the writer and of rebuilding them.
+ *
+ * Usage: TestRollupBenchmark [rows]
+ * Defaults to 1,000,000 events over 90 days in a temporary database.
+ */
+public class TestRollupBenchmark {
+
+    private static final int RUNS = 5;
+    private static final int BATCH = 500; // The group-commit writer's batch size
+    private static final String[] TYPES = {"CREATE", "MODIFY", "DELETE", "RENAME"};
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dbFile = Files.createTempFile("filex-rollup-bench", ".db");
+        Files.deleteIfExists(dbFile);
+        System.setProperty("filex.db.url", "jdbc:sqlite:" + dbFile);
+
+        DatabaseService dbService = DatabaseService.getInstance();
+        dbService.initialize();
+        try {
+            LocalDateTime end = LocalDateTime.now();
+            LocalDateTime start = end.minusDays(90);
+            long spanSeconds = java.time.Duration.between(start, end).getSeconds();
+            Random random = new Random(42);
+            List<FileEvent> batch = new ArrayList<>(BATCH);
+            long insertNanos = 0;
+            for (int i = 0; i < rows; i++) {
+                LocalDateTime time = start.plusSeconds(spanSeconds * i / rows);
+                batch.add(new FileEvent("file" + i + ".txt", TYPES[random.nextInt(TYPES.length)], time,
+                    String.format("%064x", i), random.nextInt(100) == 0));
+                if (batch.size() == BATCH || i == rows - 1) {
+                    long t0 = System.nanoTime();
+                    dbService.insertEvents(batch);
+                    insertNanos += System.nanoTime() - t0;
+                    batch.clear();
+                }
+            }
+            System.out.printf("Inserted %,d events with rollups in %.1f s (%.1f us per event)%n",
+                rows, insertNanos / 1e9, insertNanos / 1e3 / rows);
+
+            LocalDateTime weekStart = end.minusDays(7);
+            Map<String, Long> fromEvents = new HashMap<>();
+            Map<String, Long> fromRollups = new HashMap<>();
+            double scan = median("7 days per hour, from every event", () -> {
+                fromEvents.clear();
+                dbService.streamEvents(weekStart, end, false).forEach(event -> fromEvents.merge(
+                    RollupResolution.HOUR.truncate(event.getTimestamp()) + " " + event.getEventType(), 1L, Long::sum));
+                return fromEvents.size();
+            });
+            double rollup = median("7 days per hour, from rollups", () -> {
+                fromRollups.clear();
+                for (EventRollup bucket : dbService.getEventRollups(RollupResolution.HOUR, weekStart, end)) {
+                    fromRollups.merge(bucket.getBucketStart() + " " + bucket.getEventType(), bucket.getCount(), Long::sum);
+                }
+                return fromRollups.size();
+            });
+            // The rollups count whole buckets, so compare the buckets fully inside the range
+            fromEvents.keySet().removeIf(key -> key.startsWith(RollupResolution.HOUR.truncate(weekStart).toString()));
+            fromRollups.keySet().removeIf(key -> key.startsWith(RollupResolution.HOUR.truncate(weekStart).toString()));
+            System.out.println("  Hourly counts " + (fromEvents.equals(fromRollups) ? "match" : "DIFFER"));
+
+            double daysScan = median("90 days per day, from every event", () -> {
+                Map<LocalDateTime, Long> days = new HashMap<>();
+                dbService.streamEvents(null, null, false).forEach(event ->
+                    days.merge(RollupResolution.DAY.truncate(event.getTimestamp()), 1L, Long::sum));
+                return days.size();
+            });
+            double daysRollup = median("90 days per day, from rollups", () ->
+                dbService.getEventRollups(RollupResolution.DAY, start, end).size());
+
+            long rebuildStart = System.nanoTime();
+            boolean rebuilt = dbService.rebuildRollups();
+            System.out.printf("Rebuilt rollups from %,d events in %.1f s (%s)%n", rows,
+                (System.nanoTime() - rebuildStart) / 1e9, rebuilt ? "complete" : "incomplete");
+            Map<String, Long> afterRebuild = new HashMap<>();
+            for (EventRollup bucket : dbService.getEventRollups(RollupResolution.HOUR, weekStart, end)) {
+                afterRebuild.merge(bucket.getBucketStart() + " " + bucket.getEventType(), bucket.getCount(), Long::sum);
+            }
+            afterRebuild.keySet().removeIf(key -> key.startsWith(RollupResolution.HOUR.truncate(weekStart).toString()));
+            System.out.println("  Hourly counts after rebuild " + (fromEvents.equals(afterRebuild) ? "match" : "DIFFER"));
+
+            System.out.println();
+            System.out.printf("%-20s %12s %12s %9s%n", "chart", "events ms", "rollups ms", "speedup");
+            System.out.printf("%-20s %12.2f %12.2f %8.0fx%n", "7 days by hour", scan, rollup, scan / rollup);
+            System.out.printf("%-20s %12.2f %12.2f %8.0fx%n", "90 days by day", daysScan, daysRollup, daysScan / daysRollup);
+        } finally {
+            dbService.close();
+            Files.deleteIfExists(dbFile);
+            Files.deleteIfExists(Path.of(dbFile + "-wal"));
+            Files.deleteIfExists(Path.of(dbFile + "-shm"));
+        }
+    }
+
+    private interface Query {
+        int run() throws Exception;
+    }
+
+    private static double median(String label, Query query) throws Exception {
+        double[] times = new double[RUNS];
+        int count = 0;
+        for (int run = -1; run < RUNS; run++) { // One warm-up run
+            long t0 = System.nanoTime();
+            count = query.run();
+            if (run >= 0) {
+                times[run] = (System.nanoTime() - t0) / 1e6;
+            }
+        }
+        Arrays.sort(times);
+        System.out.printf("  %-36s %,8d buckets %10.2f ms%n", label, count, times[RUNS / 2]);
+        return times[RUNS / 2];
+    }
+}
@@ -0,0 +1,144 @@
+package com.filex;
+
+import com.filex.model.FileEvent;
+import com.filex.model.SearchPage;
+import com.filex.service.DatabaseService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark of the search boxes: substring searches answered by the trigram
+ * full-text index against the LIKE '%text%' scan they replace, plus the cost of
+ * indexing in the writer.
+ *
+ * Usage: TestSearchBenchmark [rows]
+ * Defaults to 10,000,000 events in a temporary database.
+ */
+public class TestSearchBenchmark {
+
+    private static final int RUNS = 5;
+    private static final int BATCH = 500; // The group-commit writer's batch size
+    private static final int PAGE = 50;
+    private static final String[] TYPES = {"CREATE", "MODIFY", "DELETE", "RENAME"};
+    private static final String[] EXTENSIONS = {"txt", "log", "docx", "pdf", "java", "png", "csv", "xlsx"};
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Path dbFile = Files.createTempFile("filex-search-bench", ".db");
+        Files.deleteIfExists(dbFile);
+        String url = "jdbc:sqlite:" + dbFile;
+        System.setProperty("filex.db.url", url);
+
+        DatabaseService dbService = DatabaseService.getInstance();
+        dbService.initialize();
+        try {
+            LocalDateTime start = LocalDateTime.now().minusDays(30); // Well within the event retention
+            long stepNanos = 30L * 24 * 3600 * 1_000_000_000L / rows;
+            Random random = new Random(42);
+            List<FileEvent> batch = new ArrayList<>(BATCH);
+            long insertNanos = 0;
+            for (int i = 0; i < rows; i++) {
+                String name = "report_" + i + "." + EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+                FileEvent event = new FileEvent(name, TYPES[random.nextInt(TYPES.length)],
+                    start.plusNanos(i * stepNanos), String.format("%064x", i), random.nextInt(100) == 0);
+                event.setFilePath("/home/user/project" + random.nextInt(200) + "/src/module" + random.nextInt(50)
+                    + "/" + name);
+                batch.add(event);
+                if (batch.size() == BATCH || i == rows - 1) {
+                    long t0 = System.nanoTime();
+                    dbService.insertEvents(batch);
+                    insertNanos += System.nanoTime() - t0;
+                    batch.clear();
+                }
+                if ((i + 1) % 1_000_000 == 0) {
+                    System.out.printf("  %,d events inserted%n", i + 1);
+                }
+            }
+            System.out.printf("Inserted %,d indexed events in %.1f s (%.1f us per event), database %,d MB%n",
+                rows, insertNanos / 1e9, insertNanos / 1e3 / rows, Files.size(dbFile) >> 20);
+
+            String unique = "report_" + (rows * 7L / 10) + ".";
+            String[] texts = {unique, "project17/", ".docx", "report_", "project17/src/module3/", "quarterly", "7."};
+            for (int pass = 0; pass < 3; pass++) { // Warm up the JIT before timing anything
+                for (String text : texts) {
+                    dbService.searchEvents(text, 0, PAGE);
+                }
+            }
+            System.out.println();
+            System.out.printf("%-46s %10s %10s %10s%n", "search", "results", "first page", "page 20");
+            double[] uniqueTimes = search(dbService, "unique file name", unique);
+            search(dbService, "one project directory", "project17/");
+            search(dbService, "one extension", ".docx");
+            search(dbService, "every event", "report_");
+            search(dbService, "rare text, common trigrams", "project17/src/module3/");
+            search(dbService, "no match", "quarterly");
+            search(dbService, "two characters (scan)", "7.");
+
+            double scan = median(() -> {
+                try (Connection connection = DriverManager.getConnection(url);
+                     PreparedStatement stmt = connection.prepareStatement("SELECT * FROM file_events_view"
+                         + " WHERE file_name LIKE ? OR file_path LIKE ? ORDER BY timestamp DESC LIMIT " + PAGE)) {
+                    stmt.setString(1, "%" + unique + "%");
+                    stmt.setString(2, "%" + unique + "%");
+                    int count = 0;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            count++;
+                        }
+                    }
+                    return count;
+                }
+            });
+            System.out.printf("%-46s %10s %10.2f  (%.0fx slower than the index)%n", "unique file name, LIKE scan",
+                "", scan, scan / uniqueTimes[0]);
+
+            SearchPage<FileEvent> check = dbService.searchEvents(unique, 0, PAGE);
+            System.out.println("  Unique file name found: "
+                + (!check.getResults().isEmpty() && check.getResults().get(0).getFileName().startsWith(unique)));
+        } finally {
+            dbService.close();
+            Files.deleteIfExists(dbFile);
+            Files.deleteIfExists(Path.of(dbFile + "-wal"));
+            Files.deleteIfExists(Path.of(dbFile + "-shm"));
+        }
+    }
+
+    private static double[] search(DatabaseService dbService, String label, String text) throws Exception {
+        int[] count = new int[1];
+        double first = median(() -> {
+            SearchPage<FileEvent> page = dbService.searchEvents(text, 0, PAGE);
+            count[0] = page.getResults().size();
+            return count[0];
+        });
+        double later = median(() -> dbService.searchEvents(text, 19 * PAGE, PAGE).getResults().size());
+        System.out.printf("%-46s %10s %10.2f %10.2f%n", label + " '" + text + "'", count[0], first, later);
+        return new double[] {first, later};
+    }
+
+    private interface Query {
+        int run() throws Exception;
+    }
+
+    private static double median(Query query) throws Exception {
+        double[] times = new double[RUNS];
+        for (int run = -1; run < RUNS; run++) { // One warm-up run
+            long t0 = System.nanoTime();
+            query.run();
+            if (run >= 0) {
+                times[run] = (System.nanoTime() - t0) / 1e6;
+            }
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+}
@@ -0,0 +1,155 @@
+package com.filex;
+
+import com.filex.model.Alert;
+import com.filex.model.EventPage;
+import com.filex.model.FileEvent;
+import com.filex.service.DatabaseService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark of how much space events take and how fast the writer stores them,
+ * on a workload shaped like a monitored home directory: a few thousand files in a
+ * few hundred directories get most of the events, plus a stream of temporary
+ * files that are seen once. Suspicious events raise an alert.
+ *
+ * Usage: TestStorageBenchmark [rows]
+ * Defaults to 1,000,000 events in a temporary database.
+ */
+public class TestStorageBenchmark {
+
+    private static final int RUNS = 5;
+    private static final int BATCH = 500; // The group-commit writer's batch size
+    private static final int DIRECTORIES = 300;
+    private static final int FILES = 5_000;
+    private static final String[] EXTENSIONS = {"java", "docx", "xlsx", "pdf", "txt", "log", "png", "md"};
+    private static final String[] SEVERITIES = {"LOW", "MEDIUM", "HIGH", "CRITICAL"};
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dbFile = Files.createTempFile("filex-storage-bench", ".db");
+        Files.deleteIfExists(dbFile);
+        String url = "jdbc:sqlite:" + dbFile;
+        System.setProperty("filex.db.url", url);
+
+        Random random = new Random(42);
+        String[] directories = new String[DIRECTORIES];
+        for (int i = 0; i < DIRECTORIES; i++) {
+            directories[i] = "/home/alice/workspace/project-" + (i / 30) + "/src/main/resources/module-" + (i % 30)
+                + "/" + (i % 3 == 0 ? "docs" : "data") + "/";
+        }
+        String[] files = new String[FILES];
+        for (int i = 0; i < FILES; i++) {
+            files[i] = "Document_" + i + "_final." + EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+        }
+        int[] fileDirectory = new int[FILES];
+        for (int i = 0; i < FILES; i++) {
+            fileDirectory[i] = random.nextInt(DIRECTORIES);
+        }
+
+        DatabaseService dbService = DatabaseService.getInstance();
+        dbService.initialize();
+        try {
+            LocalDateTime start = LocalDateTime.now().minusDays(30); // Well within the event retention
+            long stepNanos = 30L * 24 * 3600 * 1_000_000_000L / rows;
+            List<FileEvent> events = new ArrayList<>(BATCH);
+            List<Alert> alerts = new ArrayList<>(BATCH);
+            long insertNanos = 0;
+            int alertCount = 0;
+            for (int i = 0; i < rows; i++) {
+                String directory;
+                String name;
+                if (random.nextInt(20) == 0) {
+                    // Temporary files are seen once
+                    directory = directories[random.nextInt(DIRECTORIES)];
+                    name = "~$tmp" + Long.toHexString(random.nextLong()) + ".tmp";
+                } else {
+                    // A few files get most of the events
+                    int file = random.nextInt(random.nextInt(FILES) + 1);
+                    directory = directories[fileDirectory[file]];
+                    name = files[file];
+                }
+                int roll = random.nextInt(100);
+                String type = roll < 70 ? "MODIFY" : roll < 85 ? "CREATE" : roll < 95 ? "DELETE" : "RENAME";
+                FileEvent event = new FileEvent(name, type, start.plusNanos(i * stepNanos),
+                    String.format("%016x%016x%016x%016x", random.nextLong(), random.nextLong(), random.nextLong(),
+                        random.nextLong()), random.nextInt(100) == 0);
+                event.setFilePath(directory + name);
+                Alert alert = null;
+                if (event.isSuspicious()) {
+                    alert = new Alert();
+                    alert.setSeverity(SEVERITIES[random.nextInt(SEVERITIES.length)]);
+                    alert.setCreatedAt(event.getTimestamp());
+                    alert.setActionsTaken("File event detected as suspicious: " + name);
+                    alertCount++;
+                }
+                events.add(event);
+                alerts.add(alert);
+                if (events.size() == BATCH || i == rows - 1) {
+                    long t0 = System.nanoTime();
+                    dbService.insertEvents(events, alerts);
+                    insertNanos += System.nanoTime() - t0;
+                    events.clear();
+                    alerts.clear();
+                }
+            }
+            System.out.printf("Inserted %,d events and %,d alerts in %.1f s (%.1f us per event)%n",
+                rows, alertCount, insertNanos / 1e9, insertNanos / 1e3 / rows);
+
+            try (Connection connection = DriverManager.getConnection(url);
+                 Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA busy_timeout = 10000");
+                stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+                System.out.printf("Database %,d MB (%.0f bytes per event)%n", Files.size(dbFile) >> 20,
+                    (double) Files.size(dbFile) / rows);
+                try (ResultSet rs = stmt.executeQuery("SELECT name, SUM(pgsize) FROM dbstat"
+                        + " GROUP BY name ORDER BY SUM(pgsize) DESC LIMIT 12")) {
+                    while (rs.next()) {
+                        System.out.printf("  %-48s %,8d KB%n", rs.getString(1), rs.getLong(2) >> 10);
+                    }
+                }
+            }
+
+            double page = median(() -> dbService.getEventsPage(null, 50).getEvents().size());
+            double stream = median(() -> (int) dbService.streamEvents(null, null, false).limit(100_000).count());
+            double alertPage = median(() -> dbService.getAlertsPage(null, false, null, 50).getAlerts().size());
+            double search = median(() -> dbService.searchEvents("Document_12_", 0, 50).getResults().size());
+            System.out.printf("%nFirst page of 50 events %.2f ms, 100,000 events streamed %.0f ms,"
+                + " first page of 50 alerts %.2f ms, search %.2f ms%n", page, stream, alertPage, search);
+            EventPage newest = dbService.getEventsPage(null, 1);
+            System.out.println("  Newest event: " + newest.getEvents().get(0).getFilePath());
+        } finally {
+            dbService.close();
+            Files.deleteIfExists(dbFile);
+            Files.deleteIfExists(Path.of(dbFile + "-wal"));
+            Files.deleteIfExists(Path.of(dbFile + "-shm"));
+        }
+    }
+
+    private interface Query {
+        int run() throws Exception;
+    }
+
+    private static double median(Query query) throws Exception {
+        double[] times = new double[RUNS];
+        for (int run = -1; run < RUNS; run++) { // One warm-up run
+            long t0 = System.nanoTime();
+            query.run();
+            if (run >= 0) {
+                times[run] = (System.nanoTime() - t0) / 1e6;
+            }
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+}
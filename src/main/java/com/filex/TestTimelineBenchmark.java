@@ -0,0 +1,188 @@
+package com.filex;
+
+import com.filex.model.RollupResolution;
+import com.filex.service.DatabaseService;
+import com.filex.service.EventDensityTiles;
+import com.filex.util.DensityRenderer;
+import com.filex.util.TimeUtil;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Benchmark of the Canvas event timeline's frame rendering: reading the density
+ * tiles and drawing them into a pixel buffer, as the timeline's render thread does
+ * for each frame, while zooming from a year to an hour, panning and drawing the
+ * hour-of-week heatmap.
+ *
+ * The timeline only reads the rollups, so the benchmark writes one year of minute,
+ * hour and day rollups directly, for 1,000,000 and for 100,000,000 events, with a
+ * daily rhythm and a burst every Tuesday night. Copying a frame to the Canvas is
+ * one PixelWriter call on the FX thread and is not measured.
+ *
+ * Usage: TestTimelineBenchmark [width]
+ * Defaults to a 1200 pixel wide timeline in a temporary database.
+ */
+public class TestTimelineBenchmark {
+
+    private static final int HEIGHT = 160;
+    private static final int ZOOM_FRAMES = 60;
+    private static final int PAN_FRAMES = 300;
+    private static final long[] TOTALS = {1_000_000L, 100_000_000L};
+
+    public static void main(String[] args) throws Exception {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 1200;
+        Path dbFile = Files.createTempFile("filex-timeline-bench", ".db");
+        Files.deleteIfExists(dbFile);
+        String url = "jdbc:sqlite:" + dbFile;
+        System.setProperty("filex.db.url", url);
+
+        DatabaseService dbService = DatabaseService.getInstance();
+        dbService.initialize();
+        try {
+            LocalDateTime end = RollupResolution.DAY.truncate(LocalDateTime.now());
+            LocalDateTime start = end.minusDays(365);
+            EventDensityTiles tiles = new EventDensityTiles(dbService);
+            int[] pixels = new int[width * HEIGHT];
+            for (long total : TOTALS) {
+                long writeStart = System.nanoTime();
+                writeRollups(url, start, end, total);
+                tiles.clear();
+                System.out.printf("%n%,d events: wrote one year of rollups in %.1f s%n", total,
+                    (System.nanoTime() - writeStart) / 1e9);
+
+                // Zoom from the whole year to one hour around the middle, then back out
+                LocalDateTime middle = start.plusDays(180).plusHours(3);
+                double[] zoom = new double[2 * ZOOM_FRAMES];
+                long reads = tiles.getTileReads();
+                for (int frame = 0; frame < zoom.length; frame++) {
+                    int step = frame < ZOOM_FRAMES ? frame : zoom.length - 1 - frame;
+                    long spanMillis = (long) (Duration.ofDays(365).toMillis()
+                        * Math.pow((double) Duration.ofHours(1).toMillis() / Duration.ofDays(365).toMillis(),
+                        (double) step / (ZOOM_FRAMES - 1)));
+                    LocalDateTime frameStart = middle.minus(Duration.ofMillis(spanMillis / 2));
+                    zoom[frame] = timelineFrame(tiles, frameStart, frameStart.plus(Duration.ofMillis(spanMillis)),
+                        width, pixels);
+                }
+                report("zoom year -> hour -> year", zoom, tiles.getTileReads() - reads);
+
+                for (int days : new int[] {1, 30}) {
+                    double[] pan = new double[PAN_FRAMES];
+                    reads = tiles.getTileReads();
+                    for (int frame = 0; frame < PAN_FRAMES; frame++) {
+                        // Drag right by 5 pixels a frame
+                        LocalDateTime frameStart = start.plusDays(100).plus(Duration.ofDays(days)
+                            .multipliedBy(5L * frame).dividedBy(width));
+                        pan[frame] = timelineFrame(tiles, frameStart, frameStart.plusDays(days), width, pixels);
+                    }
+                    report("pan, " + days + " day" + (days > 1 ? "s" : "") + " wide", pan,
+                        tiles.getTileReads() - reads);
+                }
+
+                double[] heatmap = new double[10];
+                reads = tiles.getTileReads();
+                for (int frame = 0; frame < heatmap.length; frame++) {
+                    long t0 = System.nanoTime();
+                    long[] counts = tiles.getHourOfWeekCounts(start, end);
+                    DensityRenderer.renderHourOfWeek(counts, width, HEIGHT, pixels);
+                    heatmap[frame] = (System.nanoTime() - t0) / 1e6;
+                    if (frame == 0) {
+                        int busiest = 0;
+                        for (int hour = 1; hour < counts.length; hour++) {
+                            busiest = counts[hour] > counts[busiest] ? hour : busiest;
+                        }
+                        System.out.printf("  Busiest hour of the week: %s %02d:00%n",
+                            DayOfWeek.of(busiest / 24 + 1), busiest % 24);
+                    }
+                }
+                report("hour-of-week heatmap, year", heatmap, tiles.getTileReads() - reads);
+            }
+        } finally {
+            dbService.close();
+            Files.deleteIfExists(dbFile);
+            Files.deleteIfExists(Path.of(dbFile + "-wal"));
+            Files.deleteIfExists(Path.of(dbFile + "-shm"));
+        }
+    }
+
+    private static double timelineFrame(EventDensityTiles tiles, LocalDateTime start, LocalDateTime end, int width,
+                                        int[] pixels) {
+        long t0 = System.nanoTime();
+        DensityRenderer.renderTimeline(tiles.getColumnRates(start, end, width), width, HEIGHT, pixels);
+        return (System.nanoTime() - t0) / 1e6;
+    }
+
+    /**
+     * Replace the event rollups with a year of counts adding up to a total: busy
+     * working hours, quiet nights, and a burst at 03:00 every Tuesday.
+     */
+    private static void writeRollups(String url, LocalDateTime start, LocalDateTime end, long total) throws Exception {
+        int minutes = (int) Duration.between(start, end).toMinutes();
+        double[] weights = new double[minutes];
+        double weightSum = 0;
+        Random random = new Random(42);
+        for (int minute = 0; minute < minutes; minute++) {
+            LocalDateTime time = start.plusMinutes(minute);
+            int hour = time.getHour();
+            double weight = hour >= 8 && hour < 19 ? 10 : 1;
+            if (time.getDayOfWeek() == DayOfWeek.TUESDAY && hour == 3) {
+                weight = 40;
+            }
+            weights[minute] = weight * (0.5 + random.nextDouble());
+            weightSum += weights[minute];
+        }
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = 10000");
+            connection.setAutoCommit(false);
+            stmt.execute("DELETE FROM event_rollups");
+            long[] hours = new long[minutes / 60 + 1];
+            long[] days = new long[minutes / 1440 + 1];
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO event_rollups"
+                    + " (resolution, bucket_start, event_type, suspicious, event_count) VALUES (?, ?, 'MODIFY', 0, ?)")) {
+                for (int minute = 0; minute < minutes; minute++) {
+                    long count = Math.round(weights[minute] / weightSum * total);
+                    hours[minute / 60] += count;
+                    days[minute / 1440] += count;
+                    add(insert, RollupResolution.MINUTE, start.plusMinutes(minute), count);
+                }
+                for (int hour = 0; hour < hours.length; hour++) {
+                    add(insert, RollupResolution.HOUR, start.plusHours(hour), hours[hour]);
+                }
+                for (int day = 0; day < days.length; day++) {
+                    add(insert, RollupResolution.DAY, start.plusDays(day), days[day]);
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    private static void add(PreparedStatement insert, RollupResolution resolution, LocalDateTime bucketStart,
+                            long count) throws Exception {
+        if (count == 0) {
+            return;
+        }
+        insert.setString(1, resolution.name());
+        insert.setLong(2, TimeUtil.toEpochMillis(bucketStart));
+        insert.setLong(3, count);
+        insert.addBatch();
+    }
+
+    private static void report(String label, double[] frames, long tileReads) {
+        double[] sorted = frames.clone();
+        Arrays.sort(sorted);
+        System.out.printf("  %-30s %4d frames  p50 %6.2f ms  p95 %6.2f ms  max %7.2f ms  %4d tile reads%n", label,
+            frames.length, sorted[sorted.length / 2], sorted[(int) (sorted.length * 0.95)], sorted[sorted.length - 1],
+            tileReads);
+    }
+}
@@ -0,0 +1,224 @@
+package com.filex;
+
+import com.filex.model.FileEvent;
+import com.filex.service.DatabaseService;
+import com.filex.service.SchemaMigrations;
+import com.filex.service.SchemaMigrator;
+import com.filex.util.TimeUtil;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark of text timestamps against INTEGER epoch milliseconds.
+ *
+ * Builds a schema version 3 database whose times are stored as text, as older
+ * versions and SQLite's CURRENT_TIMESTAMP wrote them, and times a one-week
+ * date range query and a per-day report aggregation. Then opens it with
+ * {@link DatabaseService}, which converts the rows in the background while this
+ * keeps saving events, and times the same work on the integer representation.
+ *
+ * Usage: TestTimestampBenchmark [rows]
+ * Defaults to 1,000,000 events over one year in a temporary file.
+ */
+public class TestTimestampBenchmark {
+
+    private static final int WARMUP_RUNS = 5;
+    private static final int RUNS = 9;
+    private static final int BATCH = 50_000;
+    private static final long SPAN_MILLIS = 365L * 24 * 3600 * 1000;
+    private static final long WEEK_MILLIS = 7L * 24 * 3600 * 1000;
+    private static final DateTimeFormatter LEGACY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dbFile = Files.createTempFile("filex-timestamp-bench", ".db");
+        Files.deleteIfExists(dbFile);
+        String url = "jdbc:sqlite:" + dbFile;
+        Class.forName("org.sqlite.JDBC");
+        LocalDateTime end = LocalDateTime.now().withNano(0);
+        LocalDateTime start = end.minusNanos(SPAN_MILLIS * 1_000_000);
+        LocalDateTime weekStart = start.plusDays(180);
+        LocalDateTime weekEnd = weekStart.plusNanos(WEEK_MILLIS * 1_000_000);
+
+        try {
+            double[] before = new double[3];
+            try (Connection connection = DriverManager.getConnection(url)) {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("PRAGMA journal_mode = WAL");
+                }
+                new SchemaMigrator(connection).migrate(SchemaMigrations.all(), 3);
+                long loadStart = System.nanoTime();
+                populateText(connection, rows, start);
+                System.out.printf("Loaded %,d events with text timestamps in %.1f s%n", rows,
+                    (System.nanoTime() - loadStart) / 1e9);
+
+                String rangeSql = "SELECT * FROM file_events WHERE timestamp >= ? AND timestamp <= ? ORDER BY timestamp DESC";
+                before[0] = median(() -> {
+                    try (PreparedStatement stmt = connection.prepareStatement(rangeSql)) {
+                        stmt.setString(1, weekStart.format(LEGACY_FORMAT));
+                        stmt.setString(2, weekEnd.format(LEGACY_FORMAT));
+                        return map(stmt, true);
+                    }
+                }, "text range query, getTimestamp() mapping");
+                before[2] = median(() -> aggregate(connection,
+                    "SELECT date(timestamp) AS day, COUNT(*), SUM(suspicious) FROM file_events GROUP BY day"),
+                    "text daily aggregation");
+            }
+
+            // Open through the service: schema migration 4 runs and the backfill starts
+            System.setProperty("filex.db.url", url);
+            DatabaseService dbService = DatabaseService.getInstance();
+            long migrateStart = System.nanoTime();
+            dbService.initialize();
+            List<Long> latencies = new ArrayList<>();
+            try (Connection reader = DriverManager.getConnection(url)) {
+                while (!backfillComplete(reader)) {
+                    long t0 = System.nanoTime();
+                    dbService.saveEvent(new FileEvent("live.txt", "MODIFY", LocalDateTime.now(), "", false));
+                    latencies.add(System.nanoTime() - t0);
+                    Thread.sleep(10);
+                }
+            }
+            System.out.printf("Backfill finished in %.1f s; %d events saved meanwhile, max save latency %.1f ms%n",
+                (System.nanoTime() - migrateStart) / 1e9, latencies.size(),
+                latencies.stream().mapToLong(Long::longValue).max().orElse(0) / 1e6);
+
+            double[] after = new double[3];
+            after[0] = median(() -> dbService.getEventsByDateRange(weekStart, weekEnd).size(), "integer range query");
+            long offsetMillis = ZoneId.systemDefault().getRules().getOffset(end).getTotalSeconds() * 1000L;
+            try (Connection connection = DriverManager.getConnection(url)) {
+                // One query mapped both ways, to separate the conversion cost from the scan
+                String rangeSql = "SELECT * FROM file_events_view WHERE timestamp >= ? AND timestamp <= ? ORDER BY timestamp DESC";
+                for (int i = 0; i < 2; i++) {
+                    boolean legacy = i == 0;
+                    double millis = median(() -> {
+                        try (PreparedStatement stmt = connection.prepareStatement(rangeSql)) {
+                            stmt.setLong(1, TimeUtil.toEpochMillis(weekStart));
+                            stmt.setLong(2, TimeUtil.toEpochMillis(weekEnd));
+                            return map(stmt, legacy);
+                        }
+                    }, "integer range query, " + (legacy ? "getTimestamp()" : "epoch millis") + " mapping");
+                    if (legacy) {
+                        before[1] = millis;
+                    } else {
+                        after[1] = millis;
+                    }
+                }
+                after[2] = median(() -> aggregate(connection, "SELECT (timestamp + " + offsetMillis
+                    + ") / 86400000 AS day, COUNT(*), SUM(suspicious) FROM file_events GROUP BY day"),
+                    "integer daily aggregation");
+            }
+            dbService.close();
+
+            System.out.println();
+            System.out.printf("%-34s %12s %12s %9s%n", "", "before ms", "after ms", "speedup");
+            String[] labels = {"getEventsByDateRange (1 week)", "row mapping only", "daily aggregation"};
+            for (int i = 0; i < labels.length; i++) {
+                System.out.printf("%-34s %12.2f %12.2f %8.1fx%n", labels[i], before[i], after[i], before[i] / after[i]);
+            }
+        } finally {
+            Files.deleteIfExists(dbFile);
+            Files.deleteIfExists(Path.of(dbFile + "-wal"));
+            Files.deleteIfExists(Path.of(dbFile + "-shm"));
+        }
+    }
+
+    private interface Query {
+        int run() throws Exception;
+    }
+
+    private static double median(Query query, String label) throws Exception {
+        double[] times = new double[RUNS];
+        int count = 0;
+        for (int run = -WARMUP_RUNS; run < RUNS; run++) {
+            long t0 = System.nanoTime();
+            count = query.run();
+            if (run >= 0) {
+                times[run] = (System.nanoTime() - t0) / 1e6;
+            }
+        }
+        Arrays.sort(times);
+        System.out.printf("  %-46s %,10d rows %10.2f ms%n", label, count, times[RUNS / 2]);
+        return times[RUNS / 2];
+    }
+
+    private static int map(PreparedStatement stmt, boolean legacy) throws SQLException {
+        List<FileEvent> events = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                FileEvent event = new FileEvent();
+                event.setId(rs.getLong("id"));
+                event.setFileName(rs.getString("file_name"));
+                event.setFilePath(rs.getString("file_path"));
+                event.setEventType(rs.getString("event_type"));
+                if (legacy) {
+                    event.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+                } else {
+                    event.setTimestamp(TimeUtil.fromEpochMillis(rs.getLong("timestamp")));
+                }
+                event.setSha256(rs.getString("sha256"));
+                event.setSuspicious(rs.getBoolean("suspicious"));
+                events.add(event);
+            }
+        }
+        return events.size();
+    }
+
+    private static int aggregate(Connection connection, String sql) throws SQLException {
+        int days = 0;
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                days++;
+            }
+        }
+        return days;
+    }
+
+    private static boolean backfillComplete(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM online_migrations WHERE completed_at IS NULL")) {
+            return rs.next() && rs.getInt(1) == 0;
+        } catch (SQLException e) {
+            return false; // Table not created yet
+        }
+    }
+
+    private static void populateText(Connection connection, int rows, LocalDateTime start) throws SQLException {
+        Random random = new Random(42);
+        String sql = "INSERT INTO file_events (file_name, file_path, event_type, timestamp, sha256, suspicious) VALUES (?, ?, ?, ?, ?, ?)";
+        connection.setAutoCommit(false);
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 1; i <= rows; i++) {
+                LocalDateTime time = start.plusNanos(SPAN_MILLIS * i / rows * 1_000_000);
+                String name = "file" + random.nextInt(100_000) + ".txt";
+                stmt.setString(1, name);
+                stmt.setString(2, "/data/" + name);
+                stmt.setString(3, "MODIFY");
+                stmt.setString(4, time.format(LEGACY_FORMAT));
+                stmt.setString(5, String.format("%064x", i));
+                stmt.setBoolean(6, random.nextInt(100) == 0);
+                stmt.addBatch();
+                if (i % BATCH == 0 || i == rows) {
+                    stmt.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.filex;
+
+import com.filex.service.InotifyWatcherBackend;
+import com.filex.service.WatcherBackend;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark comparing the WatchService and inotify watcher backends on a synthetic file storm.
+ * Reports events/sec, detection latency percentiles and overflows for each backend.
+ *
+ * Usage: TestWatcherBenchmark [files] [directories]
+ * Run with --enable-preview so the inotify backend can load.
+ */
+public class TestWatcherBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int files = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int directories = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        System.out.println("Watcher benchmark: " + files + " files across " + directories + " directories");
+        runBenchmark(WatcherBackend.WATCH_SERVICE, files, directories);
+        if (InotifyWatcherBackend.isSupported()) {
+            runBenchmark(WatcherBackend.INOTIFY, files, directories);
+        } else {
+            System.out.println("inotify backend not supported on this platform, skipped.");
+        }
+    }
+
+    private static void runBenchmark(String backendName, int files, int directories) throws Exception {
+        Path root = Files.createTempDirectory("filex-watch-bench");
+        List<Path> dirs = new ArrayList<>();
+        for (int i = 0; i < directories; i++) {
+            dirs.add(Files.createDirectories(root.resolve("dir" + i)));
+        }
+
+        Map<Path, Long> createdAt = new ConcurrentHashMap<>();
+        long[] latencies = new long[files];
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger overflows = new AtomicInteger();
+
+        WatcherBackend backend = WatcherBackend.create(backendName);
+        backend.addRoot(root);
+        backend.start(new WatcherBackend.Listener() {
+            @Override
+            public void onEvent(Path path, String eventType) {
+                if (!"CREATE".equals(eventType)) {
+                    return;
+                }
+                Long created = createdAt.remove(path);
+                if (created != null) {
+                    int index = received.getAndIncrement();
+                    if (index < latencies.length) {
+                        latencies[index] = System.nanoTime() - created;
+                    }
+                }
+            }
+
+            @Override
+            public void onMove(Path from, Path to) {
+            }
+
+            @Override
+            public void onOverflow(Path dir) {
+                overflows.incrementAndGet();
+            }
+        });
+
+        // Give the reader thread a moment to block on the descriptor
+        Thread.sleep(200);
+
+        long start = System.nanoTime();
+        byte[] content = new byte[64];
+        for (int i = 0; i < files; i++) {
+            Path file = dirs.get(i % directories).resolve("file" + i + ".dat");
+            createdAt.put(file, System.nanoTime());
+            Files.write(file, content);
+        }
+        long writeDone = System.nanoTime();
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (received.get() < files && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        long end = System.nanoTime();
+        backend.close();
+
+        int count = Math.min(received.get(), files);
+        long[] observed = Arrays.copyOf(latencies, count);
+        Arrays.sort(observed);
+        double seconds = (end - start) / 1_000_000_000.0;
+        System.out.printf("%-13s received=%d/%d overflows=%d write=%.0f ms total=%.0f ms " +
+                        "rate=%.0f events/s latency p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                backendName, count, files, overflows.get(),
+                (writeDone - start) / 1_000_000.0, (end - start) / 1_000_000.0,
+                count / seconds, percentile(observed, 0.50), percentile(observed, 0.99),
+                percentile(observed, 1.0));
+
+        deleteTree(root);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)));
+        return sorted[index] / 1_000_000.0;
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    System.err.println("Could not delete " + path);
+                }
+            });
+        }
+    }
+}
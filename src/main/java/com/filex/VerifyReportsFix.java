@@ -1,6 +1,7 @@
 package com.filex;
 
 import com.filex.service.DatabaseService;
+import com.filex.model.EventPage;
 import com.filex.model.FileEvent;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -16,8 +17,9 @@ public class VerifyReportsFix {
             dbService.initialize();
             
             // Test that we can retrieve events
-            List<FileEvent> events = dbService.getAllEvents();
-            System.out.println("✓ Successfully retrieved " + events.size() + " events from database");
+            EventPage page = dbService.getEventsPage(null, 100);
+            System.out.println("✓ Successfully retrieved " + page.getEvents().size() + " of "
+                + dbService.getEventCount() + " events from database");
             
             // Test date range query
             LocalDate today = LocalDate.now();
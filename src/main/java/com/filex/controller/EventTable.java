@@ -0,0 +1,156 @@
+package com.filex.controller;
+
+import com.filex.model.EventQuery;
+import com.filex.model.EventSort;
+import com.filex.model.FileEvent;
+import com.filex.service.DatabaseService;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Binds a TableView of events to a {@link PagedEventList}, so the table reads its
+ * rows from the database as they are scrolled into view.
+ *
+ * Sorting a column and changing a filter run a new query instead of sorting the
+ * rows in memory. Only columns with an index-backed order can be sorted; the file
+ * name and hash columns cannot.
+ */
+class EventTable {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final TableView<FileEvent> table;
+    private final DatabaseService databaseService;
+    private final Map<TableColumn<FileEvent, ?>, EventSort> sortColumns = new LinkedHashMap<>();
+    private String eventType;
+    private String severity;
+    private boolean suspiciousOnly;
+    private PagedEventList events;
+    private Runnable onCounted;
+
+    /**
+     * Constructor. Sets up the columns; call {@link #refresh()} to show the events.
+     *
+     * @param table The table
+     * @param fileName The file name column
+     * @param eventType The event type column
+     * @param timestamp The timestamp column
+     * @param hash The hash column
+     * @param status The status column
+     */
+    EventTable(TableView<FileEvent> table, TableColumn<FileEvent, String> fileName,
+               TableColumn<FileEvent, String> eventType, TableColumn<FileEvent, String> timestamp,
+               TableColumn<FileEvent, String> hash, TableColumn<FileEvent, String> status) {
+        this.table = table;
+        this.databaseService = DatabaseService.getInstance();
+        bind(fileName, FileEvent::getFileName);
+        bind(eventType, FileEvent::getEventType);
+        bind(timestamp, event -> event.getTimestamp() == null ? "" : TIMESTAMP_FORMAT.format(event.getTimestamp()));
+        bind(hash, FileEvent::getDisplayHash);
+        bind(status, event -> event.isSuspicious() ? "Suspicious" : "Normal");
+        fileName.setSortable(false);
+        hash.setSortable(false);
+        sortColumns.put(timestamp, EventSort.TIMESTAMP);
+        sortColumns.put(eventType, EventSort.EVENT_TYPE);
+        sortColumns.put(status, EventSort.STATUS);
+        table.setSortPolicy(sorted -> {
+            show(false);
+            return true;
+        });
+    }
+
+    /**
+     * Set an action to run on the UI thread once the events have been counted.
+     *
+     * @param onCounted The action
+     */
+    void setOnCounted(Runnable onCounted) {
+        this.onCounted = onCounted;
+    }
+
+    /**
+     * Set the filters, running a new query if they changed.
+     *
+     * @param eventType The event type to show, or null for every type
+     * @param severity Show only events that raised an alert of this severity, or null for every event
+     * @param suspiciousOnly Whether to show suspicious events only
+     */
+    void setFilters(String eventType, String severity, boolean suspiciousOnly) {
+        this.eventType = eventType;
+        this.severity = severity;
+        this.suspiciousOnly = suspiciousOnly;
+        show(false);
+    }
+
+    /**
+     * Run the query again, showing the events stored since it was last run.
+     */
+    void refresh() {
+        show(true);
+    }
+
+    /**
+     * Get the number of events the query returned.
+     *
+     * @return The number of rows
+     */
+    int getEventCount() {
+        return events == null ? 0 : events.size();
+    }
+
+    /**
+     * Stop loading rows, e.g. when the view is closed.
+     */
+    void close() {
+        if (events != null) {
+            events.close();
+        }
+    }
+
+    private void show(boolean always) {
+        EventQuery query = query();
+        if (!always && events != null && sameFiltersAndOrder(events.getQuery(), query)) {
+            return;
+        }
+        close();
+        events = new PagedEventList(databaseService, query);
+        events.setOnCounted(() -> {
+            if (onCounted != null) {
+                onCounted.run();
+            }
+        });
+        table.setItems(events);
+        events.start();
+    }
+
+    /**
+     * Get the query for the filters and the table's sort order. Only the first
+     * sorted column is used; the order breaks its ties by time.
+     */
+    private EventQuery query() {
+        for (TableColumn<FileEvent, ?> column : table.getSortOrder()) {
+            EventSort sort = sortColumns.get(column);
+            if (sort != null) {
+                return new EventQuery(eventType, severity, suspiciousOnly, sort,
+                    column.getSortType() == TableColumn.SortType.ASCENDING, Long.MAX_VALUE);
+            }
+        }
+        return new EventQuery(eventType, severity, suspiciousOnly, EventSort.TIMESTAMP, false, Long.MAX_VALUE);
+    }
+
+    private static boolean sameFiltersAndOrder(EventQuery shown, EventQuery query) {
+        return query.equals(shown.upTo(Long.MAX_VALUE));
+    }
+
+    private static void bind(TableColumn<FileEvent, String> column, Function<FileEvent, String> value) {
+        // Rows whose page is not loaded yet are null and show as empty
+        column.setCellValueFactory(cell -> new ReadOnlyStringWrapper(
+            cell.getValue() == null ? null : value.apply(cell.getValue())).getReadOnlyProperty());
+    }
+}
@@ -0,0 +1,191 @@
+package com.filex.controller;
+
+import com.filex.service.DatabaseService;
+import com.filex.service.EventDensityTiles;
+import com.filex.util.DensityRenderer;
+import com.filex.util.FXUtil;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.control.Label;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.control.ToggleGroup;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.VBox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * High-density event timeline drawn on a Canvas, with an hour-of-week heatmap view
+ * for spotting activity at unusual times, e.g. every night at 3 a.m.
+ *
+ * The timeline can be panned by dragging and zoomed with the scroll wheel. Each
+ * frame is rendered on a background thread from {@link EventDensityTiles} into an
+ * ARGB buffer and copied to the Canvas in one call; two buffers are swapped so the
+ * UI never sees a half-drawn frame. Only the latest requested frame is drawn.
+ */
+class EventTimelineView {
+
+    private static final int HEIGHT = 160;
+    private static final Duration MIN_SPAN = Duration.ofHours(1);
+    private static final Duration MAX_SPAN = Duration.ofDays(5 * 365);
+    private static final double ZOOM_PER_NOTCH = 1.25; // Per 40 pixels of scrolling
+    private static final DateTimeFormatter RANGE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final EventDensityTiles tiles;
+    private final Canvas canvas = new Canvas(0, HEIGHT);
+    private final Label lblRange = new Label();
+    private final ToggleButton btnHeatmap = new ToggleButton("Hour of week");
+    private final ExecutorService renderer;
+    private final AtomicInteger generation = new AtomicInteger();
+    private final Object bufferLock = new Object();
+    private int[] front = new int[0]; // Shown; guarded by bufferLock
+    private int frontWidth;
+    private int frontHeight;
+    private int[] back = new int[0];  // Drawn into by the renderer thread only
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private double dragX;
+    private LocalDateTime dragStart;
+
+    /**
+     * Constructor. Adds the view to a container; it shows nothing until a range is set.
+     *
+     * @param container The container, e.g. the dashboard's timeline box
+     */
+    EventTimelineView(VBox container) {
+        this.tiles = new EventDensityTiles(DatabaseService.getInstance());
+        this.renderer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "filex-timeline-renderer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        ToggleButton btnTimeline = new ToggleButton("Timeline");
+        ToggleGroup mode = new ToggleGroup();
+        btnTimeline.setToggleGroup(mode);
+        btnHeatmap.setToggleGroup(mode);
+        btnTimeline.setSelected(true);
+        mode.selectedToggleProperty().addListener((observable, oldMode, newMode) -> {
+            if (newMode == null) {
+                oldMode.setSelected(true); // Keep one mode selected
+            } else {
+                render();
+            }
+        });
+        Pane canvasPane = new Pane(canvas);
+        canvasPane.setMinHeight(HEIGHT);
+        canvasPane.setPrefHeight(HEIGHT);
+        canvas.widthProperty().bind(canvasPane.widthProperty());
+        canvas.widthProperty().addListener((observable, oldWidth, newWidth) -> render());
+        container.getChildren().addAll(new HBox(8, btnTimeline, btnHeatmap, lblRange), canvasPane);
+
+        canvas.setOnMousePressed(this::startDrag);
+        canvas.setOnMouseDragged(this::drag);
+        canvas.setOnScroll(this::zoom);
+    }
+
+    /**
+     * Show a time range.
+     *
+     * @param start The time at the left edge
+     * @param end The time at the right edge
+     */
+    void setRange(LocalDateTime start, LocalDateTime end) {
+        this.start = start;
+        this.end = end;
+        render();
+    }
+
+    /**
+     * Stop rendering, e.g. when the view is closed.
+     */
+    void close() {
+        generation.incrementAndGet();
+        renderer.shutdownNow();
+    }
+
+    private void startDrag(MouseEvent event) {
+        dragX = event.getX();
+        dragStart = start;
+    }
+
+    private void drag(MouseEvent event) {
+        if (dragStart == null || canvas.getWidth() <= 0 || btnHeatmap.isSelected()) {
+            return;
+        }
+        Duration span = Duration.between(start, end);
+        long shiftMillis = (long) ((dragX - event.getX()) / canvas.getWidth() * span.toMillis());
+        start = dragStart.plus(Duration.ofMillis(shiftMillis));
+        end = start.plus(span);
+        render();
+    }
+
+    private void zoom(ScrollEvent event) {
+        if (start == null || canvas.getWidth() <= 0 || event.getDeltaY() == 0) {
+            return;
+        }
+        long spanMillis = Duration.between(start, end).toMillis();
+        double factor = Math.pow(ZOOM_PER_NOTCH, -event.getDeltaY() / 40);
+        long newSpanMillis = Math.max(MIN_SPAN.toMillis(), Math.min(MAX_SPAN.toMillis(), (long) (spanMillis * factor)));
+        // Keep the time under the pointer where it is
+        double anchor = Math.max(0, Math.min(1, event.getX() / canvas.getWidth()));
+        LocalDateTime pointer = start.plus(Duration.ofMillis((long) (spanMillis * anchor)));
+        start = pointer.minus(Duration.ofMillis((long) (newSpanMillis * anchor)));
+        end = start.plus(Duration.ofMillis(newSpanMillis));
+        render();
+    }
+
+    private void render() {
+        int width = (int) canvas.getWidth();
+        if (start == null || width <= 0) {
+            return;
+        }
+        lblRange.setText(RANGE_FORMAT.format(start) + " - " + RANGE_FORMAT.format(end));
+        int frame = generation.incrementAndGet();
+        LocalDateTime frameStart = start;
+        LocalDateTime frameEnd = end;
+        boolean heatmap = btnHeatmap.isSelected();
+        renderer.execute(() -> {
+            if (frame != generation.get()) {
+                return; // A newer frame was requested before this one started
+            }
+            if (back.length != width * HEIGHT) {
+                back = new int[width * HEIGHT];
+            }
+            if (heatmap) {
+                DensityRenderer.renderHourOfWeek(tiles.getHourOfWeekCounts(frameStart, frameEnd), width, HEIGHT, back);
+            } else {
+                DensityRenderer.renderTimeline(tiles.getColumnRates(frameStart, frameEnd, width), width, HEIGHT, back);
+            }
+            synchronized (bufferLock) {
+                int[] drawn = back;
+                back = front;
+                front = drawn;
+                frontWidth = width;
+                frontHeight = HEIGHT;
+            }
+            FXUtil.runOnUiThread(this::present);
+        });
+    }
+
+    /**
+     * Copy the newest frame to the Canvas.
+     */
+    private void present() {
+        synchronized (bufferLock) {
+            if (frontWidth == 0) {
+                return;
+            }
+            canvas.getGraphicsContext2D().getPixelWriter().setPixels(0, 0, frontWidth, frontHeight,
+                PixelFormat.getIntArgbInstance(), front, 0, frontWidth);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.filex.controller;
+
+import com.filex.model.RollupResolution;
+import com.filex.service.DatabaseService;
+import com.filex.util.ChartDownsampler;
+import com.filex.util.FXUtil;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.XYChart;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills an "Events Over Time" line chart with the number of events per time bucket,
+ * reduced to about one point per {@value #PIXELS_PER_POINT} pixels of the chart's width.
+ *
+ * The counts are read from the event rollups at the finest resolution that gives at
+ * most {@value #BUCKETS_PER_PIXEL} buckets per pixel, so a year costs about as much
+ * as an hour, and are then reduced with largest-triangle-three-buckets, which keeps
+ * spikes. The work runs on a background thread whenever the range or the width
+ * changes; only the latest request is shown.
+ */
+class EventsOverTimeChart {
+
+    private static final int PIXELS_PER_POINT = 2;
+    private static final int BUCKETS_PER_PIXEL = 4;
+    private static final int MIN_WIDTH = 100;          // Before the chart is laid out
+    private static final double RESIZE_THRESHOLD = 20; // Pixels of width change that recompute the points
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("MM-dd HH:mm");
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final LineChart<String, Number> chart;
+    private final XYChart.Series<String, Number> series = new XYChart.Series<>();
+    private final DatabaseService databaseService;
+    private final ExecutorService loader;
+    private final AtomicInteger generation = new AtomicInteger();
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private double loadedWidth;
+
+    /**
+     * Constructor. Shows nothing until a range is set.
+     *
+     * @param chart The chart, with a category x axis
+     */
+    EventsOverTimeChart(LineChart<String, Number> chart) {
+        this.chart = chart;
+        this.databaseService = DatabaseService.getInstance();
+        this.loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "filex-chart-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        series.setName("Events");
+        chart.setCreateSymbols(false); // A symbol is a node per point
+        chart.setAnimated(false);
+        chart.getData().add(series);
+        chart.widthProperty().addListener((observable, oldWidth, newWidth) -> {
+            if (start != null && Math.abs(newWidth.doubleValue() - loadedWidth) >= RESIZE_THRESHOLD) {
+                refresh();
+            }
+        });
+    }
+
+    /**
+     * Show a time range, e.g. when the user zooms.
+     *
+     * @param start The start of the range
+     * @param end The end of the range
+     */
+    void setRange(LocalDateTime start, LocalDateTime end) {
+        this.start = start;
+        this.end = end;
+        refresh();
+    }
+
+    /**
+     * Read the counts again, e.g. after new events were stored.
+     */
+    void refresh() {
+        if (start == null) {
+            return;
+        }
+        loadedWidth = chart.getWidth();
+        int points = Math.max(MIN_WIDTH, (int) loadedWidth) / PIXELS_PER_POINT;
+        int request = generation.incrementAndGet();
+        LocalDateTime rangeStart = start;
+        LocalDateTime rangeEnd = end;
+        loader.execute(() -> {
+            if (request != generation.get()) {
+                return; // Superseded before it started
+            }
+            List<XYChart.Data<String, Number>> data = load(rangeStart, rangeEnd, points);
+            FXUtil.runOnUiThread(() -> {
+                if (request == generation.get()) {
+                    series.getData().setAll(data);
+                }
+            });
+        });
+    }
+
+    /**
+     * Stop loading, e.g. when the view is closed.
+     */
+    void close() {
+        generation.incrementAndGet();
+        loader.shutdownNow();
+    }
+
+    private List<XYChart.Data<String, Number>> load(LocalDateTime rangeStart, LocalDateTime rangeEnd, int points) {
+        RollupResolution resolution = RollupResolution.forRange(rangeStart, rangeEnd, points * PIXELS_PER_POINT
+            * BUCKETS_PER_PIXEL);
+        LocalDateTime first = resolution.truncate(rangeStart);
+        Duration step = resolution.getDuration();
+        long[] counts = databaseService.getEventCountSeries(resolution, rangeStart, rangeEnd);
+        double[] xs = new double[counts.length];
+        double[] ys = new double[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            xs[i] = i;
+            ys[i] = counts[i];
+        }
+
+        DateTimeFormatter format = resolution == RollupResolution.DAY ? DAY_FORMAT : TIME_FORMAT;
+        List<XYChart.Data<String, Number>> data = new ArrayList<>(points);
+        for (int i : ChartDownsampler.largestTriangleThreeBuckets(xs, ys, points)) {
+            data.add(new XYChart.Data<>(format.format(first.plus(step.multipliedBy(i))), counts[i]));
+        }
+        return data;
+    }
+}
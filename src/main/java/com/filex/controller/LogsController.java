@@ -0,0 +1,107 @@
+package com.filex.controller;
+
+import com.filex.model.FileEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.net.URL;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ResourceBundle;
+
+/**
+ * Controller class for the Logs view.
+ * Shows every stored event in a table that loads its rows from the database as
+ * they are scrolled into view, filtered by event type, severity and status.
+ */
+public class LogsController implements Initializable {
+
+    private static final String ALL = "All";
+
+    @FXML
+    private TableView<FileEvent> tableLogs;
+
+    @FXML
+    private TableColumn<FileEvent, String> colFileName;
+
+    @FXML
+    private TableColumn<FileEvent, String> colEventType;
+
+    @FXML
+    private TableColumn<FileEvent, String> colTimestamp;
+
+    @FXML
+    private TableColumn<FileEvent, String> colHash;
+
+    @FXML
+    private TableColumn<FileEvent, String> colStatus;
+
+    @FXML
+    private ComboBox<String> cmbEventType;
+
+    @FXML
+    private ComboBox<String> cmbSeverity;
+
+    @FXML
+    private CheckBox chkSuspiciousOnly;
+
+    @FXML
+    private Button btnRefresh;
+
+    @FXML
+    private Label lblLogCount;
+
+    @FXML
+    private Label lblLastUpdated;
+
+    private EventTable eventTable;
+
+    /**
+     * Initialize the controller
+     *
+     * @param location The location used to resolve relative paths for the root object
+     * @param resources The resources used to localize the root object
+     */
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        cmbEventType.getItems().addAll(ALL, "CREATE", "MODIFY", "DELETE", "RENAME");
+        cmbSeverity.getItems().addAll(ALL, "LOW", "MEDIUM", "HIGH", "CRITICAL");
+
+        eventTable = new EventTable(tableLogs, colFileName, colEventType, colTimestamp, colHash, colStatus);
+        eventTable.setOnCounted(this::updateStatus);
+
+        // Set up filter and button actions
+        cmbEventType.setOnAction(event -> applyFilters());
+        cmbSeverity.setOnAction(event -> applyFilters());
+        chkSuspiciousOnly.setOnAction(event -> applyFilters());
+        btnRefresh.setOnAction(event -> eventTable.refresh());
+
+        applyFilters();
+    }
+
+    /**
+     * Show the events matching the selected filters
+     */
+    private void applyFilters() {
+        eventTable.setFilters(selected(cmbEventType), selected(cmbSeverity), chkSuspiciousOnly.isSelected());
+    }
+
+    /**
+     * Update the log count and time of the last update
+     */
+    private void updateStatus() {
+        lblLogCount.setText(String.format("%,d logs", eventTable.getEventCount()));
+        lblLastUpdated.setText("Last updated: " + LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss")));
+    }
+
+    private static String selected(ComboBox<String> filter) {
+        String value = filter.getValue();
+        return value == null || ALL.equals(value) ? null : value;
+    }
+}
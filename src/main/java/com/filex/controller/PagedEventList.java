@@ -0,0 +1,270 @@
+package com.filex.controller;
+
+import com.filex.model.EventQuery;
+import com.filex.model.FileEvent;
+import com.filex.service.DatabaseService;
+import com.filex.util.FXUtil;
+import javafx.collections.ObservableListBase;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Read-only list of the events of a query for a TableView, fetched from the
+ * database a page at a time as its rows are scrolled into view.
+ *
+ * The list has the size of the whole query, but only the pages most recently
+ * looked at are held in memory; a row whose page is not loaded reads as null, which
+ * the table shows as an empty row, and asking for it queues the page and its
+ * neighbours. Pages are loaded on a background thread, most recently requested
+ * first, so dragging the scroll bar only loads where it stops. Each page is
+ * fetched counting from the nearest page already seen, or from either end, so
+ * scrolling reads neighbouring ranges of an index.
+ *
+ * The query is bounded by the newest event when the list is created, so rows keep
+ * their positions while new events are stored; create a new list to show them.
+ * Sorting and filtering are done by the query, so the list cannot be sorted itself.
+ */
+public class PagedEventList extends ObservableListBase<FileEvent> {
+
+    public static final int PAGE_SIZE = 200;
+    private static final int PREFETCH_PAGES = 1;   // On each side of a requested page
+    static final int MAX_PAGES = 12;               // Held in memory at most
+    static final int MAX_PENDING = 8;              // Older requests are dropped
+    private static final int MAX_ANCHORS = 10_000; // Edges of pages seen, to count from
+
+    private final DatabaseService databaseService;
+    private final ExecutorService loader;
+    private final Executor uiThread;
+    private final Object lock = new Object();
+    private final Map<Integer, List<FileEvent>> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private final TreeMap<Integer, FileEvent[]> anchors = new TreeMap<>(); // First and last event of each page
+    private final LinkedHashSet<Integer> pending = new LinkedHashSet<>();
+    private EventQuery query;
+    private int size = 0;
+    private boolean loading = false;
+    private int loadingPage = -1;
+    private volatile boolean closed = false;
+    private Runnable onCounted;
+
+    /**
+     * Constructor. The list is empty until {@link #start()} has counted the events.
+     *
+     * @param databaseService The database to read from
+     * @param query The filters and order; bounded by the newest event now
+     */
+    public PagedEventList(DatabaseService databaseService, EventQuery query) {
+        this(databaseService, query, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "filex-event-table-loader");
+            thread.setDaemon(true);
+            return thread;
+        }), FXUtil::runOnUiThread);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param databaseService The database to read from
+     * @param query The filters and order; bounded by the newest event now
+     * @param loader Runs the counting and page loads, one at a time
+     * @param uiThread Runs the list changes, on the thread the list is read on
+     */
+    PagedEventList(DatabaseService databaseService, EventQuery query, ExecutorService loader, Executor uiThread) {
+        this.databaseService = databaseService;
+        this.query = query;
+        this.loader = loader;
+        this.uiThread = uiThread;
+    }
+
+    /**
+     * Start counting the events in the background. Set the action to run once they
+     * are counted first.
+     */
+    public void start() {
+        loader.execute(this::count);
+    }
+
+    /**
+     * Set an action to run on the UI thread once the size is known.
+     *
+     * @param onCounted The action
+     */
+    public void setOnCounted(Runnable onCounted) {
+        this.onCounted = onCounted;
+    }
+
+    public EventQuery getQuery() {
+        synchronized (lock) {
+            return query;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get an event, queueing its page if it is not loaded.
+     *
+     * @param index The row
+     * @return The event, or null until its page has been loaded
+     */
+    @Override
+    public FileEvent get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int page = index / PAGE_SIZE;
+        synchronized (lock) {
+            List<FileEvent> rows = pages.get(page);
+            for (int neighbour = page - PREFETCH_PAGES; neighbour <= page + PREFETCH_PAGES; neighbour++) {
+                if (neighbour != page && neighbour >= 0 && neighbour * PAGE_SIZE < size
+                        && !pages.containsKey(neighbour)) {
+                    request(neighbour);
+                }
+            }
+            if (rows == null) {
+                request(page); // Last, so it is loaded first
+                return null;
+            }
+            int offset = index - page * PAGE_SIZE;
+            return offset < rows.size() ? rows.get(offset) : null;
+        }
+    }
+
+    /**
+     * Stop loading pages. Pages already requested are not loaded.
+     */
+    public void close() {
+        closed = true;
+        loader.shutdownNow();
+    }
+
+    private void request(int page) {
+        if (page == loadingPage) {
+            return;
+        }
+        pending.remove(page);
+        pending.add(page);
+        if (pending.size() > MAX_PENDING) {
+            Iterator<Integer> oldest = pending.iterator();
+            oldest.next();
+            oldest.remove();
+        }
+        if (!loading && !closed) {
+            loading = true;
+            loader.execute(this::loadPending);
+        }
+    }
+
+    private void count() {
+        EventQuery bounded = query.upTo(databaseService.getLastEventId());
+        long count = databaseService.getEventCount(bounded);
+        uiThread.execute(() -> {
+            if (closed) {
+                return;
+            }
+            synchronized (lock) {
+                query = bounded;
+                size = (int) Math.min(count, Integer.MAX_VALUE);
+            }
+            if (size > 0) {
+                beginChange();
+                nextAdd(0, size);
+                endChange();
+            }
+            if (onCounted != null) {
+                onCounted.run();
+            }
+        });
+    }
+
+    /**
+     * Load requested pages, most recent first, until none are left.
+     */
+    private void loadPending() {
+        while (!closed) {
+            int page;
+            int total;
+            EventQuery pageQuery;
+            Map.Entry<Integer, FileEvent[]> before;
+            Map.Entry<Integer, FileEvent[]> after;
+            synchronized (lock) {
+                Integer next = null;
+                for (Integer candidate : pending) {
+                    next = candidate;
+                }
+                loadingPage = -1;
+                if (next == null) {
+                    loading = false;
+                    return;
+                }
+                pending.remove(next);
+                page = next;
+                if (pages.containsKey(page)) {
+                    continue;
+                }
+                loadingPage = page;
+                total = size;
+                pageQuery = query;
+                before = anchors.lowerEntry(page);
+                after = anchors.higherEntry(page);
+            }
+            int from = page * PAGE_SIZE;
+            int limit = Math.min(PAGE_SIZE, total - from);
+            // Count from whichever known row is nearer: the last row of a page before, or the first row of one after
+            long skipForward = before == null ? from : from - (before.getKey() + 1L) * PAGE_SIZE;
+            long skipBackward = after == null ? total - (from + limit) : (long) after.getKey() * PAGE_SIZE - (from + limit);
+            List<FileEvent> rows = skipForward <= skipBackward
+                ? databaseService.getEventsWindow(pageQuery, before == null ? null : before.getValue()[1], false,
+                    skipForward, limit)
+                : databaseService.getEventsWindow(pageQuery, after == null ? null : after.getValue()[0], true,
+                    skipBackward, limit);
+            uiThread.execute(() -> install(page, rows));
+        }
+    }
+
+    /**
+     * Show a loaded page, evicting the pages looked at least recently.
+     */
+    private void install(int page, List<FileEvent> rows) {
+        if (closed || rows.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<FileEvent>> evicted = new LinkedHashMap<>();
+        synchronized (lock) {
+            pages.put(page, rows);
+            anchors.put(page, new FileEvent[] {rows.get(0), rows.get(rows.size() - 1)});
+            Iterator<Map.Entry<Integer, List<FileEvent>>> eldest = pages.entrySet().iterator();
+            while (pages.size() > MAX_PAGES) {
+                Map.Entry<Integer, List<FileEvent>> entry = eldest.next();
+                evicted.put(entry.getKey(), entry.getValue());
+                eldest.remove();
+            }
+            if (anchors.size() > MAX_ANCHORS) {
+                // Keep the anchors near where the user is scrolling
+                anchors.remove(page - anchors.firstKey() > anchors.lastKey() - page
+                    ? anchors.firstKey() : anchors.lastKey());
+            }
+        }
+        beginChange();
+        for (Map.Entry<Integer, List<FileEvent>> entry : evicted.entrySet()) {
+            List<FileEvent> old = entry.getValue();
+            for (int i = 0; i < old.size(); i++) {
+                nextSet(entry.getKey() * PAGE_SIZE + i, old.get(i));
+            }
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            nextSet(page * PAGE_SIZE + i, null);
+        }
+        endChange();
+    }
+}
@@ -0,0 +1,143 @@
+package com.filex.controller;
+
+import com.filex.model.FileEvent;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.geometry.Side;
+import javafx.scene.Node;
+import javafx.scene.chart.LineChart;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.Label;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.VBox;
+
+import java.net.URL;
+import java.time.LocalDateTime;
+import java.util.ResourceBundle;
+
+/**
+ * Controller class for the ProfessionalDashboard view.
+ * Shows the recent events in a table that loads its rows from the database as
+ * they are scrolled into view, filtered by event type and status, charts the
+ * events of the last day and draws a zoomable timeline of the last month.
+ */
+public class ProfessionalDashboardController implements Initializable {
+
+    private static final String ALL = "All Events";
+    private static final int CHART_HOURS = 24;
+    private static final int TIMELINE_DAYS = 30;
+
+    @FXML
+    private TableView<FileEvent> tableEvents;
+
+    @FXML
+    private TableColumn<FileEvent, String> fileNameCol;
+
+    @FXML
+    private TableColumn<FileEvent, String> eventTypeCol;
+
+    @FXML
+    private TableColumn<FileEvent, String> timeCol;
+
+    @FXML
+    private TableColumn<FileEvent, String> hashCol;
+
+    @FXML
+    private TableColumn<FileEvent, String> statusCol;
+
+    @FXML
+    private ComboBox<String> cmbEventType;
+
+    @FXML
+    private CheckBox chkSuspiciousOnly;
+
+    @FXML
+    private Button btnRefresh;
+
+    @FXML
+    private Label statusLabel;
+
+    @FXML
+    private LineChart<String, Number> lineChartEvents;
+
+    @FXML
+    private VBox timelineContainer;
+
+    private EventTable eventTable;
+    private EventsOverTimeChart eventsChart;
+    private EventTimelineView timeline;
+
+    /**
+     * Initialize the controller
+     *
+     * @param location The location used to resolve relative paths for the root object
+     * @param resources The resources used to localize the root object
+     */
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        cmbEventType.getItems().addAll(ALL, "CREATE", "MODIFY", "DELETE", "RENAME");
+        cmbEventType.setValue(ALL);
+
+        eventTable = new EventTable(tableEvents, fileNameCol, eventTypeCol, timeCol, hashCol, statusCol);
+        eventTable.setOnCounted(() -> statusLabel.setText(String.format("%,d events", eventTable.getEventCount())));
+
+        // Set up filter and button actions
+        cmbEventType.setOnAction(event -> applyFilters());
+        chkSuspiciousOnly.setOnAction(event -> applyFilters());
+        btnRefresh.setOnAction(event -> refresh());
+
+        eventsChart = new EventsOverTimeChart(lineChartEvents);
+        timeline = new EventTimelineView(timelineContainer);
+        showRecentChart();
+        applyFilters();
+    }
+
+    /**
+     * Show the quick actions menu next to the button that was pressed
+     *
+     * @param event The button's action event
+     */
+    @FXML
+    private void showQuickActions(ActionEvent event) {
+        MenuItem refresh = new MenuItem("Refresh events");
+        refresh.setOnAction(e -> refresh());
+        MenuItem suspicious = new MenuItem(chkSuspiciousOnly.isSelected() ? "Show all events" : "Show suspicious only");
+        suspicious.setOnAction(e -> {
+            chkSuspiciousOnly.setSelected(!chkSuspiciousOnly.isSelected());
+            applyFilters();
+        });
+        new ContextMenu(refresh, suspicious).show((Node) event.getSource(), Side.TOP, 0, 0);
+    }
+
+    /**
+     * Show the events stored since the table and chart were loaded
+     */
+    private void refresh() {
+        eventTable.refresh();
+        showRecentChart();
+    }
+
+    /**
+     * Chart the events of the last day and the timeline of the last month, up to now
+     */
+    private void showRecentChart() {
+        LocalDateTime now = LocalDateTime.now();
+        eventsChart.setRange(now.minusHours(CHART_HOURS), now);
+        timeline.setRange(now.minusDays(TIMELINE_DAYS), now);
+    }
+
+    /**
+     * Show the events matching the selected filters
+     */
+    private void applyFilters() {
+        String eventType = cmbEventType.getValue();
+        eventTable.setFilters(eventType == null || ALL.equals(eventType) ? null : eventType, null,
+            chkSuspiciousOnly.isSelected());
+    }
+}
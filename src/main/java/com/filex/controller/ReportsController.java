@@ -0,0 +1,278 @@
+package com.filex.controller;
+
+import com.filex.model.EventReport;
+import com.filex.model.FileEvent;
+import com.filex.service.DatabaseService;
+import com.filex.service.ReportService;
+import javafx.concurrent.Task;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.PieChart;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+
+import java.net.URL;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+/**
+ * Controller class for the Reports view.
+ * Builds a report of the events in the selected date range on a background task,
+ * which can be cancelled. The totals follow the task's progress; the charts and
+ * the table are filled once, when the report is complete.
+ */
+public class ReportsController implements Initializable {
+
+    private static final String ALL_EVENTS = "All Events";
+    private static final String SUSPICIOUS_EVENTS = "Suspicious Events";
+    private static final String GENERATE = "Generate Report";
+    private static final int DEFAULT_DAYS = 7;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @FXML
+    private Button btnRefresh;
+
+    @FXML
+    private DatePicker dateFrom;
+
+    @FXML
+    private DatePicker dateTo;
+
+    @FXML
+    private ComboBox<String> cmbReportType;
+
+    @FXML
+    private Button btnGenerate;
+
+    @FXML
+    private Label lblTotalEvents;
+
+    @FXML
+    private Label lblSuspiciousEvents;
+
+    @FXML
+    private Label lblFilesAccessed;
+
+    @FXML
+    private BarChart<String, Number> barChartEvents;
+
+    @FXML
+    private PieChart pieChartSeverity;
+
+    @FXML
+    private TableView<ReportItem> tableReport;
+
+    @FXML
+    private TableColumn<ReportItem, String> colReportDate;
+
+    @FXML
+    private TableColumn<ReportItem, String> colReportEvent;
+
+    @FXML
+    private TableColumn<ReportItem, String> colReportFile;
+
+    @FXML
+    private TableColumn<ReportItem, String> colReportSeverity;
+
+    @FXML
+    private TableColumn<ReportItem, String> colReportDetails;
+
+    @FXML
+    private Label lblReportStatus;
+
+    private final ReportService reportService = new ReportService(DatabaseService.getInstance());
+    private Task<EventReport> reportTask;
+
+    /**
+     * Row of the report table.
+     */
+    public static class ReportItem {
+        private final String date;
+        private final String event;
+        private final String file;
+        private final String severity;
+        private final String details;
+
+        /**
+         * Constructor
+         *
+         * @param date The time of the event
+         * @param event The event type
+         * @param file The file name
+         * @param severity The status of the event, e.g. Normal or Suspicious
+         * @param details Further details, e.g. the file path
+         */
+        public ReportItem(String date, String event, String file, String severity, String details) {
+            this.date = date;
+            this.event = event;
+            this.file = file;
+            this.severity = severity;
+            this.details = details;
+        }
+
+        public String getDate() {
+            return date;
+        }
+
+        public String getEvent() {
+            return event;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public String getSeverity() {
+            return severity;
+        }
+
+        public String getDetails() {
+            return details;
+        }
+    }
+
+    /**
+     * Initialize the controller
+     *
+     * @param location The location used to resolve relative paths for the root object
+     * @param resources The resources used to localize the root object
+     */
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        colReportDate.setCellValueFactory(new PropertyValueFactory<>("date"));
+        colReportEvent.setCellValueFactory(new PropertyValueFactory<>("event"));
+        colReportFile.setCellValueFactory(new PropertyValueFactory<>("file"));
+        colReportSeverity.setCellValueFactory(new PropertyValueFactory<>("severity"));
+        colReportDetails.setCellValueFactory(new PropertyValueFactory<>("details"));
+
+        cmbReportType.getItems().addAll(ALL_EVENTS, SUSPICIOUS_EVENTS);
+        cmbReportType.setValue(ALL_EVENTS);
+        dateFrom.setValue(LocalDate.now().minusDays(DEFAULT_DAYS));
+        dateTo.setValue(LocalDate.now());
+        barChartEvents.setAnimated(false);
+        pieChartSeverity.setAnimated(false);
+
+        // Set up button actions
+        btnGenerate.setOnAction(event -> generateOrCancel());
+        btnRefresh.setOnAction(event -> {
+            if (reportTask == null || !reportTask.isRunning()) {
+                generateReport();
+            }
+        });
+    }
+
+    /**
+     * Generate a report, or cancel the one being generated
+     */
+    private void generateOrCancel() {
+        if (reportTask != null && reportTask.isRunning()) {
+            reportTask.cancel();
+        } else {
+            generateReport();
+        }
+    }
+
+    /**
+     * Start generating a report of the selected range on a background thread
+     */
+    private void generateReport() {
+        LocalDate from = dateFrom.getValue() != null ? dateFrom.getValue() : LocalDate.now().minusDays(DEFAULT_DAYS);
+        LocalDate to = dateTo.getValue() != null ? dateTo.getValue() : LocalDate.now();
+        boolean suspiciousOnly = SUSPICIOUS_EVENTS.equals(cmbReportType.getValue());
+
+        Task<EventReport> task = new Task<>() {
+            @Override
+            protected EventReport call() {
+                return reportService.buildReport(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), suspiciousOnly,
+                    (fraction, partial) -> {
+                        updateValue(partial);
+                        updateProgress(fraction, 1);
+                    }, this::isCancelled);
+            }
+        };
+        // Partial reports only update the totals; Task delivers at most one per pulse
+        task.valueProperty().addListener((observable, oldReport, report) -> {
+            if (report != null) {
+                showTotals(report);
+                lblReportStatus.setText(String.format("Generating report... %.0f%%", task.getProgress() * 100));
+            }
+        });
+        task.setOnSucceeded(event -> {
+            btnGenerate.setText(GENERATE);
+            showReport(task.getValue());
+        });
+        task.setOnCancelled(event -> {
+            btnGenerate.setText(GENERATE);
+            lblReportStatus.setText("Report cancelled");
+        });
+        task.setOnFailed(event -> {
+            btnGenerate.setText(GENERATE);
+            lblReportStatus.setText("Error generating report: " + task.getException().getMessage());
+            task.getException().printStackTrace();
+        });
+
+        reportTask = task;
+        btnGenerate.setText("Cancel");
+        lblReportStatus.setText("Generating report...");
+        Thread thread = new Thread(task, "filex-report");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Update the summary cards
+     *
+     * @param report The report, possibly partial
+     */
+    private void showTotals(EventReport report) {
+        lblTotalEvents.setText(String.format("%,d", report.getTotalEvents()));
+        lblSuspiciousEvents.setText(String.format("%,d", report.getSuspiciousEvents()));
+        lblFilesAccessed.setText(String.format("%,d", report.getFilesAccessed()));
+    }
+
+    /**
+     * Show a complete report in the cards, charts and table
+     *
+     * @param report The report
+     */
+    private void showReport(EventReport report) {
+        showTotals(report);
+
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        series.setName("Events");
+        for (Map.Entry<String, Long> entry : report.getEventTypeCounts().entrySet()) {
+            series.getData().add(new XYChart.Data<>(entry.getKey(), entry.getValue()));
+        }
+        barChartEvents.getData().setAll(List.of(series));
+
+        pieChartSeverity.getData().setAll(List.of(
+            new PieChart.Data("Normal", report.getNormalEvents()),
+            new PieChart.Data("Suspicious", report.getSuspiciousEvents())));
+
+        List<ReportItem> items = new ArrayList<>(report.getNewestEvents().size());
+        for (FileEvent event : report.getNewestEvents()) {
+            items.add(new ReportItem(
+                event.getTimestamp() == null ? "" : DATE_FORMAT.format(event.getTimestamp()),
+                event.getEventType(),
+                event.getFileName(),
+                event.isSuspicious() ? "Suspicious" : "Normal",
+                event.getFilePath() != null ? event.getFilePath() : ""));
+        }
+        tableReport.getItems().setAll(items);
+
+        lblReportStatus.setText(report.getTotalEvents() > items.size()
+            ? String.format("%,d events; showing the newest %,d", report.getTotalEvents(), items.size())
+            : String.format("%,d events", report.getTotalEvents()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.filex.controller;
+
+import com.filex.service.PreferencesService;
+import com.filex.util.FXUtil;
+import com.filex.util.HashProviders;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.TextField;
+import javafx.stage.DirectoryChooser;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ResourceBundle;
+
+/**
+ * Controller class for the Settings view.
+ * Shows and saves the user preferences. A running monitor follows a saved change
+ * of the hashing algorithm, re-hashing known files in the background.
+ */
+public class SettingsController implements Initializable {
+
+    @FXML
+    private TextField txtMonitoredFolder;
+
+    @FXML
+    private CheckBox chkEnableNotifications;
+
+    @FXML
+    private ComboBox<String> cmbHashingAlgorithm;
+
+    private final PreferencesService preferencesService = new PreferencesService();
+
+    /**
+     * Initialize the controller
+     *
+     * @param location The location used to resolve relative paths for the root object
+     * @param resources The resources used to localize the root object
+     */
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        cmbHashingAlgorithm.getItems().setAll(HashProviders.getAvailableNames());
+        showPreferences();
+    }
+
+    /**
+     * Choose the monitored folder
+     */
+    @FXML
+    private void browseFolder() {
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Select Folder to Monitor");
+        File current = new File(txtMonitoredFolder.getText());
+        if (current.isDirectory()) {
+            chooser.setInitialDirectory(current);
+        }
+        File folder = chooser.showDialog(txtMonitoredFolder.getScene().getWindow());
+        if (folder != null) {
+            txtMonitoredFolder.setText(folder.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Save the settings
+     */
+    @FXML
+    private void saveSettings() {
+        preferencesService.setMonitoredFolder(txtMonitoredFolder.getText());
+        preferencesService.setNotificationsEnabled(chkEnableNotifications.isSelected());
+        preferencesService.setHashingAlgorithm(cmbHashingAlgorithm.getValue());
+        preferencesService.savePreferences();
+        FXUtil.showAlert("Settings", "Settings saved.");
+    }
+
+    /**
+     * Reset the settings to their defaults
+     */
+    @FXML
+    private void resetSettings() {
+        FXUtil.showConfirmation("Settings", "Reset all settings to their defaults?", () -> {
+            preferencesService.resetToDefaults();
+            showPreferences();
+        });
+    }
+
+    /**
+     * Show the saved preferences in the controls
+     */
+    private void showPreferences() {
+        txtMonitoredFolder.setText(preferencesService.getMonitoredFolder());
+        chkEnableNotifications.setSelected(preferencesService.isNotificationsEnabled());
+        cmbHashingAlgorithm.setValue(HashProviders.resolve(preferencesService.getHashingAlgorithm()));
+    }
+}
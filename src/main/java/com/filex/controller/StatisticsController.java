@@ -0,0 +1,48 @@
+package com.filex.controller;
+
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.chart.LineChart;
+import javafx.scene.control.Button;
+
+import java.net.URL;
+import java.time.LocalDateTime;
+import java.util.ResourceBundle;
+
+/**
+ * Controller class for the Statistics view.
+ * Charts the events of the last month from the event rollups.
+ */
+public class StatisticsController implements Initializable {
+
+    private static final int CHART_DAYS = 30;
+
+    @FXML
+    private Button btnRefresh;
+
+    @FXML
+    private LineChart<String, Number> lineChartEvents;
+
+    private EventsOverTimeChart eventsChart;
+
+    /**
+     * Initialize the controller
+     *
+     * @param location The location used to resolve relative paths for the root object
+     * @param resources The resources used to localize the root object
+     */
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        eventsChart = new EventsOverTimeChart(lineChartEvents);
+        btnRefresh.setOnAction(event -> showRecentChart());
+        showRecentChart();
+    }
+
+    /**
+     * Chart the events of the last month, up to now
+     */
+    private void showRecentChart() {
+        LocalDateTime now = LocalDateTime.now();
+        eventsChart.setRange(now.minusDays(CHART_DAYS), now);
+    }
+}
@@ -0,0 +1,50 @@
+package com.filex.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Model class representing a position in the newest-first alert order.
+ * Alerts are ordered by creation time and then id, so the pair identifies a row
+ * uniquely and the next page starts strictly after it.
+ */
+public class AlertCursor {
+    private final LocalDateTime createdAt;
+    private final int id;
+
+    /**
+     * Constructor
+     *
+     * @param createdAt The creation time of the last alert seen
+     * @param id The id of the last alert seen
+     */
+    public AlertCursor(LocalDateTime createdAt, int id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * Get the cursor positioned on an alert.
+     *
+     * @param alert The last alert seen
+     * @return The cursor
+     */
+    public static AlertCursor after(Alert alert) {
+        return new AlertCursor(alert.getCreatedAt(), alert.getId());
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "AlertCursor{" +
+                "createdAt=" + createdAt +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -0,0 +1,41 @@
+package com.filex.model;
+
+/**
+ * Model class representing an alert together with the file event that raised it.
+ */
+public class AlertDetails {
+    private final Alert alert;
+    private final FileEvent event;
+
+    /**
+     * Constructor
+     *
+     * @param alert The alert
+     * @param event The file event of the alert, or null if it has been deleted
+     */
+    public AlertDetails(Alert alert, FileEvent event) {
+        this.alert = alert;
+        this.event = event;
+    }
+
+    public Alert getAlert() {
+        return alert;
+    }
+
+    /**
+     * Get the file event that raised the alert.
+     *
+     * @return The event, or null if the alert has none or it expired
+     */
+    public FileEvent getEvent() {
+        return event;
+    }
+
+    @Override
+    public String toString() {
+        return "AlertDetails{" +
+                "alert=" + alert +
+                ", event=" + event +
+                '}';
+    }
+}
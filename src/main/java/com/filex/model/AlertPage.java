@@ -0,0 +1,47 @@
+package com.filex.model;
+
+import java.util.List;
+
+/**
+ * Model class representing one page of alerts with their file events, newest first.
+ */
+public class AlertPage {
+    private final List<AlertDetails> alerts;
+    private final AlertCursor next;
+
+    /**
+     * Constructor
+     *
+     * @param alerts The alerts of this page
+     * @param next The cursor for the following page, or null if this is the last page
+     */
+    public AlertPage(List<AlertDetails> alerts, AlertCursor next) {
+        this.alerts = alerts;
+        this.next = next;
+    }
+
+    public List<AlertDetails> getAlerts() {
+        return alerts;
+    }
+
+    /**
+     * Get the cursor to pass for the following page.
+     *
+     * @return The cursor, or null if there are no more alerts
+     */
+    public AlertCursor getNext() {
+        return next;
+    }
+
+    public boolean hasMore() {
+        return next != null;
+    }
+
+    @Override
+    public String toString() {
+        return "AlertPage{" +
+                "alerts=" + alerts.size() +
+                ", next=" + next +
+                '}';
+    }
+}
@@ -0,0 +1,46 @@
+package com.filex.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Model class representing the number of alerts of one severity in one time bucket.
+ */
+public class AlertRollup {
+    private final LocalDateTime bucketStart;
+    private final String severity;
+    private final long count;
+
+    /**
+     * Constructor
+     *
+     * @param bucketStart The start of the time bucket
+     * @param severity The alert severity
+     * @param count The number of alerts
+     */
+    public AlertRollup(LocalDateTime bucketStart, String severity, long count) {
+        this.bucketStart = bucketStart;
+        this.severity = severity;
+        this.count = count;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "AlertRollup{" +
+                "bucketStart=" + bucketStart +
+                ", severity='" + severity + '\'' +
+                ", count=" + count +
+                '}';
+    }
+}
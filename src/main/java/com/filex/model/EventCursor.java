@@ -0,0 +1,50 @@
+package com.filex.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Model class representing a position in the newest-first event order.
+ * Events are ordered by timestamp and then id, so the pair identifies a row
+ * uniquely and the next page starts strictly after it.
+ */
+public class EventCursor {
+    private final LocalDateTime timestamp;
+    private final long id;
+
+    /**
+     * Constructor
+     *
+     * @param timestamp The timestamp of the last event seen
+     * @param id The id of the last event seen
+     */
+    public EventCursor(LocalDateTime timestamp, long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    /**
+     * Get the cursor positioned on an event.
+     *
+     * @param event The last event seen
+     * @return The cursor
+     */
+    public static EventCursor after(FileEvent event) {
+        return new EventCursor(event.getTimestamp(), event.getId());
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "EventCursor{" +
+                "timestamp=" + timestamp +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+package com.filex.model;
+
+import java.util.List;
+
+/**
+ * Model class representing one page of file events, newest first.
+ */
+public class EventPage {
+    private final List<FileEvent> events;
+    private final EventCursor next;
+
+    /**
+     * Constructor
+     *
+     * @param events The events of this page
+     * @param next The cursor for the following page, or null if this is the last page
+     */
+    public EventPage(List<FileEvent> events, EventCursor next) {
+        this.events = events;
+        this.next = next;
+    }
+
+    public List<FileEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * Get the cursor to pass for the following page.
+     *
+     * @return The cursor, or null if there are no more events
+     */
+    public EventCursor getNext() {
+        return next;
+    }
+
+    public boolean hasMore() {
+        return next != null;
+    }
+
+    @Override
+    public String toString() {
+        return "EventPage{" +
+                "events=" + events.size() +
+                ", next=" + next +
+                '}';
+    }
+}
@@ -0,0 +1,112 @@
+package com.filex.model;
+
+import java.util.Objects;
+
+/**
+ * Model class representing the filters and order of a windowed event query, as
+ * used by a table that fetches its rows a window at a time.
+ * A query is bounded by the newest event id it may return, so the positions of its
+ * rows stay the same while new events are stored.
+ */
+public class EventQuery {
+    private final String eventType;
+    private final String severity;
+    private final boolean suspiciousOnly;
+    private final EventSort sort;
+    private final boolean ascending;
+    private final long maxId;
+
+    /**
+     * Constructor
+     *
+     * @param eventType The event type to return, or null for every type
+     * @param severity Return only events that raised an alert of this severity, or null for every event
+     * @param suspiciousOnly Whether to return suspicious events only
+     * @param sort The order of the events
+     * @param ascending Whether the order is ascending, e.g. oldest first
+     * @param maxId The newest event id to return, or Long.MAX_VALUE for no bound
+     */
+    public EventQuery(String eventType, String severity, boolean suspiciousOnly, EventSort sort, boolean ascending,
+                      long maxId) {
+        this.eventType = eventType;
+        this.severity = severity;
+        this.suspiciousOnly = suspiciousOnly;
+        this.sort = sort;
+        this.ascending = ascending;
+        this.maxId = maxId;
+    }
+
+    /**
+     * Get the query for every event, newest first.
+     *
+     * @return The query
+     */
+    public static EventQuery newestFirst() {
+        return new EventQuery(null, null, false, EventSort.TIMESTAMP, false, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get the same query bounded by the newest event id it may return.
+     *
+     * @param maxId The id, e.g. the newest event id when the query is first run
+     * @return The bounded query
+     */
+    public EventQuery upTo(long maxId) {
+        return new EventQuery(eventType, severity, suspiciousOnly, sort, ascending, maxId);
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public boolean isSuspiciousOnly() {
+        return suspiciousOnly;
+    }
+
+    public EventSort getSort() {
+        return sort;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EventQuery)) {
+            return false;
+        }
+        EventQuery other = (EventQuery) o;
+        return suspiciousOnly == other.suspiciousOnly && ascending == other.ascending && maxId == other.maxId
+                && Objects.equals(eventType, other.eventType) && Objects.equals(severity, other.severity)
+                && sort == other.sort;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(eventType, severity, suspiciousOnly, sort, ascending, maxId);
+    }
+
+    @Override
+    public String toString() {
+        return "EventQuery{" +
+                "eventType='" + eventType + '\'' +
+                ", severity='" + severity + '\'' +
+                ", suspiciousOnly=" + suspiciousOnly +
+                ", sort=" + sort +
+                ", ascending=" + ascending +
+                ", maxId=" + maxId +
+                '}';
+    }
+}
@@ -0,0 +1,107 @@
+package com.filex.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Model class representing an event report over a time range: totals, counts per
+ * event type and the newest events, as aggregated by a single pass over the events.
+ * A report published while it is being built is partial; its counts cover the
+ * events up to {@link #getScannedUpTo()}.
+ */
+public class EventReport {
+    private final LocalDateTime startDate;
+    private final LocalDateTime endDate;
+    private final long totalEvents;
+    private final long suspiciousEvents;
+    private final long filesAccessed;
+    private final Map<String, Long> eventTypeCounts;
+    private final List<FileEvent> newestEvents;
+    private final LocalDateTime scannedUpTo;
+    private final boolean complete;
+
+    /**
+     * Constructor
+     *
+     * @param startDate The start of the range
+     * @param endDate The end of the range, exclusive
+     * @param totalEvents The number of events
+     * @param suspiciousEvents The number of suspicious events
+     * @param filesAccessed The number of distinct files with events
+     * @param eventTypeCounts The number of events of each type
+     * @param newestEvents The newest events, newest first; empty in a partial report
+     * @param scannedUpTo The time of the last event counted
+     * @param complete Whether every event in the range was counted
+     */
+    public EventReport(LocalDateTime startDate, LocalDateTime endDate, long totalEvents, long suspiciousEvents,
+                       long filesAccessed, Map<String, Long> eventTypeCounts, List<FileEvent> newestEvents,
+                       LocalDateTime scannedUpTo, boolean complete) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.totalEvents = totalEvents;
+        this.suspiciousEvents = suspiciousEvents;
+        this.filesAccessed = filesAccessed;
+        this.eventTypeCounts = new LinkedHashMap<>(eventTypeCounts);
+        this.newestEvents = new ArrayList<>(newestEvents);
+        this.scannedUpTo = scannedUpTo;
+        this.complete = complete;
+    }
+
+    public LocalDateTime getStartDate() {
+        return startDate;
+    }
+
+    public LocalDateTime getEndDate() {
+        return endDate;
+    }
+
+    public long getTotalEvents() {
+        return totalEvents;
+    }
+
+    public long getSuspiciousEvents() {
+        return suspiciousEvents;
+    }
+
+    public long getNormalEvents() {
+        return totalEvents - suspiciousEvents;
+    }
+
+    public long getFilesAccessed() {
+        return filesAccessed;
+    }
+
+    public Map<String, Long> getEventTypeCounts() {
+        return eventTypeCounts;
+    }
+
+    public List<FileEvent> getNewestEvents() {
+        return newestEvents;
+    }
+
+    public LocalDateTime getScannedUpTo() {
+        return scannedUpTo;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public String toString() {
+        return "EventReport{" +
+                "startDate=" + startDate +
+                ", endDate=" + endDate +
+                ", totalEvents=" + totalEvents +
+                ", suspiciousEvents=" + suspiciousEvents +
+                ", filesAccessed=" + filesAccessed +
+                ", eventTypeCounts=" + eventTypeCounts +
+                ", newestEvents=" + newestEvents.size() +
+                ", scannedUpTo=" + scannedUpTo +
+                ", complete=" + complete +
+                '}';
+    }
+}
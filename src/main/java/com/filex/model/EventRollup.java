@@ -0,0 +1,54 @@
+package com.filex.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Model class representing the number of file events of one type in one time bucket.
+ */
+public class EventRollup {
+    private final LocalDateTime bucketStart;
+    private final String eventType;
+    private final boolean suspicious;
+    private final long count;
+
+    /**
+     * Constructor
+     *
+     * @param bucketStart The start of the time bucket
+     * @param eventType The event type
+     * @param suspicious Whether the counted events are suspicious
+     * @param count The number of events
+     */
+    public EventRollup(LocalDateTime bucketStart, String eventType, boolean suspicious, long count) {
+        this.bucketStart = bucketStart;
+        this.eventType = eventType;
+        this.suspicious = suspicious;
+        this.count = count;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public boolean isSuspicious() {
+        return suspicious;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "EventRollup{" +
+                "bucketStart=" + bucketStart +
+                ", eventType='" + eventType + '\'' +
+                ", suspicious=" + suspicious +
+                ", count=" + count +
+                '}';
+    }
+}
@@ -0,0 +1,11 @@
+package com.filex.model;
+
+/**
+ * Orders an event query can be sorted by. Each one is backed by an index, so any
+ * window of a sorted query is a single range scan. Ties are broken by time, then id.
+ */
+public enum EventSort {
+    TIMESTAMP,
+    EVENT_TYPE,  // By the name of the event type
+    STATUS       // Normal events before suspicious ones
+}
@@ -10,11 +10,20 @@ import java.util.Random;
  * Captures details about file operations such as creation, modification, or deletion.
  */
 public class FileEvent {
+    public static final String HASH_TIER_FULL = "FULL";   // Hash of the whole file
+    public static final String HASH_TIER_QUICK = "QUICK"; // Provisional sampled hash, see QuickHash
+
+    private long id;                // Row id, 0 until persisted
     private String fileName;
+    private String filePath; // Full path; file names alone are ambiguous across watched trees
     private String eventType;
     private LocalDateTime timestamp;
-    private String sha256;
+    private String sha256;          // Content hash; despite the name, computed with hashAlgorithm
+    private String hashAlgorithm = "SHA-256";
+    private String hashTier = HASH_TIER_FULL;
     private boolean suspicious;
+    private boolean reconstructed; // Inferred by an overflow rescan, not reported by the watcher
+    private int mergedCount = 1;    // Raw watcher events coalesced into this one
 
     /**
      * Default constructor
@@ -40,6 +49,14 @@ public class FileEvent {
     }
 
     // Getters and setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
     public String getFileName() {
         return fileName;
     }
@@ -48,6 +65,14 @@ public class FileEvent {
         this.fileName = fileName;
     }
 
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
     public String getEventType() {
         return eventType;
     }
@@ -72,6 +97,44 @@ public class FileEvent {
         this.sha256 = sha256;
     }
 
+    public String getHashAlgorithm() {
+        return hashAlgorithm;
+    }
+
+    public void setHashAlgorithm(String hashAlgorithm) {
+        this.hashAlgorithm = hashAlgorithm;
+    }
+
+    public String getHashTier() {
+        return hashTier;
+    }
+
+    public void setHashTier(String hashTier) {
+        this.hashTier = hashTier;
+    }
+
+    /**
+     * Whether the hash is only a quick fingerprint that has not been upgraded
+     * to a full hash yet.
+     *
+     * @return true if the hash is provisional
+     */
+    public boolean isHashProvisional() {
+        return HASH_TIER_QUICK.equals(hashTier);
+    }
+
+    /**
+     * Get the hash for display, marking provisional quick hashes.
+     *
+     * @return The hash text
+     */
+    public String getDisplayHash() {
+        if (sha256 == null || sha256.isEmpty()) {
+            return "";
+        }
+        return isHashProvisional() ? sha256 + " (provisional)" : sha256;
+    }
+
     public boolean isSuspicious() {
         return suspicious;
     }
@@ -80,14 +143,36 @@ public class FileEvent {
         this.suspicious = suspicious;
     }
 
+    public boolean isReconstructed() {
+        return reconstructed;
+    }
+
+    public void setReconstructed(boolean reconstructed) {
+        this.reconstructed = reconstructed;
+    }
+
+    public int getMergedCount() {
+        return mergedCount;
+    }
+
+    public void setMergedCount(int mergedCount) {
+        this.mergedCount = mergedCount;
+    }
+
     @Override
     public String toString() {
         return "FileEvent{" +
-                "fileName='" + fileName + '\'' +
+                "id=" + id +
+                ", fileName='" + fileName + '\'' +
+                ", filePath='" + filePath + '\'' +
                 ", eventType='" + eventType + '\'' +
                 ", timestamp=" + timestamp +
                 ", sha256='" + sha256 + '\'' +
+                ", hashAlgorithm='" + hashAlgorithm + '\'' +
+                ", hashTier='" + hashTier + '\'' +
                 ", suspicious=" + suspicious +
+                ", reconstructed=" + reconstructed +
+                ", mergedCount=" + mergedCount +
                 '}';
     }
 
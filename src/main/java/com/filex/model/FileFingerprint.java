@@ -9,8 +9,12 @@ import java.time.LocalDateTime;
 public class FileFingerprint {
     private int id;
     private String filePath;
+    private String fileKey;       // Filesystem identity (device and inode), or null if unsupported
     private String sha256;
+    private String hashAlgorithm; // Algorithm the hash was computed with
+    private String quickHash;     // Last quick fingerprint, large files only
     private long size;
+    private long lastModifiedMillis; // File mtime when the hash was taken
     private LocalDateTime lastSeen;
     private LocalDateTime createdAt;
 
@@ -56,6 +60,14 @@ public class FileFingerprint {
         this.filePath = filePath;
     }
 
+    public String getFileKey() {
+        return fileKey;
+    }
+
+    public void setFileKey(String fileKey) {
+        this.fileKey = fileKey;
+    }
+
     public String getSha256() {
         return sha256;
     }
@@ -64,6 +76,22 @@ public class FileFingerprint {
         this.sha256 = sha256;
     }
 
+    public String getHashAlgorithm() {
+        return hashAlgorithm;
+    }
+
+    public void setHashAlgorithm(String hashAlgorithm) {
+        this.hashAlgorithm = hashAlgorithm;
+    }
+
+    public String getQuickHash() {
+        return quickHash;
+    }
+
+    public void setQuickHash(String quickHash) {
+        this.quickHash = quickHash;
+    }
+
     public long getSize() {
         return size;
     }
@@ -72,6 +100,14 @@ public class FileFingerprint {
         this.size = size;
     }
 
+    public long getLastModifiedMillis() {
+        return lastModifiedMillis;
+    }
+
+    public void setLastModifiedMillis(long lastModifiedMillis) {
+        this.lastModifiedMillis = lastModifiedMillis;
+    }
+
     public LocalDateTime getLastSeen() {
         return lastSeen;
     }
@@ -93,8 +129,12 @@ public class FileFingerprint {
         return "FileFingerprint{" +
                 "id=" + id +
                 ", filePath='" + filePath + '\'' +
+                ", fileKey='" + fileKey + '\'' +
                 ", sha256='" + sha256 + '\'' +
+                ", hashAlgorithm='" + hashAlgorithm + '\'' +
+                ", quickHash='" + quickHash + '\'' +
                 ", size=" + size +
+                ", lastModifiedMillis=" + lastModifiedMillis +
                 ", lastSeen=" + lastSeen +
                 ", createdAt=" + createdAt +
                 '}';
@@ -0,0 +1,97 @@
+package com.filex.model;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Model class representing an unprocessed file system notification.
+ * Produced by the watcher stage and consumed by the hash/classify workers.
+ */
+public class RawFileEvent {
+    private final Path path;
+    private final String eventType;
+    private final LocalDateTime timestamp;
+    private final long detectedAtNanos;
+    private final boolean reconstructed;
+    private final int mergedCount;
+
+    /**
+     * Constructor
+     *
+     * @param path The full path of the affected file
+     * @param eventType The type of event (CREATE, MODIFY, DELETE)
+     * @param timestamp The wall-clock time the event was observed
+     */
+    public RawFileEvent(Path path, String eventType, LocalDateTime timestamp) {
+        this(path, eventType, timestamp, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param path The full path of the affected file
+     * @param eventType The type of event (CREATE, MODIFY, DELETE)
+     * @param timestamp The wall-clock time the event happened or was observed
+     * @param reconstructed Whether the event was inferred by a rescan rather than reported by the watcher
+     */
+    public RawFileEvent(Path path, String eventType, LocalDateTime timestamp, boolean reconstructed) {
+        this(path, eventType, timestamp, reconstructed, System.nanoTime(), 1);
+    }
+
+    private RawFileEvent(Path path, String eventType, LocalDateTime timestamp, boolean reconstructed,
+                         long detectedAtNanos, int mergedCount) {
+        this.path = path;
+        this.eventType = eventType;
+        this.timestamp = timestamp;
+        this.detectedAtNanos = detectedAtNanos;
+        this.reconstructed = reconstructed;
+        this.mergedCount = mergedCount;
+    }
+
+    /**
+     * Create the event that stands for a burst of raw events on the same path.
+     * The first-seen timestamp and detection time of this event are kept.
+     *
+     * @param eventType The net event type of the burst
+     * @param mergedCount The number of raw events in the burst
+     * @return The merged event
+     */
+    public RawFileEvent merged(String eventType, int mergedCount) {
+        return new RawFileEvent(path, eventType, timestamp, reconstructed, detectedAtNanos, mergedCount);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public long getDetectedAtNanos() {
+        return detectedAtNanos;
+    }
+
+    public boolean isReconstructed() {
+        return reconstructed;
+    }
+
+    public int getMergedCount() {
+        return mergedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "RawFileEvent{" +
+                "path=" + path +
+                ", eventType='" + eventType + '\'' +
+                ", timestamp=" + timestamp +
+                ", reconstructed=" + reconstructed +
+                ", mergedCount=" + mergedCount +
+                '}';
+    }
+}
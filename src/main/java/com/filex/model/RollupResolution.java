@@ -0,0 +1,53 @@
+package com.filex.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Time bucket sizes of the event and alert rollups.
+ * Buckets start on whole minutes, hours and days in the system time zone.
+ */
+public enum RollupResolution {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    RollupResolution(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Get the start of the bucket containing a time.
+     *
+     * @param time The time
+     * @return The bucket start
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public Duration getDuration() {
+        return unit.getDuration();
+    }
+
+    /**
+     * Get the finest resolution that covers a time range in at most a given number of buckets.
+     *
+     * @param start The start of the range
+     * @param end The end of the range
+     * @param maxBuckets The most buckets wanted, e.g. the points a chart can show
+     * @return The resolution, DAY if even days give more buckets
+     */
+    public static RollupResolution forRange(LocalDateTime start, LocalDateTime end, int maxBuckets) {
+        Duration range = Duration.between(start, end);
+        for (RollupResolution resolution : values()) {
+            if (range.dividedBy(resolution.getDuration()) < maxBuckets) {
+                return resolution;
+            }
+        }
+        return DAY;
+    }
+}
@@ -0,0 +1,57 @@
+package com.filex.model;
+
+import java.util.List;
+
+/**
+ * Model class representing one page of search results, best match first.
+ *
+ * @param <T> The type of the matching rows
+ */
+public class SearchPage<T> {
+    private final List<T> results;
+    private final int offset;
+    private final boolean hasMore;
+
+    /**
+     * Constructor
+     *
+     * @param results The results of this page
+     * @param offset The position of the first result among all results
+     * @param hasMore Whether another page follows
+     */
+    public SearchPage(List<T> results, int offset, boolean hasMore) {
+        this.results = results;
+        this.offset = offset;
+        this.hasMore = hasMore;
+    }
+
+    public List<T> getResults() {
+        return results;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Get the offset to pass for the following page.
+     *
+     * @return The offset, or -1 if there are no more results
+     */
+    public int getNextOffset() {
+        return hasMore ? offset + results.size() : -1;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchPage{" +
+                "results=" + results.size() +
+                ", offset=" + offset +
+                ", hasMore=" + hasMore +
+                '}';
+    }
+}
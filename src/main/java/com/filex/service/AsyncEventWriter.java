@@ -0,0 +1,231 @@
+package com.filex.service;
+
+import com.filex.model.Alert;
+import com.filex.model.FileEvent;
+import com.filex.util.BackpressurePolicy;
+import com.filex.util.StageMetrics;
+import com.filex.util.StageQueue;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit writer for file events.
+ *
+ * Callers hand events to {@link #submit(FileEvent)} and get a future for the
+ * generated row id; a single background thread collects events until the batch
+ * is full or the oldest one has waited for the maximum delay, then inserts the
+ * whole batch in one transaction. An alert submitted with its event is written in
+ * the same transaction, already linked to the event's id. SQLite syncs once per commit, so batching turns
+ * hundreds of syncs per second into a few.
+ *
+ * Futures are completed on the writer thread after the commit, in submission
+ * order, so dependent work attached to them must be quick. If a batch fails, its
+ * events are retried one transaction each, so only the failing event is lost. An
+ * event dropped from a full queue has its future completed with a
+ * {@link RejectedExecutionException}.
+ */
+public class AsyncEventWriter {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    /**
+     * An event waiting to be written, its alert if any, and the future for its row id.
+     */
+    private static class PendingWrite {
+        private final FileEvent event;
+        private final Alert alert;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        PendingWrite(FileEvent event, Alert alert) {
+            this.event = event;
+            this.alert = alert;
+        }
+    }
+
+    private final DatabaseService databaseService;
+    private final int batchSize;
+    private final long maxDelayMillis;
+    private final StageMetrics metrics;
+    private final StageQueue<PendingWrite> queue;
+
+    private Thread thread;
+    private volatile boolean running = false;
+
+    /**
+     * Constructor
+     *
+     * @param databaseService The database to write to
+     * @param batchSize The maximum number of events per transaction
+     * @param maxDelayMillis The longest an event waits for its batch to fill
+     * @param queueDepth The number of events queued before the policy applies
+     * @param policy The policy applied when the queue is full
+     * @param metrics Receives queue and commit timings
+     */
+    public AsyncEventWriter(DatabaseService databaseService, int batchSize, long maxDelayMillis,
+                            int queueDepth, BackpressurePolicy policy, StageMetrics metrics) {
+        this.databaseService = databaseService;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxDelayMillis = maxDelayMillis;
+        this.metrics = metrics;
+        this.queue = new StageQueue<>(queueDepth, policy, metrics, write -> write.future.completeExceptionally(
+            new RejectedExecutionException("Dropped from the full event write queue")));
+    }
+
+    /**
+     * Start the writer thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "filex-event-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop the writer thread after everything already submitted has been written.
+     */
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = thread;
+            thread = null;
+        }
+        if (current != null) {
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Queue an event for writing.
+     *
+     * @param event The event to persist; its id is set once written
+     * @return A future completed with the generated row id, or exceptionally if the write failed
+     */
+    public CompletableFuture<Long> submit(FileEvent event) {
+        return submit(event, null);
+    }
+
+    /**
+     * Queue an event and the alert it raised for writing in the same transaction.
+     *
+     * @param event The event to persist; its id is set once written
+     * @param alert The alert raised by the event, or null; its id and event id are set once written
+     * @return A future completed with the generated row id of the event, or exceptionally if the write failed
+     */
+    public CompletableFuture<Long> submit(FileEvent event, Alert alert) {
+        PendingWrite write = new PendingWrite(event, alert);
+        if (!running) {
+            write.future.completeExceptionally(new IllegalStateException("Event writer is not running"));
+            return write.future;
+        }
+        try {
+            queue.offer(write); // The queue records and fails any write it drops
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write.future.completeExceptionally(e);
+        }
+        return write.future;
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        long start = System.nanoTime();
+        List<FileEvent> events = new ArrayList<>(batch.size());
+        List<Alert> alerts = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            events.add(write.event);
+            alerts.add(write.alert);
+        }
+        long[] ids;
+        try {
+            ids = databaseService.insertEvents(events, alerts);
+        } catch (SQLException | RuntimeException e) {
+            // The transaction was rolled back; retry one by one so only the bad event is lost
+            System.err.println("Error saving batch of " + batch.size() + " file events, retrying individually: "
+                + e.getMessage());
+            for (PendingWrite write : batch) {
+                writeOne(write);
+            }
+            metrics.recordProcessed(batch.size(), System.nanoTime() - start);
+            return;
+        }
+        metrics.recordProcessed(batch.size(), System.nanoTime() - start);
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future.complete(ids[i]);
+        }
+    }
+
+    private void writeOne(PendingWrite write) {
+        try {
+            long id = databaseService.insertEvents(List.of(write.event), Collections.singletonList(write.alert))[0];
+            write.future.complete(id);
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Error saving file event " + write.event.getFilePath() + ": " + e.getMessage());
+            write.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Get the number of events waiting to be written.
+     *
+     * @return The queue length
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public StageMetrics getMetrics() {
+        return metrics;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,464 @@
+package com.filex.service;
+
+import com.filex.model.FileFingerprint;
+import com.filex.util.HashUtil;
+import com.filex.util.RateLimiter;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Walks every monitored root and records a fingerprint of each file in the
+ * {@code file_fingerprints} table, so changes made while the application was
+ * down can be told apart from files that were already there.
+ *
+ * The tree is walked by a fork-join pool, one task per directory, while files are
+ * hashed on a separate bounded pool throttled to a bytes-per-second budget so the
+ * live watcher keeps its share of the disk. A single writer thread saves the
+ * fingerprints in large transactions, each also recording which directories are
+ * now complete; an interrupted run skips those directories when it resumes.
+ */
+public class BaselineIndexer {
+
+    private static final long FLUSH_INTERVAL_MILLIS = 2000;
+    private static final long REPORT_INTERVAL_MILLIS = 5000;
+
+    /**
+     * A fingerprint to save, or a directory whose files have all been saved.
+     */
+    private static class Record {
+        private final FileFingerprint fingerprint;
+        private final String completedDirectory;
+
+        Record(FileFingerprint fingerprint, String completedDirectory) {
+            this.fingerprint = fingerprint;
+            this.completedDirectory = completedDirectory;
+        }
+    }
+
+    private static final Record END = new Record(null, null);
+
+    /**
+     * Files of one directory still being hashed.
+     */
+    private static class DirectoryState {
+        private final String directory;
+        // One count for the listing itself, so the directory cannot complete before it is listed
+        private final AtomicInteger outstanding = new AtomicInteger(1);
+        private volatile boolean failed;
+
+        DirectoryState(String directory) {
+            this.directory = directory;
+        }
+    }
+
+    private final DatabaseService databaseService;
+    private final HashCache hashCache;
+    private final String algorithm;
+    private final int hashThreads;
+    private final int batchSize;
+    private final RateLimiter byteLimiter;
+
+    private final AtomicLong filesHashed = new AtomicLong();
+    private final AtomicLong filesCached = new AtomicLong();
+    private final AtomicLong bytesHashed = new AtomicLong();
+    private final AtomicLong directoriesSkipped = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private volatile boolean stopped = false;
+    private volatile boolean running = false;
+    private volatile long startNanos;
+    private Thread thread;
+    private ForkJoinPool walkPool;
+    private ThreadPoolExecutor hashPool;
+    private BlockingQueue<Record> records;
+    private Set<String> completedDirectories;
+
+    /**
+     * Constructor
+     *
+     * @param databaseService The database receiving the fingerprints
+     * @param hashCache Consulted to skip files whose hash is already known, may be null
+     * @param algorithm The hash algorithm
+     * @param hashThreads The number of hashing threads
+     * @param bytesPerSecond The maximum number of bytes read per second, or 0 for unlimited
+     * @param batchSize The number of fingerprints saved per transaction
+     */
+    public BaselineIndexer(DatabaseService databaseService, HashCache hashCache, String algorithm,
+                           int hashThreads, double bytesPerSecond, int batchSize) {
+        this.databaseService = databaseService;
+        this.hashCache = hashCache;
+        this.algorithm = algorithm;
+        this.hashThreads = Math.max(1, hashThreads);
+        this.batchSize = Math.max(1, batchSize);
+        this.byteLimiter = new RateLimiter(bytesPerSecond);
+    }
+
+    /**
+     * Check whether an earlier baseline over the same roots was interrupted.
+     *
+     * @param databaseService The database
+     * @param roots The monitored roots
+     * @return true if there is a run to resume
+     */
+    public static boolean hasUnfinishedRun(DatabaseService databaseService, List<Path> roots) {
+        return databaseService.getUnfinishedBaselineRun(rootsKey(roots)) >= 0;
+    }
+
+    /**
+     * Run the baseline in a background thread.
+     *
+     * @param roots The monitored roots
+     */
+    public synchronized void start(List<Path> roots) {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(() -> run(roots), "filex-baseline");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Stop the run. Directories already saved are skipped when the run resumes.
+     */
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            current = thread;
+            thread = null;
+        }
+        stopped = true;
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Walk and fingerprint the roots on the calling thread, resuming an interrupted
+     * run over the same roots if there is one.
+     *
+     * @param roots The monitored roots
+     * @return true if every root was fingerprinted, false if stopped or failed
+     */
+    public boolean run(List<Path> roots) {
+        String key = rootsKey(roots);
+        long runId = databaseService.getUnfinishedBaselineRun(key);
+        if (runId >= 0) {
+            completedDirectories = databaseService.getCompletedBaselineDirectories(runId);
+            System.out.println("Resuming baseline run " + runId + " with "
+                + completedDirectories.size() + " directories already done.");
+        } else {
+            runId = databaseService.createBaselineRun(key, algorithm);
+            if (runId < 0) {
+                return false;
+            }
+            completedDirectories = Set.of();
+            System.out.println("Starting baseline run " + runId + " over " + roots.size() + " root(s).");
+        }
+
+        running = true;
+        startNanos = System.nanoTime();
+        records = new ArrayBlockingQueue<>(batchSize * 2);
+        walkPool = new ForkJoinPool(Math.max(2, hashThreads));
+        hashPool = new ThreadPoolExecutor(hashThreads, hashThreads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(hashThreads * 64), r -> {
+                Thread worker = new Thread(r, "filex-baseline-hash");
+                worker.setDaemon(true);
+                worker.setPriority(Thread.MIN_PRIORITY);
+                return worker;
+            },
+            // A full queue makes the walker hash the file itself, which slows the walk down
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+        long id = runId;
+        Thread writer = new Thread(() -> writeRecords(id), "filex-baseline-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        boolean completed = false;
+        try {
+            for (Path root : roots) {
+                if (stopped) {
+                    break;
+                }
+                walkPool.invoke(new DirectoryTask(root.toAbsolutePath().normalize()));
+            }
+            hashPool.shutdown();
+            while (!hashPool.awaitTermination(1, TimeUnit.SECONDS)) {
+                if (stopped) {
+                    hashPool.shutdownNow();
+                }
+            }
+            completed = !stopped;
+        } catch (InterruptedException e) {
+            stopped = true;
+            hashPool.shutdownNow();
+        } finally {
+            walkPool.shutdownNow();
+            putRecord(END);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running = false;
+        }
+
+        if (completed && errors.get() == 0) {
+            databaseService.completeBaselineRun(runId);
+        }
+        System.out.println((completed ? "Finished" : "Stopped") + " baseline run " + runId + ": " + this);
+        return completed;
+    }
+
+    /**
+     * Lists one directory, forks a task per subdirectory and queues its files for hashing.
+     */
+    private class DirectoryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path directory; // Tasks are never serialized
+
+        DirectoryTask(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected void compute() {
+            if (stopped) {
+                return;
+            }
+            boolean done = completedDirectories.contains(directory.toString());
+            if (done) {
+                directoriesSkipped.incrementAndGet();
+            }
+            DirectoryState state = new DirectoryState(directory.toString());
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path entry : stream) {
+                    if (stopped) {
+                        return;
+                    }
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue; // Vanished or unreadable
+                    }
+                    if (attrs.isDirectory()) {
+                        subdirectories.add(new DirectoryTask(entry));
+                    } else if (attrs.isRegularFile() && !done) {
+                        state.outstanding.incrementAndGet();
+                        hashPool.execute(() -> {
+                            if (!hashFile(entry, attrs)) {
+                                state.failed = true;
+                            }
+                            fileDone(state);
+                        });
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Error listing " + directory + " for baseline: " + e.getMessage());
+                errors.incrementAndGet();
+                return; // Not marked complete, so a resumed run retries it
+            }
+            if (!done) {
+                fileDone(state);
+            }
+            invokeAll(subdirectories);
+        }
+    }
+
+    private void fileDone(DirectoryState state) {
+        // A directory with a failed file stays incomplete, so a resumed run retries it
+        if (state.outstanding.decrementAndGet() == 0 && !state.failed && !stopped) {
+            putRecord(new Record(null, state.directory));
+        }
+    }
+
+    /**
+     * Hash one file and queue its fingerprint.
+     *
+     * @param path The file
+     * @param attrs The attributes read while listing
+     * @return false if the file could not be hashed
+     */
+    private boolean hashFile(Path path, BasicFileAttributes attrs) {
+        if (stopped) {
+            return false;
+        }
+        try {
+            String hash = hashCache != null ? hashCache.lookup(path, attrs, algorithm) : null;
+            if (hash != null) {
+                filesCached.incrementAndGet();
+            } else {
+                byteLimiter.acquire(attrs.size());
+                hash = HashUtil.toHex(HashUtil.hash(path, algorithm));
+                filesHashed.incrementAndGet();
+                bytesHashed.addAndGet(attrs.size());
+            }
+            FileFingerprint fingerprint = new FileFingerprint();
+            fingerprint.setFilePath(path.toString());
+            Object fileKey = attrs.fileKey();
+            fingerprint.setFileKey(fileKey != null ? fileKey.toString() : null);
+            fingerprint.setSha256(hash);
+            fingerprint.setHashAlgorithm(algorithm);
+            fingerprint.setSize(attrs.size());
+            fingerprint.setLastModifiedMillis(attrs.lastModifiedTime().toMillis());
+            fingerprint.setLastSeen(LocalDateTime.now());
+            putRecord(new Record(fingerprint, null));
+            return true;
+        } catch (NoSuchFileException e) {
+            return true; // Deleted since it was listed; the watcher reports it
+        } catch (IOException e) {
+            System.err.println("Error hashing " + path + " for baseline: " + e.getMessage());
+            errors.incrementAndGet();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void putRecord(Record record) {
+        try {
+            records.put(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (record == END) {
+                records.clear(); // Make room so the writer still sees the end
+                records.offer(END);
+            }
+        }
+    }
+
+    /**
+     * Save queued records in batches until the end marker arrives.
+     *
+     * @param runId The baseline run
+     */
+    private void writeRecords(long runId) {
+        List<FileFingerprint> fingerprints = new ArrayList<>(batchSize);
+        List<String> directories = new ArrayList<>();
+        long lastFlush = System.currentTimeMillis();
+        long lastReport = lastFlush;
+        boolean end = false;
+        while (!end) {
+            Record record;
+            try {
+                record = records.poll(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                record = END;
+            }
+            if (record == END) {
+                end = true;
+            } else if (record != null) {
+                if (record.fingerprint != null) {
+                    fingerprints.add(record.fingerprint);
+                } else {
+                    directories.add(record.completedDirectory);
+                }
+            }
+            long now = System.currentTimeMillis();
+            if (end || fingerprints.size() >= batchSize || now - lastFlush >= FLUSH_INTERVAL_MILLIS) {
+                if (!fingerprints.isEmpty() || !directories.isEmpty()) {
+                    if (!databaseService.saveBaselineBatch(runId, fingerprints, directories)) {
+                        errors.incrementAndGet();
+                    }
+                    fingerprints.clear();
+                    directories.clear();
+                }
+                lastFlush = now;
+            }
+            if (now - lastReport >= REPORT_INTERVAL_MILLIS) {
+                System.out.println("Baseline: " + this);
+                lastReport = now;
+            }
+        }
+    }
+
+    private static String rootsKey(List<Path> roots) {
+        return roots.stream()
+            .map(root -> root.toAbsolutePath().normalize().toString())
+            .sorted()
+            .collect(Collectors.joining("\n"));
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getFilesHashed() {
+        return filesHashed.get();
+    }
+
+    public long getFilesCached() {
+        return filesCached.get();
+    }
+
+    public long getBytesHashed() {
+        return bytesHashed.get();
+    }
+
+    public long getDirectoriesSkipped() {
+        return directoriesSkipped.get();
+    }
+
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    /**
+     * Get the throughput of the current or last run in files per second.
+     *
+     * @return Files hashed or found in the cache per second
+     */
+    public double getFilesPerSecond() {
+        return (filesHashed.get() + filesCached.get()) / elapsedSeconds();
+    }
+
+    /**
+     * Get the read throughput of the current or last run.
+     *
+     * @return Megabytes hashed per second
+     */
+    public double getMegabytesPerSecond() {
+        return bytesHashed.get() / (1024.0 * 1024.0) / elapsedSeconds();
+    }
+
+    private double elapsedSeconds() {
+        return startNanos == 0 ? 1 : Math.max(1e-3, (System.nanoTime() - startNanos) / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d files hashed, %d from cache, %.1f MB, %.0f files/s, %.1f MB/s, %d directories skipped, %d errors",
+            filesHashed.get(), filesCached.get(), bytesHashed.get() / (1024.0 * 1024.0),
+            getFilesPerSecond(), getMegabytesPerSecond(), directoriesSkipped.get(), errors.get());
+    }
+}
@@ -2,22 +2,99 @@ package com.filex.service;
 
 import com.filex.model.FileEvent;
 import com.filex.model.Alert;
+import com.filex.model.AlertCursor;
+import com.filex.model.AlertDetails;
+import com.filex.model.AlertPage;
+import com.filex.model.AlertRollup;
+import com.filex.model.EventCursor;
+import com.filex.model.EventPage;
+import com.filex.model.EventQuery;
+import com.filex.model.EventRollup;
+import com.filex.model.EventSort;
+import com.filex.model.FileFingerprint;
+import com.filex.model.RollupResolution;
+import com.filex.model.SearchPage;
+import com.filex.util.BackpressurePolicy;
 import com.filex.util.DatabaseConfig;
+import com.filex.util.PipelineConfig;
+import com.filex.util.RetentionPolicy;
+import com.filex.util.StageMetrics;
+import com.filex.util.TimeUtil;
 
+import java.io.File;
+import java.nio.file.Path;
 import java.sql.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Service class for database operations.
  * Handles all interactions with the SQLite database.
  * Implements singleton pattern for consistent database access.
+ *
+ * The database runs in WAL mode. All writes go through one writer connection,
+ * serialized by this object's monitor; reads borrow a connection from a
+ * {@link ReaderPool} and take no lock, so a long report query neither blocks
+ * ingestion nor other readers.
  */
 public class DatabaseService {
     
+    /**
+     * Rows per fetch window of {@link #streamEvents}.
+     */
+    public static final int STREAM_FETCH_SIZE = 1000;
+    private static final int SCAN_FETCH_SIZE = 50_000; // Id-only rows per window of an event scan
+    
+    /**
+     * Matches ranked per search: the newest ones, so a search for a very common
+     * substring stays fast. Older matches are not returned.
+     */
+    public static final int SEARCH_RANK_WINDOW = 1000;
+    
+    /**
+     * Candidate rows checked per search at most, so a search whose trigrams are
+     * common but whose text is rare stays fast. Older rows are not searched.
+     */
+    public static final int SEARCH_SCAN_LIMIT = 50_000;
+    
+    /**
+     * Matching file paths whose events a search looks up at most. Text found in more
+     * paths than this is common enough that checking the newest events themselves
+     * finds the matches sooner.
+     */
+    public static final int SEARCH_PATH_LOOKUPS = 10_000;
+    
+    private static final int SEARCH_DENSITY_SAMPLE = 5_000; // Newest events checked before estimating the scan
+    private static final String[] EVENT_SEARCH_COLUMNS = {"file_name", "file_path"};
+    
     private static DatabaseService instance;
-    private Connection connection;
+    private Connection connection;                  // The single writer connection
+    private volatile ReaderPool readerPool;
+    private PreparedStatement insertEventStatement; // Reused by every event insert
+    private FileEventDictionary dictionary;         // Ids of the strings events and alerts refer to
+    private AsyncEventWriter eventWriter;
+    private TimestampBackfill timestampBackfill;
+    private volatile boolean legacyEventTimes = true;  // Some event timestamps may still be text
+    private volatile boolean legacyAlertTimes = true;  // Some alert times may still be text
+    private RollupRebuilder rollupRebuilder;
+    private SearchIndexBuilder searchIndexBuilder;
+    private MaintenanceScheduler maintenanceScheduler;
+    private RetentionPolicy retentionPolicy = new RetentionPolicy();
     
     /**
      * Private constructor to prevent instantiation
@@ -48,9 +125,26 @@ public class DatabaseService {
             
             // Establish connection only if not already established
             if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(DatabaseConfig.DB_URL);
+                String url = DatabaseConfig.getDbUrl();
+                connection = DriverManager.getConnection(url);
+                configureWriter();
                 // Create tables if they don't exist
                 createTables();
+                checkLegacyTimes();
+                dictionary = new FileEventDictionary(connection);
+                readerPool = new ReaderPool(url, DatabaseConfig.MIN_POOL_SIZE, DatabaseConfig.MAX_POOL_SIZE,
+                    DatabaseConfig.CONNECTION_TIMEOUT, DatabaseConfig.READER_CACHE_KB);
+                timestampBackfill = new TimestampBackfill(this, DatabaseConfig.BACKFILL_CHUNK_ROWS,
+                    DatabaseConfig.BACKFILL_PAUSE_MILLIS);
+                timestampBackfill.start();
+                rollupRebuilder = new RollupRebuilder(this, DatabaseConfig.BACKFILL_CHUNK_ROWS,
+                    DatabaseConfig.BACKFILL_PAUSE_MILLIS);
+                rollupRebuilder.start();
+                searchIndexBuilder = new SearchIndexBuilder(this, DatabaseConfig.BACKFILL_CHUNK_ROWS,
+                    DatabaseConfig.BACKFILL_PAUSE_MILLIS);
+                searchIndexBuilder.start();
+                maintenanceScheduler = new MaintenanceScheduler(this, retentionPolicy);
+                maintenanceScheduler.start();
                 System.out.println("Database connection initialized successfully!");
             }
         } catch (ClassNotFoundException e) {
@@ -63,96 +157,319 @@ public class DatabaseService {
     }
     
     /**
-     * Create database tables if they don't exist.
+     * Switch to WAL journaling and tune the writer connection.
+     * synchronous=NORMAL is durable in WAL mode except for the last commits before a power loss.
      */
-    private synchronized void createTables() throws SQLException {
-        // Create file_events table
-        String createFileEventsTable = """
-            CREATE TABLE IF NOT EXISTS file_events (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                file_name TEXT NOT NULL,
-                event_type TEXT NOT NULL,
-                timestamp TIMESTAMP NOT NULL,
-                sha256 TEXT,
-                suspicious BOOLEAN DEFAULT FALSE,
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-            )
-            """;
-            
-        // Create alerts table
-        String createAlertsTable = """
-            CREATE TABLE IF NOT EXISTS alerts (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                file_event_id INTEGER,
-                severity TEXT NOT NULL,
-                acknowledged BOOLEAN DEFAULT FALSE,
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                actions_taken TEXT,
-                FOREIGN KEY (file_event_id) REFERENCES file_events(id)
-            )
-            """;
-            
+    private void configureWriter() throws SQLException {
         try (Statement stmt = connection.createStatement()) {
-            stmt.execute(createFileEventsTable);
-            stmt.execute(createAlertsTable);
-            System.out.println("Database tables created/verified successfully!");
+            // Only takes effect on a new, empty database, before anything is written; see compact() for existing ones
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+            stmt.execute("PRAGMA busy_timeout = " + DatabaseConfig.CONNECTION_TIMEOUT);
+            stmt.execute("PRAGMA cache_size = -" + DatabaseConfig.WRITER_CACHE_KB);
+            stmt.execute("PRAGMA temp_store = MEMORY");
+            stmt.execute("PRAGMA wal_autocheckpoint = " + DatabaseConfig.WAL_AUTOCHECKPOINT_PAGES);
+            stmt.execute("PRAGMA journal_size_limit = " + DatabaseConfig.JOURNAL_SIZE_LIMIT_BYTES);
         }
     }
     
+    /**
+     * Create database tables if they don't exist and apply pending schema migrations.
+     */
+    private synchronized void createTables() throws SQLException {
+        int version = new SchemaMigrator(connection).migrate(SchemaMigrations.all());
+        System.out.println("Database tables created/verified successfully! Schema version " + version);
+    }
+    
     /**
      * Save a file event to the database.
+     * Blocks until the event is committed; prefer {@link #saveEventAsync(FileEvent)} on hot paths.
      * 
      * @param event The file event to save
+     * @return The generated row id, or -1 if the event was not saved
      */
-    public synchronized void saveEvent(FileEvent event) {
-        String sql = "INSERT INTO file_events (file_name, event_type, timestamp, sha256, suspicious) VALUES (?, ?, ?, ?, ?)";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setString(1, event.getFileName());
-            stmt.setString(2, event.getEventType());
-            stmt.setTimestamp(3, Timestamp.valueOf(event.getTimestamp()));
-            stmt.setString(4, event.getSha256());
-            stmt.setBoolean(5, event.isSuspicious());
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            if (affectedRows > 0) {
-                System.out.println("File event saved successfully: " + event.getFileName());
-            }
+    public synchronized long saveEvent(FileEvent event) {
+        return saveEvent(event, null);
+    }
+    
+    /**
+     * Save a file event and the alert it raised in one transaction, so neither is
+     * stored without the other. The alert is linked to the event's generated id.
+     *
+     * @param event The file event to save
+     * @param alert The alert raised by the event, or null
+     * @return The generated row id of the event, or -1 if nothing was saved
+     */
+    public synchronized long saveEvent(FileEvent event, Alert alert) {
+        try {
+            return insertEvents(List.of(event), Collections.singletonList(alert))[0];
         } catch (SQLException e) {
             System.err.println("Error saving file event: " + e.getMessage());
             e.printStackTrace();
+            return -1;
         }
     }
     
     /**
-     * Get all file events from the database.
+     * Queue a file event for the group-commit writer without waiting for the disk.
      * 
-     * @return List of all file events
+     * @param event The file event to save
+     * @return A future completed with the generated row id once the event is committed
      */
-    public synchronized List<FileEvent> getAllEvents() {
-        List<FileEvent> events = new ArrayList<>();
-        String sql = "SELECT * FROM file_events ORDER BY timestamp DESC";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                FileEvent event = new FileEvent();
-                event.setFileName(rs.getString("file_name"));
-                event.setEventType(rs.getString("event_type"));
-                event.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
-                event.setSha256(rs.getString("sha256"));
-                event.setSuspicious(rs.getBoolean("suspicious"));
-                events.add(event);
-            }
-            System.out.println("getAllEvents() returned " + events.size() + " events");
+    public CompletableFuture<Long> saveEventAsync(FileEvent event) {
+        return getEventWriter().submit(event);
+    }
+    
+    /**
+     * Queue a file event and the alert it raised for the group-commit writer; both
+     * are committed in the same transaction.
+     * 
+     * @param event The file event to save
+     * @param alert The alert raised by the event, or null
+     * @return A future completed with the generated row id of the event once both are committed
+     */
+    public CompletableFuture<Long> saveEventAsync(FileEvent event, Alert alert) {
+        return getEventWriter().submit(event, alert);
+    }
+    
+    /**
+     * Get the shared group-commit writer, starting it on first use.
+     * 
+     * @return The event writer
+     */
+    public synchronized AsyncEventWriter getEventWriter() {
+        if (eventWriter == null) {
+            PipelineConfig config = new PipelineConfig();
+            eventWriter = new AsyncEventWriter(this, config.getWriterBatchSize(), config.getWriterMaxDelayMillis(),
+                config.getWriteQueueDepth(), BackpressurePolicy.SPILL, new StageMetrics("event-writer"));
+            eventWriter.start();
+        }
+        return eventWriter;
+    }
+
+    /**
+     * Save a batch of file events in a single transaction.
+     *
+     * @param events The file events to save
+     * @return The generated row ids, in the order of the events; empty if the batch was not saved
+     */
+    public synchronized long[] saveEvents(List<FileEvent> events) {
+        try {
+            return insertEvents(events);
         } catch (SQLException e) {
-            System.err.println("Error retrieving file events: " + e.getMessage());
+            System.err.println("Error saving batch of " + events.size() + " file events: " + e.getMessage());
             e.printStackTrace();
+            return new long[0];
         }
-        
-        return events;
+    }
+
+    /**
+     * Insert file events in a single transaction and set their ids.
+     * The insert statement is prepared once and reused.
+     *
+     * @param events The file events to insert
+     * @return The generated row ids, in the order of the events
+     * @throws SQLException if the transaction was rolled back
+     */
+    public synchronized long[] insertEvents(List<FileEvent> events) throws SQLException {
+        return insertEvents(events, null);
+    }
+
+    /**
+     * Insert file events and the alerts they raised in a single transaction, then set
+     * the ids of both and link each alert to its event.
+     *
+     * @param events The file events to insert
+     * @param alerts The alert of each event, in the order of the events, with null for
+     *               events without one; or null if none of them has an alert
+     * @return The generated row ids of the events, in the order of the events
+     * @throws SQLException if the transaction was rolled back
+     */
+    public synchronized long[] insertEvents(List<FileEvent> events, List<Alert> alerts) throws SQLException {
+        long[] ids = new long[events.size()];
+        if (events.isEmpty()) {
+            return ids;
+        }
+        if (insertEventStatement == null) {
+            insertEventStatement = connection.prepareStatement(
+                "INSERT INTO file_events (path_id, name_id, event_type_id, timestamp, sha256, suspicious, reconstructed, merged_count, hash_algorithm, hash_tier) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+        PreparedStatement stmt = insertEventStatement;
+        RollupBatch rollups = new RollupBatch();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (FileEvent event : events) {
+                stmt.setLong(1, dictionary.pathId(event.getFilePath(), event.getFileName()));
+                stmt.setObject(2, dictionary.nameIdIfDifferent(event.getFilePath(), event.getFileName()));
+                stmt.setLong(3, dictionary.eventTypeId(event.getEventType()));
+                stmt.setLong(4, TimeUtil.toEpochMillis(event.getTimestamp()));
+                stmt.setString(5, event.getSha256());
+                stmt.setBoolean(6, event.isSuspicious());
+                stmt.setBoolean(7, event.isReconstructed());
+                stmt.setInt(8, event.getMergedCount());
+                stmt.setString(9, event.getHashAlgorithm());
+                stmt.setString(10, event.getHashTier());
+                stmt.addBatch();
+                rollups.addEvent(event.getTimestamp(), event.getEventType(), event.isSuspicious());
+            }
+            stmt.executeBatch();
+            // Only this connection writes and the batch is one transaction, so its ids are consecutive
+            long lastId = lastInsertRowId();
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = lastId - ids.length + 1 + i;
+            }
+            List<Alert> raised = new ArrayList<>();
+            List<Long> eventIds = new ArrayList<>();
+            for (int i = 0; alerts != null && i < alerts.size(); i++) {
+                if (alerts.get(i) != null) {
+                    raised.add(alerts.get(i));
+                    eventIds.add(ids[i]);
+                }
+            }
+            long[] alertIds = insertAlerts(raised, eventIds, rollups);
+            rollups.write(connection);
+            connection.commit();
+            for (int i = 0; i < ids.length; i++) {
+                events.get(i).setId(ids[i]);
+            }
+            for (int i = 0; i < raised.size(); i++) {
+                raised.get(i).setId((int) alertIds[i]);
+                raised.get(i).setFileEventId(eventIds.get(i).intValue());
+            }
+            return ids;
+        } catch (SQLException | RuntimeException e) {
+            // Roll back here, or restoring auto-commit below would commit the partial batch
+            connection.rollback();
+            dictionary.clear();
+            stmt.clearBatch();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    
+    /**
+     * Insert alerts and index their actions as part of the writer's open transaction.
+     *
+     * @param alerts The alerts to insert
+     * @param eventIds The file event id of each alert, or null to use the ids the alerts carry
+     * @param rollups Counts the alerts for the rollup tables
+     * @return The generated row ids, in the order of the alerts
+     */
+    private long[] insertAlerts(List<Alert> alerts, List<Long> eventIds, RollupBatch rollups) throws SQLException {
+        long[] ids = new long[alerts.size()];
+        if (alerts.isEmpty()) {
+            return ids;
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO alerts (file_event_id, severity_id, acknowledged, created_at, actions_taken) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < alerts.size(); i++) {
+                Alert alert = alerts.get(i);
+                LocalDateTime createdAt = alert.getCreatedAt() != null ? alert.getCreatedAt() : LocalDateTime.now();
+                stmt.setLong(1, eventIds != null ? eventIds.get(i) : alert.getFileEventId());
+                stmt.setLong(2, dictionary.severityId(alert.getSeverity()));
+                stmt.setBoolean(3, alert.isAcknowledged());
+                stmt.setLong(4, TimeUtil.toEpochMillis(createdAt));
+                stmt.setString(5, alert.getActionsTaken());
+                stmt.addBatch();
+                rollups.addAlert(createdAt, alert.getSeverity());
+            }
+            stmt.executeBatch();
+        }
+        long lastId = lastInsertRowId();
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = lastId - ids.length + 1 + i;
+        }
+        indexRows("INSERT INTO alert_search (rowid, actions_taken) "
+            + "SELECT id, actions_taken FROM alerts WHERE id > ? AND id <= ?", lastId, ids.length);
+        return ids;
+    }
+    
+    private long lastInsertRowId() throws SQLException {
+        try (Statement query = connection.createStatement();
+             ResultSet rs = query.executeQuery("SELECT last_insert_rowid()")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+    
+    /**
+     * Add the rows just inserted to a search index.
+     *
+     * @param sql The insert into the index, selecting rows by an id range
+     * @param lastId The id of the last row inserted
+     * @param rows The number of rows inserted
+     */
+    private void indexRows(String sql, long lastId, int rows) throws SQLException {
+        try (PreparedStatement index = connection.prepareStatement(sql)) {
+            index.setLong(1, lastId - rows);
+            index.setLong(2, lastId);
+            index.executeUpdate();
+        }
+    }
+
+    /**
+     * Replace a provisional quick hash with the full hash once it has been computed.
+     * Every provisional event of the file that carries the same quick hash is upgraded.
+     *
+     * @param filePath The full path of the file
+     * @param quickHash The quick hash recorded on the events
+     * @param fullHash The full hash
+     * @param hashAlgorithm The algorithm of the full hash
+     * @return The number of events upgraded
+     */
+    public synchronized int upgradeQuickHash(String filePath, String quickHash, String fullHash, String hashAlgorithm) {
+        String sql = "UPDATE file_events SET sha256 = ?, hash_algorithm = ?, hash_tier = ? "
+            + "WHERE path_id = (SELECT p.id FROM file_paths p JOIN directories d ON d.id = p.directory_id "
+            + "JOIN file_names n ON n.id = p.name_id WHERE d.path = ? AND n.name = ?) AND hash_tier = ? AND sha256 = ?";
+        int nameStart = FileEventDictionary.nameStart(filePath);
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, fullHash);
+            stmt.setString(2, hashAlgorithm);
+            stmt.setString(3, FileEvent.HASH_TIER_FULL);
+            stmt.setString(4, filePath.substring(0, nameStart));
+            stmt.setString(5, filePath.substring(nameStart));
+            stmt.setString(6, FileEvent.HASH_TIER_QUICK);
+            stmt.setString(7, quickHash);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error upgrading quick hash for " + filePath + ": " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Get the number of events whose hash is still a provisional quick hash.
+     *
+     * @return The number of provisional events
+     */
+    public int getProvisionalEventCount() {
+        String sql = "SELECT COUNT(*) FROM file_events WHERE hash_tier = ?";
+        try (ReaderPool.Lease lease = readerPool.acquire();
+             PreparedStatement stmt = lease.getConnection().prepareStatement(sql)) {
+            stmt.setString(1, FileEvent.HASH_TIER_QUICK);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting provisional events: " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Get all file events from the database.
+     * 
+     * @return List of all file events
+     * @deprecated Loads the whole table into memory; use {@link #streamEvents} or {@link #getEventsPage}
+     */
+    @Deprecated
+    public List<FileEvent> getAllEvents() {
+        return streamEvents(null, null, false).collect(Collectors.toList());
     }
     
     /**
@@ -162,134 +479,1800 @@ public class DatabaseService {
      * @param endDate The end date of the range
      * @return List of file events within the date range
      */
-    public synchronized List<FileEvent> getEventsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        List<FileEvent> events = new ArrayList<>();
-        String sql = "SELECT * FROM file_events WHERE timestamp BETWEEN ? AND ? ORDER BY timestamp DESC";
+    public List<FileEvent> getEventsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return streamEvents(startDate, endDate, false).collect(Collectors.toList());
+    }
+    
+    /**
+     * Get suspicious file events from the database.
+     * 
+     * @return List of suspicious file events
+     * @deprecated Loads every suspicious event into memory; use {@link #streamEvents} or {@link #getEventsPage}
+     */
+    @Deprecated
+    public List<FileEvent> getSuspiciousEvents() {
+        return streamEvents(null, null, true).collect(Collectors.toList());
+    }
+    
+    /**
+     * Get one page of file events, newest first.
+     * 
+     * @param after The cursor returned with the previous page, or null for the first page
+     * @param limit The maximum number of events
+     * @return The page
+     */
+    public EventPage getEventsPage(EventCursor after, int limit) {
+        return getEventsPage(null, null, false, after, limit);
+    }
+    
+    /**
+     * Get one page of file events, newest first, using keyset pagination on (timestamp, id).
+     * Each page is a single indexed range scan however deep into the table it is.
+     * 
+     * @param startDate The earliest timestamp, or null for no lower bound
+     * @param endDate The latest timestamp, or null for no upper bound
+     * @param suspiciousOnly Whether to return suspicious events only
+     * @param after The cursor returned with the previous page, or null for the first page
+     * @param limit The maximum number of events
+     * @return The page; empty with no next cursor on error
+     */
+    public EventPage getEventsPage(LocalDateTime startDate, LocalDateTime endDate, boolean suspiciousOnly,
+                                   EventCursor after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM file_events_view");
+        List<Object> params = new ArrayList<>();
+        appendEventFilter(sql, params, startDate, endDate, suspiciousOnly, after);
+        String timestamp = eventTime("");
+        sql.append(" ORDER BY ").append(timestamp).append(" DESC, id DESC LIMIT ?");
+        params.add(limit + 1); // One extra row tells whether another page follows
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setTimestamp(1, Timestamp.valueOf(startDate));
-            stmt.setTimestamp(2, Timestamp.valueOf(endDate));
-            
-            System.out.println("Executing query: " + sql);
-            System.out.println("Parameters: " + startDate + " to " + endDate);
-            
+        List<FileEvent> events = new ArrayList<>(Math.min(limit, STREAM_FETCH_SIZE));
+        try (ReaderPool.Lease lease = readerPool.acquire();
+             PreparedStatement stmt = lease.getConnection().prepareStatement(sql.toString())) {
+            bind(stmt, params);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    FileEvent event = new FileEvent();
-                    event.setFileName(rs.getString("file_name"));
-                    event.setEventType(rs.getString("event_type"));
-                    event.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
-                    event.setSha256(rs.getString("sha256"));
-                    event.setSuspicious(rs.getBoolean("suspicious"));
-                    events.add(event);
+                    events.add(mapFileEvent(rs));
                 }
             }
-            System.out.println("getEventsByDateRange() returned " + events.size() + " events");
         } catch (SQLException e) {
-            System.err.println("Error retrieving file events by date range: " + e.getMessage());
+            System.err.println("Error retrieving page of file events: " + e.getMessage());
             e.printStackTrace();
+            return new EventPage(new ArrayList<>(), null);
         }
-        
-        return events;
+        EventCursor next = null;
+        if (events.size() > limit) {
+            events.remove(events.size() - 1);
+            next = EventCursor.after(events.get(events.size() - 1));
+        }
+        return new EventPage(events, next);
     }
     
     /**
-     * Get suspicious file events from the database.
+     * Stream file events, newest first, fetching {@link #STREAM_FETCH_SIZE} rows at a time.
+     * At most one fetch window is held in memory and no connection is held between
+     * windows, so the stream may be consumed slowly or abandoned without closing it.
+     * Each window reads the latest committed data; events added meanwhile that are
+     * newer than the current position are not returned.
      * 
-     * @return List of suspicious file events
+     * @param startDate The earliest timestamp, or null for no lower bound
+     * @param endDate The latest timestamp, or null for no upper bound
+     * @param suspiciousOnly Whether to return suspicious events only
+     * @return A lazy, sequential stream of events
      */
-    public synchronized List<FileEvent> getSuspiciousEvents() {
-        List<FileEvent> events = new ArrayList<>();
-        String sql = "SELECT * FROM file_events WHERE suspicious = TRUE ORDER BY timestamp DESC";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+    public Stream<FileEvent> streamEvents(LocalDateTime startDate, LocalDateTime endDate, boolean suspiciousOnly) {
+        Iterator<FileEvent> iterator = new Iterator<>() {
+            private Iterator<FileEvent> window = Collections.emptyIterator();
+            private EventCursor cursor = null;
+            private boolean exhausted = false;
+            
+            @Override
+            public boolean hasNext() {
+                while (!window.hasNext() && !exhausted) {
+                    EventPage page = getEventsPage(startDate, endDate, suspiciousOnly, cursor, STREAM_FETCH_SIZE);
+                    window = page.getEvents().iterator();
+                    cursor = page.getNext();
+                    exhausted = cursor == null;
+                }
+                return window.hasNext();
+            }
             
+            @Override
+            public FileEvent next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return window.next();
+            }
+        };
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+    
+    /**
+     * Receives the rows of an event scan.
+     */
+    public interface EventScanCallback {
+        /**
+         * Handle one event.
+         * 
+         * @param id The event id
+         * @param pathId The id of its file path in file_paths
+         * @param eventTypeId The id of its event type in event_types
+         * @param timestampMillis Its time in epoch milliseconds
+         * @param suspicious Whether it is suspicious
+         * @return false to stop the scan
+         */
+        boolean onEvent(long id, long pathId, long eventTypeId, long timestampMillis, boolean suspicious);
+    }
+    
+    /**
+     * Scan the file events of a time range oldest first, for aggregating over many
+     * more events than fit in memory. Only the stored ids are read, without looking
+     * up any text, {@value #SCAN_FETCH_SIZE} rows at a time with keyset pagination on
+     * (timestamp, id); no connection is held between windows, so a slow or long scan
+     * does not hold back the writer's checkpoints.
+     * 
+     * @param startDate The earliest timestamp, or null for no lower bound
+     * @param endDate The end of the range, exclusive, or null for no upper bound
+     * @param suspiciousOnly Whether to scan suspicious events only
+     * @param callback The callback given each event
+     * @return true if every event was scanned, false if the callback stopped the scan or on error
+     */
+    public boolean scanEvents(LocalDateTime startDate, LocalDateTime endDate, boolean suspiciousOnly,
+                              EventScanCallback callback) {
+        long afterTimestamp = startDate != null ? TimeUtil.toEpochMillis(startDate) : Long.MIN_VALUE;
+        long afterId = Long.MIN_VALUE;
+        long endTimestamp = endDate != null ? TimeUtil.toEpochMillis(endDate) : Long.MAX_VALUE;
+        String timestamp = eventTime("");
+        String sql = "SELECT id, path_id, event_type_id, " + timestamp + " AS timestamp, suspicious FROM file_events"
+            + " WHERE " + (suspiciousOnly ? "suspicious = TRUE AND " : "")
+            + timestamp + " < ? AND (" + timestamp + ", id) > (?, ?) ORDER BY " + timestamp + ", id LIMIT ?";
+        while (true) {
+            int rows = 0;
+            try (ReaderPool.Lease lease = readerPool.acquire();
+                 PreparedStatement stmt = lease.getConnection().prepareStatement(sql)) {
+                stmt.setLong(1, endTimestamp);
+                stmt.setLong(2, afterTimestamp);
+                stmt.setLong(3, afterId);
+                stmt.setInt(4, SCAN_FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        afterId = rs.getLong(1);
+                        afterTimestamp = rs.getLong(4);
+                        if (!callback.onEvent(afterId, rs.getLong(2), rs.getLong(3), afterTimestamp, rs.getBoolean(5))) {
+                            return false;
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Error scanning file events: " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+            if (rows < SCAN_FETCH_SIZE) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Get the names of the event types by their id, e.g. to name the ids of an event scan.
+     * 
+     * @return Map of event type id to name
+     */
+    public Map<Long, String> getEventTypeNames() {
+        Map<Long, String> names = new HashMap<>();
+        try (ReaderPool.Lease lease = readerPool.acquire();
+             Statement stmt = lease.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM event_types")) {
             while (rs.next()) {
-                FileEvent event = new FileEvent();
-                event.setFileName(rs.getString("file_name"));
-                event.setEventType(rs.getString("event_type"));
-                event.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
-                event.setSha256(rs.getString("sha256"));
-                event.setSuspicious(rs.getBoolean("suspicious"));
-                events.add(event);
+                names.put(rs.getLong(1), rs.getString(2));
             }
         } catch (SQLException e) {
-            System.err.println("Error retrieving suspicious file events: " + e.getMessage());
+            System.err.println("Error retrieving event types: " + e.getMessage());
             e.printStackTrace();
         }
-        
-        return events;
+        return names;
     }
     
     /**
-     * Save an alert to the database.
+     * Get file events by id.
      * 
-     * @param alert The alert to save
+     * @param ids The event ids
+     * @return The events in the order of the ids; ids of deleted events are skipped
      */
-    public synchronized void saveAlert(Alert alert) {
-        String sql = "INSERT INTO alerts (file_event_id, severity, acknowledged, actions_taken) VALUES (?, ?, ?, ?)";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, alert.getFileEventId());
-            stmt.setString(2, alert.getSeverity());
-            stmt.setBoolean(3, alert.isAcknowledged());
-            stmt.setString(4, alert.getActionsTaken());
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            if (affectedRows > 0) {
-                System.out.println("Alert saved successfully with severity: " + alert.getSeverity());
+    public List<FileEvent> getEventsByIds(List<Long> ids) {
+        try (ReaderPool.Lease lease = readerPool.acquire()) {
+            return loadByIds(lease.getConnection(), "file_events_view", ids, this::mapFileEvent);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving file events by id: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get the number of file events.
+     * 
+     * @return The event count
+     */
+    public long getEventCount() {
+        return getEventCount(null, null, false);
+    }
+    
+    /**
+     * Get the number of file events matching a filter.
+     * 
+     * @param startDate The earliest timestamp, or null for no lower bound
+     * @param endDate The latest timestamp, or null for no upper bound
+     * @param suspiciousOnly Whether to count suspicious events only
+     * @return The event count
+     */
+    public long getEventCount(LocalDateTime startDate, LocalDateTime endDate, boolean suspiciousOnly) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM file_events");
+        List<Object> params = new ArrayList<>();
+        appendEventFilter(sql, params, startDate, endDate, suspiciousOnly, null);
+        try (ReaderPool.Lease lease = readerPool.acquire();
+             PreparedStatement stmt = lease.getConnection().prepareStatement(sql.toString())) {
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
             }
         } catch (SQLException e) {
-            System.err.println("Error saving alert: " + e.getMessage());
+            System.err.println("Error counting file events: " + e.getMessage());
             e.printStackTrace();
+            return 0;
         }
     }
     
     /**
-     * Get all alerts from the database.
+     * Get the id of the newest file event.
      * 
-     * @return List of all alerts
+     * @return The id, or 0 if there are no events
      */
-    public synchronized List<Alert> getAllAlerts() {
-        List<Alert> alerts = new ArrayList<>();
-        String sql = "SELECT * FROM alerts ORDER BY created_at DESC";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                Alert alert = new Alert();
-                alert.setId(rs.getInt("id"));
-                alert.setFileEventId(rs.getInt("file_event_id"));
-                alert.setSeverity(rs.getString("severity"));
-                alert.setAcknowledged(rs.getBoolean("acknowledged"));
-                alert.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                alert.setActionsTaken(rs.getString("actions_taken"));
-                alerts.add(alert);
+    public long getLastEventId() {
+        try (ReaderPool.Lease lease = readerPool.acquire();
+             Statement stmt = lease.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM file_events")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            System.err.println("Error retrieving last file event id: " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+    }
+    
+    /**
+     * Get the number of file events matching a windowed query.
+     * 
+     * @param query The filters; the order is ignored
+     * @return The event count
+     */
+    public long getEventCount(EventQuery query) {
+        // Counting through an index and subtracting the few newer rows is quicker than
+        // counting the id range, which reads the table itself
+        StringBuilder filter = new StringBuilder();
+        List<Object> filterParams = new ArrayList<>();
+        appendQueryFilter(filter, filterParams, query, false);
+        StringBuilder sql = new StringBuilder("SELECT (SELECT COUNT(*) FROM file_events e WHERE 1 = 1");
+        sql.append(filter).append(")");
+        List<Object> params = new ArrayList<>(filterParams);
+        if (query.getMaxId() != Long.MAX_VALUE) {
+            sql.append(" - (SELECT COUNT(*) FROM file_events e WHERE e.id > ?").append(filter).append(")");
+            params.add(query.getMaxId());
+            params.addAll(filterParams);
+        }
+        try (ReaderPool.Lease lease = readerPool.acquire();
+             PreparedStatement stmt = lease.getConnection().prepareStatement(sql.toString())) {
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
             }
         } catch (SQLException e) {
-            System.err.println("Error retrieving alerts: " + e.getMessage());
+            System.err.println("Error counting file events: " + e.getMessage());
             e.printStackTrace();
+            return 0;
         }
-        
-        return alerts;
     }
     
     /**
-     * Close the database connection.
+     * Get a window of file events in the order of a query, counted from a known row,
+     * for a table that fetches its rows as they are scrolled into view. The rows are
+     * skipped in an index and only the window's rows are read, so a window next to a
+     * known row is a single range scan; skipping far costs one index entry per row.
+     * Sorted by event type, the types are read one after another in the order of
+     * their names, each through the (event_type_id, timestamp) index.
+     * 
+     * @param query The filters and order
+     * @param from The known row, or null for the start of the order (or the end if backward)
+     * @param backward Whether the window lies before the known row rather than after it
+     * @param skip The number of rows between the known row and the window
+     * @param limit The maximum number of events
+     * @return The events in the query's order; empty on error
      */
-    public synchronized void close() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                connection = null;
-                System.out.println("Database connection closed.");
+    public List<FileEvent> getEventsWindow(EventQuery query, FileEvent from, boolean backward, long skip, int limit) {
+        String[] keys = sortKeys(query.getSort());
+        boolean descending = query.isAscending() == backward;
+        try (ReaderPool.Lease lease = readerPool.acquire()) {
+            Connection reader = lease.getConnection();
+            List<Long> ids = new ArrayList<>(limit);
+            if (query.getSort() == EventSort.EVENT_TYPE) {
+                List<Long> typeIds = new ArrayList<>();
+                List<String> typeNames = new ArrayList<>();
+                try (Statement stmt = reader.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT id, name FROM event_types ORDER BY name, id")) {
+                    while (rs.next()) {
+                        if (query.getEventType() == null || query.getEventType().equals(rs.getString(2))) {
+                            typeIds.add(rs.getLong(1));
+                            typeNames.add(rs.getString(2));
+                        }
+                    }
+                }
+                if (descending) {
+                    Collections.reverse(typeIds);
+                    Collections.reverse(typeNames);
+                }
+                int first = from == null ? 0 : typeNames.indexOf(from.getEventType());
+                if (first < 0) {
+                    return new ArrayList<>();
+                }
+                long remaining = skip;
+                for (int i = first; i < typeIds.size() && ids.size() < limit; i++) {
+                    FileEvent after = i == first ? from : null;
+                    if (remaining > 0) {
+                        long rows = countWindowRows(reader, query, keys, typeIds.get(i), after, descending);
+                        if (rows <= remaining) {
+                            remaining -= rows;
+                            continue;
+                        }
+                    }
+                    ids.addAll(getWindowIds(reader, query, keys, typeIds.get(i), after, descending, remaining,
+                        limit - ids.size()));
+                    remaining = 0;
+                }
+            } else {
+                ids.addAll(getWindowIds(reader, query, keys, null, from, descending, skip, limit));
+            }
+            if (backward) {
+                Collections.reverse(ids);
             }
+            return loadByIds(reader, "file_events_view", ids, this::mapFileEvent);
         } catch (SQLException e) {
-            System.err.println("Error closing database connection: " + e.getMessage());
+            System.err.println("Error retrieving window of file events: " + e.getMessage());
             e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get the ids of a window of file events, of a single event type if one is given.
+     */
+    private List<Long> getWindowIds(Connection reader, EventQuery query, String[] keys, Long eventTypeId,
+                                    FileEvent from, boolean descending, long skip, int limit) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT e.id FROM file_events e WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        String[] columns = appendWindowFilter(sql, params, query, keys, eventTypeId, from, descending);
+        String direction = descending ? " DESC" : "";
+        sql.append(" ORDER BY ").append(String.join(direction + ", ", columns)).append(direction)
+            .append(" LIMIT ? OFFSET ?");
+        params.add(limit);
+        params.add(skip);
+        List<Long> ids = new ArrayList<>(limit);
+        try (PreparedStatement stmt = reader.prepareStatement(sql.toString())) {
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+    
+    /**
+     * Count the file events a window of a single event type could be taken from.
+     */
+    private long countWindowRows(Connection reader, EventQuery query, String[] keys, long eventTypeId,
+                                 FileEvent from, boolean descending) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM file_events e WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        appendWindowFilter(sql, params, query, keys, eventTypeId, from, descending);
+        try (PreparedStatement stmt = reader.prepareStatement(sql.toString())) {
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+    
+    /**
+     * Append the conditions of an event window: the query's filters, the event type
+     * if one is given and the rows past the known row.
+     * 
+     * @return The columns of the sort keys
+     */
+    private String[] appendWindowFilter(StringBuilder sql, List<Object> params, EventQuery query, String[] keys,
+                                        Long eventTypeId, FileEvent from, boolean descending) {
+        String[] columns = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            columns[i] = keys[i].equals("e.timestamp") ? eventTime("e.") : keys[i];
+        }
+        appendQueryFilter(sql, params, query, true);
+        if (eventTypeId != null) {
+            sql.append(" AND e.event_type_id = ?");
+            params.add(eventTypeId);
+        }
+        if (from != null) {
+            List<String> values = new ArrayList<>();
+            for (String key : keys) {
+                values.add("?");
+                switch (key) {
+                    case "e.suspicious" -> params.add(from.isSuspicious() ? 1 : 0);
+                    case "e.timestamp" -> params.add(TimeUtil.toEpochMillis(from.getTimestamp()));
+                    default -> params.add(from.getId());
+                }
+            }
+            sql.append(" AND (").append(String.join(", ", columns)).append(descending ? ") < (" : ") > (")
+                .append(String.join(", ", values)).append(")");
+        }
+        return columns;
+    }
+    
+    /**
+     * Get the columns an event order sorts by, each backed by an index and ending in
+     * the id so that the order is total. The event type is not among them: its rows
+     * are read one type at a time, by name.
+     */
+    private static String[] sortKeys(EventSort sort) {
+        return switch (sort) {
+            case TIMESTAMP, EVENT_TYPE -> new String[] {"e.timestamp", "e.id"};
+            case STATUS -> new String[] {"e.suspicious", "e.timestamp", "e.id"};
+        };
+    }
+    
+    /**
+     * Append the filter conditions of a windowed event query, each starting with AND.
+     */
+    private static void appendQueryFilter(StringBuilder sql, List<Object> params, EventQuery query, boolean bounded) {
+        if (query.getEventType() != null) {
+            sql.append(" AND e.event_type_id = (SELECT id FROM event_types WHERE name = ?)");
+            params.add(query.getEventType());
+        }
+        if (query.getSeverity() != null) {
+            sql.append(" AND e.id IN (SELECT file_event_id FROM alerts"
+                + " WHERE severity_id = (SELECT id FROM severities WHERE name = ?))");
+            params.add(query.getSeverity());
+        }
+        if (query.isSuspiciousOnly()) {
+            sql.append(" AND e.suspicious = TRUE");
+        }
+        if (bounded && query.getMaxId() != Long.MAX_VALUE) {
+            sql.append(" AND e.id <= ?");
+            params.add(query.getMaxId());
+        }
+    }
+    
+    /**
+     * Append the WHERE clause of an event query.
+     * The conditions match the (timestamp) and (suspicious, timestamp) indexes.
+     */
+    private void appendEventFilter(StringBuilder sql, List<Object> params, LocalDateTime startDate,
+                                   LocalDateTime endDate, boolean suspiciousOnly, EventCursor after) {
+        String timestamp = eventTime("");
+        List<String> conditions = new ArrayList<>();
+        if (suspiciousOnly) {
+            conditions.add("suspicious = TRUE");
+        }
+        if (startDate != null) {
+            conditions.add(timestamp + " >= ?");
+            params.add(TimeUtil.toEpochMillis(startDate));
+        }
+        if (endDate != null) {
+            conditions.add(timestamp + " <= ?");
+            params.add(TimeUtil.toEpochMillis(endDate));
+        }
+        if (after != null) {
+            conditions.add("(" + timestamp + ", id) < (?, ?)");
+            params.add(TimeUtil.toEpochMillis(after.getTimestamp()));
+            params.add(after.getId());
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+    }
+    
+    /**
+     * Get the SQL for the event timestamp as epoch milliseconds.
+     * Until the {@link TimestampBackfill} has converted every event, some rows still
+     * hold text, which SQLite sorts after every number; those rows are converted in
+     * the query instead, at the cost of the timestamp indexes.
+     * 
+     * @param alias The table alias with its dot, or empty
+     * @return The column, or an expression while text timestamps remain
+     */
+    private String eventTime(String alias) {
+        return legacyEventTimes ? legacyTime(alias + "timestamp", true) : alias + "timestamp";
+    }
+    
+    /**
+     * Get the SQL for the alert creation time as epoch milliseconds, see {@link #eventTime}.
+     * 
+     * @param alias The table alias with its dot, or empty
+     * @return The column, or an expression while text times remain
+     */
+    private String alertTime(String alias) {
+        return legacyAlertTimes ? legacyTime(alias + "created_at", false) : alias + "created_at";
+    }
+    
+    private static String legacyTime(String column, boolean textIsLocal) {
+        return "(CASE WHEN typeof(" + column + ") = 'text' THEN CAST(ROUND((julianday(" + column
+            + (textIsLocal ? ", 'utc'" : "") + ") - 2440587.5) * 86400000) AS INTEGER) ELSE " + column + " END)";
+    }
+    
+    /**
+     * Check which timestamp backfills are still running; until then reads convert
+     * text timestamps as they go.
+     */
+    private void checkLegacyTimes() throws SQLException {
+        boolean events = false;
+        boolean alerts = false;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM online_migrations WHERE completed_at IS NULL")) {
+            while (rs.next()) {
+                events |= TimestampBackfill.EVENT_TIMESTAMPS.equals(rs.getString(1));
+                alerts |= TimestampBackfill.ALERT_TIMESTAMPS.equals(rs.getString(1));
+            }
+        }
+        legacyEventTimes = events;
+        legacyAlertTimes = alerts;
+    }
+    
+    private static void bind(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            Object param = params.get(i);
+            if (param instanceof Long value) {
+                stmt.setLong(i + 1, value);
+            } else if (param instanceof Integer value) {
+                stmt.setInt(i + 1, value);
+            } else {
+                stmt.setString(i + 1, String.valueOf(param));
+            }
+        }
+    }
+    
+    /**
+     * Map the current row of a file_events_view result set to a FileEvent.
+     * 
+     * @param rs The result set positioned on a row
+     * @return The file event
+     */
+    private FileEvent mapFileEvent(ResultSet rs) throws SQLException {
+        FileEvent event = new FileEvent();
+        event.setId(rs.getLong("id"));
+        event.setFileName(rs.getString("file_name"));
+        event.setFilePath(rs.getString("file_path"));
+        event.setEventType(rs.getString("event_type"));
+        event.setTimestamp(getTime(rs, "timestamp", false));
+        event.setSha256(rs.getString("sha256"));
+        event.setSuspicious(rs.getBoolean("suspicious"));
+        event.setReconstructed(rs.getBoolean("reconstructed"));
+        event.setMergedCount(Math.max(1, rs.getInt("merged_count")));
+        String hashAlgorithm = rs.getString("hash_algorithm");
+        event.setHashAlgorithm(hashAlgorithm != null ? hashAlgorithm : "SHA-256");
+        String hashTier = rs.getString("hash_tier");
+        event.setHashTier(hashTier != null ? hashTier : FileEvent.HASH_TIER_FULL);
+        return event;
+    }
+    
+    /**
+     * Read a time column stored as epoch milliseconds.
+     * Rows the {@link TimestampBackfill} has not converted yet still hold text.
+     * 
+     * @param rs The result set positioned on a row
+     * @param column The column name
+     * @param textIsUtc Whether legacy text values are in UTC rather than local time
+     * @return The time in the system time zone, or null if the column is null
+     */
+    private static LocalDateTime getTime(ResultSet rs, String column, boolean textIsUtc) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Number millis) {
+            return TimeUtil.fromEpochMillis(millis.longValue());
+        }
+        return value != null ? TimeUtil.parseLegacy(value.toString(), textIsUtc) : null;
+    }
+    
+    /**
+     * Save an alert to the database and set its id.
+     * Alerts raised by a new event are saved with it by {@link #saveEvent(FileEvent, Alert)}.
+     * 
+     * @param alert The alert to save
+     */
+    public synchronized void saveAlert(Alert alert) {
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                RollupBatch rollups = new RollupBatch();
+                long id = insertAlerts(List.of(alert), null, rollups)[0];
+                rollups.write(connection);
+                connection.commit();
+                alert.setId((int) id);
+                System.out.println("Alert saved successfully with severity: " + alert.getSeverity());
+            } catch (SQLException e) {
+                connection.rollback();
+                dictionary.clear();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error saving alert: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Mark an alert as acknowledged. Acknowledged alerts expire under the retention policy.
+     * 
+     * @param alertId The alert id
+     * @return true if the alert exists
+     */
+    public synchronized boolean acknowledgeAlert(int alertId) {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "UPDATE alerts SET acknowledged = TRUE, acknowledged_at = ? WHERE id = ?")) {
+            stmt.setLong(1, System.currentTimeMillis());
+            stmt.setInt(2, alertId);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error acknowledging alert " + alertId + ": " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    /**
+     * Get all alerts from the database.
+     * 
+     * @return List of all alerts
+     */
+    public List<Alert> getAllAlerts() {
+        List<Alert> alerts = new ArrayList<>();
+        String sql = "SELECT * FROM alerts_view ORDER BY " + alertTime("") + " DESC";
+        
+        try (ReaderPool.Lease lease = readerPool.acquire();
+             Statement stmt = lease.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            while (rs.next()) {
+                alerts.add(mapAlert(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving alerts: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return alerts;
+    }
+    
+    /**
+     * Get one page of alerts with the file events that raised them, newest first,
+     * using keyset pagination on (created_at, id). The events are joined in the same
+     * query, so showing a page takes one round trip however many alerts it holds.
+     * 
+     * @param severity The severity to return, or null for every severity
+     * @param acknowledged Whether to return acknowledged or open alerts, or null for both
+     * @param after The cursor returned with the previous page, or null for the first page
+     * @param limit The maximum number of alerts
+     * @return The page; empty with no next cursor on error
+     */
+    public AlertPage getAlertsPage(String severity, Boolean acknowledged, AlertCursor after, int limit) {
+        // Joins the base tables rather than the two views, which SQLite would materialize in full
+        StringBuilder sql = new StringBuilder("SELECT a.id, a.file_event_id, s.name AS severity, a.acknowledged,"
+            + " a.created_at, a.actions_taken, a.acknowledged_at, COALESCE(n.name, pn.name) AS file_name,"
+            + " CASE WHEN p.directory_id = 0 THEN NULL ELSE d.path || pn.name END AS file_path,"
+            + " t.name AS event_type, e.timestamp, e.sha256, e.suspicious, e.reconstructed, e.merged_count,"
+            + " e.hash_algorithm, e.hash_tier"
+            + " FROM alerts a LEFT JOIN severities s ON s.id = a.severity_id"
+            + " LEFT JOIN file_events e ON e.id = a.file_event_id"
+            + " LEFT JOIN file_paths p ON p.id = e.path_id"
+            + " LEFT JOIN file_names pn ON pn.id = p.name_id"
+            + " LEFT JOIN directories d ON d.id = p.directory_id"
+            + " LEFT JOIN file_names n ON n.id = e.name_id"
+            + " LEFT JOIN event_types t ON t.id = e.event_type_id");
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        if (severity != null) {
+            conditions.add("a.severity_id = (SELECT id FROM severities WHERE name = ?)");
+            params.add(severity);
+        }
+        if (acknowledged != null) {
+            conditions.add("a.acknowledged = " + (acknowledged ? "TRUE" : "FALSE"));
+        }
+        if (after != null) {
+            conditions.add("(" + alertTime("a.") + ", a.id) < (?, ?)");
+            params.add(TimeUtil.toEpochMillis(after.getCreatedAt()));
+            params.add(after.getId());
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ").append(alertTime("a.")).append(" DESC, a.id DESC LIMIT ?");
+        params.add(limit + 1); // One extra row tells whether another page follows
+        
+        List<AlertDetails> alerts = new ArrayList<>(Math.min(limit, STREAM_FETCH_SIZE));
+        try (ReaderPool.Lease lease = readerPool.acquire();
+             PreparedStatement stmt = lease.getConnection().prepareStatement(sql.toString())) {
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Alert alert = mapAlert(rs);
+                    FileEvent event = null;
+                    if (rs.getString("file_name") != null) {
+                        // The event columns follow the alert's; "id" is the alert's own
+                        event = mapFileEvent(rs);
+                        event.setId(alert.getFileEventId());
+                    }
+                    alerts.add(new AlertDetails(alert, event));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving page of alerts: " + e.getMessage());
+            e.printStackTrace();
+            return new AlertPage(new ArrayList<>(), null);
+        }
+        AlertCursor next = null;
+        if (alerts.size() > limit) {
+            alerts.remove(alerts.size() - 1);
+            next = AlertCursor.after(alerts.get(alerts.size() - 1).getAlert());
+        }
+        return new AlertPage(alerts, next);
+    }
+    
+    /**
+     * Map the current row of an alerts_view result set to an Alert.
+     * 
+     * @param rs The result set positioned on a row
+     * @return The alert
+     */
+    private Alert mapAlert(ResultSet rs) throws SQLException {
+        Alert alert = new Alert();
+        alert.setId(rs.getInt("id"));
+        alert.setFileEventId(rs.getInt("file_event_id"));
+        alert.setSeverity(rs.getString("severity"));
+        alert.setAcknowledged(rs.getBoolean("acknowledged"));
+        alert.setCreatedAt(getTime(rs, "created_at", true));
+        alert.setActionsTaken(rs.getString("actions_taken"));
+        return alert;
+    }
+    
+    /**
+     * Search file names and paths for a substring, ignoring case. Events whose file
+     * name contains it rank first, shorter names before longer ones, then newest first.
+     * Up to {@link #SEARCH_RANK_WINDOW} of the newest matches are ranked.
+     * The index covers each distinct file path once; an event whose file name is not
+     * the last component of its path is found by its path only.
+     * 
+     * @param text The text to find
+     * @param offset The number of results to skip
+     * @param limit The maximum number of results
+     * @return The page of matching events
+     */
+    public SearchPage<FileEvent> searchEvents(String text, int offset, int limit) {
+        return search(text, this::findEventIds, "file_events_view", offset, limit, this::mapFileEvent);
+    }
+    
+    /**
+     * Find the events of the file paths containing the text, or check the newest
+     * events themselves if the text is short or found in many paths.
+     */
+    private List<Long> findEventIds(Connection reader, SearchQuery query) throws SQLException {
+        List<SearchQuery.Hit> paths = query.isIndexable()
+            ? query.findHits(reader, SearchIndexBuilder.PATH_SEARCH, "file_paths_view", EVENT_SEARCH_COLUMNS,
+                SEARCH_PATH_LOOKUPS + 1, SEARCH_SCAN_LIMIT)
+            : null;
+        if (paths == null || paths.size() > SEARCH_PATH_LOOKUPS) {
+            return query.findIds(reader, null, "file_events_view", EVENT_SEARCH_COLUMNS, SEARCH_RANK_WINDOW,
+                SEARCH_SCAN_LIMIT);
+        }
+        List<SearchQuery.Hit> events = paths.size() > 1 ? findNewestEventsOnPaths(reader, paths) : null;
+        if (events == null) {
+            events = new ArrayList<>();
+            try (PreparedStatement stmt = reader.prepareStatement(
+                    "SELECT id FROM file_events WHERE path_id = ? ORDER BY id DESC LIMIT ?")) {
+                for (SearchQuery.Hit path : paths) {
+                    stmt.setLong(1, path.getId());
+                    stmt.setInt(2, SEARCH_RANK_WINDOW);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            events.add(path.withId(rs.getLong(1)));
+                        }
+                    }
+                }
+            }
+        }
+        if (events.size() > SEARCH_RANK_WINDOW) {
+            // Rank the newest matches only, like every other search
+            events.sort((a, b) -> Long.compare(b.getId(), a.getId()));
+            events = new ArrayList<>(events.subList(0, SEARCH_RANK_WINDOW));
+        }
+        return SearchQuery.rank(events);
+    }
+    
+    /**
+     * Find the newest events on any of several paths by checking the newest events
+     * in turn, which is quicker than reading every path's events when the paths are
+     * busy. Gives up after {@link #SEARCH_SCAN_LIMIT} events, or as soon as the
+     * first few thousand show the matches are too sparse to be found within it.
+     * 
+     * @return The newest matching events, or null if the scan gave up before finding enough
+     */
+    private List<SearchQuery.Hit> findNewestEventsOnPaths(Connection reader, List<SearchQuery.Hit> paths)
+            throws SQLException {
+        Map<Long, SearchQuery.Hit> pathsById = new HashMap<>();
+        for (SearchQuery.Hit path : paths) {
+            pathsById.put(path.getId(), path);
+        }
+        List<SearchQuery.Hit> events = new ArrayList<>();
+        int scanned = 0;
+        try (PreparedStatement stmt = reader.prepareStatement(
+                "SELECT id, path_id FROM file_events ORDER BY id DESC LIMIT ?")) {
+            stmt.setInt(1, SEARCH_SCAN_LIMIT);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (++scanned == SEARCH_DENSITY_SAMPLE
+                            && (long) events.size() * SEARCH_SCAN_LIMIT < (long) SEARCH_RANK_WINDOW * scanned) {
+                        return null;
+                    }
+                    SearchQuery.Hit path = pathsById.get(rs.getLong(2));
+                    if (path != null) {
+                        events.add(path.withId(rs.getLong(1)));
+                        if (events.size() == SEARCH_RANK_WINDOW) {
+                            return events;
+                        }
+                    }
+                }
+            }
+        }
+        return scanned < SEARCH_SCAN_LIMIT ? events : null;
+    }
+    
+    /**
+     * Search the actions taken on alerts for a substring, ignoring case. Shorter
+     * texts rank first, then newest first.
+     * Up to {@link #SEARCH_RANK_WINDOW} of the newest matches are ranked.
+     * 
+     * @param text The text to find
+     * @param offset The number of results to skip
+     * @param limit The maximum number of results
+     * @return The page of matching alerts
+     */
+    public SearchPage<Alert> searchAlerts(String text, int offset, int limit) {
+        return search(text, (reader, query) -> query.findIds(reader, SearchIndexBuilder.ALERT_SEARCH, "alerts",
+            new String[] {"actions_taken"}, SEARCH_RANK_WINDOW, SEARCH_SCAN_LIMIT), "alerts_view", offset, limit,
+            this::mapAlert);
+    }
+    
+    /**
+     * Map the current row of a result set.
+     */
+    private interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+    
+    /**
+     * Find the ids of the matches of a search in rank order.
+     */
+    private interface MatchFinder {
+        List<Long> find(Connection reader, SearchQuery query) throws SQLException;
+    }
+    
+    /**
+     * Rank the matches of a search by their id and search columns only, then load
+     * the rows of the requested page.
+     */
+    private <T> SearchPage<T> search(String text, MatchFinder finder, String table, int offset, int limit,
+                                     RowMapper<T> mapper) {
+        SearchQuery query = new SearchQuery(text);
+        List<T> results = new ArrayList<>();
+        offset = Math.max(0, offset);
+        if (query.isEmpty() || limit <= 0) {
+            return new SearchPage<>(results, offset, false);
+        }
+        boolean hasMore = false;
+        try (ReaderPool.Lease lease = readerPool.acquire()) {
+            Connection reader = lease.getConnection();
+            List<Long> ids = finder.find(reader, query);
+            int to = Math.min(offset + limit, ids.size());
+            List<Long> page = ids.subList(Math.min(offset, to), to);
+            hasMore = ids.size() > to;
+            results = loadByIds(reader, table, page, mapper);
+        } catch (SQLException e) {
+            System.err.println("Error searching for " + query + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new SearchPage<>(results, offset, hasMore);
+    }
+    
+    /**
+     * Load rows by id in the order of the ids. Ids whose row no longer exists are skipped.
+     */
+    private <T> List<T> loadByIds(Connection reader, String table, List<Long> ids, RowMapper<T> mapper)
+            throws SQLException {
+        List<T> results = new ArrayList<>(ids.size());
+        if (ids.isEmpty()) {
+            return results;
+        }
+        Map<Long, T> rows = new HashMap<>();
+        try (PreparedStatement stmt = reader.prepareStatement("SELECT * FROM " + table + " WHERE id IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")")) {
+            bind(stmt, new ArrayList<>(ids));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.put(rs.getLong("id"), mapper.map(rs));
+                }
+            }
+        }
+        for (Long id : ids) {
+            T row = rows.get(id);
+            if (row != null) {
+                results.add(row);
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Insert or update a batch of file fingerprints in a single transaction.
+     * Fingerprints are keyed by file path.
+     * 
+     * @param fingerprints The fingerprints to save
+     */
+    public synchronized void saveFingerprints(List<FileFingerprint> fingerprints) {
+        if (fingerprints.isEmpty()) {
+            return;
+        }
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                writeFingerprints(fingerprints);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error saving " + fingerprints.size() + " file fingerprints: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    private void writeFingerprints(List<FileFingerprint> fingerprints) throws SQLException {
+        String sql = """
+            INSERT INTO file_fingerprints (file_path, file_key, sha256, hash_algorithm, size, last_modified_ms, last_seen)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT(file_path) DO UPDATE SET
+                file_key = excluded.file_key,
+                sha256 = excluded.sha256,
+                hash_algorithm = excluded.hash_algorithm,
+                size = excluded.size,
+                last_modified_ms = excluded.last_modified_ms,
+                last_seen = excluded.last_seen
+            """;
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (FileFingerprint fingerprint : fingerprints) {
+                stmt.setString(1, fingerprint.getFilePath());
+                stmt.setString(2, fingerprint.getFileKey());
+                stmt.setString(3, fingerprint.getSha256());
+                stmt.setString(4, fingerprint.getHashAlgorithm());
+                stmt.setLong(5, fingerprint.getSize());
+                stmt.setLong(6, fingerprint.getLastModifiedMillis());
+                stmt.setTimestamp(7, Timestamp.valueOf(fingerprint.getLastSeen() != null
+                    ? fingerprint.getLastSeen() : LocalDateTime.now()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+    
+    /**
+     * Get the persisted fingerprint of a file.
+     * 
+     * @param filePath The full path of the file
+     * @return The fingerprint, or null if none is stored
+     */
+    public FileFingerprint getFingerprint(String filePath) {
+        String sql = "SELECT * FROM file_fingerprints WHERE file_path = ?";
+        try (ReaderPool.Lease lease = readerPool.acquire();
+             PreparedStatement stmt = lease.getConnection().prepareStatement(sql)) {
+            stmt.setString(1, filePath);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    FileFingerprint fingerprint = new FileFingerprint();
+                    fingerprint.setId(rs.getInt("id"));
+                    fingerprint.setFilePath(rs.getString("file_path"));
+                    fingerprint.setFileKey(rs.getString("file_key"));
+                    fingerprint.setSha256(rs.getString("sha256"));
+                    fingerprint.setHashAlgorithm(rs.getString("hash_algorithm"));
+                    fingerprint.setSize(rs.getLong("size"));
+                    fingerprint.setLastModifiedMillis(rs.getLong("last_modified_ms"));
+                    Timestamp lastSeen = rs.getTimestamp("last_seen");
+                    fingerprint.setLastSeen(lastSeen != null ? lastSeen.toLocalDateTime() : null);
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    fingerprint.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+                    return fingerprint;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving fingerprint for " + filePath + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+    
+    /**
+     * Get the paths of the persisted fingerprints below a directory.
+     * 
+     * @param dir The directory
+     * @return The file paths in path order
+     */
+    public List<String> getFingerprintPathsUnder(Path dir) {
+        String prefix = dir.toString().endsWith(File.separator) ? dir.toString() : dir + File.separator;
+        List<String> paths = new ArrayList<>();
+        // A range on the unique file_path index: every path with the prefix sorts inside it
+        String sql = "SELECT file_path FROM file_fingerprints WHERE file_path >= ? AND file_path < ? ORDER BY file_path";
+        try (ReaderPool.Lease lease = readerPool.acquire();
+             PreparedStatement stmt = lease.getConnection().prepareStatement(sql)) {
+            stmt.setString(1, prefix);
+            stmt.setString(2, prefix + '\uffff');
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    paths.add(rs.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving fingerprints under " + dir + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return paths;
+    }
+    
+    /**
+     * Delete the persisted fingerprint of a file.
+     * 
+     * @param filePath The full path of the file
+     */
+    public synchronized void deleteFingerprint(String filePath) {
+        String sql = "DELETE FROM file_fingerprints WHERE file_path = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, filePath);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error deleting fingerprint for " + filePath + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Find the latest baseline run over the given roots that did not complete.
+     * 
+     * @param roots The monitored roots, one per line
+     * @return The run id, or -1 if there is nothing to resume
+     */
+    public long getUnfinishedBaselineRun(String roots) {
+        String sql = "SELECT id FROM baseline_runs WHERE roots = ? AND completed_at IS NULL ORDER BY id DESC LIMIT 1";
+        try (ReaderPool.Lease lease = readerPool.acquire();
+             PreparedStatement stmt = lease.getConnection().prepareStatement(sql)) {
+            stmt.setString(1, roots);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong("id");
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving unfinished baseline run: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+    
+    /**
+     * Record the start of a new baseline run.
+     * 
+     * @param roots The monitored roots, one per line
+     * @param hashAlgorithm The hash algorithm of the run
+     * @return The run id, or -1 on error
+     */
+    public synchronized long createBaselineRun(String roots, String hashAlgorithm) {
+        String sql = "INSERT INTO baseline_runs (roots, hash_algorithm) VALUES (?, ?)";
+        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, roots);
+            stmt.setString(2, hashAlgorithm);
+            stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    return rs.getLong(1);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error creating baseline run: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+    
+    /**
+     * Get the directories a baseline run has already fingerprinted completely.
+     * 
+     * @param runId The baseline run
+     * @return The directory paths
+     */
+    public Set<String> getCompletedBaselineDirectories(long runId) {
+        Set<String> directories = new HashSet<>();
+        String sql = "SELECT directory FROM baseline_progress WHERE run_id = ?";
+        try (ReaderPool.Lease lease = readerPool.acquire();
+             PreparedStatement stmt = lease.getConnection().prepareStatement(sql)) {
+            stmt.setLong(1, runId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    directories.add(rs.getString("directory"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving baseline progress: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return directories;
+    }
+    
+    /**
+     * Save a batch of baseline fingerprints together with the directories they complete,
+     * in a single transaction, so an interrupted run resumes from a consistent point.
+     * 
+     * @param runId The baseline run
+     * @param fingerprints The fingerprints to save
+     * @param completedDirectories Directories whose files are all in this or an earlier batch
+     * @return true if the batch was committed
+     */
+    public synchronized boolean saveBaselineBatch(long runId, List<FileFingerprint> fingerprints,
+                                                  List<String> completedDirectories) {
+        String sql = "INSERT OR IGNORE INTO baseline_progress (run_id, directory) VALUES (?, ?)";
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                writeFingerprints(fingerprints);
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    for (String directory : completedDirectories) {
+                        stmt.setLong(1, runId);
+                        stmt.setString(2, directory);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+                long bytes = 0;
+                for (FileFingerprint fingerprint : fingerprints) {
+                    bytes += fingerprint.getSize();
+                }
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        "UPDATE baseline_runs SET file_count = file_count + ?, byte_count = byte_count + ? WHERE id = ?")) {
+                    stmt.setLong(1, fingerprints.size());
+                    stmt.setLong(2, bytes);
+                    stmt.setLong(3, runId);
+                    stmt.executeUpdate();
+                }
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error saving baseline batch of " + fingerprints.size() + " fingerprints: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    /**
+     * Mark a baseline run as complete and drop its progress rows.
+     * 
+     * @param runId The baseline run
+     */
+    public synchronized void completeBaselineRun(long runId) {
+        try (PreparedStatement update = connection.prepareStatement(
+                 "UPDATE baseline_runs SET completed_at = ? WHERE id = ?");
+             PreparedStatement delete = connection.prepareStatement(
+                 "DELETE FROM baseline_progress WHERE run_id = ?")) {
+            update.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            update.setLong(2, runId);
+            update.executeUpdate();
+            delete.setLong(1, runId);
+            delete.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error completing baseline run " + runId + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Work done on one id range of an online migration, inside its transaction.
+     */
+    private interface ChunkWork {
+        int apply(long fromId, long toId) throws SQLException;
+    }
+    
+    /**
+     * Run the next chunk of an online migration: the work for the next id range
+     * commits together with the new position, so a stopped migration resumes where
+     * it left off and concurrent runners share the work.
+     * 
+     * @param name The migration name in online_migrations
+     * @param chunkRows The number of row ids to visit
+     * @param work The work for the range (fromId, toId]
+     * @return The rows processed, or -1 if the migration is complete
+     */
+    private int runMigrationChunk(String name, int chunkRows, ChunkWork work) throws SQLException {
+        long lastId;
+        long targetId;
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT last_id, target_id FROM online_migrations WHERE name = ? AND completed_at IS NULL")) {
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return -1;
+                }
+                lastId = rs.getLong(1);
+                targetId = rs.getLong(2);
+            }
+        }
+        long upperId = Math.min(lastId + chunkRows, targetId);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement progress = connection.prepareStatement(
+                 "UPDATE online_migrations SET last_id = ?, completed_at = ? WHERE name = ?")) {
+            int rows = work.apply(lastId, upperId);
+            progress.setLong(1, upperId);
+            if (upperId >= targetId) {
+                progress.setLong(2, System.currentTimeMillis());
+            } else {
+                progress.setNull(2, Types.INTEGER);
+            }
+            progress.setString(3, name);
+            progress.executeUpdate();
+            connection.commit();
+            return rows;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    
+    /**
+     * Convert the next chunk of an online timestamp migration. Rows in the next id
+     * range whose column still holds text get the converted value.
+     * 
+     * @param name The migration name in online_migrations
+     * @param table The table to convert
+     * @param column The column to convert
+     * @param expression The SQL expression giving the converted value
+     * @param chunkRows The number of row ids to visit
+     * @return The number of rows converted, or -1 if the migration is complete
+     * @throws SQLException if the chunk was rolled back
+     */
+    synchronized int backfillChunk(String name, String table, String column, String expression, int chunkRows)
+            throws SQLException {
+        int rows = runMigrationChunk(name, chunkRows, (fromId, toId) -> {
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE " + table + " SET " + column + " = " + expression
+                        + " WHERE id > ? AND id <= ? AND typeof(" + column + ") = 'text'")) {
+                update.setLong(1, fromId);
+                update.setLong(2, toId);
+                return update.executeUpdate();
+            }
+        });
+        if (rows < 0) {
+            // Every row holds a number now, so reads can use the indexes again
+            legacyEventTimes &= !TimestampBackfill.EVENT_TIMESTAMPS.equals(name);
+            legacyAlertTimes &= !TimestampBackfill.ALERT_TIMESTAMPS.equals(name);
+        }
+        return rows;
+    }
+    
+    /**
+     * Add the next chunk of stored events to the event rollups.
+     * 
+     * @param chunkRows The number of event ids to visit
+     * @return The number of events counted, or -1 if the rebuild is complete
+     * @throws SQLException if the chunk was rolled back
+     */
+    synchronized int rebuildEventRollupChunk(int chunkRows) throws SQLException {
+        return runMigrationChunk(RollupRebuilder.EVENT_ROLLUPS, chunkRows, (fromId, toId) -> {
+            RollupBatch rollups = new RollupBatch();
+            int rows = 0;
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT timestamp, event_type, suspicious FROM file_events_view WHERE id > ? AND id <= ?")) {
+                stmt.setLong(1, fromId);
+                stmt.setLong(2, toId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rollups.addEvent(getTime(rs, "timestamp", false), rs.getString("event_type"),
+                            rs.getBoolean("suspicious"));
+                        rows++;
+                    }
+                }
+            }
+            rollups.write(connection);
+            return rows;
+        });
+    }
+    
+    /**
+     * Add the next chunk of stored alerts to the alert rollups.
+     * 
+     * @param chunkRows The number of alert ids to visit
+     * @return The number of alerts counted, or -1 if the rebuild is complete
+     * @throws SQLException if the chunk was rolled back
+     */
+    synchronized int rebuildAlertRollupChunk(int chunkRows) throws SQLException {
+        return runMigrationChunk(RollupRebuilder.ALERT_ROLLUPS, chunkRows, (fromId, toId) -> {
+            RollupBatch rollups = new RollupBatch();
+            int rows = 0;
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT created_at, severity FROM alerts_view WHERE id > ? AND id <= ?")) {
+                stmt.setLong(1, fromId);
+                stmt.setLong(2, toId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rollups.addAlert(getTime(rs, "created_at", true), rs.getString("severity"));
+                        rows++;
+                    }
+                }
+            }
+            rollups.write(connection);
+            return rows;
+        });
+    }
+    
+    /**
+     * Add the next chunk of stored alerts to their full-text index.
+     * 
+     * @param chunkRows The number of alert ids to visit
+     * @return The number of alerts indexed, or -1 if the index is complete
+     * @throws SQLException if the chunk was rolled back
+     */
+    synchronized int buildAlertSearchChunk(int chunkRows) throws SQLException {
+        return runMigrationChunk(SearchIndexBuilder.ALERT_SEARCH, chunkRows, (fromId, toId) -> {
+            try (PreparedStatement stmt = connection.prepareStatement("INSERT INTO alert_search (rowid, actions_taken)"
+                    + " SELECT id, actions_taken FROM alerts WHERE id > ? AND id <= ?")) {
+                stmt.setLong(1, fromId);
+                stmt.setLong(2, toId);
+                return stmt.executeUpdate();
+            }
+        });
+    }
+    
+    /**
+     * Rebuild the rollup tables from the stored events and alerts, e.g. after they
+     * were imported or edited outside the application. The tables are emptied at once
+     * and refilled in chunks on the calling thread while ingestion continues; counts
+     * read in the meantime are incomplete.
+     * 
+     * @return true if the rebuild completed
+     */
+    public boolean rebuildRollups() {
+        synchronized (this) {
+            try {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("DELETE FROM event_rollups");
+                    stmt.execute("DELETE FROM alert_rollups");
+                    stmt.execute("INSERT OR REPLACE INTO online_migrations (name, last_id, target_id, completed_at) "
+                        + "SELECT '" + RollupRebuilder.EVENT_ROLLUPS + "', 0, COALESCE(MAX(id), 0), NULL FROM file_events");
+                    stmt.execute("INSERT OR REPLACE INTO online_migrations (name, last_id, target_id, completed_at) "
+                        + "SELECT '" + RollupRebuilder.ALERT_ROLLUPS + "', 0, COALESCE(MAX(id), 0), NULL FROM alerts");
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error resetting rollups: " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+        }
+        return new RollupRebuilder(this, DatabaseConfig.BACKFILL_CHUNK_ROWS, 0).run();
+    }
+    
+    /**
+     * Get event counts per time bucket, event type and suspicious flag from the rollups.
+     * Whole buckets are counted: the first is the one containing the start time.
+     * 
+     * @param resolution The bucket size
+     * @param startDate The earliest time, or null for no lower bound
+     * @param endDate The latest time, or null for no upper bound
+     * @return The non-empty buckets in time order
+     */
+    public List<EventRollup> getEventRollups(RollupResolution resolution, LocalDateTime startDate, LocalDateTime endDate) {
+        List<EventRollup> rollups = new ArrayList<>();
+        String sql = "SELECT bucket_start, event_type, suspicious, event_count FROM event_rollups"
+            + " WHERE resolution = ? AND bucket_start >= ? AND bucket_start <= ? ORDER BY bucket_start";
+        try (ReaderPool.Lease lease = readerPool.acquire();
+             PreparedStatement stmt = lease.getConnection().prepareStatement(sql)) {
+            bindRollupRange(stmt, resolution, startDate, endDate);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rollups.add(new EventRollup(TimeUtil.fromEpochMillis(rs.getLong(1)), rs.getString(2),
+                        rs.getBoolean(3), rs.getLong(4)));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving event rollups: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return rollups;
+    }
+    
+    /**
+     * Get the number of events in every bucket of a time range from the rollups, for
+     * charting. Buckets without events count as 0, so the series has one entry per
+     * bucket from the one containing the start time to the one containing the end.
+     * 
+     * @param resolution The bucket size
+     * @param startDate The start of the range
+     * @param endDate The end of the range
+     * @return The counts, in time order
+     */
+    public long[] getEventCountSeries(RollupResolution resolution, LocalDateTime startDate, LocalDateTime endDate) {
+        LocalDateTime first = resolution.truncate(startDate);
+        long stepMillis = resolution.getDuration().toMillis();
+        long[] counts = new long[(int) (Duration.between(first, endDate).toMillis() / stepMillis) + 1];
+        for (EventRollup rollup : getEventRollups(resolution, startDate, endDate)) {
+            long bucket = Duration.between(first, rollup.getBucketStart()).toMillis() / stepMillis;
+            if (bucket >= 0 && bucket < counts.length) {
+                counts[(int) bucket] += rollup.getCount();
+            }
+        }
+        return counts;
+    }
+    
+    /**
+     * Get alert counts per time bucket and severity from the rollups.
+     * Whole buckets are counted: the first is the one containing the start time.
+     * 
+     * @param resolution The bucket size
+     * @param startDate The earliest time, or null for no lower bound
+     * @param endDate The latest time, or null for no upper bound
+     * @return The non-empty buckets in time order
+     */
+    public List<AlertRollup> getAlertRollups(RollupResolution resolution, LocalDateTime startDate, LocalDateTime endDate) {
+        List<AlertRollup> rollups = new ArrayList<>();
+        String sql = "SELECT bucket_start, severity, alert_count FROM alert_rollups"
+            + " WHERE resolution = ? AND bucket_start >= ? AND bucket_start <= ? ORDER BY bucket_start";
+        try (ReaderPool.Lease lease = readerPool.acquire();
+             PreparedStatement stmt = lease.getConnection().prepareStatement(sql)) {
+            bindRollupRange(stmt, resolution, startDate, endDate);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rollups.add(new AlertRollup(TimeUtil.fromEpochMillis(rs.getLong(1)), rs.getString(2), rs.getLong(3)));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving alert rollups: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return rollups;
+    }
+    
+    private static void bindRollupRange(PreparedStatement stmt, RollupResolution resolution, LocalDateTime startDate,
+                                        LocalDateTime endDate) throws SQLException {
+        stmt.setString(1, resolution.name());
+        stmt.setLong(2, startDate != null ? TimeUtil.toEpochMillis(resolution.truncate(startDate)) : Long.MIN_VALUE);
+        stmt.setLong(3, endDate != null ? TimeUtil.toEpochMillis(endDate) : Long.MAX_VALUE);
+    }
+    
+    /**
+     * Delete up to a number of the oldest events before a cutoff. Events with an open
+     * alert are kept so the alert can still be investigated. Rollups are not reduced:
+     * they keep counting expired events until they expire themselves.
+     * 
+     * @param cutoff Events older than this are deleted
+     * @param limit The most events to delete
+     * @return The number of events deleted
+     * @throws SQLException if the delete fails
+     */
+    synchronized int deleteExpiredEvents(LocalDateTime cutoff, int limit) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("""
+                DELETE FROM file_events WHERE id IN (
+                    SELECT id FROM file_events e WHERE timestamp < ?
+                    AND NOT EXISTS (SELECT 1 FROM alerts a WHERE a.file_event_id = e.id AND a.acknowledged = FALSE)
+                    ORDER BY timestamp LIMIT ?)
+                """)) {
+            stmt.setLong(1, TimeUtil.toEpochMillis(cutoff));
+            stmt.setInt(2, limit);
+            return stmt.executeUpdate();
+        }
+    }
+    
+    /**
+     * Delete up to a number of alerts acknowledged before a cutoff.
+     * Alerts acknowledged before acknowledgement times were recorded count from their creation.
+     * 
+     * @param cutoff Alerts acknowledged before this are deleted
+     * @param limit The most alerts to delete
+     * @return The number of alerts deleted
+     * @throws SQLException if the delete fails
+     */
+    synchronized int deleteExpiredAlerts(LocalDateTime cutoff, int limit) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("""
+                DELETE FROM alerts WHERE id IN (
+                    SELECT id FROM alerts WHERE acknowledged = TRUE AND COALESCE(acknowledged_at, created_at) < ?
+                    LIMIT ?)
+                """)) {
+            stmt.setLong(1, TimeUtil.toEpochMillis(cutoff));
+            stmt.setInt(2, limit);
+            return stmt.executeUpdate();
+        }
+    }
+    
+    /**
+     * Delete up to a number of the oldest event and alert rollup buckets before a cutoff.
+     * 
+     * @param resolution The bucket size to expire
+     * @param cutoff Buckets starting before this are deleted
+     * @param limit The most rows to delete from each rollup table
+     * @return The number of rows deleted
+     * @throws SQLException if the delete fails
+     */
+    synchronized int deleteExpiredRollups(RollupResolution resolution, LocalDateTime cutoff, int limit)
+            throws SQLException {
+        int rows = 0;
+        long cutoffMillis = TimeUtil.toEpochMillis(cutoff);
+        String[] tables = {"event_rollups", "alert_rollups"};
+        for (String table : tables) {
+            // Rollup tables have no rowid: find the bucket holding the limit-th oldest row,
+            // then delete up to it with a single bound so the primary key range is used
+            String sql = "DELETE FROM " + table + " WHERE resolution = ? AND bucket_start < ?";
+            long bound = cutoffMillis;
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT bucket_start FROM " + table
+                    + " WHERE resolution = ? AND bucket_start < ? ORDER BY bucket_start LIMIT 1 OFFSET ?")) {
+                stmt.setString(1, resolution.name());
+                stmt.setLong(2, cutoffMillis);
+                stmt.setInt(3, limit - 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        sql = "DELETE FROM " + table + " WHERE resolution = ? AND bucket_start <= ?";
+                        bound = rs.getLong(1);
+                    }
+                }
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setString(1, resolution.name());
+                stmt.setLong(2, bound);
+                rows += stmt.executeUpdate();
+            }
+        }
+        return rows;
+    }
+    
+    /**
+     * Merge the segments of the full-text search indexes. The writer leaves up to
+     * {@link SchemaMigrations#SEARCH_AUTOMERGE} segments per level to keep inserts
+     * cheap; merging them here keeps searches from reading all of them.
+     *
+     * @param pages The most pages to write to each index
+     * @return The pages requested if there was work to do, otherwise 0
+     * @throws SQLException if the merge fails
+     */
+    synchronized int mergeSearchIndexes(int pages) throws SQLException {
+        boolean merged = false;
+        try (Statement stmt = connection.createStatement()) {
+            for (String index : new String[] {SearchIndexBuilder.PATH_SEARCH, SearchIndexBuilder.ALERT_SEARCH}) {
+                long before = totalChanges(stmt);
+                stmt.executeUpdate("INSERT INTO " + index + " (" + index + ", rank) VALUES ('merge', " + pages + ")");
+                // The merge command changes at least two rows when it did any work
+                merged |= totalChanges(stmt) - before >= 2;
+            }
+        }
+        return merged ? pages : 0;
+    }
+    
+    private static long totalChanges(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT total_changes()")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+    
+    /**
+     * Return up to a number of free pages to the file system.
+     * 
+     * @param pages The most pages to free, or 0 to only count them
+     * @return The number of free pages left, or -1 if the database does not use incremental vacuum
+     * @throws SQLException if the vacuum fails
+     */
+    synchronized long incrementalVacuum(int pages) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("PRAGMA auto_vacuum")) {
+                if (!rs.next() || rs.getInt(1) != 2) {
+                    return -1;
+                }
+            }
+            if (pages > 0) {
+                // The pragma frees one page per step; executeUpdate runs it to completion, execute stops after one
+                stmt.executeUpdate("PRAGMA incremental_vacuum(" + pages + ")");
+            }
+            try (ResultSet rs = stmt.executeQuery("PRAGMA freelist_count")) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+    
+    /**
+     * Refresh the query planner statistics of tables that need it, reading a bounded
+     * number of rows per index.
+     * 
+     * @throws SQLException if the analysis fails
+     */
+    synchronized void optimize() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA analysis_limit = 1000");
+            stmt.execute("PRAGMA optimize");
+        }
+    }
+    
+    /**
+     * Copy committed WAL pages into the database without waiting for readers or the
+     * writer. Runs on a reader connection, so it does not take the writer lock.
+     * 
+     * @return The number of WAL pages checkpointed
+     * @throws SQLException if the checkpoint fails
+     */
+    int checkpoint() throws SQLException {
+        try (ReaderPool.Lease lease = readerPool.acquire();
+             Statement stmt = lease.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(PASSIVE)")) {
+            return rs.next() ? rs.getInt(3) : 0;
+        }
+    }
+    
+    /**
+     * Switch the database to incremental vacuum and rewrite it without free pages.
+     * Databases created before incremental vacuum need this once. Blocks all writes
+     * until it finishes, so run it while the application is idle.
+     * 
+     * @return true if the database was compacted
+     */
+    public synchronized boolean compact() {
+        try (Statement stmt = connection.createStatement()) {
+            long start = System.currentTimeMillis();
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            stmt.execute("VACUUM");
+            System.out.println("Database compacted in " + (System.currentTimeMillis() - start) + " ms");
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error compacting database: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    /**
+     * Get the retention policy enforced by the background maintenance.
+     * 
+     * @return The retention policy
+     */
+    public synchronized RetentionPolicy getRetentionPolicy() {
+        return retentionPolicy;
+    }
+    
+    /**
+     * Replace the retention policy and restart the background maintenance with it.
+     * 
+     * @param policy The new retention policy
+     */
+    public void setRetentionPolicy(RetentionPolicy policy) {
+        MaintenanceScheduler previous;
+        synchronized (this) {
+            retentionPolicy = policy;
+            previous = maintenanceScheduler;
+            maintenanceScheduler = null;
+        }
+        // Stop outside the lock; a running step needs it to finish
+        if (previous != null) {
+            previous.stop();
+            MaintenanceScheduler next = new MaintenanceScheduler(this, policy);
+            synchronized (this) {
+                if (connection == null) {
+                    return;
+                }
+                maintenanceScheduler = next;
+            }
+            next.start();
+        }
+    }
+    
+    /**
+     * Get the pool of read-only connections.
+     * 
+     * @return The reader pool, or null if the database is not initialized
+     */
+    ReaderPool getReaderPool() {
+        return readerPool;
+    }
+    
+    /**
+     * Close the database connection.
+     */
+    public void close() {
+        // Stop the background jobs first; they need the lock below to commit
+        AsyncEventWriter writer;
+        TimestampBackfill backfill;
+        RollupRebuilder rebuilder;
+        SearchIndexBuilder indexBuilder;
+        MaintenanceScheduler maintenance;
+        synchronized (this) {
+            writer = eventWriter;
+            eventWriter = null;
+            backfill = timestampBackfill;
+            timestampBackfill = null;
+            rebuilder = rollupRebuilder;
+            rollupRebuilder = null;
+            indexBuilder = searchIndexBuilder;
+            searchIndexBuilder = null;
+            maintenance = maintenanceScheduler;
+            maintenanceScheduler = null;
+        }
+        if (maintenance != null) {
+            maintenance.stop();
+        }
+        if (backfill != null) {
+            backfill.stop();
+        }
+        if (rebuilder != null) {
+            rebuilder.stop();
+        }
+        if (indexBuilder != null) {
+            indexBuilder.stop();
+        }
+        if (writer != null) {
+            writer.stop();
+        }
+        synchronized (this) {
+            if (readerPool != null) {
+                readerPool.close();
+                readerPool = null;
+            }
+            try {
+                if (insertEventStatement != null) {
+                    insertEventStatement.close();
+                    insertEventStatement = null;
+                }
+                if (dictionary != null) {
+                    dictionary.close();
+                    dictionary = null;
+                }
+                if (connection != null && !connection.isClosed()) {
+                    connection.close();
+                    connection = null;
+                    System.out.println("Database connection closed.");
+                }
+            } catch (SQLException e) {
+                System.err.println("Error closing database connection: " + e.getMessage());
+                e.printStackTrace();
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,223 @@
+package com.filex.service;
+
+import com.filex.model.RawFileEvent;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Per-path debouncing of raw watcher events.
+ *
+ * Editors and copies produce bursts of MODIFY events for the same file. Events for
+ * a path are held until the path has been quiet for the quiet period, or until the
+ * max delay since the first event has passed, and are then released downstream as a
+ * single event. The merged event keeps the first-seen timestamp and carries the
+ * number of raw events it replaces; hashing happens afterwards, so it gets the final hash.
+ */
+public class EventCoalescer {
+
+    /**
+     * A burst of events for one path that has not been released yet.
+     */
+    private static class Pending {
+        private final RawFileEvent first;
+        private final long deadlineNanos;
+        private String eventType;
+        private long lastSeenNanos;
+        private int count = 1;
+
+        Pending(RawFileEvent first, long now, long maxDelayNanos) {
+            this.first = first;
+            this.eventType = first.getEventType();
+            this.lastSeenNanos = now;
+            this.deadlineNanos = now + maxDelayNanos;
+        }
+    }
+
+    /**
+     * Wake-up for a path. Tickets are immutable; when a burst is still active at
+     * wake-up time a new ticket is queued for its new due time.
+     */
+    private static class Ticket implements Delayed {
+        private final Path path;
+        private final long dueNanos;
+
+        Ticket(Path path, long dueNanos) {
+            this.path = path;
+            this.dueNanos = dueNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueNanos, ((Ticket) other).dueNanos);
+        }
+    }
+
+    private final long quietNanos;
+    private final long maxDelayNanos;
+    private final Consumer<RawFileEvent> downstream;
+
+    private final Map<Path, Pending> pending = new HashMap<>();
+    private final DelayQueue<Ticket> tickets = new DelayQueue<>();
+    private Thread thread;
+    private volatile boolean running = false;
+
+    /**
+     * Constructor
+     *
+     * @param quietMillis How long a path must be quiet before its events are released
+     * @param maxDelayMillis The longest an event is held back, however busy the path
+     * @param downstream Receives the coalesced events
+     */
+    public EventCoalescer(long quietMillis, long maxDelayMillis, Consumer<RawFileEvent> downstream) {
+        this.quietNanos = TimeUnit.MILLISECONDS.toNanos(quietMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(quietMillis, maxDelayMillis));
+        this.downstream = downstream;
+    }
+
+    /**
+     * Start the release thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "filex-coalescer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop the release thread and release everything still held back.
+     */
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = thread;
+            thread = null;
+        }
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Add a raw event to the burst for its path.
+     *
+     * @param event The raw event
+     */
+    public void submit(RawFileEvent event) {
+        long now = System.nanoTime();
+        synchronized (pending) {
+            Pending burst = pending.get(event.getPath());
+            if (burst != null) {
+                burst.eventType = merge(burst.eventType, event.getEventType());
+                burst.lastSeenNanos = now;
+                burst.count++;
+                return;
+            }
+            pending.put(event.getPath(), new Pending(event, now, maxDelayNanos));
+        }
+        tickets.put(new Ticket(event.getPath(), now + quietNanos));
+    }
+
+    /**
+     * Work out the net effect of two consecutive events on the same path.
+     *
+     * @param current The net event type so far
+     * @param next The event type that just arrived
+     * @return The net event type
+     */
+    static String merge(String current, String next) {
+        if ("DELETE".equals(next)) {
+            return "DELETE";
+        }
+        if ("DELETE".equals(current)) {
+            // Deleted and written again, e.g. an editor's atomic save
+            return "CREATE".equals(next) ? "MODIFY" : next;
+        }
+        if ("CREATE".equals(current) || "RENAME".equals(current)) {
+            return current; // Still new (or newly named) however often it is written
+        }
+        return "MODIFY".equals(current) && "CREATE".equals(next) ? current : next;
+    }
+
+    private void run() {
+        while (running) {
+            Ticket ticket;
+            try {
+                ticket = tickets.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            RawFileEvent ready = null;
+            synchronized (pending) {
+                Pending burst = pending.get(ticket.path);
+                if (burst == null) {
+                    continue;
+                }
+                long due = Math.min(burst.lastSeenNanos + quietNanos, burst.deadlineNanos);
+                if (due - System.nanoTime() > 0) {
+                    tickets.put(new Ticket(ticket.path, due));
+                } else {
+                    pending.remove(ticket.path);
+                    ready = release(burst);
+                }
+            }
+            if (ready != null) {
+                downstream.accept(ready);
+            }
+        }
+    }
+
+    /**
+     * Release every held-back event immediately.
+     */
+    public void flush() {
+        Pending[] bursts;
+        synchronized (pending) {
+            bursts = pending.values().toArray(new Pending[0]);
+            pending.clear();
+            tickets.clear();
+        }
+        for (Pending burst : bursts) {
+            downstream.accept(release(burst));
+        }
+    }
+
+    private RawFileEvent release(Pending burst) {
+        if (burst.count == 1) {
+            return burst.first;
+        }
+        return burst.first.merged(burst.eventType, burst.count);
+    }
+
+    /**
+     * Get the number of paths with events currently held back.
+     *
+     * @return The number of pending paths
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.filex.service;
+
+import com.filex.model.RollupResolution;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Event counts for a high-density timeline, read from the rollups in fixed tiles
+ * of {@value #TILE_BUCKETS} buckets per resolution, so panning and zooming mostly
+ * reuse tiles already read.
+ *
+ * Each view is drawn from the finest resolution that gives at most a few buckets
+ * per pixel, so its cost depends on the width of the view and not on the number
+ * of events. Tiles are cached least recently used first; tiles that are not over
+ * yet are read again each time, as events are still being added to them.
+ * Thread-safe; meant to be used from a rendering thread.
+ */
+public class EventDensityTiles {
+
+    public static final int TILE_BUCKETS = 256;
+    private static final int MAX_TILES = 512;
+    private static final int BUCKETS_PER_COLUMN = 4; // The most the resolution may give per pixel column
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(1970, 1, 1, 0, 0); // Tiles are counted from here
+    private static final double HOUR_MILLIS = 3_600_000.0;
+
+    private final DatabaseService databaseService;
+    private final Map<String, long[]> tiles = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+            return size() > MAX_TILES;
+        }
+    };
+    private long tileReads;
+
+    /**
+     * Constructor
+     *
+     * @param databaseService The database to read the rollups from
+     */
+    public EventDensityTiles(DatabaseService databaseService) {
+        this.databaseService = databaseService;
+    }
+
+    /**
+     * Get the event rate of each pixel column of a timeline.
+     *
+     * @param start The time at the left edge
+     * @param end The time at the right edge
+     * @param columns The width in pixels
+     * @return The average number of events per hour in each column
+     */
+    public double[] getColumnRates(LocalDateTime start, LocalDateTime end, int columns) {
+        RollupResolution resolution = RollupResolution.forRange(start, end, columns * BUCKETS_PER_COLUMN);
+        long stepMillis = resolution.getDuration().toMillis();
+        double startMillis = millisSinceOrigin(start);
+        double columnMillis = (double) Duration.between(start, end).toMillis() / columns;
+        double hoursPerBucket = stepMillis / HOUR_MILLIS;
+        TileCursor cursor = new TileCursor(resolution);
+        double[] rates = new double[columns];
+        for (int column = 0; column < columns; column++) {
+            // Average the buckets the column overlaps; zoomed in, one bucket spans several columns
+            long first = (long) Math.floor((startMillis + column * columnMillis) / stepMillis);
+            long last = Math.max(first, (long) Math.ceil((startMillis + (column + 1) * columnMillis) / stepMillis) - 1);
+            long sum = 0;
+            for (long bucket = first; bucket <= last; bucket++) {
+                sum += cursor.getCount(bucket);
+            }
+            rates[column] = sum / ((last - first + 1) * hoursPerBucket);
+        }
+        return rates;
+    }
+
+    /**
+     * Get the number of events in each hour of the week over a time range.
+     *
+     * @param start The start of the range
+     * @param end The end of the range
+     * @return 168 counts, Monday 00:00-01:00 first
+     */
+    public long[] getHourOfWeekCounts(LocalDateTime start, LocalDateTime end) {
+        long stepMillis = RollupResolution.HOUR.getDuration().toMillis();
+        long firstBucket = bucketIndex(RollupResolution.HOUR.truncate(start), stepMillis);
+        long lastBucket = bucketIndex(end, stepMillis);
+        TileCursor cursor = new TileCursor(RollupResolution.HOUR);
+        long[] counts = new long[7 * 24];
+        LocalDateTime hour = ORIGIN.plusHours(firstBucket);
+        int hourOfWeek = (hour.getDayOfWeek().getValue() - 1) * 24 + hour.getHour();
+        for (long bucket = firstBucket; bucket <= lastBucket; bucket++) {
+            counts[hourOfWeek] += cursor.getCount(bucket);
+            hourOfWeek = (hourOfWeek + 1) % counts.length;
+        }
+        return counts;
+    }
+
+    /**
+     * Get the number of tiles read from the database so far.
+     *
+     * @return The tile reads, a measure of how well the cache works
+     */
+    public synchronized long getTileReads() {
+        return tileReads;
+    }
+
+    /**
+     * Forget the cached tiles, e.g. after the rollups were rebuilt.
+     */
+    public synchronized void clear() {
+        tiles.clear();
+    }
+
+    /**
+     * Reads consecutive buckets of one resolution, looking each tile up once.
+     */
+    private class TileCursor {
+        private final RollupResolution resolution;
+        private long tile = Long.MIN_VALUE;
+        private long[] counts;
+
+        TileCursor(RollupResolution resolution) {
+            this.resolution = resolution;
+        }
+
+        long getCount(long bucket) {
+            long bucketTile = Math.floorDiv(bucket, TILE_BUCKETS);
+            if (bucketTile != tile) {
+                tile = bucketTile;
+                counts = getTile(resolution, tile);
+            }
+            return counts[Math.floorMod(bucket, TILE_BUCKETS)];
+        }
+    }
+
+    private synchronized long[] getTile(RollupResolution resolution, long tile) {
+        String key = resolution + ":" + tile;
+        long[] counts = tiles.get(key);
+        if (counts != null) {
+            return counts;
+        }
+        long stepMillis = resolution.getDuration().toMillis();
+        LocalDateTime tileStart = ORIGIN.plus(Duration.ofMillis(tile * TILE_BUCKETS * stepMillis));
+        LocalDateTime tileEnd = tileStart.plus(Duration.ofMillis(TILE_BUCKETS * stepMillis - 1));
+        counts = databaseService.getEventCountSeries(resolution, tileStart, tileEnd);
+        tileReads++;
+        if (tileEnd.isBefore(LocalDateTime.now())) {
+            tiles.put(key, counts);
+        }
+        return counts;
+    }
+
+    private static long bucketIndex(LocalDateTime time, long stepMillis) {
+        return Math.floorDiv(millisSinceOrigin(time), stepMillis);
+    }
+
+    private static long millisSinceOrigin(LocalDateTime time) {
+        return Duration.between(ORIGIN, time).toMillis();
+    }
+}
@@ -0,0 +1,230 @@
+package com.filex.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The dictionaries that file_events and alerts store their repeated strings in.
+ *
+ * A file path is stored once in {@code file_paths} as the id of its directory,
+ * including the trailing separator, and the id of its last component, so every
+ * file in a directory shares the directory's text. Directories, file names, event
+ * types and severities are each stored once in their own table. Events and alerts
+ * refer to the small integer ids, and file_events_view and alerts_view turn them
+ * back into text.
+ *
+ * The writer looks the ids up through a bounded LRU cache per dictionary, so only
+ * strings it has not seen recently cost a query, and a new path is added to the
+ * path search index when it is first stored. Entries are never removed. Used on
+ * the writer connection under its lock only. Ids of entries added by a transaction
+ * that is rolled back are invalid, so {@link #clear()} must be called after a rollback.
+ */
+class FileEventDictionary {
+
+    /**
+     * The directory id of a path that is not known, leaving only the file name.
+     */
+    static final long NO_DIRECTORY = 0;
+
+    private static final int CACHE_ENTRIES = 50_000; // Per dictionary
+
+    /**
+     * One table of interned strings and the cache in front of it.
+     */
+    private class Table {
+        private final String select;
+        private final String insert;
+        private final Map<String, Long> ids = newCache();
+        private PreparedStatement selectStatement;
+        private PreparedStatement insertStatement;
+
+        Table(String table, String column) {
+            this.select = "SELECT id FROM " + table + " WHERE " + column + " = ?";
+            this.insert = "INSERT INTO " + table + " (" + column + ") VALUES (?)";
+        }
+
+        long id(String value) throws SQLException {
+            Long id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            if (selectStatement == null) {
+                selectStatement = connection.prepareStatement(select);
+                insertStatement = connection.prepareStatement(insert);
+            }
+            selectStatement.setString(1, value);
+            try (ResultSet rs = selectStatement.executeQuery()) {
+                id = rs.next() ? rs.getLong(1) : null;
+            }
+            if (id == null) {
+                insertStatement.setString(1, value);
+                insertStatement.executeUpdate();
+                id = lastInsertRowId();
+            }
+            ids.put(value, id);
+            return id;
+        }
+
+        void close() throws SQLException {
+            if (selectStatement != null) {
+                selectStatement.close();
+                insertStatement.close();
+                selectStatement = null;
+                insertStatement = null;
+            }
+        }
+    }
+
+    private final Connection connection;
+    private final Table directories = new Table("directories", "path");
+    private final Table names = new Table("file_names", "name");
+    private final Table eventTypes = new Table("event_types", "name");
+    private final Table severities = new Table("severities", "name");
+    private final Map<Long, Long> pathIds = newCache(); // Keyed by directory id and name id
+    private PreparedStatement selectPath;
+    private PreparedStatement insertPath;
+    private PreparedStatement indexPath;
+
+    /**
+     * Constructor
+     *
+     * @param connection The writer connection
+     */
+    FileEventDictionary(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Get the position where the last component of a path starts.
+     *
+     * @param filePath The path, with either separator
+     * @return The index after the last separator, or 0 if there is none
+     */
+    static int nameStart(String filePath) {
+        return Math.max(filePath.lastIndexOf('/'), filePath.lastIndexOf('\\')) + 1;
+    }
+
+    /**
+     * Get the id of an event's file path, storing it if it is new.
+     *
+     * @param filePath The full path, or null if it is not known
+     * @param fileName The file name, used as the path when there is none
+     * @return The id in file_paths
+     * @throws SQLException if the dictionaries cannot be read or written
+     */
+    long pathId(String filePath, String fileName) throws SQLException {
+        if (filePath == null) {
+            return pathId(NO_DIRECTORY, names.id(fileName), fileName, null);
+        }
+        int nameStart = nameStart(filePath);
+        return pathId(directories.id(filePath.substring(0, nameStart)), names.id(filePath.substring(nameStart)),
+            filePath.substring(nameStart), filePath);
+    }
+
+    /**
+     * Get the id to store for an event's file name when it differs from the last
+     * component of its path, which is rare.
+     *
+     * @param filePath The full path, or null if it is not known
+     * @param fileName The file name
+     * @return The id in file_names, or null if the path already gives the name
+     * @throws SQLException if the dictionary cannot be read or written
+     */
+    Long nameIdIfDifferent(String filePath, String fileName) throws SQLException {
+        if (filePath == null
+                || filePath.endsWith(fileName) && filePath.length() - fileName.length() == nameStart(filePath)) {
+            return null;
+        }
+        return names.id(fileName);
+    }
+
+    long eventTypeId(String eventType) throws SQLException {
+        return eventTypes.id(eventType);
+    }
+
+    long severityId(String severity) throws SQLException {
+        return severities.id(severity);
+    }
+
+    /**
+     * Forget every cached id, e.g. after a rollback removed entries they refer to.
+     */
+    void clear() {
+        directories.ids.clear();
+        names.ids.clear();
+        eventTypes.ids.clear();
+        severities.ids.clear();
+        pathIds.clear();
+    }
+
+    /**
+     * Close the prepared statements. The dictionary can still be used afterwards.
+     */
+    void close() throws SQLException {
+        directories.close();
+        names.close();
+        eventTypes.close();
+        severities.close();
+        if (selectPath != null) {
+            selectPath.close();
+            insertPath.close();
+            indexPath.close();
+            selectPath = null;
+            insertPath = null;
+            indexPath = null;
+        }
+    }
+
+    private long pathId(long directoryId, long nameId, String name, String filePath) throws SQLException {
+        long key = directoryId << 32 | nameId;
+        Long id = pathIds.get(key);
+        if (id != null) {
+            return id;
+        }
+        if (selectPath == null) {
+            selectPath = connection.prepareStatement("SELECT id FROM file_paths WHERE directory_id = ? AND name_id = ?");
+            insertPath = connection.prepareStatement("INSERT INTO file_paths (directory_id, name_id) VALUES (?, ?)");
+            indexPath = connection.prepareStatement(
+                "INSERT INTO path_search (rowid, file_name, file_path) VALUES (?, ?, ?)");
+        }
+        selectPath.setLong(1, directoryId);
+        selectPath.setLong(2, nameId);
+        try (ResultSet rs = selectPath.executeQuery()) {
+            id = rs.next() ? rs.getLong(1) : null;
+        }
+        if (id == null) {
+            insertPath.setLong(1, directoryId);
+            insertPath.setLong(2, nameId);
+            insertPath.executeUpdate();
+            id = lastInsertRowId();
+            indexPath.setLong(1, id);
+            indexPath.setString(2, name);
+            indexPath.setString(3, filePath);
+            indexPath.executeUpdate();
+        }
+        pathIds.put(key, id);
+        return id;
+    }
+
+    private long lastInsertRowId() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static <K> Map<K, Long> newCache() {
+        return new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Long> eldest) {
+                return size() > CACHE_ENTRIES;
+            }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.filex.service;
+
+import com.filex.model.FileFingerprint;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Last known state (size, mtime, hash) of every file the monitor has seen.
+ * Kept sorted by path so a whole directory subtree can be listed with a range scan,
+ * which is what overflow reconciliation compares a rescan against.
+ */
+public class FingerprintStore {
+
+    private final ConcurrentSkipListMap<String, FileFingerprint> fingerprints = new ConcurrentSkipListMap<>();
+
+    /**
+     * Get the fingerprint of a file.
+     *
+     * @param path The file path
+     * @return The fingerprint, or null if the file is unknown
+     */
+    public FileFingerprint get(Path path) {
+        return fingerprints.get(path.toString());
+    }
+
+    /**
+     * Record the current state of a file.
+     *
+     * @param path The file path
+     * @param hash The content hash, or null if the file has not been hashed yet
+     * @param hashAlgorithm The algorithm the hash was computed with
+     * @param size The file size in bytes
+     * @param lastModifiedMillis The file mtime
+     */
+    public void put(Path path, String hash, String hashAlgorithm, long size, long lastModifiedMillis) {
+        LocalDateTime now = LocalDateTime.now();
+        fingerprints.compute(path.toString(), (key, existing) -> {
+            FileFingerprint fingerprint = existing != null ? existing : new FileFingerprint();
+            if (existing == null) {
+                fingerprint.setFilePath(key);
+                fingerprint.setCreatedAt(now);
+            }
+            fingerprint.setSha256(hash);
+            fingerprint.setHashAlgorithm(hash != null ? hashAlgorithm : null);
+            fingerprint.setSize(size);
+            fingerprint.setLastModifiedMillis(lastModifiedMillis);
+            fingerprint.setLastSeen(now);
+            return fingerprint;
+        });
+    }
+
+    /**
+     * Record the quick fingerprint of a large file.
+     *
+     * @param path The file path
+     * @param quickHash The quick hash
+     */
+    public void putQuickHash(Path path, String quickHash) {
+        FileFingerprint fingerprint = fingerprints.get(path.toString());
+        if (fingerprint != null) {
+            fingerprint.setQuickHash(quickHash);
+        }
+    }
+
+    /**
+     * Forget a file after it has been deleted.
+     *
+     * @param path The file path
+     */
+    public void remove(Path path) {
+        fingerprints.remove(path.toString());
+    }
+
+    /**
+     * List the fingerprints of every file below a directory.
+     *
+     * @param dir The directory
+     * @return The fingerprints in path order
+     */
+    public List<FileFingerprint> getUnder(Path dir) {
+        String prefix = dir.toString().endsWith(File.separator) ? dir.toString() : dir + File.separator;
+        // Every path starting with the prefix sorts before the prefix followed by the highest char
+        return new ArrayList<>(fingerprints.subMap(prefix, true, prefix + '\uffff', false).values());
+    }
+
+    /**
+     * List every fingerprint.
+     *
+     * @return A snapshot of all fingerprints in path order
+     */
+    public List<FileFingerprint> getAll() {
+        return new ArrayList<>(fingerprints.values());
+    }
+
+    public int size() {
+        return fingerprints.size();
+    }
+}
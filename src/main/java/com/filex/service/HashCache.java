@@ -0,0 +1,286 @@
+package com.filex.service;
+
+import com.filex.model.FileFingerprint;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of file hashes keyed by file identity, size and mtime.
+ *
+ * When a file's file key (device and inode), size and last-modified time all match
+ * a cached entry for the same algorithm, its content is assumed unchanged and the
+ * cached hash is returned without reading the file. A bounded in-memory LRU, sized
+ * by an estimated memory budget rather than an entry count, sits in front of the
+ * persisted {@code file_fingerprints} table. New entries are written behind in
+ * batches once a second.
+ */
+public class HashCache {
+
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+    // Rough per-entry overhead: map node, fingerprint object and string headers
+    private static final int ENTRY_OVERHEAD_BYTES = 240;
+
+    private final DatabaseService databaseService;
+    private final long memoryBudgetBytes;
+    private final LinkedHashMap<String, FileFingerprint> entries = new LinkedHashMap<>(1024, 0.75f, true);
+    private long memoryUsedBytes = 0;
+
+    private final Map<String, FileFingerprint> dirty = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> deleted = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong persistedHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param databaseService The database holding the persisted fingerprints, may be null for memory only
+     * @param memoryBudgetBytes The approximate memory the in-memory tier may use
+     */
+    public HashCache(DatabaseService databaseService, long memoryBudgetBytes) {
+        this.databaseService = databaseService;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    /**
+     * Start writing new entries to the database in the background.
+     */
+    public synchronized void start() {
+        if (flusher != null || databaseService == null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "filex-hash-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the background writer and persist everything still pending.
+     */
+    public void stop() {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = flusher;
+            flusher = null;
+        }
+        if (current != null) {
+            current.shutdown();
+            try {
+                current.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Look up the hash of a file whose identity, size and mtime are unchanged.
+     *
+     * @param path The file path
+     * @param attrs The current file attributes
+     * @param algorithm The hash algorithm wanted
+     * @return The cached hash, or null if the file has to be read
+     */
+    public String lookup(Path path, BasicFileAttributes attrs, String algorithm) {
+        String key = path.toString();
+        FileFingerprint cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (matches(cached, attrs, algorithm)) {
+            hits.incrementAndGet();
+            return cached.getSha256();
+        }
+        if (cached == null && databaseService != null && !deleted.containsKey(key)) {
+            FileFingerprint persisted = databaseService.getFingerprint(key);
+            if (matches(persisted, attrs, algorithm)) {
+                persistedHits.incrementAndGet();
+                remember(persisted);
+                return persisted.getSha256();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Record the hash of a file.
+     *
+     * @param path The file path
+     * @param attrs The file attributes the hash was computed for
+     * @param algorithm The hash algorithm
+     * @param hash The hash
+     */
+    public void put(Path path, BasicFileAttributes attrs, String algorithm, String hash) {
+        FileFingerprint fingerprint = new FileFingerprint();
+        fingerprint.setFilePath(path.toString());
+        fingerprint.setFileKey(fileKey(attrs));
+        fingerprint.setSize(attrs.size());
+        fingerprint.setLastModifiedMillis(attrs.lastModifiedTime().toMillis());
+        fingerprint.setHashAlgorithm(algorithm);
+        fingerprint.setSha256(hash);
+        fingerprint.setLastSeen(LocalDateTime.now());
+        remember(fingerprint);
+        deleted.remove(fingerprint.getFilePath());
+        if (databaseService != null) {
+            dirty.put(fingerprint.getFilePath(), fingerprint);
+        }
+    }
+
+    /**
+     * Forget a file, e.g. after it was deleted.
+     *
+     * @param path The file path
+     */
+    public void invalidate(Path path) {
+        String key = path.toString();
+        synchronized (entries) {
+            FileFingerprint removed = entries.remove(key);
+            if (removed != null) {
+                memoryUsedBytes -= estimateSize(removed);
+            }
+        }
+        dirty.remove(key);
+        if (databaseService != null) {
+            deleted.put(key, Boolean.TRUE);
+        }
+    }
+
+    private void remember(FileFingerprint fingerprint) {
+        long size = estimateSize(fingerprint);
+        synchronized (entries) {
+            FileFingerprint previous = entries.put(fingerprint.getFilePath(), fingerprint);
+            if (previous != null) {
+                memoryUsedBytes -= estimateSize(previous);
+            }
+            memoryUsedBytes += size;
+            // Evict least recently used entries until back under budget
+            Iterator<FileFingerprint> iterator = entries.values().iterator();
+            while (memoryUsedBytes > memoryBudgetBytes && iterator.hasNext()) {
+                FileFingerprint eldest = iterator.next();
+                iterator.remove();
+                memoryUsedBytes -= estimateSize(eldest);
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Write pending entries and deletions to the database.
+     */
+    public void flush() {
+        if (databaseService == null) {
+            return;
+        }
+        List<FileFingerprint> batch = new ArrayList<>();
+        for (Iterator<FileFingerprint> iterator = dirty.values().iterator(); iterator.hasNext(); ) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        databaseService.saveFingerprints(batch);
+        for (Iterator<String> iterator = deleted.keySet().iterator(); iterator.hasNext(); ) {
+            databaseService.deleteFingerprint(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    private static boolean matches(FileFingerprint fingerprint, BasicFileAttributes attrs, String algorithm) {
+        return fingerprint != null
+            && fingerprint.getSha256() != null
+            && algorithm.equals(fingerprint.getHashAlgorithm())
+            && fingerprint.getSize() == attrs.size()
+            && fingerprint.getLastModifiedMillis() == attrs.lastModifiedTime().toMillis()
+            && Objects.equals(fingerprint.getFileKey(), fileKey(attrs));
+    }
+
+    private static String fileKey(BasicFileAttributes attrs) {
+        Object key = attrs.fileKey();
+        return key != null ? key.toString() : null;
+    }
+
+    private static long estimateSize(FileFingerprint fingerprint) {
+        return ENTRY_OVERHEAD_BYTES
+            + length(fingerprint.getFilePath()) * 2L   // Once as map key, once in the fingerprint
+            + length(fingerprint.getFileKey())
+            + length(fingerprint.getSha256())
+            + length(fingerprint.getHashAlgorithm());
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getPersistedHitCount() {
+        return persistedHits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getMemoryBudgetBytes() {
+        return memoryBudgetBytes;
+    }
+
+    /**
+     * Get the estimated memory used by the in-memory tier.
+     *
+     * @return The estimated size in bytes
+     */
+    public long getMemoryUsedBytes() {
+        synchronized (entries) {
+            return memoryUsedBytes;
+        }
+    }
+
+    /**
+     * Get the number of entries in the in-memory tier.
+     *
+     * @return The entry count
+     */
+    public int getEntryCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "HashCache{hits=" + getHitCount() +
+                ", persistedHits=" + getPersistedHitCount() +
+                ", misses=" + getMissCount() +
+                ", evictions=" + getEvictionCount() +
+                ", entries=" + getEntryCount() +
+                ", memoryUsedBytes=" + getMemoryUsedBytes() +
+                ", memoryBudgetBytes=" + memoryBudgetBytes +
+                '}';
+    }
+}
@@ -0,0 +1,192 @@
+package com.filex.service;
+
+import com.filex.util.HashUtil;
+import com.filex.util.RateLimiter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Low-priority background queue that upgrades provisional quick hashes to full hashes.
+ *
+ * Files are re-hashed one at a time, throttled to a bytes-per-second budget. A file
+ * that changed since its quick hash was taken is skipped, since the event for that
+ * change will queue it again.
+ */
+public class HashUpgrader {
+
+    /**
+     * A file waiting for its full hash.
+     */
+    private static class Task {
+        private final Path path;
+        private final String quickHash;
+        private final long size;
+        private final long lastModifiedMillis;
+
+        Task(Path path, String quickHash, long size, long lastModifiedMillis) {
+            this.path = path;
+            this.quickHash = quickHash;
+            this.size = size;
+            this.lastModifiedMillis = lastModifiedMillis;
+        }
+    }
+
+    private final FingerprintStore fingerprintStore;
+    private final DatabaseService databaseService;
+    private final HashCache hashCache;
+    private final Supplier<String> algorithm;
+    private final RateLimiter byteLimiter;
+
+    private final Map<Path, Task> pending = new LinkedHashMap<>();
+    private final AtomicLong upgradedFiles = new AtomicLong();
+    private final AtomicLong upgradedBytes = new AtomicLong();
+    private Thread thread;
+    private volatile boolean running = false;
+
+    /**
+     * Constructor
+     *
+     * @param fingerprintStore Receives the full hashes
+     * @param databaseService The database whose provisional events are upgraded
+     * @param hashCache Receives the full hashes, may be null
+     * @param algorithm Supplies the current full-hash algorithm
+     * @param bytesPerSecond The maximum number of bytes hashed per second, or 0 for unlimited
+     */
+    public HashUpgrader(FingerprintStore fingerprintStore, DatabaseService databaseService, HashCache hashCache,
+                        Supplier<String> algorithm, double bytesPerSecond) {
+        this.fingerprintStore = fingerprintStore;
+        this.databaseService = databaseService;
+        this.hashCache = hashCache;
+        this.algorithm = algorithm;
+        this.byteLimiter = new RateLimiter(bytesPerSecond);
+    }
+
+    /**
+     * Start the background thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "filex-hash-upgrade");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Stop the background thread. Files still queued keep their quick hash.
+     */
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = thread;
+            thread = null;
+        }
+        synchronized (pending) {
+            pending.clear();
+            pending.notifyAll();
+        }
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    /**
+     * Queue a file for a full hash. A file already queued is replaced by the newer request.
+     *
+     * @param path The file
+     * @param quickHash The quick hash recorded on its events
+     * @param size The file size when the quick hash was taken
+     * @param lastModifiedMillis The file mtime when the quick hash was taken
+     */
+    public void enqueue(Path path, String quickHash, long size, long lastModifiedMillis) {
+        synchronized (pending) {
+            pending.remove(path); // Re-insert at the back
+            pending.put(path, new Task(path, quickHash, size, lastModifiedMillis));
+            pending.notifyAll();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            Task task;
+            synchronized (pending) {
+                while (running && pending.isEmpty()) {
+                    try {
+                        pending.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+                Iterator<Task> iterator = pending.values().iterator();
+                task = iterator.next();
+                iterator.remove();
+            }
+            try {
+                upgrade(task);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void upgrade(Task task) throws InterruptedException {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(task.path, BasicFileAttributes.class);
+            if (attrs.size() != task.size || attrs.lastModifiedTime().toMillis() != task.lastModifiedMillis) {
+                return; // Changed again; that event queues a fresh upgrade
+            }
+            String hashAlgorithm = algorithm.get();
+            String fullHash = hashCache != null ? hashCache.lookup(task.path, attrs, hashAlgorithm) : null;
+            if (fullHash == null) {
+                byteLimiter.acquire(task.size);
+                fullHash = HashUtil.toHex(HashUtil.hash(task.path, hashAlgorithm));
+                if (hashCache != null) {
+                    hashCache.put(task.path, attrs, hashAlgorithm, fullHash);
+                }
+            }
+            fingerprintStore.put(task.path, fullHash, hashAlgorithm, task.size, task.lastModifiedMillis);
+            databaseService.upgradeQuickHash(task.path.toString(), task.quickHash, fullHash, hashAlgorithm);
+            upgradedFiles.incrementAndGet();
+            upgradedBytes.addAndGet(task.size);
+        } catch (NoSuchFileException e) {
+            // Deleted before it could be upgraded; the event stays provisional
+        } catch (IOException e) {
+            System.err.println("Error computing full hash for " + task.path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the number of files waiting for a full hash.
+     *
+     * @return The queue length
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    public long getUpgradedFileCount() {
+        return upgradedFiles.get();
+    }
+
+    public long getUpgradedBytes() {
+        return upgradedBytes.get();
+    }
+}
@@ -0,0 +1,408 @@
+package com.filex.service;
+
+import com.filex.model.Alert;
+import com.filex.model.FileEvent;
+import com.filex.model.RawFileEvent;
+import com.filex.util.PipelineConfig;
+import com.filex.util.StageMetrics;
+import com.filex.util.StageQueue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Staged event ingestion pipeline.
+ *
+ * watcher -> coalescer -> raw queue -> hash/classify workers -> write queue -> group-commit writer -> UI queue -> UI fan-out
+ *
+ * Every hand-off is a bounded {@link StageQueue} with its own backpressure policy,
+ * so a slow hash or a busy database never stalls the watcher thread. The write
+ * stage is an {@link AsyncEventWriter}; events continue to the UI once committed.
+ *
+ * Stopping persists every queued event, waiting up to the configured drain time
+ * for the workers; events still queued after that are counted as dropped.
+ */
+public class IngestionPipeline {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private static final long UI_DRAIN_MILLIS = 5_000;
+
+    /**
+     * Turns a raw watcher notification into a persisted event (hashing and classification).
+     */
+    public interface EventProcessor {
+        ProcessedEvent process(RawFileEvent raw);
+    }
+
+    /**
+     * Receives events after they have been written to the database.
+     */
+    public interface EventSink {
+        void onProcessedEvent(ProcessedEvent processed);
+    }
+
+    /**
+     * A processed file event together with the alert it raised, if any.
+     */
+    public static class ProcessedEvent {
+        private final FileEvent event;
+        private final Alert alert;
+
+        public ProcessedEvent(FileEvent event, Alert alert) {
+            this.event = event;
+            this.alert = alert;
+        }
+
+        public FileEvent getEvent() {
+            return event;
+        }
+
+        public Alert getAlert() {
+            return alert;
+        }
+    }
+
+    private final PipelineConfig config;
+    private final DatabaseService databaseService;
+    private final EventProcessor processor;
+    private final EventSink sink;
+    private volatile EventSink persistListener;
+
+    private final StageMetrics watcherMetrics = new StageMetrics("watcher");
+    private final StageMetrics coalescerMetrics = new StageMetrics("coalescer");
+    private final StageMetrics hashMetrics = new StageMetrics("hash-classify");
+    private final StageMetrics writerMetrics = new StageMetrics("db-writer");
+    private final StageMetrics uiMetrics = new StageMetrics("ui-fanout");
+
+    private final StageQueue<RawFileEvent> rawQueue;
+    private final AsyncEventWriter eventWriter;
+    private final StageQueue<ProcessedEvent> uiQueue;
+    private final EventCoalescer coalescer;
+
+    private ExecutorService workerExecutor;
+    private ExecutorService uiExecutor;
+    private volatile boolean running = false;
+    private volatile boolean uiRunning = false; // Until the writer has delivered its last event
+
+    /**
+     * Constructor
+     *
+     * @param config The pipeline configuration
+     * @param databaseService The database the writer stage persists to
+     * @param processor The hash/classify step run by the worker stage
+     * @param sink The UI fan-out target, may be null
+     */
+    public IngestionPipeline(PipelineConfig config, DatabaseService databaseService,
+                             EventProcessor processor, EventSink sink) {
+        this.config = config;
+        this.databaseService = databaseService;
+        this.processor = processor;
+        this.sink = sink;
+        this.rawQueue = new StageQueue<>(config.getRawQueueDepth(), config.getRawQueuePolicy(), hashMetrics);
+        this.eventWriter = new AsyncEventWriter(databaseService, config.getWriterBatchSize(),
+            config.getWriterMaxDelayMillis(), config.getWriteQueueDepth(), config.getWriteQueuePolicy(), writerMetrics);
+        this.uiQueue = new StageQueue<>(config.getUiQueueDepth(), config.getUiQueuePolicy(), uiMetrics);
+        this.coalescer = config.getCoalesceQuietMillis() > 0
+            ? new EventCoalescer(config.getCoalesceQuietMillis(), config.getCoalesceMaxDelayMillis(), this::enqueueRaw)
+            : null;
+    }
+
+    /**
+     * Set a listener called on the writer thread once an event has been committed.
+     * Unlike the UI sink it never drops events, so it must return quickly.
+     *
+     * @param listener The listener, or null to remove it
+     */
+    public void setPersistListener(EventSink listener) {
+        this.persistListener = listener;
+    }
+
+    /**
+     * Start all stage threads.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        if (coalescer != null) {
+            coalescer.start();
+        }
+
+        int workers = Math.max(1, config.getWorkerThreads());
+        workerExecutor = Executors.newFixedThreadPool(workers, namedThreadFactory("filex-hash"));
+        for (int i = 0; i < workers; i++) {
+            workerExecutor.submit(this::runWorker);
+        }
+        eventWriter.start();
+        uiRunning = true;
+        uiExecutor = Executors.newSingleThreadExecutor(namedThreadFactory("filex-ui-fanout"));
+        uiExecutor.submit(this::runUiFanOut);
+
+        System.out.println("Ingestion pipeline started with " + workers + " workers: " + config);
+    }
+
+    /**
+     * Stop the pipeline. Stages drain what is already queued before exiting: the
+     * workers get up to {@link PipelineConfig#getShutdownDrainMillis()} to hash the
+     * queued events, after which the rest are discarded and counted as dropped by
+     * the hash stage. Everything the workers handed on is written before this returns.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        if (coalescer != null) {
+            coalescer.stop(); // Releases held-back bursts into the raw queue
+        }
+        running = false;
+        // Shut down in stage order so each stage sees its upstream finish first
+        long drainMillis = config.getShutdownDrainMillis();
+        if (!rawQueue.isEmpty()) {
+            System.out.println("Waiting up to " + drainMillis + " ms for " + rawQueue.size()
+                + " queued file events to be persisted");
+        }
+        if (!awaitShutdown(workerExecutor, drainMillis)) {
+            int discarded = discard(rawQueue, hashMetrics);
+            System.err.println("Stopped hashing after " + drainMillis + " ms; " + discarded
+                + " queued file events were not persisted");
+        }
+        eventWriter.stop();
+        uiRunning = false;
+        if (!awaitShutdown(uiExecutor, UI_DRAIN_MILLIS)) {
+            discard(uiQueue, uiMetrics); // Already persisted, only not shown
+        }
+        System.out.println("Ingestion pipeline stopped. " + getMetricsSummary());
+    }
+
+    /**
+     * Hand a raw event from the watcher to the pipeline.
+     *
+     * @param raw The raw event
+     * @return false if the pipeline had to drop an older event to accept this one
+     */
+    public boolean submit(RawFileEvent raw) {
+        long start = System.nanoTime();
+        watcherMetrics.recordReceived();
+        try {
+            if (coalescer != null) {
+                // Held back per path; reaches the raw queue once the path goes quiet
+                coalescerMetrics.recordReceived();
+                coalescer.submit(raw);
+                return true;
+            }
+            return enqueueRaw(raw);
+        } finally {
+            watcherMetrics.recordProcessed(1, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Put a (possibly coalesced) raw event on the raw queue.
+     *
+     * @param raw The raw event
+     * @return false if an older event was dropped to make room
+     */
+    private boolean enqueueRaw(RawFileEvent raw) {
+        if (coalescer != null) {
+            // Service time of the coalescer is how long the burst was held back
+            coalescerMetrics.recordProcessed(1, System.nanoTime() - raw.getDetectedAtNanos());
+        }
+        try {
+            boolean accepted = rawQueue.offer(raw);
+            if (!accepted) {
+                watcherMetrics.recordDropped();
+            }
+            return accepted;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Hash/classify worker loop.
+     */
+    private void runWorker() {
+        // Interrupted once the drain time is over, even while events are still queued
+        while ((running || !rawQueue.isEmpty()) && !Thread.currentThread().isInterrupted()) {
+            try {
+                RawFileEvent raw = rawQueue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (raw == null) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                ProcessedEvent processed = processor.process(raw);
+                hashMetrics.recordProcessed(1, System.nanoTime() - start);
+                if (processed != null) {
+                    persist(processed);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                System.err.println("Error processing file event: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Hand a processed event to the writer. An event that has been hashed is written
+     * even if the drain time ran out meanwhile, so the interrupt is held back until
+     * it is queued.
+     *
+     * @param processed The processed event
+     */
+    private void persist(ProcessedEvent processed) {
+        boolean interrupted = Thread.interrupted();
+        try {
+            eventWriter.submit(processed.getEvent(), processed.getAlert())
+                .thenAccept(id -> onPersisted(processed, id))
+                .exceptionally(e -> {
+                    System.err.println("Error persisting file event " + processed.getEvent().getFilePath()
+                        + ": " + e.getMessage());
+                    return null;
+                });
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Forward a committed event, and the alert committed with it, to the UI stage.
+     * Runs on the event writer thread.
+     *
+     * @param processed The committed event
+     * @param id The row id of the event
+     */
+    private void onPersisted(ProcessedEvent processed, long id) {
+        EventSink persisted = persistListener;
+        if (persisted != null) {
+            persisted.onProcessedEvent(processed);
+        }
+        if (sink != null) {
+            try {
+                uiQueue.offer(processed);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * UI fan-out loop.
+     */
+    private void runUiFanOut() {
+        while (uiRunning || !uiQueue.isEmpty()) {
+            try {
+                ProcessedEvent processed = uiQueue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (processed == null || sink == null) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                sink.onProcessedEvent(processed);
+                uiMetrics.recordProcessed(1, System.nanoTime() - start);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                System.err.println("Error delivering file event to UI: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Get the counters of every stage, in pipeline order.
+     *
+     * @return Map of stage name to metrics
+     */
+    public Map<String, StageMetrics> getStageMetrics() {
+        Map<String, StageMetrics> metrics = new LinkedHashMap<>();
+        metrics.put(watcherMetrics.getName(), watcherMetrics);
+        if (coalescer != null) {
+            metrics.put(coalescerMetrics.getName(), coalescerMetrics);
+        }
+        metrics.put(hashMetrics.getName(), hashMetrics);
+        metrics.put(writerMetrics.getName(), writerMetrics);
+        metrics.put(uiMetrics.getName(), uiMetrics);
+        return metrics;
+    }
+
+    /**
+     * Get a one-line summary of all stage counters and current queue depths.
+     *
+     * @return The summary
+     */
+    public String getMetricsSummary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("queues{coalescing=").append(coalescer != null ? coalescer.getPendingCount() : 0)
+          .append(", raw=").append(rawQueue.size())
+          .append(", write=").append(eventWriter.getQueueSize())
+          .append(", ui=").append(uiQueue.size()).append("}");
+        for (StageMetrics metrics : getStageMetrics().values()) {
+            sb.append(' ').append(metrics);
+        }
+        return sb.toString();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Let the executor's loops finish, interrupting them after the timeout.
+     *
+     * @return false if the loops had to be interrupted
+     */
+    private static boolean awaitShutdown(ExecutorService executor, long timeoutMillis) {
+        if (executor == null) {
+            return true;
+        }
+        executor.shutdown();
+        try {
+            if (executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            executor.shutdownNow();
+            executor.awaitTermination(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * Empty a queue whose consumers have stopped, counting the items as dropped.
+     *
+     * @return The number of items discarded
+     */
+    private static <T> int discard(StageQueue<T> queue, StageMetrics metrics) {
+        List<T> rest = new ArrayList<>();
+        queue.drainTo(rest, Integer.MAX_VALUE);
+        for (int i = 0; i < rest.size(); i++) {
+            metrics.recordDropped();
+        }
+        return rest.size();
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
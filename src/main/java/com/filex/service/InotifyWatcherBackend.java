@@ -0,0 +1,349 @@
+package com.filex.service;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Watcher backend that talks to Linux inotify directly through the
+ * Foreign Function & Memory API (preview in Java 21, requires --enable-preview).
+ *
+ * Compared to the JDK WatchService it reads events in large batches straight
+ * from the inotify file descriptor, reports IN_Q_OVERFLOW, and pairs
+ * IN_MOVED_FROM/IN_MOVED_TO by cookie so renames arrive as a single move.
+ */
+public class InotifyWatcherBackend implements WatcherBackend {
+
+    // <sys/inotify.h>
+    private static final int IN_MODIFY = 0x00000002;
+    private static final int IN_MOVED_FROM = 0x00000040;
+    private static final int IN_MOVED_TO = 0x00000080;
+    private static final int IN_CREATE = 0x00000100;
+    private static final int IN_DELETE = 0x00000200;
+    private static final int IN_Q_OVERFLOW = 0x00004000;
+    private static final int IN_IGNORED = 0x00008000;
+    private static final int IN_ONLYDIR = 0x01000000;
+    private static final int IN_DONT_FOLLOW = 0x02000000;
+    private static final int IN_EXCL_UNLINK = 0x04000000;
+    private static final int IN_ISDIR = 0x40000000;
+    private static final int IN_NONBLOCK = 0x00000800;
+    private static final int IN_CLOEXEC = 0x00080000;
+    private static final int POLLIN = 0x0001;
+
+    private static final int WATCH_MASK = IN_CREATE | IN_MODIFY | IN_DELETE | IN_MOVED_FROM | IN_MOVED_TO
+            | IN_ONLYDIR | IN_DONT_FOLLOW | IN_EXCL_UNLINK;
+    private static final int EVENT_HEADER_SIZE = 16; // wd, mask, cookie, len
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int POLL_TIMEOUT_MILLIS = 200;
+
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup LIBC = LINKER.defaultLookup();
+    private static final MethodHandle INOTIFY_INIT1 = downcall("inotify_init1",
+            FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT));
+    private static final MethodHandle INOTIFY_ADD_WATCH = downcall("inotify_add_watch",
+            FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+    private static final MethodHandle INOTIFY_RM_WATCH = downcall("inotify_rm_watch",
+            FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT));
+    private static final MethodHandle READ = downcall("read",
+            FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG));
+    private static final MethodHandle POLL = downcall("poll",
+            FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT));
+    private static final MethodHandle CLOSE = downcall("close",
+            FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT));
+
+    /**
+     * An IN_MOVED_FROM waiting for its IN_MOVED_TO partner.
+     */
+    private static class PendingMove {
+        final int wd;
+        final String name;
+        final Path path;
+        final boolean directory;
+        final long batch;
+
+        PendingMove(int wd, String name, Path path, boolean directory, long batch) {
+            this.wd = wd;
+            this.name = name;
+            this.path = path;
+            this.directory = directory;
+            this.batch = batch;
+        }
+    }
+
+    private final int fd;
+    private final WatchRegistry<Integer> registry;
+    private final Map<Integer, PendingMove> pendingMoves = new HashMap<>();
+    private Thread readerThread;
+    private volatile boolean running = false;
+    private long batchCounter = 0;
+
+    /**
+     * Constructor
+     *
+     * @throws IOException if the inotify instance cannot be created
+     */
+    public InotifyWatcherBackend() throws IOException {
+        try {
+            this.fd = (int) INOTIFY_INIT1.invokeExact(IN_NONBLOCK | IN_CLOEXEC);
+        } catch (Throwable t) {
+            throw new IOException("inotify_init1 failed", t);
+        }
+        if (fd < 0) {
+            throw new IOException("inotify_init1 failed; check fs.inotify.max_user_instances");
+        }
+        this.registry = new WatchRegistry<>(new WatchRegistry.Registrar<>() {
+            @Override
+            public Integer register(Path dir) throws IOException {
+                return addWatch(dir);
+            }
+
+            @Override
+            public void cancel(Integer wd) {
+                removeWatch(wd);
+            }
+        });
+    }
+
+    /**
+     * Check whether inotify can be used on this platform.
+     *
+     * @return true on Linux with a libc that exports the inotify functions
+     */
+    public static boolean isSupported() {
+        return System.getProperty("os.name", "").toLowerCase().contains("linux")
+            && INOTIFY_INIT1 != null && INOTIFY_ADD_WATCH != null;
+    }
+
+    private static MethodHandle downcall(String name, FunctionDescriptor descriptor) {
+        return LIBC.find(name)
+            .map(symbol -> LINKER.downcallHandle(symbol, descriptor))
+            .orElse(null);
+    }
+
+    private int addWatch(Path dir) throws IOException {
+        int wd;
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment cPath = arena.allocateUtf8String(dir.toString());
+            wd = (int) INOTIFY_ADD_WATCH.invokeExact(fd, cPath, WATCH_MASK);
+        } catch (Throwable t) {
+            throw new IOException("inotify_add_watch failed for " + dir, t);
+        }
+        if (wd < 0) {
+            throw new IOException("inotify_add_watch failed for " + dir
+                + "; the fs.inotify.max_user_watches limit may be too low");
+        }
+        return wd;
+    }
+
+    private void removeWatch(int wd) {
+        try {
+            // Fails harmlessly with EINVAL when the kernel already dropped the watch (IN_IGNORED)
+            int ignored = (int) INOTIFY_RM_WATCH.invokeExact(fd, wd);
+        } catch (Throwable t) {
+            System.err.println("inotify_rm_watch failed for wd " + wd + ": " + t.getMessage());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return INOTIFY;
+    }
+
+    @Override
+    public WatchRegistry.RootStats addRoot(Path root) throws IOException {
+        return registry.registerRoot(root);
+    }
+
+    @Override
+    public synchronized void start(Listener listener) {
+        if (running) {
+            return;
+        }
+        running = true;
+        readerThread = new Thread(() -> readEvents(listener), "filex-inotify");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    /**
+     * Reader loop: wait for the descriptor to become readable, then drain it
+     * in batches of up to {@link #BUFFER_SIZE} bytes.
+     */
+    private void readEvents(Listener listener) {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment buffer = arena.allocate(BUFFER_SIZE, 8);
+            MemorySegment pollFd = arena.allocate(8, 4); // struct pollfd { int fd; short events; short revents; }
+            pollFd.set(ValueLayout.JAVA_INT, 0, fd);
+            pollFd.set(ValueLayout.JAVA_SHORT, 4, (short) POLLIN);
+
+            while (running) {
+                int ready = (int) POLL.invokeExact(pollFd, 1L, POLL_TIMEOUT_MILLIS);
+                if (ready <= 0) {
+                    flushUnpairedMoves(listener, Long.MAX_VALUE);
+                    continue;
+                }
+                long bytes;
+                while (running && (bytes = (long) READ.invokeExact(fd, buffer, (long) BUFFER_SIZE)) > 0) {
+                    batchCounter++;
+                    parseBatch(buffer, bytes, listener);
+                    // Moves not paired by the end of the following batch left the watched trees
+                    flushUnpairedMoves(listener, batchCounter);
+                }
+            }
+        } catch (Throwable t) {
+            if (running) {
+                System.err.println("inotify reader stopped: " + t.getMessage());
+                t.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Handle each event of a batch read from the descriptor: a struct inotify_event
+     * followed by its NUL-padded name.
+     */
+    void parseBatch(MemorySegment buffer, long bytes, Listener listener) {
+        long offset = 0;
+        while (offset + EVENT_HEADER_SIZE <= bytes) {
+            int wd = buffer.get(ValueLayout.JAVA_INT, offset);
+            int mask = buffer.get(ValueLayout.JAVA_INT, offset + 4);
+            int cookie = buffer.get(ValueLayout.JAVA_INT, offset + 8);
+            int nameLength = buffer.get(ValueLayout.JAVA_INT, offset + 12);
+            String name = nameLength > 0 ? buffer.getUtf8String(offset + EVENT_HEADER_SIZE) : null;
+            offset += EVENT_HEADER_SIZE + nameLength;
+
+            handleEvent(wd, mask, cookie, name, listener);
+        }
+    }
+
+    private void handleEvent(int wd, int mask, int cookie, String name, Listener listener) {
+        if ((mask & IN_Q_OVERFLOW) != 0) {
+            // The kernel queue overflowed; we cannot tell which directory lost events
+            for (Path root : registry.getRoots()) {
+                listener.onOverflow(root);
+            }
+            return;
+        }
+        if ((mask & IN_IGNORED) != 0) {
+            int released = registry.remove(wd);
+            if (released > 0) {
+                System.out.println("Released " + released + " inotify watches for wd " + wd);
+            }
+            return;
+        }
+        Path dir = registry.getPath(wd);
+        if (dir == null || name == null) {
+            return;
+        }
+        Path path = dir.resolve(name);
+        boolean directory = (mask & IN_ISDIR) != 0;
+
+        if ((mask & IN_MOVED_FROM) != 0) {
+            pendingMoves.put(cookie, new PendingMove(wd, name, path, directory, batchCounter));
+        } else if ((mask & IN_MOVED_TO) != 0) {
+            PendingMove from = pendingMoves.remove(cookie);
+            if (from != null) {
+                if (from.directory) {
+                    registry.rename(from.wd, from.name, wd, name);
+                }
+                listener.onMove(from.path, path);
+            } else {
+                // Moved in from outside the watched trees
+                if (directory) {
+                    registerNewDirectory(wd, path, listener);
+                }
+                listener.onEvent(path, "CREATE");
+            }
+        } else if ((mask & IN_CREATE) != 0) {
+            if (directory) {
+                registerNewDirectory(wd, path, listener);
+            }
+            listener.onEvent(path, "CREATE");
+        } else if ((mask & IN_DELETE) != 0) {
+            listener.onEvent(path, "DELETE");
+        } else if ((mask & IN_MODIFY) != 0) {
+            listener.onEvent(path, "MODIFY");
+        }
+    }
+
+    /**
+     * Report moves whose IN_MOVED_TO never arrived as deletes (moved out of the watched trees).
+     *
+     * @param listener The listener to notify
+     * @param currentBatch Moves recorded before this batch are flushed
+     */
+    private void flushUnpairedMoves(Listener listener, long currentBatch) {
+        Iterator<PendingMove> iterator = pendingMoves.values().iterator();
+        while (iterator.hasNext()) {
+            PendingMove move = iterator.next();
+            if (move.batch >= currentBatch) {
+                continue;
+            }
+            iterator.remove();
+            if (move.directory) {
+                Integer childWd = registry.getChildKey(move.wd, move.name);
+                if (childWd != null) {
+                    registry.remove(childWd);
+                }
+            }
+            listener.onEvent(move.path, "DELETE");
+        }
+    }
+
+    private void registerNewDirectory(int parentWd, Path newDir, Listener listener) {
+        try {
+            registry.registerSubtree(parentWd, newDir, file -> listener.onEvent(file, "CREATE"));
+        } catch (IOException e) {
+            System.err.println("Error registering new directory " + newDir + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (readerThread != null) {
+            try {
+                // The reader wakes up from poll() within POLL_TIMEOUT_MILLIS
+                readerThread.join(POLL_TIMEOUT_MILLIS * 5L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            readerThread = null;
+        }
+        registry.clear();
+        try {
+            int ignored = (int) CLOSE.invokeExact(fd);
+        } catch (Throwable t) {
+            System.err.println("Error closing inotify descriptor: " + t.getMessage());
+        }
+    }
+
+    @Override
+    public void ensureWatched(Path dir) {
+        try {
+            registry.ensureRegistered(dir);
+        } catch (IOException e) {
+            System.err.println("Error registering directory " + dir + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int getWatchCount() {
+        return registry.size();
+    }
+
+    @Override
+    public List<WatchRegistry.RootStats> getRootStats() {
+        return registry.getRootStats();
+    }
+}
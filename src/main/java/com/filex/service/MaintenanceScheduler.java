@@ -0,0 +1,188 @@
+package com.filex.service;
+
+import com.filex.model.RollupResolution;
+import com.filex.util.RetentionPolicy;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces the {@link RetentionPolicy} and keeps the database file healthy.
+ *
+ * Each run deletes expired events, alerts and rollup buckets, merges the segments
+ * of the search indexes, returns free pages with incremental vacuum, refreshes
+ * planner statistics and checkpoints the WAL.
+ * All of it is split into steps that hold the writer lock for at most the policy's
+ * slice: the number of rows per step adapts to how long the last step took, and
+ * the scheduler pauses between steps so queued event writes get the lock in
+ * between. Runs on a single low-priority daemon thread.
+ */
+public class MaintenanceScheduler {
+
+    private static final int INITIAL_STEP_ROWS = 100;
+    private static final int MAX_STEP_ROWS = 50_000;
+    private static final long INITIAL_DELAY_MILLIS = 60_000;
+
+    /**
+     * One bounded step of work under the writer lock.
+     */
+    private interface Step {
+        long apply(int limit) throws SQLException;
+    }
+
+    private final DatabaseService databaseService;
+    private final RetentionPolicy policy;
+    private volatile boolean stopped = false;
+    private ScheduledExecutorService executor;
+    private boolean vacuumWarningShown = false;
+
+    /**
+     * Constructor
+     *
+     * @param databaseService The database to maintain
+     * @param policy The retention policy and time slices
+     */
+    public MaintenanceScheduler(DatabaseService databaseService, RetentionPolicy policy) {
+        this.databaseService = databaseService;
+        this.policy = policy;
+    }
+
+    /**
+     * Run maintenance periodically in the background, the first time a minute from now.
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        stopped = false;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "filex-maintenance");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::runOnce, INITIAL_DELAY_MILLIS, policy.getMaintenanceIntervalMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop maintenance. A run in progress ends after its current step.
+     */
+    public void stop() {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = executor;
+            executor = null;
+        }
+        stopped = true;
+        if (current != null) {
+            current.shutdownNow();
+            try {
+                current.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Run every maintenance task once on the calling thread.
+     *
+     * @return true if all tasks completed
+     */
+    public boolean runOnce() {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            long events = 0;
+            long alerts = 0;
+            long rollups = 0;
+            if (policy.getEventRetentionDays() > 0) {
+                LocalDateTime cutoff = now.minusDays(policy.getEventRetentionDays());
+                events = runInSlices(limit -> databaseService.deleteExpiredEvents(cutoff, limit));
+            }
+            if (policy.getAcknowledgedAlertRetentionDays() > 0) {
+                LocalDateTime cutoff = now.minusDays(policy.getAcknowledgedAlertRetentionDays());
+                alerts = runInSlices(limit -> databaseService.deleteExpiredAlerts(cutoff, limit));
+            }
+            if (policy.getMinuteRollupRetentionDays() > 0) {
+                LocalDateTime cutoff = now.minusDays(policy.getMinuteRollupRetentionDays());
+                rollups += runInSlices(limit -> databaseService.deleteExpiredRollups(RollupResolution.MINUTE, cutoff, limit));
+            }
+            if (policy.getRollupRetentionMonths() > 0) {
+                LocalDateTime cutoff = now.minusMonths(policy.getRollupRetentionMonths());
+                rollups += runInSlices(limit -> databaseService.deleteExpiredRollups(RollupResolution.HOUR, cutoff, limit));
+                rollups += runInSlices(limit -> databaseService.deleteExpiredRollups(RollupResolution.DAY, cutoff, limit));
+            }
+            runInSlices(databaseService::mergeSearchIndexes);
+            long freed = vacuum();
+            if (stopped) {
+                return false;
+            }
+            databaseService.optimize();
+            int checkpointed = databaseService.checkpoint();
+            if (events + alerts + rollups + freed > 0) {
+                System.out.println("Maintenance deleted " + events + " events, " + alerts + " alerts and "
+                    + rollups + " rollup rows, freed " + freed + " pages and checkpointed " + checkpointed
+                    + " WAL pages in " + (System.currentTimeMillis() - start) + " ms");
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SQLException e) {
+            System.err.println("Error during database maintenance: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Repeat a step until it does less than its limit, sizing each step to the slice.
+     *
+     * @return The total done by all steps
+     */
+    private long runInSlices(Step step) throws SQLException, InterruptedException {
+        long slice = Math.max(1, policy.getMaintenanceSliceMillis());
+        int limit = INITIAL_STEP_ROWS;
+        long total = 0;
+        while (!stopped) {
+            long t0 = System.nanoTime();
+            long done = step.apply(limit);
+            long elapsed = (System.nanoTime() - t0) / 1_000_000;
+            total += done;
+            if (done < limit) {
+                break;
+            }
+            if (elapsed > slice) {
+                limit = Math.max(1, (int) (limit * slice / elapsed / 2));
+            } else if (elapsed < slice / 2) {
+                limit = Math.min(MAX_STEP_ROWS, limit + limit / 2 + 1);
+            }
+            Thread.sleep(policy.getMaintenancePauseMillis());
+        }
+        return total;
+    }
+
+    private long vacuum() throws SQLException, InterruptedException {
+        long before = databaseService.incrementalVacuum(0);
+        if (before < 0) {
+            if (!vacuumWarningShown) {
+                System.out.println("Incremental vacuum is off for this database; run CompactDatabase once to enable it.");
+                vacuumWarningShown = true;
+            }
+            return 0;
+        }
+        long[] left = {before};
+        runInSlices(pages -> {
+            long remaining = databaseService.incrementalVacuum(pages);
+            long freed = left[0] - remaining;
+            left[0] = remaining;
+            // Report a full step while free pages remain so the loop continues
+            return remaining > 0 ? Math.max(freed, pages) : freed;
+        });
+        return before - left[0];
+    }
+}
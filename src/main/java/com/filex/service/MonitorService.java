@@ -2,35 +2,80 @@ package com.filex.service;
 
 import com.filex.model.FileEvent;
 import com.filex.model.Alert;
+import com.filex.model.EventCursor;
+import com.filex.model.EventPage;
+import com.filex.model.FileFingerprint;
+import com.filex.model.RawFileEvent;
 import com.filex.util.FXUtil;
+import com.filex.util.HashProviders;
 import com.filex.util.HashUtil;
+import com.filex.util.PipelineConfig;
+import com.filex.util.QuickHash;
+import com.filex.util.StageMetrics;
+import com.filex.util.UiEventDispatcher;
 import com.filex.controller.AlertsController;
 
 import java.io.IOException;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import javafx.application.Platform;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Service class for monitoring file system events.
- * This implementation uses Java's WatchService API for real-time file system monitoring.
+ * Notifications come from a pluggable {@link WatcherBackend}: the JDK WatchService by
+ * default, or Linux inotify when the {@code filex.watcher} system property is "inotify".
+ * The watcher thread only turns notifications into {@link RawFileEvent}s; hashing,
+ * classification, persistence and UI delivery run in an {@link IngestionPipeline}.
  */
 public class MonitorService {
     
-    private WatchService watchService;
-    private ExecutorService executorService;
+    public static final int RECENT_EVENT_LIMIT = 500;
+    // A file modified this close to its hash may change again without its mtime changing
+    private static final long RACY_MTIME_MILLIS = 2000;
+    
+    private WatcherBackend watcherBackend;
+    private String watcherBackendName = System.getProperty("filex.watcher", WatcherBackend.WATCH_SERVICE);
     private DatabaseService databaseService;
     private boolean isMonitoring = false;
-    private String monitoredPath;
-    private OnFileEventListener onFileEventListener;
-    private AlertsController alertsController;
+    private List<String> monitoredPaths = new ArrayList<>();
+    private volatile OnFileEventListener onFileEventListener;
+    private volatile AlertsController alertsController;
+    private final UiEventDispatcher<FileEvent> eventDispatcher = new UiEventDispatcher<>(this::deliverEvents);
+    private final UiEventDispatcher<Alert> alertDispatcher = new UiEventDispatcher<>(this::deliverAlerts);
+    private PipelineConfig pipelineConfig = new PipelineConfig();
+    private IngestionPipeline pipeline;
+    private final FingerprintStore fingerprintStore = new FingerprintStore();
+    private OverflowReconciler overflowReconciler;
+    private volatile String hashAlgorithm;
+    private boolean followingPreferences = false;
+    private Refingerprinter refingerprinter;
+    private HashUpgrader hashUpgrader;
+    private HashCache hashCache;
+    private BaselineIndexer baselineIndexer;
     
     // Interface for file event callbacks
     public interface OnFileEventListener {
         void onFileEvent(FileEvent event);
+        
+        /**
+         * Handle the events delivered in one frame. The default hands them to
+         * {@link #onFileEvent} one at a time and ignores the dropped count; a view
+         * showing live events should override it to add them to its list as one
+         * change and show the dropped count as a summary.
+         * 
+         * @param events The events, oldest first
+         * @param dropped The number of events not delivered since the previous batch
+         *                because they arrived faster than the UI could show them
+         */
+        default void onFileEvents(List<FileEvent> events, int dropped) {
+            for (FileEvent event : events) {
+                onFileEvent(event);
+            }
+        }
     }
     
     /**
@@ -46,15 +91,55 @@ public class MonitorService {
      * Constructor
      */
     public MonitorService() {
-        try {
-            this.watchService = FileSystems.getDefault().newWatchService();
-            this.executorService = Executors.newSingleThreadExecutor();
-            // Use the singleton database service instance
-            this.databaseService = DatabaseService.getInstance();
-        } catch (IOException e) {
-            System.err.println("Error initializing MonitorService: " + e.getMessage());
-            e.printStackTrace();
+        // Use the singleton database service instance
+        this.databaseService = DatabaseService.getInstance();
+        this.hashAlgorithm = HashProviders.resolve(new PreferencesService().getHashingAlgorithm());
+        this.refingerprinter = new Refingerprinter(fingerprintStore, pipelineConfig.getRescanFilesPerSecond());
+    }
+    
+    /**
+     * Switch the hash algorithm used for new events. Files already fingerprinted
+     * with another algorithm are re-hashed in the background, so old and new
+     * hashes are never compared with each other.
+     * 
+     * @param algorithm The algorithm name, see {@link HashProviders#getAvailableNames()}
+     */
+    public void setHashAlgorithm(String algorithm) {
+        String resolved = HashProviders.get(algorithm).getName();
+        if (resolved.equals(hashAlgorithm)) {
+            return;
         }
+        hashAlgorithm = resolved;
+        System.out.println("Hash algorithm changed to " + resolved + ", re-fingerprinting "
+            + fingerprintStore.size() + " known files in the background.");
+        refingerprinter.start(resolved);
+    }
+    
+    /**
+     * Get the hash cache, for its hit/miss/eviction counters.
+     * 
+     * @return The hash cache, or null if monitoring never started
+     */
+    public HashCache getHashCache() {
+        return hashCache;
+    }
+    
+    /**
+     * Get the hash algorithm used for new events.
+     * 
+     * @return The algorithm name
+     */
+    public String getHashAlgorithm() {
+        return hashAlgorithm;
+    }
+    
+    /**
+     * Select the watcher backend used the next time monitoring starts.
+     * 
+     * @param name {@link WatcherBackend#WATCH_SERVICE} or {@link WatcherBackend#INOTIFY}
+     */
+    public void setWatcherBackend(String name) {
+        this.watcherBackendName = name;
     }
     
     /**
@@ -66,6 +151,24 @@ public class MonitorService {
         this.onFileEventListener = listener;
     }
     
+    /**
+     * Set the pipeline configuration used the next time monitoring starts.
+     * 
+     * @param config The pipeline configuration
+     */
+    public void setPipelineConfig(PipelineConfig config) {
+        this.pipelineConfig = config;
+    }
+    
+    /**
+     * Get per-stage throughput and latency counters of the running pipeline.
+     * 
+     * @return Map of stage name to metrics, empty if monitoring never started
+     */
+    public Map<String, StageMetrics> getPipelineMetrics() {
+        return pipeline != null ? pipeline.getStageMetrics() : Map.of();
+    }
+    
     /**
      * Check if monitoring is currently active.
      * 
@@ -81,35 +184,146 @@ public class MonitorService {
      * @param path The path to monitor
      */
     public void startMonitoring(String path) {
+        startMonitoring(List.of(path));
+    }
+    
+    /**
+     * Start monitoring several directory trees for events.
+     * Every directory below each root is watched, and directories created
+     * later are picked up automatically.
+     * 
+     * @param paths The root paths to monitor, e.g. {@code UserPreferences.getMonitoredPaths()}
+     */
+    public void startMonitoring(List<String> paths) {
         // Stop any existing monitoring first
         if (isMonitoring) {
             stopMonitoring();
         }
         
-        this.monitoredPath = path;
+        this.monitoredPaths = new ArrayList<>(paths);
+        
+        // Initialize database service
+        databaseService.initialize();
+        
+        if (!followingPreferences) {
+            // Follow the algorithm chosen in the settings, including any change saved before now
+            PreferencesService preferences = new PreferencesService();
+            preferences.addHashingAlgorithmListener(name -> setHashAlgorithm(HashProviders.resolve(name)));
+            setHashAlgorithm(HashProviders.resolve(preferences.getHashingAlgorithm()));
+            followingPreferences = true;
+        }
         
         try {
-            // Initialize database service
-            databaseService.initialize();
-            
-            // Register the path with the watch service
-            Path dir = Paths.get(path);
-            dir.register(watchService, 
-                StandardWatchEventKinds.ENTRY_CREATE,
-                StandardWatchEventKinds.ENTRY_DELETE,
-                StandardWatchEventKinds.ENTRY_MODIFY);
-            
-            isMonitoring = true;
-            System.out.println("Started monitoring path: " + path);
-            
-            // Start monitoring in a separate thread
-            executorService.submit(this::monitorFileSystem);
+            watcherBackend = WatcherBackend.create(watcherBackendName);
         } catch (IOException e) {
             System.err.println("Error starting monitoring: " + e.getMessage());
             e.printStackTrace();
+            return;
+        }
+        
+        // Register every directory below each root with the watcher
+        for (String path : paths) {
+            try {
+                watcherBackend.addRoot(Paths.get(path));
+            } catch (IOException e) {
+                System.err.println("Error registering monitored path " + path + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        if (watcherBackend.getWatchCount() == 0) {
+            System.err.println("Error starting monitoring: no directory could be registered.");
+            watcherBackend.close();
+            watcherBackend = null;
+            return;
+        }
+        
+        pipeline = new IngestionPipeline(pipelineConfig, databaseService,
+            this::processRawEvent, this::deliverToUi);
+        pipeline.setPersistListener(this::onEventPersisted);
+        hashCache = new HashCache(databaseService, pipelineConfig.getHashCacheMemoryBytes());
+        hashCache.start();
+        hashUpgrader = new HashUpgrader(fingerprintStore, databaseService, hashCache, this::getHashAlgorithm,
+            pipelineConfig.getHashUpgradeBytesPerSecond());
+        hashUpgrader.start();
+        pipeline.start();
+        
+        overflowReconciler = new OverflowReconciler(fingerprintStore, databaseService, watcherBackend,
+            pipeline::submit, pipelineConfig.getRescanFilesPerSecond());
+        overflowReconciler.start();
+        
+        isMonitoring = true;
+        if (BaselineIndexer.hasUnfinishedRun(databaseService, getMonitoredRoots())) {
+            startBaseline(); // Pick up where an interrupted baseline left off
+        }
+        System.out.println("Started monitoring " + paths.size() + " root(s) with "
+            + watcherBackend.getWatchCount() + " watched directories using " + watcherBackend.getName());
+        
+        // Events are delivered on the backend's own reader thread
+        watcherBackend.start(new WatcherBackend.Listener() {
+            @Override
+            public void onEvent(Path path, String eventType) {
+                // Hand off to the pipeline; hashing and persistence happen on other threads
+                pipeline.submit(new RawFileEvent(path, eventType, LocalDateTime.now()));
+            }
+            
+            @Override
+            public void onMove(Path from, Path to) {
+                // The old path is gone: record its removal, as backends that cannot pair renames do
+                forget(from);
+                LocalDateTime now = LocalDateTime.now();
+                pipeline.submit(new RawFileEvent(from, "DELETE", now));
+                pipeline.submit(new RawFileEvent(to, "RENAME", now));
+            }
+            
+            @Override
+            public void onOverflow(Path dir) {
+                // Events were dropped; rebuild them from a rescan of the affected subtree
+                overflowReconciler.requestRescan(dir);
+            }
+        });
+    }
+    
+    /**
+     * Start fingerprinting every file under the monitored roots in the background.
+     * Resumes an interrupted baseline over the same roots. Requires monitoring to be active,
+     * since it shares the hash cache.
+     */
+    public synchronized void startBaseline() {
+        if (!isMonitoring || (baselineIndexer != null && baselineIndexer.isRunning())) {
+            return;
+        }
+        baselineIndexer = new BaselineIndexer(databaseService, hashCache, hashAlgorithm,
+            pipelineConfig.getBaselineHashThreads(), pipelineConfig.getBaselineBytesPerSecond(),
+            pipelineConfig.getBaselineBatchSize());
+        baselineIndexer.start(getMonitoredRoots());
+    }
+    
+    /**
+     * Stop a running baseline; it resumes from its last saved batch next time.
+     */
+    public synchronized void stopBaseline() {
+        if (baselineIndexer != null) {
+            baselineIndexer.stop();
         }
     }
     
+    /**
+     * Get the current or last baseline, for its progress counters.
+     * 
+     * @return The baseline indexer, or null if none was started
+     */
+    public BaselineIndexer getBaselineIndexer() {
+        return baselineIndexer;
+    }
+    
+    private List<Path> getMonitoredRoots() {
+        List<Path> roots = new ArrayList<>();
+        for (String path : monitoredPaths) {
+            roots.add(Paths.get(path));
+        }
+        return roots;
+    }
+    
     /**
      * Stop monitoring the file system for events.
      */
@@ -120,103 +334,264 @@ public class MonitorService {
         }
         
         isMonitoring = false;
-        try {
-            watchService.close();
-            watchService = FileSystems.getDefault().newWatchService();
-            System.out.println("Stopped monitoring.");
-        } catch (IOException e) {
-            System.err.println("Error stopping monitoring: " + e.getMessage());
-            e.printStackTrace();
+        refingerprinter.stop();
+        stopBaseline();
+        if (overflowReconciler != null) {
+            overflowReconciler.stop();
+            overflowReconciler = null;
+        }
+        if (watcherBackend != null) {
+            watcherBackend.close();
+            watcherBackend = null;
+        }
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+        if (hashUpgrader != null) {
+            hashUpgrader.stop();
+            hashUpgrader = null;
         }
+        if (hashCache != null) {
+            hashCache.stop();
+            System.out.println("Hash cache: " + hashCache);
+        }
+        System.out.println("Stopped monitoring.");
     }
     
     /**
-     * Monitor file system events in a separate thread.
+     * Hash and classify a raw event. Runs on the pipeline's worker threads.
+     * 
+     * @param raw The raw watcher event
+     * @return The processed event and the alert it raised, if any
      */
-    private void monitorFileSystem() {
-        while (isMonitoring) {
+    private IngestionPipeline.ProcessedEvent processRawEvent(RawFileEvent raw) {
+        Path fullPath = raw.getPath();
+        
+        // Create FileEvent object
+        FileEvent fileEvent = new FileEvent();
+        fileEvent.setFileName(fullPath.getFileName().toString());
+        fileEvent.setFilePath(fullPath.toString());
+        fileEvent.setEventType(raw.getEventType());
+        fileEvent.setTimestamp(raw.getTimestamp());
+        fileEvent.setReconstructed(raw.isReconstructed());
+        fileEvent.setMergedCount(raw.getMergedCount());
+        fileEvent.setHashAlgorithm(hashAlgorithm);
+        
+        boolean isSuspicious = isSuspiciousEvent(raw.getEventType(), fullPath);
+        fileEvent.setSuspicious(isSuspicious);
+        
+        // Compute the content hash if file exists
+        BasicFileAttributes attrs = readAttributes(fullPath);
+        if (attrs != null && !attrs.isDirectory()) {
+            if (!hashFile(raw, fileEvent, attrs, isSuspicious)) {
+                return null; // Only the metadata changed while events were being dropped
+            }
+        } else {
+            fileEvent.setSha256(""); // Empty for deleted files or directories
+            if (attrs == null) {
+                fingerprintStore.remove(fullPath);
+                hashCache.invalidate(fullPath);
+            }
+        }
+        
+        Alert alert = null;
+        if (isSuspicious) {
+            // Create an alert for the suspicious event
+            alert = new Alert();
+            alert.setFileEventId(0); // Set when the event and its alert are committed together
+            alert.setSeverity("HIGH");
+            alert.setAcknowledged(false);
+            alert.setCreatedAt(LocalDateTime.now());
+            alert.setActionsTaken("File event detected as suspicious: " + fileEvent.getFileName());
+        }
+        return new IngestionPipeline.ProcessedEvent(fileEvent, alert);
+    }
+    
+    /**
+     * Hash the file of an event and update its fingerprint. Files at or above the
+     * quick-hash threshold only get a quick hash when it matches the previous one and
+     * the file is not sensitive; the full hash then follows from the {@link HashUpgrader}
+     * once the event is persisted.
+     * 
+     * @param raw The raw event
+     * @param fileEvent The event being built
+     * @param attrs The file attributes
+     * @param sensitive Whether the file is classified as sensitive
+     * @return false if the event is a reconstructed MODIFY whose content did not change
+     */
+    private boolean hashFile(RawFileEvent raw, FileEvent fileEvent, BasicFileAttributes attrs, boolean sensitive) {
+        Path path = raw.getPath();
+        String algorithm = fileEvent.getHashAlgorithm();
+        long size = attrs.size();
+        long mtime = attrs.lastModifiedTime().toMillis();
+        FileFingerprint previous = fingerprintStore.get(path);
+        // Hashes from another algorithm are not comparable
+        String previousHash = previous != null && algorithm.equals(previous.getHashAlgorithm())
+            ? previous.getSha256() : null;
+        
+        // Same file key, size and mtime as a cached entry: the content is unchanged, skip the read
+        String cachedHash = hashCache.lookup(path, attrs, algorithm);
+        if (cachedHash != null) {
+            fileEvent.setSha256(cachedHash);
+            fingerprintStore.put(path, cachedHash, algorithm, size, mtime);
+            return !(raw.isReconstructed() && "MODIFY".equals(raw.getEventType())
+                && cachedHash.equals(previousHash));
+        }
+        
+        String quickHash = null;
+        if (size >= pipelineConfig.getQuickHashThresholdBytes()) {
             try {
-                WatchKey key = watchService.take();
-                
-                for (WatchEvent<?> event : key.pollEvents()) {
-                    WatchEvent.Kind<?> kind = event.kind();
-                    
-                    if (kind == StandardWatchEventKinds.OVERFLOW) {
-                        continue;
-                    }
-                    
-                    WatchEvent<Path> ev = (WatchEvent<Path>) event;
-                    Path fileName = ev.context();
-                    Path fullPath = ((Path) key.watchable()).resolve(fileName);
-                    
-                    // Create FileEvent object
-                    FileEvent fileEvent = new FileEvent();
-                    fileEvent.setFileName(fileName.toString());
-                    fileEvent.setEventType(kind.name().replace("ENTRY_", "")); // Remove "ENTRY_" prefix
-                    fileEvent.setTimestamp(LocalDateTime.now());
-                    
-                    // Compute SHA-256 hash if file exists
-                    String fullPathStr = fullPath.toString();
-                    if (Files.exists(fullPath) && !Files.isDirectory(fullPath)) {
-                        String sha256 = HashUtil.computeSHA256(fullPathStr);
-                        fileEvent.setSha256(sha256);
-                    } else {
-                        fileEvent.setSha256(""); // Empty for deleted files or directories
-                    }
-                    
-                    boolean isSuspicious = isSuspiciousEvent(kind, fullPath);
-                    fileEvent.setSuspicious(isSuspicious);
-                    
-                    // Save to database
-                    databaseService.saveEvent(fileEvent);
-                    
-                    // If the event is suspicious, create an alert
-                    if (isSuspicious) {
-                        // Create an alert for the suspicious event
-                        Alert alert = new Alert();
-                        alert.setFileEventId(0); // This should be the actual file event ID
-                        alert.setSeverity("HIGH");
-                        alert.setAcknowledged(false);
-                        alert.setCreatedAt(LocalDateTime.now());
-                        alert.setActionsTaken("File event detected as suspicious: " + fileEvent.getFileName());
-                        databaseService.saveAlert(alert);
-                        System.out.println("Alert created for suspicious event: " + fileEvent.getFileName());
-                        
-                        // Notify the alerts controller if available
-                        if (alertsController != null) {
-                            Platform.runLater(() -> alertsController.addAlertObject(alert));
-                        }
-                    }
-                    
-                    System.out.println("New event detected: " + fileEvent);
-                    
-                    // Notify listener for real-time UI updates
-                    if (onFileEventListener != null) {
-                        // Use JavaFX Application Thread for UI updates
-                        Platform.runLater(() -> onFileEventListener.onFileEvent(fileEvent));
-                    }
-                }
-                
-                boolean valid = key.reset();
-                if (!valid) {
-                    break;
-                }
-            } catch (InterruptedException e) {
-                System.out.println("Monitoring interrupted.");
-                Thread.currentThread().interrupt();
-                break;
+                quickHash = QuickHash.compute(path);
+            } catch (IOException e) {
+                System.err.println("Error computing quick hash for file: " + path + ": " + e.getMessage());
             }
         }
+        if (quickHash != null && !sensitive && previous != null && quickHash.equals(previous.getQuickHash())) {
+            // Size and sampled blocks unchanged: record the quick hash now, the full hash later
+            fileEvent.setSha256(quickHash);
+            fileEvent.setHashAlgorithm(QuickHash.ALGORITHM);
+            fileEvent.setHashTier(FileEvent.HASH_TIER_QUICK);
+            fingerprintStore.put(path, null, null, size, mtime); // Full hash unknown until upgraded
+            return true;
+        }
+        
+        long hashStarted = System.currentTimeMillis();
+        fileEvent.setSha256(HashUtil.computeHash(path, algorithm));
+        if (!fileEvent.getSha256().isEmpty() && isUnchangedSince(path, attrs, hashStarted)) {
+            hashCache.put(path, attrs, algorithm, fileEvent.getSha256());
+        }
+        fingerprintStore.put(path, fileEvent.getSha256(), algorithm, size, mtime);
+        if (quickHash != null) {
+            fingerprintStore.putQuickHash(path, quickHash);
+        }
+        return !(raw.isReconstructed() && "MODIFY".equals(raw.getEventType())
+            && fileEvent.getSha256().equals(previousHash));
+    }
+    
+    /**
+     * Check that a file was not written while it was hashed, so its hash can be cached
+     * against the attributes read before. A file modified shortly before the hash
+     * started is not cached either: a write within the filesystem's mtime resolution
+     * would leave size and mtime unchanged.
+     * 
+     * @param path The file path
+     * @param before The attributes read before hashing
+     * @param hashStartedMillis When the hash started, in epoch milliseconds
+     * @return true if the hash can be cached
+     */
+    static boolean isUnchangedSince(Path path, BasicFileAttributes before, long hashStartedMillis) {
+        long mtime = before.lastModifiedTime().toMillis();
+        if (hashStartedMillis - mtime < RACY_MTIME_MILLIS) {
+            return false;
+        }
+        try {
+            BasicFileAttributes after = Files.readAttributes(path, BasicFileAttributes.class);
+            return after.size() == before.size()
+                && after.lastModifiedTime().toMillis() == mtime
+                && Objects.equals(after.fileKey(), before.fileKey());
+        } catch (IOException e) {
+            return false; // Deleted or replaced while it was hashed
+        }
+    }
+    
+    /**
+     * Queue provisional quick hashes for a full hash once their event is committed.
+     * Runs on the pipeline's writer thread.
+     * 
+     * @param processed The persisted event
+     */
+    private void onEventPersisted(IngestionPipeline.ProcessedEvent processed) {
+        FileEvent event = processed.getEvent();
+        if (!event.isHashProvisional() || hashUpgrader == null) {
+            return;
+        }
+        Path path = Paths.get(event.getFilePath());
+        FileFingerprint fingerprint = fingerprintStore.get(path);
+        // A newer event for the file queues its own upgrade
+        if (fingerprint != null && event.getSha256().equals(fingerprint.getQuickHash())) {
+            hashUpgrader.enqueue(path, event.getSha256(), fingerprint.getSize(), fingerprint.getLastModifiedMillis());
+        }
+    }
+    
+    /**
+     * Drop the fingerprints and cached hashes of a path that no longer exists,
+     * and of everything below it if it was a directory.
+     * 
+     * @param path The old path
+     */
+    private void forget(Path path) {
+        fingerprintStore.remove(path);
+        hashCache.invalidate(path);
+        List<String> children = new ArrayList<>(databaseService.getFingerprintPathsUnder(path));
+        for (FileFingerprint fingerprint : fingerprintStore.getUnder(path)) {
+            children.add(fingerprint.getFilePath());
+        }
+        for (String child : children) {
+            fingerprintStore.remove(Paths.get(child));
+            hashCache.invalidate(Paths.get(child));
+        }
+    }
+    
+    private BasicFileAttributes readAttributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null; // Deleted, or not readable
+        }
+    }
+    
+    /**
+     * Forward a persisted event to the UI listeners. Runs on the pipeline's UI fan-out thread;
+     * the events are handed to the UI in batches, once per frame.
+     * 
+     * @param processed The processed event
+     */
+    private void deliverToUi(IngestionPipeline.ProcessedEvent processed) {
+        if (processed.getAlert() != null && alertsController != null) {
+            alertDispatcher.submit(processed.getAlert());
+        }
+        if (onFileEventListener != null) {
+            eventDispatcher.submit(processed.getEvent());
+        }
+    }
+    
+    /**
+     * Hand one frame's events to the listener. Runs on the UI thread.
+     */
+    private void deliverEvents(List<FileEvent> events, int dropped) {
+        OnFileEventListener listener = onFileEventListener;
+        if (listener != null) {
+            listener.onFileEvents(events, dropped);
+        }
+    }
+    
+    /**
+     * Hand one frame's alerts to the alerts view. Runs on the UI thread.
+     * The alerts view takes one alert at a time; alerts dropped while the UI
+     * was behind are only logged.
+     */
+    private void deliverAlerts(List<Alert> alerts, int dropped) {
+        AlertsController controller = alertsController;
+        if (controller == null) {
+            return;
+        }
+        for (Alert alert : alerts) {
+            controller.addAlertObject(alert);
+        }
+        if (dropped > 0) {
+            System.out.println(dropped + " more alerts were raised than the alerts view could show; "
+                + "they are saved and listed on refresh.");
+        }
     }
     
     /**
      * Determine if a file event is suspicious.
      * 
-     * @param kind The type of event
+     * @param eventType The type of event (CREATE, MODIFY, DELETE)
      * @param path The path of the file
      * @return true if the event is suspicious, false otherwise
      */
-    private boolean isSuspiciousEvent(WatchEvent.Kind<?> kind, Path path) {
+    private boolean isSuspiciousEvent(String eventType, Path path) {
         // Simple suspicious detection logic
         // In a real implementation, this would be more sophisticated
         String fileName = path.getFileName().toString().toLowerCase();
@@ -238,22 +613,59 @@ public class MonitorService {
     /**
      * Get the currently monitored path.
      * 
-     * @return The monitored path
+     * @return The first monitored root, or null if nothing is monitored
      */
     public String getMonitoredPath() {
-        return monitoredPath;
+        return monitoredPaths.isEmpty() ? null : monitoredPaths.get(0);
+    }
+    
+    /**
+     * Get all currently monitored root paths.
+     * 
+     * @return The monitored roots
+     */
+    public List<String> getMonitoredPaths() {
+        return monitoredPaths;
     }
     
     /**
-     * Get recent file events from the database.
+     * Get the number of directories currently watched across all roots.
      * 
-     * @return List of recent file events
+     * @return The watch count
+     */
+    public int getWatchCount() {
+        return watcherBackend != null ? watcherBackend.getWatchCount() : 0;
+    }
+    
+    /**
+     * Get per-root registration statistics (watch count and registration time).
+     * 
+     * @return List of root statistics
+     */
+    public List<WatchRegistry.RootStats> getRootStats() {
+        return watcherBackend != null ? watcherBackend.getRootStats() : List.of();
+    }
+    
+    /**
+     * Get the most recent file events from the database.
+     * 
+     * @return Up to {@link #RECENT_EVENT_LIMIT} events, newest first
      */
     public List<FileEvent> getRecentEvents() {
+        return getRecentEvents(null, RECENT_EVENT_LIMIT).getEvents();
+    }
+    
+    /**
+     * Get a page of file events from the database, newest first.
+     * 
+     * @param after The cursor of the previous page, or null for the newest events
+     * @param limit The maximum number of events
+     * @return The page and the cursor of the next one
+     */
+    public EventPage getRecentEvents(EventCursor after, int limit) {
         // Initialize database service if not already done
         databaseService.initialize();
-        // Return events from database instead of mock data
-        return databaseService.getAllEvents();
+        return databaseService.getEventsPage(after, limit);
     }
     
     /**
@@ -265,9 +677,8 @@ public class MonitorService {
     public void addEvent(FileEvent event) {
         // Initialize database service if not already done
         databaseService.initialize();
-        // Save event to database
-        databaseService.saveEvent(event);
-        System.out.println("New event detected: " + event);
+        // Queue for the group-commit writer; never waits for the disk
+        databaseService.saveEventAsync(event);
     }
     
     /**
@@ -275,7 +686,6 @@ public class MonitorService {
      */
     public void close() {
         stopMonitoring();
-        executorService.shutdown();
         // Don't close database service here as it's a singleton
         // databaseService.close();
     }
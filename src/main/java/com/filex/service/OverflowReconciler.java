@@ -0,0 +1,264 @@
+package com.filex.service;
+
+import com.filex.model.FileFingerprint;
+import com.filex.model.RawFileEvent;
+import com.filex.util.RateLimiter;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Recovers events lost to a watcher overflow.
+ *
+ * When the watcher reports an overflow for a directory, the subtree is rescanned
+ * on a low-priority background thread, one directory at a time and throttled to
+ * a files-per-second budget so the rescan itself does not cause another overflow.
+ * Each file's size and mtime are compared with its {@link FileFingerprint}; the
+ * differences are submitted as reconstructed CREATE/MODIFY/DELETE events. Files the
+ * monitor has not seen since it started are compared with the fingerprints persisted
+ * in {@code file_fingerprints}, so changes made while the application was not running
+ * are found as well.
+ */
+public class OverflowReconciler {
+
+    // File timestamps come from a coarser clock than currentTimeMillis (2 s on FAT)
+    private static final long MTIME_SLACK_MILLIS = 2_000;
+
+    private final FingerprintStore fingerprintStore;
+    private final DatabaseService databaseService;
+    private final WatcherBackend watcherBackend;
+    private final Consumer<RawFileEvent> submitter;
+    private final RateLimiter fileLimiter;
+    private final long knownSinceMillis;
+
+    private final Set<Path> pending = new LinkedHashSet<>();
+    private final AtomicLong rescans = new AtomicLong();
+    private final AtomicLong reconstructedEvents = new AtomicLong();
+    private Thread thread;
+    private volatile boolean running = false;
+
+    /**
+     * Constructor
+     *
+     * @param fingerprintStore The last known state of every file seen since monitoring started
+     * @param databaseService The database holding the persisted fingerprints, may be null
+     * @param watcherBackend The backend, used to watch directories created during the overflow
+     * @param submitter Receives the reconstructed events
+     * @param filesPerSecond The maximum number of files examined per second, or 0 for unlimited
+     */
+    public OverflowReconciler(FingerprintStore fingerprintStore, DatabaseService databaseService,
+                              WatcherBackend watcherBackend, Consumer<RawFileEvent> submitter,
+                              double filesPerSecond) {
+        this.fingerprintStore = fingerprintStore;
+        this.databaseService = databaseService;
+        this.watcherBackend = watcherBackend;
+        this.submitter = submitter;
+        this.fileLimiter = new RateLimiter(filesPerSecond);
+        this.knownSinceMillis = System.currentTimeMillis() - MTIME_SLACK_MILLIS;
+    }
+
+    /**
+     * Start the background rescan thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "filex-overflow-rescan");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Stop the rescan thread. A rescan in progress is abandoned.
+     */
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = thread;
+            thread = null;
+        }
+        synchronized (pending) {
+            pending.clear();
+            pending.notifyAll();
+        }
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    /**
+     * Queue a directory subtree for rescanning. Requests already covered by a
+     * pending ancestor are ignored, and pending descendants are folded into this one.
+     *
+     * @param dir The directory whose events were lost
+     */
+    public void requestRescan(Path dir) {
+        synchronized (pending) {
+            for (Path queued : pending) {
+                if (dir.startsWith(queued)) {
+                    return;
+                }
+            }
+            pending.removeIf(queued -> queued.startsWith(dir));
+            pending.add(dir);
+            pending.notifyAll();
+        }
+        System.out.println("Overflow under " + dir + ", rescan scheduled.");
+    }
+
+    private void run() {
+        while (running) {
+            Path dir;
+            synchronized (pending) {
+                while (running && pending.isEmpty()) {
+                    try {
+                        pending.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+                Iterator<Path> iterator = pending.iterator();
+                dir = iterator.next();
+                iterator.remove();
+            }
+            try {
+                rescan(dir);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Rescan one subtree breadth-first and submit the differences.
+     *
+     * @param root The subtree root
+     */
+    private void rescan(Path root) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        long before = reconstructedEvents.get();
+        Set<String> seen = new HashSet<>();
+        Deque<Path> directories = new ArrayDeque<>();
+        directories.add(root);
+        int filesScanned = 0;
+
+        while (!directories.isEmpty()) {
+            if (!running) {
+                return;
+            }
+            Path dir = directories.poll();
+            // Directories created while events were being dropped are not watched yet
+            watcherBackend.ensureWatched(dir);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path entry : stream) {
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue; // Vanished between listing and stat; the DELETE pass handles it
+                    }
+                    if (attrs.isDirectory()) {
+                        directories.add(entry);
+                        continue;
+                    }
+                    if (!attrs.isRegularFile()) {
+                        continue;
+                    }
+                    fileLimiter.acquire(1);
+                    filesScanned++;
+                    seen.add(entry.toString());
+                    compare(entry, attrs);
+                }
+            } catch (IOException e) {
+                System.err.println("Rescan could not read " + dir + ": " + e.getMessage());
+            }
+        }
+
+        // Anything known under the root that the rescan did not find was deleted
+        Set<String> known = new LinkedHashSet<>();
+        for (FileFingerprint fingerprint : fingerprintStore.getUnder(root)) {
+            known.add(fingerprint.getFilePath());
+        }
+        if (databaseService != null) {
+            known.addAll(databaseService.getFingerprintPathsUnder(root));
+        }
+        for (String filePath : known) {
+            if (!seen.contains(filePath)) {
+                Path path = Path.of(filePath);
+                fingerprintStore.remove(path);
+                if (databaseService != null) {
+                    databaseService.deleteFingerprint(filePath);
+                }
+                submit(new RawFileEvent(path, "DELETE", LocalDateTime.now(), true));
+            }
+        }
+
+        rescans.incrementAndGet();
+        System.out.println("Rescan of " + root + " examined " + filesScanned + " files in "
+            + (System.currentTimeMillis() - start) + " ms and reconstructed "
+            + (reconstructedEvents.get() - before) + " events.");
+    }
+
+    private void compare(Path file, BasicFileAttributes attrs) {
+        long size = attrs.size();
+        long mtime = attrs.lastModifiedTime().toMillis();
+        FileFingerprint fingerprint = fingerprintStore.get(file);
+        if (fingerprint == null && databaseService != null) {
+            // Not seen since monitoring started; compare with the state persisted before
+            fingerprint = databaseService.getFingerprint(file.toString());
+            if (fingerprint != null) {
+                fingerprintStore.put(file, fingerprint.getSha256(), fingerprint.getHashAlgorithm(),
+                    fingerprint.getSize(), fingerprint.getLastModifiedMillis());
+            }
+        }
+        LocalDateTime modifiedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(mtime), ZoneId.systemDefault());
+
+        if (fingerprint == null) {
+            if (mtime >= knownSinceMillis) {
+                submit(new RawFileEvent(file, "CREATE", modifiedAt, true));
+            }
+            // Otherwise it existed before monitoring started and was never touched since; just remember it.
+            // Either way record it now so an overlapping rescan does not report it twice
+            fingerprintStore.put(file, null, null, size, mtime);
+        } else if (fingerprint.getSize() != size || fingerprint.getLastModifiedMillis() != mtime) {
+            // The worker compares the new hash with the fingerprint and drops metadata-only changes
+            submit(new RawFileEvent(file, "MODIFY", modifiedAt, true));
+            fingerprintStore.put(file, fingerprint.getSha256(), fingerprint.getHashAlgorithm(), size, mtime);
+        }
+    }
+
+    private void submit(RawFileEvent event) {
+        reconstructedEvents.incrementAndGet();
+        submitter.accept(event);
+    }
+
+    public long getRescanCount() {
+        return rescans.get();
+    }
+
+    public long getReconstructedEventCount() {
+        return reconstructedEvents.get();
+    }
+}
@@ -4,6 +4,7 @@ import com.filex.util.FXUtil;
 import javafx.stage.DirectoryChooser;
 
 import java.io.File;
+import java.util.function.Consumer;
 import java.util.prefs.Preferences;
 
 /**
@@ -104,6 +105,20 @@ public class PreferencesService {
         this.hashingAlgorithm = hashingAlgorithm;
     }
     
+    /**
+     * Listen for the hashing algorithm being saved, e.g. from the settings view while
+     * monitoring. The listener is called on the preferences event thread.
+     * 
+     * @param listener Called with the saved algorithm name
+     */
+    public void addHashingAlgorithmListener(Consumer<String> listener) {
+        prefs.addPreferenceChangeListener(event -> {
+            if (PREF_HASHING_ALGORITHM.equals(event.getKey()) && event.getNewValue() != null) {
+                listener.accept(event.getNewValue());
+            }
+        });
+    }
+    
     /**
      * Reset preferences to default values
      */
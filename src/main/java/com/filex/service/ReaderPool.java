@@ -0,0 +1,178 @@
+package com.filex.service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Bounded pool of read-only SQLite connections.
+ *
+ * In WAL mode each reader sees the last committed snapshot and neither blocks the
+ * writer nor other readers, so queries from the UI and reports run alongside
+ * ingestion. Connections are opened lazily up to the maximum size; callers wait up
+ * to the configured timeout when all of them are in use.
+ */
+public class ReaderPool {
+
+    /**
+     * A borrowed connection, returned to the pool on close.
+     */
+    public class Lease implements AutoCloseable {
+        private final Connection connection;
+
+        private Lease(Connection connection) {
+            this.connection = connection;
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        @Override
+        public void close() {
+            release(connection);
+        }
+    }
+
+    private final String url;
+    private final int maxSize;
+    private final long timeoutMillis;
+    private final int cacheKilobytes;
+    private final Deque<Connection> idle = new ArrayDeque<>();
+    private int openCount = 0;
+    private boolean closed = false;
+
+    /**
+     * Constructor
+     *
+     * @param url The JDBC URL of the database
+     * @param minSize The number of connections opened up front
+     * @param maxSize The maximum number of open connections
+     * @param timeoutMillis How long {@link #acquire()} waits for a free connection
+     * @param cacheKilobytes The page cache size of each connection
+     * @throws SQLException if the initial connections cannot be opened
+     */
+    public ReaderPool(String url, int minSize, int maxSize, long timeoutMillis, int cacheKilobytes) throws SQLException {
+        this.url = url;
+        this.maxSize = Math.max(1, maxSize);
+        this.timeoutMillis = timeoutMillis;
+        this.cacheKilobytes = cacheKilobytes;
+        synchronized (this) {
+            for (int i = 0; i < Math.min(minSize, this.maxSize); i++) {
+                idle.push(open());
+                openCount++;
+            }
+        }
+    }
+
+    /**
+     * Borrow a read-only connection. Use it in a try-with-resources block.
+     *
+     * @return The lease
+     * @throws SQLException if no connection became free within the timeout
+     */
+    public Lease acquire() throws SQLException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (this) {
+            while (true) {
+                if (closed) {
+                    throw new SQLException("Reader pool is closed");
+                }
+                if (!idle.isEmpty()) {
+                    return new Lease(idle.pop());
+                }
+                if (openCount < maxSize) {
+                    openCount++;
+                    break; // Open outside the lock
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new SQLTimeoutException("No database reader free after " + timeoutMillis + " ms");
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a database reader", e);
+                }
+            }
+        }
+        try {
+            return new Lease(open());
+        } catch (SQLException e) {
+            synchronized (this) {
+                openCount--;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private void release(Connection connection) {
+        synchronized (this) {
+            if (!closed) {
+                idle.push(connection);
+                notifyAll();
+                return;
+            }
+            openCount--;
+        }
+        closeQuietly(connection);
+    }
+
+    private Connection open() throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA query_only = ON");
+            stmt.execute("PRAGMA busy_timeout = " + timeoutMillis);
+            stmt.execute("PRAGMA cache_size = -" + cacheKilobytes);
+            stmt.execute("PRAGMA temp_store = MEMORY");
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw e;
+        }
+        return connection;
+    }
+
+    /**
+     * Close idle connections now and borrowed ones as they are returned.
+     */
+    public void close() {
+        Deque<Connection> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayDeque<>(idle);
+            openCount -= idle.size();
+            idle.clear();
+            notifyAll();
+        }
+        for (Connection connection : toClose) {
+            closeQuietly(connection);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing database reader: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the number of open reader connections, idle or borrowed.
+     *
+     * @return The connection count
+     */
+    public synchronized int getOpenCount() {
+        return openCount;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
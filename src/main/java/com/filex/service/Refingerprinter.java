@@ -0,0 +1,107 @@
+package com.filex.service;
+
+import com.filex.model.FileFingerprint;
+import com.filex.util.HashUtil;
+import com.filex.util.RateLimiter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-hashes known files in the background after the hash algorithm changes,
+ * so fingerprints computed with different algorithms are never compared.
+ *
+ * Only files whose size and mtime still match their fingerprint are re-hashed;
+ * anything that changed meanwhile is picked up by the watcher as a normal event.
+ */
+public class Refingerprinter {
+
+    private final FingerprintStore fingerprintStore;
+    private final RateLimiter fileLimiter;
+    private final AtomicLong rehashed = new AtomicLong();
+    private Thread thread;
+    private volatile String targetAlgorithm;
+
+    /**
+     * Constructor
+     *
+     * @param fingerprintStore The fingerprints to migrate
+     * @param filesPerSecond The maximum number of files re-hashed per second, or 0 for unlimited
+     */
+    public Refingerprinter(FingerprintStore fingerprintStore, double filesPerSecond) {
+        this.fingerprintStore = fingerprintStore;
+        this.fileLimiter = new RateLimiter(filesPerSecond);
+    }
+
+    /**
+     * Start re-hashing every fingerprint not computed with the given algorithm.
+     * A run already in progress for another algorithm is abandoned.
+     *
+     * @param algorithm The new hash algorithm
+     */
+    public synchronized void start(String algorithm) {
+        targetAlgorithm = algorithm;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        thread = new Thread(() -> run(algorithm), "filex-refingerprint");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Stop any run in progress.
+     */
+    public synchronized void stop() {
+        targetAlgorithm = null;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void run(String algorithm) {
+        long start = System.currentTimeMillis();
+        int migrated = 0;
+        for (FileFingerprint fingerprint : fingerprintStore.getAll()) {
+            if (!algorithm.equals(targetAlgorithm) || Thread.currentThread().isInterrupted()) {
+                return; // Superseded or stopped
+            }
+            if (fingerprint.getSha256() == null || algorithm.equals(fingerprint.getHashAlgorithm())) {
+                continue;
+            }
+            try {
+                fileLimiter.acquire(1);
+            } catch (InterruptedException e) {
+                return;
+            }
+            Path path = Path.of(fingerprint.getFilePath());
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                long mtime = attrs.lastModifiedTime().toMillis();
+                if (attrs.size() != fingerprint.getSize() || mtime != fingerprint.getLastModifiedMillis()) {
+                    continue; // Changed since it was fingerprinted; the watcher reports it
+                }
+                String hash = HashUtil.toHex(HashUtil.hash(path, algorithm));
+                fingerprintStore.put(path, hash, algorithm, attrs.size(), mtime);
+                rehashed.incrementAndGet();
+                migrated++;
+            } catch (NoSuchFileException e) {
+                // Deleted meanwhile; the watcher reports it
+            } catch (IOException e) {
+                System.err.println("Error re-fingerprinting " + path + ": " + e.getMessage());
+            }
+        }
+        System.out.println("Re-fingerprinted " + migrated + " files with " + algorithm + " in "
+            + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    public long getRehashedCount() {
+        return rehashed.get();
+    }
+}
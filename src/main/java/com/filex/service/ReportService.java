@@ -0,0 +1,124 @@
+package com.filex.service;
+
+import com.filex.model.EventReport;
+import com.filex.model.FileEvent;
+import com.filex.util.TimeUtil;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Service class for building event reports.
+ *
+ * A report is aggregated in one pass over {@link DatabaseService#scanEvents}, which
+ * reads only ids, so its memory use does not grow with the number of events: a
+ * counter per event type, a bit per file path id for the distinct files, and the
+ * ids of the newest {@value #MAX_NEWEST_EVENTS} events, which are loaded in full at
+ * the end. The caller's thread does the work; run it on a background thread.
+ */
+public class ReportService {
+
+    public static final int MAX_NEWEST_EVENTS = 1000;
+    private static final long PROGRESS_INTERVAL_NANOS = 250_000_000L; // Between partial reports
+
+    /**
+     * Receives partial reports while a report is being built.
+     */
+    public interface ProgressListener {
+        /**
+         * Handle a partial report.
+         *
+         * @param fraction The fraction of the time range scanned so far
+         * @param partial The counts so far
+         */
+        void onProgress(double fraction, EventReport partial);
+    }
+
+    private final DatabaseService databaseService;
+
+    /**
+     * Constructor
+     *
+     * @param databaseService The database to read the events from
+     */
+    public ReportService(DatabaseService databaseService) {
+        this.databaseService = databaseService;
+    }
+
+    /**
+     * Build a report of the events in a time range.
+     *
+     * @param startDate The start of the range
+     * @param endDate The end of the range, exclusive
+     * @param suspiciousOnly Whether to report suspicious events only
+     * @param listener Given a partial report a few times a second, may be null
+     * @param cancelled Checked for every event; the scan stops once it returns true
+     * @return The report, or a partial one that is not complete if cancelled or on error
+     */
+    public EventReport buildReport(LocalDateTime startDate, LocalDateTime endDate, boolean suspiciousOnly,
+                                   ProgressListener listener, BooleanSupplier cancelled) {
+        Map<Long, String> eventTypeNames = databaseService.getEventTypeNames();
+        Map<Long, long[]> typeCounts = new HashMap<>();
+        BitSet paths = new BitSet();
+        ArrayDeque<Long> newest = new ArrayDeque<>(MAX_NEWEST_EVENTS);
+        long[] totals = new long[2]; // Events, suspicious events
+        long[] scannedUpTo = {TimeUtil.toEpochMillis(startDate)};
+        long startMillis = TimeUtil.toEpochMillis(startDate);
+        double spanMillis = Math.max(1, Duration.between(startDate, endDate).toMillis());
+        long[] nextProgress = {System.nanoTime() + PROGRESS_INTERVAL_NANOS};
+
+        boolean complete = databaseService.scanEvents(startDate, endDate, suspiciousOnly,
+            (id, pathId, eventTypeId, timestampMillis, suspicious) -> {
+                if (cancelled.getAsBoolean()) {
+                    return false;
+                }
+                totals[0]++;
+                if (suspicious) {
+                    totals[1]++;
+                }
+                typeCounts.computeIfAbsent(eventTypeId, type -> new long[1])[0]++;
+                paths.set((int) pathId);
+                if (newest.size() == MAX_NEWEST_EVENTS) {
+                    newest.pollFirst();
+                }
+                newest.addLast(id);
+                scannedUpTo[0] = timestampMillis;
+                if (listener != null && (totals[0] & 0x3FF) == 0 && System.nanoTime() >= nextProgress[0]) {
+                    nextProgress[0] = System.nanoTime() + PROGRESS_INTERVAL_NANOS;
+                    listener.onProgress((timestampMillis - startMillis) / spanMillis, report(startDate, endDate,
+                        totals, paths, typeCounts, eventTypeNames, Collections.emptyList(), scannedUpTo[0], false));
+                }
+                return true;
+            });
+
+        List<FileEvent> newestEvents = Collections.emptyList();
+        if (complete) {
+            List<Long> ids = new ArrayList<>(newest);
+            Collections.reverse(ids);
+            newestEvents = databaseService.getEventsByIds(ids);
+        }
+        // Read the names again, for event types first stored during the scan
+        return report(startDate, endDate, totals, paths, typeCounts, databaseService.getEventTypeNames(),
+            newestEvents, scannedUpTo[0], complete);
+    }
+
+    private static EventReport report(LocalDateTime startDate, LocalDateTime endDate, long[] totals, BitSet paths,
+                                      Map<Long, long[]> typeCounts, Map<Long, String> eventTypeNames,
+                                      List<FileEvent> newestEvents, long scannedUpTo, boolean complete) {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<Long, long[]> entry : typeCounts.entrySet()) {
+            counts.merge(eventTypeNames.getOrDefault(entry.getKey(), "UNKNOWN"), entry.getValue()[0], Long::sum);
+        }
+        return new EventReport(startDate, endDate, totals[0], totals[1], paths.cardinality(), counts, newestEvents,
+            TimeUtil.fromEpochMillis(scannedUpTo), complete);
+    }
+}
@@ -0,0 +1,99 @@
+package com.filex.service;
+
+import com.filex.model.RollupResolution;
+import com.filex.util.TimeUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event and alert counts per rollup bucket, accumulated in memory and added to the
+ * rollup tables with one upsert per distinct bucket. A batch of events from the
+ * same few minutes touches only a handful of rollup rows.
+ */
+class RollupBatch {
+
+    private static final RollupResolution[] RESOLUTIONS = RollupResolution.values();
+
+    private final Map<List<Object>, long[]> eventCounts = new HashMap<>();
+    private final Map<List<Object>, long[]> alertCounts = new HashMap<>();
+
+    /**
+     * Count a file event in its bucket at every resolution.
+     *
+     * @param timestamp The event time
+     * @param eventType The event type
+     * @param suspicious Whether the event is suspicious
+     */
+    void addEvent(LocalDateTime timestamp, String eventType, boolean suspicious) {
+        for (RollupResolution resolution : RESOLUTIONS) {
+            long bucket = TimeUtil.toEpochMillis(resolution.truncate(timestamp));
+            eventCounts.computeIfAbsent(List.of(resolution.name(), bucket, eventType, suspicious),
+                key -> new long[1])[0]++;
+        }
+    }
+
+    /**
+     * Count an alert in its bucket at every resolution.
+     *
+     * @param createdAt The alert time
+     * @param severity The alert severity
+     */
+    void addAlert(LocalDateTime createdAt, String severity) {
+        for (RollupResolution resolution : RESOLUTIONS) {
+            long bucket = TimeUtil.toEpochMillis(resolution.truncate(createdAt));
+            alertCounts.computeIfAbsent(List.of(resolution.name(), bucket, severity), key -> new long[1])[0]++;
+        }
+    }
+
+    /**
+     * Add the counts to the rollup tables. Runs inside the caller's transaction.
+     *
+     * @param connection The writer connection
+     * @throws SQLException if an upsert fails
+     */
+    void write(Connection connection) throws SQLException {
+        if (!eventCounts.isEmpty()) {
+            try (PreparedStatement stmt = connection.prepareStatement("""
+                    INSERT INTO event_rollups (resolution, bucket_start, event_type, suspicious, event_count)
+                    VALUES (?, ?, ?, ?, ?)
+                    ON CONFLICT(resolution, bucket_start, event_type, suspicious)
+                    DO UPDATE SET event_count = event_count + excluded.event_count
+                    """)) {
+                for (Map.Entry<List<Object>, long[]> entry : eventCounts.entrySet()) {
+                    List<Object> key = entry.getKey();
+                    stmt.setString(1, (String) key.get(0));
+                    stmt.setLong(2, (Long) key.get(1));
+                    stmt.setString(3, (String) key.get(2));
+                    stmt.setBoolean(4, (Boolean) key.get(3));
+                    stmt.setLong(5, entry.getValue()[0]);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+        if (!alertCounts.isEmpty()) {
+            try (PreparedStatement stmt = connection.prepareStatement("""
+                    INSERT INTO alert_rollups (resolution, bucket_start, severity, alert_count)
+                    VALUES (?, ?, ?, ?)
+                    ON CONFLICT(resolution, bucket_start, severity)
+                    DO UPDATE SET alert_count = alert_count + excluded.alert_count
+                    """)) {
+                for (Map.Entry<List<Object>, long[]> entry : alertCounts.entrySet()) {
+                    List<Object> key = entry.getKey();
+                    stmt.setString(1, (String) key.get(0));
+                    stmt.setLong(2, (Long) key.get(1));
+                    stmt.setString(3, (String) key.get(2));
+                    stmt.setLong(4, entry.getValue()[0]);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+    }
+}
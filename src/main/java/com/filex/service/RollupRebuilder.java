@@ -0,0 +1,113 @@
+package com.filex.service;
+
+import java.sql.SQLException;
+
+/**
+ * Fills the event and alert rollup tables from the rows already stored.
+ *
+ * New events and alerts are counted by the writer as they are saved; this covers
+ * the ids up to the highest one recorded when the rebuild was scheduled, either by
+ * schema migration 5 or by {@link DatabaseService#rebuildRollups()}. It works in
+ * small chunks, each committed together with its progress, so it runs alongside
+ * ingestion and resumes where it stopped on the next start.
+ */
+public class RollupRebuilder {
+
+    static final String EVENT_ROLLUPS = "event_rollups";
+    static final String ALERT_ROLLUPS = "alert_rollups";
+
+    private final DatabaseService databaseService;
+    private final int chunkRows;
+    private final long pauseMillis;
+    private volatile boolean stopped = false;
+    private Thread thread;
+
+    /**
+     * Constructor
+     *
+     * @param databaseService The database to fill
+     * @param chunkRows The number of row ids visited per transaction
+     * @param pauseMillis The pause between transactions
+     */
+    public RollupRebuilder(DatabaseService databaseService, int chunkRows, long pauseMillis) {
+        this.databaseService = databaseService;
+        this.chunkRows = Math.max(1, chunkRows);
+        this.pauseMillis = Math.max(0, pauseMillis);
+    }
+
+    /**
+     * Run the rebuild in a background thread.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(this::run, "filex-rollup-rebuild");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Stop the rebuild. Chunks already committed are not visited again.
+     */
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            current = thread;
+            thread = null;
+        }
+        stopped = true;
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Rebuild both rollups on the calling thread.
+     *
+     * @return true if both are complete, false if stopped or failed
+     */
+    public boolean run() {
+        return rebuild(EVENT_ROLLUPS) && rebuild(ALERT_ROLLUPS);
+    }
+
+    private boolean rebuild(String name) {
+        long start = System.currentTimeMillis();
+        long counted = 0;
+        boolean logged = false;
+        try {
+            while (!stopped) {
+                int rows = EVENT_ROLLUPS.equals(name)
+                    ? databaseService.rebuildEventRollupChunk(chunkRows)
+                    : databaseService.rebuildAlertRollupChunk(chunkRows);
+                if (rows < 0) {
+                    if (logged) {
+                        System.out.println("Rebuilt " + name + " from " + counted + " rows in "
+                            + (System.currentTimeMillis() - start) + " ms");
+                    }
+                    return true;
+                }
+                if (!logged && rows > 0) {
+                    System.out.println("Rebuilding " + name + "...");
+                    logged = true;
+                }
+                counted += rows;
+                if (pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding " + name + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,397 @@
+package com.filex.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * The FileX schema as an ordered list of migrations.
+ * Append new migrations at the end; never edit one that has shipped.
+ */
+public class SchemaMigrations {
+
+    /**
+     * Segments per level the writer leaves in a full-text index before merging them.
+     * Higher than SQLite's default of 4: inserts get cheaper and the maintenance
+     * merges the segments in the background instead.
+     */
+    static final int SEARCH_AUTOMERGE = 8;
+
+    /**
+     * Get every migration in version order.
+     *
+     * @return The migrations
+     */
+    public static List<SchemaMigrator.Migration> all() {
+        return List.of(
+            new SchemaMigrator.Migration(1, "Base tables", SchemaMigrations::createBaseTables),
+            new SchemaMigrator.Migration(2, "Indexes on file_events", connection -> execute(connection,
+                "CREATE INDEX IF NOT EXISTS idx_file_events_timestamp ON file_events(timestamp)",
+                "CREATE INDEX IF NOT EXISTS idx_file_events_suspicious_timestamp ON file_events(suspicious, timestamp)",
+                "CREATE INDEX IF NOT EXISTS idx_file_events_sha256 ON file_events(sha256)",
+                "CREATE INDEX IF NOT EXISTS idx_file_events_file_name ON file_events(file_name)")),
+            new SchemaMigrator.Migration(3, "Index on alerts", connection -> execute(connection,
+                "CREATE INDEX IF NOT EXISTS idx_alerts_acknowledged_created_at ON alerts(acknowledged, created_at)",
+                "ANALYZE")),
+            new SchemaMigrator.Migration(4, "Epoch-millisecond timestamps", SchemaMigrations::scheduleTimestampBackfill),
+            new SchemaMigrator.Migration(5, "Rollup tables", SchemaMigrations::createRollupTables),
+            new SchemaMigrator.Migration(6, "Alert acknowledgement time for retention", connection -> {
+                ensureColumn(connection, "alerts", "acknowledged_at", "INTEGER");
+                execute(connection,
+                    "CREATE INDEX IF NOT EXISTS idx_alerts_file_event_id ON alerts(file_event_id)");
+            }),
+            new SchemaMigrator.Migration(7, "Full-text search indexes", SchemaMigrations::createSearchIndexes),
+            new SchemaMigrator.Migration(8, "Indexes on alerts for the severity filter", connection -> execute(connection,
+                "CREATE INDEX IF NOT EXISTS idx_alerts_severity_created_at ON alerts(severity, created_at)",
+                "CREATE INDEX IF NOT EXISTS idx_alerts_acknowledged_severity_created_at "
+                    + "ON alerts(acknowledged, severity, created_at)")),
+            new SchemaMigrator.Migration(9, "Dictionary-encoded file names, paths, event types and severities",
+                SchemaMigrations::encodeStrings),
+            new SchemaMigrator.Migration(10, "Index on file_events for the event type filter and order",
+                connection -> execute(connection,
+                    "CREATE INDEX IF NOT EXISTS idx_file_events_type_timestamp ON file_events(event_type_id, timestamp)"))
+        );
+    }
+
+    /**
+     * Version 1: the tables as they were before versioning. Uses IF NOT EXISTS and
+     * adds missing columns, so it also brings older unversioned databases up to date.
+     */
+    private static void createBaseTables(Connection connection) throws SQLException {
+        execute(connection, """
+            CREATE TABLE IF NOT EXISTS file_events (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                file_name TEXT NOT NULL,
+                file_path TEXT,
+                event_type TEXT NOT NULL,
+                timestamp TIMESTAMP NOT NULL,
+                sha256 TEXT,
+                hash_algorithm TEXT DEFAULT 'SHA-256',
+                hash_tier TEXT DEFAULT 'FULL',
+                suspicious BOOLEAN DEFAULT FALSE,
+                reconstructed BOOLEAN DEFAULT FALSE,
+                merged_count INTEGER DEFAULT 1,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """, """
+            CREATE TABLE IF NOT EXISTS alerts (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                file_event_id INTEGER,
+                severity TEXT NOT NULL,
+                acknowledged BOOLEAN DEFAULT FALSE,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                actions_taken TEXT,
+                FOREIGN KEY (file_event_id) REFERENCES file_events(id)
+            )
+            """, """
+            CREATE TABLE IF NOT EXISTS file_fingerprints (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                file_path TEXT NOT NULL UNIQUE,
+                file_key TEXT,
+                sha256 TEXT,
+                hash_algorithm TEXT,
+                size INTEGER,
+                last_modified_ms INTEGER,
+                last_seen TIMESTAMP,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """, """
+            CREATE TABLE IF NOT EXISTS baseline_runs (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                roots TEXT NOT NULL,
+                hash_algorithm TEXT,
+                started_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                completed_at TIMESTAMP,
+                file_count INTEGER DEFAULT 0,
+                byte_count INTEGER DEFAULT 0
+            )
+            """, """
+            CREATE TABLE IF NOT EXISTS baseline_progress (
+                run_id INTEGER NOT NULL,
+                directory TEXT NOT NULL,
+                PRIMARY KEY (run_id, directory),
+                FOREIGN KEY (run_id) REFERENCES baseline_runs(id)
+            )
+            """);
+        // Columns added to file_events before versioning
+        ensureColumn(connection, "file_events", "file_path", "TEXT");
+        ensureColumn(connection, "file_events", "reconstructed", "BOOLEAN DEFAULT FALSE");
+        ensureColumn(connection, "file_events", "merged_count", "INTEGER DEFAULT 1");
+        ensureColumn(connection, "file_events", "hash_algorithm", "TEXT DEFAULT 'SHA-256'");
+        ensureColumn(connection, "file_events", "hash_tier", "TEXT DEFAULT 'FULL'");
+    }
+
+    /**
+     * Version 4: file_events.timestamp and alerts.created_at are written as INTEGER epoch
+     * milliseconds from now on. Rows stored as text by older versions are converted later,
+     * in chunks, by {@link TimestampBackfill}; this only records which rows it has to visit.
+     */
+    private static void scheduleTimestampBackfill(Connection connection) throws SQLException {
+        execute(connection, """
+            CREATE TABLE IF NOT EXISTS online_migrations (
+                name TEXT PRIMARY KEY,
+                last_id INTEGER NOT NULL DEFAULT 0,
+                target_id INTEGER NOT NULL,
+                completed_at INTEGER
+            )
+            """,
+            "INSERT OR IGNORE INTO online_migrations (name, target_id) "
+                + "SELECT 'file_events.timestamp', COALESCE(MAX(id), 0) FROM file_events",
+            "INSERT OR IGNORE INTO online_migrations (name, target_id) "
+                + "SELECT 'alerts.created_at', COALESCE(MAX(id), 0) FROM alerts",
+            "CREATE INDEX IF NOT EXISTS idx_alerts_created_at ON alerts(created_at)");
+    }
+
+    /**
+     * Version 5: event counts by type and alert counts by severity per minute, hour and
+     * day. The writer keeps them up to date; {@link RollupRebuilder} fills them from
+     * the events already stored.
+     */
+    private static void createRollupTables(Connection connection) throws SQLException {
+        execute(connection, """
+            CREATE TABLE IF NOT EXISTS event_rollups (
+                resolution TEXT NOT NULL,
+                bucket_start INTEGER NOT NULL,
+                event_type TEXT NOT NULL,
+                suspicious BOOLEAN NOT NULL,
+                event_count INTEGER NOT NULL,
+                PRIMARY KEY (resolution, bucket_start, event_type, suspicious)
+            ) WITHOUT ROWID
+            """, """
+            CREATE TABLE IF NOT EXISTS alert_rollups (
+                resolution TEXT NOT NULL,
+                bucket_start INTEGER NOT NULL,
+                severity TEXT NOT NULL,
+                alert_count INTEGER NOT NULL,
+                PRIMARY KEY (resolution, bucket_start, severity)
+            ) WITHOUT ROWID
+            """,
+            "INSERT OR IGNORE INTO online_migrations (name, target_id) "
+                + "SELECT 'event_rollups', COALESCE(MAX(id), 0) FROM file_events",
+            "INSERT OR IGNORE INTO online_migrations (name, target_id) "
+                + "SELECT 'alert_rollups', COALESCE(MAX(id), 0) FROM alerts");
+    }
+
+    /**
+     * Version 7: trigram full-text indexes over event file names and paths and alert
+     * actions, so the search boxes can match any substring of three or more characters
+     * without a scan. The indexes keep no copy of the text; they read it from
+     * file_events and alerts. The writer indexes new rows and {@link SearchIndexBuilder}
+     * the rows already stored. The triggers take deleted rows out of the index, except
+     * rows the builder has not reached yet, which are not in it.
+     */
+    private static void createSearchIndexes(Connection connection) throws SQLException {
+        execute(connection, """
+            CREATE VIRTUAL TABLE IF NOT EXISTS event_search USING fts5(
+                file_name, file_path, content = 'file_events', content_rowid = 'id', tokenize = 'trigram')
+            """, """
+            CREATE VIRTUAL TABLE IF NOT EXISTS alert_search USING fts5(
+                actions_taken, content = 'alerts', content_rowid = 'id', tokenize = 'trigram')
+            """,
+            "INSERT INTO event_search (event_search, rank) VALUES ('automerge', " + SEARCH_AUTOMERGE + ")",
+            "INSERT INTO alert_search (alert_search, rank) VALUES ('automerge', " + SEARCH_AUTOMERGE + ")",
+            "INSERT OR IGNORE INTO online_migrations (name, target_id) "
+                + "SELECT 'event_search', COALESCE(MAX(id), 0) FROM file_events",
+            "INSERT OR IGNORE INTO online_migrations (name, target_id) "
+                + "SELECT 'alert_search', COALESCE(MAX(id), 0) FROM alerts",
+            """
+            CREATE TRIGGER IF NOT EXISTS file_events_search_delete AFTER DELETE ON file_events
+            WHEN NOT EXISTS (SELECT 1 FROM online_migrations WHERE name = 'event_search'
+                AND completed_at IS NULL AND old.id > last_id AND old.id <= target_id)
+            BEGIN
+                INSERT INTO event_search (event_search, rowid, file_name, file_path)
+                VALUES ('delete', old.id, old.file_name, old.file_path);
+            END
+            """, """
+            CREATE TRIGGER IF NOT EXISTS alerts_search_delete AFTER DELETE ON alerts
+            WHEN NOT EXISTS (SELECT 1 FROM online_migrations WHERE name = 'alert_search'
+                AND completed_at IS NULL AND old.id > last_id AND old.id <= target_id)
+            BEGIN
+                INSERT INTO alert_search (alert_search, rowid, actions_taken)
+                VALUES ('delete', old.id, old.actions_taken);
+            END
+            """);
+    }
+
+    /**
+     * Version 9: file_events and alerts refer to their file path, file name, event type
+     * and severity by id into dictionary tables, see {@link FileEventDictionary}, and
+     * file_events_view and alerts_view give the text columns back for reading.
+     * file_events is rebuilt in this step, which takes a while on a large database.
+     * The trigram search index moves from every event to the distinct file paths,
+     * so it only grows when a new path is seen.
+     */
+    private static void encodeStrings(Connection connection) throws SQLException {
+        execute(connection,
+            "CREATE TABLE IF NOT EXISTS directories (id INTEGER PRIMARY KEY, path TEXT NOT NULL UNIQUE)",
+            "CREATE TABLE IF NOT EXISTS file_names (id INTEGER PRIMARY KEY, name TEXT NOT NULL UNIQUE)",
+            """
+            CREATE TABLE IF NOT EXISTS file_paths (
+                id INTEGER PRIMARY KEY,
+                directory_id INTEGER NOT NULL,
+                name_id INTEGER NOT NULL,
+                UNIQUE (directory_id, name_id)
+            )
+            """,
+            "CREATE TABLE IF NOT EXISTS event_types (id INTEGER PRIMARY KEY, name TEXT NOT NULL UNIQUE)",
+            "CREATE TABLE IF NOT EXISTS severities (id INTEGER PRIMARY KEY, name TEXT NOT NULL UNIQUE)",
+            "INSERT OR IGNORE INTO event_types (name) VALUES ('CREATE'), ('MODIFY'), ('DELETE'), ('RENAME')",
+            "INSERT OR IGNORE INTO severities (name) VALUES ('LOW'), ('MEDIUM'), ('HIGH'), ('CRITICAL')",
+            """
+            CREATE VIEW IF NOT EXISTS file_paths_view AS
+            SELECT p.id, n.name AS file_name,
+                CASE WHEN p.directory_id = 0 THEN NULL ELSE d.path || n.name END AS file_path
+            FROM file_paths p
+            LEFT JOIN file_names n ON n.id = p.name_id
+            LEFT JOIN directories d ON d.id = p.directory_id
+            """,
+            """
+            CREATE VIRTUAL TABLE IF NOT EXISTS path_search USING fts5(
+                file_name, file_path, content = 'file_paths_view', content_rowid = 'id', tokenize = 'trigram')
+            """,
+            "INSERT INTO path_search (path_search, rank) VALUES ('automerge', " + SEARCH_AUTOMERGE + ")",
+            "DROP TRIGGER IF EXISTS file_events_search_delete",
+            "DROP TABLE IF EXISTS event_search",
+            "DELETE FROM online_migrations WHERE name = 'event_search'",
+            """
+            CREATE TABLE file_events_encoded (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                path_id INTEGER NOT NULL,
+                name_id INTEGER,
+                event_type_id INTEGER NOT NULL,
+                timestamp TIMESTAMP NOT NULL,
+                sha256 TEXT,
+                hash_algorithm TEXT DEFAULT 'SHA-256',
+                hash_tier TEXT DEFAULT 'FULL',
+                suspicious BOOLEAN DEFAULT FALSE,
+                reconstructed BOOLEAN DEFAULT FALSE,
+                merged_count INTEGER DEFAULT 1,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """);
+        long rows = copyEncodedEvents(connection);
+        execute(connection,
+            // Keep the id sequence, so ids of deleted events are not handed out again
+            "UPDATE sqlite_sequence SET seq = MAX(seq, COALESCE("
+                + "(SELECT seq FROM sqlite_sequence WHERE name = 'file_events'), 0)) WHERE name = 'file_events_encoded'",
+            "INSERT INTO sqlite_sequence (name, seq) SELECT 'file_events_encoded', seq FROM sqlite_sequence"
+                + " WHERE name = 'file_events'"
+                + " AND NOT EXISTS (SELECT 1 FROM sqlite_sequence WHERE name = 'file_events_encoded')",
+            "DROP TABLE file_events",
+            "ALTER TABLE file_events_encoded RENAME TO file_events",
+            "CREATE INDEX IF NOT EXISTS idx_file_events_timestamp ON file_events(timestamp)",
+            "CREATE INDEX IF NOT EXISTS idx_file_events_suspicious_timestamp ON file_events(suspicious, timestamp)",
+            "CREATE INDEX IF NOT EXISTS idx_file_events_sha256 ON file_events(sha256)",
+            "CREATE INDEX IF NOT EXISTS idx_file_events_path_id ON file_events(path_id)",
+            """
+            CREATE VIEW IF NOT EXISTS file_events_view AS
+            SELECT e.id, COALESCE(n.name, pn.name) AS file_name,
+                CASE WHEN p.directory_id = 0 THEN NULL ELSE d.path || pn.name END AS file_path,
+                t.name AS event_type, e.timestamp, e.sha256, e.hash_algorithm, e.hash_tier, e.suspicious,
+                e.reconstructed, e.merged_count, e.created_at, e.path_id
+            FROM file_events e
+            LEFT JOIN file_paths p ON p.id = e.path_id
+            LEFT JOIN file_names pn ON pn.id = p.name_id
+            LEFT JOIN directories d ON d.id = p.directory_id
+            LEFT JOIN file_names n ON n.id = e.name_id
+            LEFT JOIN event_types t ON t.id = e.event_type_id
+            """,
+            "INSERT OR IGNORE INTO severities (name) SELECT DISTINCT severity FROM alerts",
+            "ALTER TABLE alerts ADD COLUMN severity_id INTEGER NOT NULL DEFAULT 0",
+            "UPDATE alerts SET severity_id = (SELECT id FROM severities WHERE name = alerts.severity)",
+            "DROP INDEX IF EXISTS idx_alerts_severity_created_at",
+            "DROP INDEX IF EXISTS idx_alerts_acknowledged_severity_created_at",
+            "ALTER TABLE alerts DROP COLUMN severity",
+            "CREATE INDEX IF NOT EXISTS idx_alerts_severity_created_at ON alerts(severity_id, created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_alerts_acknowledged_severity_created_at "
+                + "ON alerts(acknowledged, severity_id, created_at)",
+            """
+            CREATE VIEW IF NOT EXISTS alerts_view AS
+            SELECT a.id, a.file_event_id, s.name AS severity, a.acknowledged, a.created_at, a.actions_taken,
+                a.acknowledged_at, a.severity_id
+            FROM alerts a
+            LEFT JOIN severities s ON s.id = a.severity_id
+            """);
+        if (rows > 0) {
+            System.out.println("Encoded " + rows + " file events");
+        }
+        if (rows >= 10_000) {
+            // Statistics of a small table would make the planner scan it once it has grown
+            execute(connection, "ANALYZE");
+        }
+    }
+
+    /**
+     * Copy every event into file_events_encoded, interning its strings. The text
+     * timestamps the backfill has not converted yet are copied as they are.
+     *
+     * @return The number of events copied
+     */
+    private static long copyEncodedEvents(Connection connection) throws SQLException {
+        FileEventDictionary dictionary = new FileEventDictionary(connection);
+        long rows = 0;
+        try (Statement read = connection.createStatement();
+             ResultSet rs = read.executeQuery("SELECT * FROM file_events ORDER BY id");
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO file_events_encoded (id, path_id,"
+                 + " name_id, event_type_id, timestamp, sha256, hash_algorithm, hash_tier, suspicious, reconstructed,"
+                 + " merged_count, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            while (rs.next()) {
+                String fileName = rs.getString("file_name");
+                String filePath = rs.getString("file_path");
+                insert.setLong(1, rs.getLong("id"));
+                insert.setLong(2, dictionary.pathId(filePath, fileName));
+                insert.setObject(3, dictionary.nameIdIfDifferent(filePath, fileName));
+                insert.setLong(4, dictionary.eventTypeId(rs.getString("event_type")));
+                insert.setObject(5, rs.getObject("timestamp"));
+                insert.setObject(6, rs.getObject("sha256"));
+                insert.setObject(7, rs.getObject("hash_algorithm"));
+                insert.setObject(8, rs.getObject("hash_tier"));
+                insert.setObject(9, rs.getObject("suspicious"));
+                insert.setObject(10, rs.getObject("reconstructed"));
+                insert.setObject(11, rs.getObject("merged_count"));
+                insert.setObject(12, rs.getObject("created_at"));
+                insert.addBatch();
+                if (++rows % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        } finally {
+            dictionary.close();
+        }
+        return rows;
+    }
+
+    private static void execute(Connection connection, String... statements) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * Add a column to an existing table if an older database does not have it yet.
+     *
+     * @param connection The writer connection
+     * @param table The table name
+     * @param column The column name
+     * @param definition The column type and constraints
+     */
+    private static void ensureColumn(Connection connection, String table, String column, String definition)
+            throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) {
+                    return;
+                }
+            }
+        }
+        execute(connection, "ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        System.out.println("Added column " + table + "." + column);
+    }
+}
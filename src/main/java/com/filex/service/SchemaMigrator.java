@@ -0,0 +1,135 @@
+package com.filex.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Applies ordered, versioned schema migrations.
+ *
+ * The current version is the highest row of the {@code schema_version} table.
+ * Each pending migration runs in its own transaction together with the row that
+ * records it, so a failed upgrade leaves the schema at the last good version.
+ */
+public class SchemaMigrator {
+
+    /**
+     * One schema change.
+     */
+    public interface Step {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    /**
+     * A schema change and the version it brings the database to.
+     */
+    public static class Migration {
+        private final int version;
+        private final String description;
+        private final Step step;
+
+        public Migration(int version, String description, Step step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private final Connection connection;
+
+    /**
+     * Constructor
+     *
+     * @param connection The writer connection
+     */
+    public SchemaMigrator(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Apply every migration newer than the current version.
+     *
+     * @param migrations The migrations in ascending version order
+     * @return The schema version afterwards
+     * @throws SQLException if a migration fails; earlier ones stay applied
+     */
+    public int migrate(List<Migration> migrations) throws SQLException {
+        return migrate(migrations, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Apply the migrations newer than the current version, up to a target version.
+     *
+     * @param migrations The migrations in ascending version order
+     * @param targetVersion The last version to apply
+     * @return The schema version afterwards
+     * @throws SQLException if a migration fails; earlier ones stay applied
+     */
+    public int migrate(List<Migration> migrations, int targetVersion) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INTEGER PRIMARY KEY,
+                    description TEXT,
+                    applied_at TIMESTAMP
+                )
+                """);
+        }
+        int current = getVersion();
+        for (Migration migration : migrations) {
+            if (migration.version <= current || migration.version > targetVersion) {
+                continue;
+            }
+            long start = System.currentTimeMillis();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                migration.step.apply(connection);
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)")) {
+                    stmt.setInt(1, migration.version);
+                    stmt.setString(2, migration.description);
+                    stmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+                    stmt.executeUpdate();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw new SQLException("Schema migration " + migration.version + " ("
+                    + migration.description + ") failed: " + e.getMessage(), e);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            current = migration.version;
+            System.out.println("Applied schema migration " + migration.version + ": " + migration.description
+                + " (" + (System.currentTimeMillis() - start) + " ms)");
+        }
+        return current;
+    }
+
+    /**
+     * Get the current schema version.
+     *
+     * @return The version, or 0 for a database that was never migrated
+     * @throws SQLException if the version table cannot be read
+     */
+    public int getVersion() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
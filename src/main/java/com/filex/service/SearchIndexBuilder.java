@@ -0,0 +1,109 @@
+package com.filex.service;
+
+import java.sql.SQLException;
+
+/**
+ * Adds the alerts stored before schema migration 7 to the full-text search index.
+ * The file path index is filled by migration 9 itself, as it only holds the
+ * distinct paths.
+ *
+ * New alerts are indexed by the writer as they are saved; this covers the ids up
+ * to the highest one recorded by the migration. It works in small
+ * chunks, each committed together with its progress, so it runs alongside
+ * ingestion and resumes where it stopped on the next start. Until it completes,
+ * searches do not find the older rows it has not reached.
+ */
+public class SearchIndexBuilder {
+
+    static final String PATH_SEARCH = "path_search";
+    static final String ALERT_SEARCH = "alert_search";
+
+    private final DatabaseService databaseService;
+    private final int chunkRows;
+    private final long pauseMillis;
+    private volatile boolean stopped = false;
+    private Thread thread;
+
+    /**
+     * Constructor
+     *
+     * @param databaseService The database to index
+     * @param chunkRows The number of row ids visited per transaction
+     * @param pauseMillis The pause between transactions
+     */
+    public SearchIndexBuilder(DatabaseService databaseService, int chunkRows, long pauseMillis) {
+        this.databaseService = databaseService;
+        this.chunkRows = Math.max(1, chunkRows);
+        this.pauseMillis = Math.max(0, pauseMillis);
+    }
+
+    /**
+     * Build the index in a background thread.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(this::run, "filex-search-index");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Stop the build. Chunks already committed are not visited again.
+     */
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            current = thread;
+            thread = null;
+        }
+        stopped = true;
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Build the index on the calling thread.
+     *
+     * @return true if it is complete, false if stopped or failed
+     */
+    public boolean run() {
+        long start = System.currentTimeMillis();
+        long indexed = 0;
+        boolean logged = false;
+        try {
+            while (!stopped) {
+                int rows = databaseService.buildAlertSearchChunk(chunkRows);
+                if (rows < 0) {
+                    if (logged) {
+                        System.out.println("Indexed " + indexed + " rows for " + ALERT_SEARCH + " in "
+                            + (System.currentTimeMillis() - start) + " ms");
+                    }
+                    return true;
+                }
+                if (!logged && rows > 0) {
+                    System.out.println("Building " + ALERT_SEARCH + " index in the background...");
+                    logged = true;
+                }
+                indexed += rows;
+                if (pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SQLException e) {
+            System.err.println("Error building " + ALERT_SEARCH + " index" + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,257 @@
+package com.filex.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A substring to search for, and how to look it up in a trigram full-text index.
+ *
+ * Matching the whole text as a phrase makes SQLite walk the row list of every
+ * trigram in it, and trigrams such as "rep" or "/ho" occur in almost every path.
+ * Instead the index is asked for rows containing the few rarest trigrams of the
+ * text, without their positions, and each row it returns is then checked for the
+ * full substring. How rare a trigram is gets estimated from the newest rows.
+ * Text shorter than a trigram is checked against the rows themselves, newest first.
+ * Matches are ranked by the first column: rows where it contains the text come first,
+ * then shorter first column values, then newer rows.
+ */
+class SearchQuery {
+
+    private static final int MATCH_TRIGRAMS = 3;   // Trigrams looked up in the index
+    private static final int PROBE_ROWS = 10_000;  // Newest rows used to estimate how rare a trigram is
+    private static final int PROBE_LIMIT = 1_000;  // Matches counted per trigram at most
+
+    /**
+     * A matching row and what it is ranked by.
+     */
+    static class Hit {
+        private final long id;
+        private final boolean primary;
+        private final int length;
+
+        Hit(long id, boolean primary, int length) {
+            this.id = id;
+            this.primary = primary;
+            this.length = length;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        /**
+         * Get a hit for another row that ranks the same, e.g. a row referring to this one.
+         *
+         * @param id The id of the other row
+         * @return The hit
+         */
+        Hit withId(long id) {
+            return new Hit(id, primary, length);
+        }
+    }
+
+    private final String text;
+    private final List<String> trigrams = new ArrayList<>();
+
+    /**
+     * Constructor
+     *
+     * @param text The text to find, in any case
+     */
+    SearchQuery(String text) {
+        this.text = text != null ? text.strip().toLowerCase(Locale.ROOT) : "";
+        int[] codePoints = this.text.codePoints().toArray();
+        Set<String> distinct = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= codePoints.length; i++) {
+            distinct.add(new String(codePoints, i, 3));
+        }
+        trigrams.addAll(distinct);
+    }
+
+    boolean isEmpty() {
+        return text.isEmpty();
+    }
+
+    /**
+     * The trigram index can only find text of at least three characters.
+     *
+     * @return true if the index can be used
+     */
+    boolean isIndexable() {
+        return !trigrams.isEmpty();
+    }
+
+    /**
+     * Check whether any of the values contains the text, ignoring case.
+     *
+     * @param values The values to check; null values never match
+     * @return true if one of them contains the text
+     */
+    boolean matches(String... values) {
+        for (String value : values) {
+            if (value != null && value.toLowerCase(Locale.ROOT).contains(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find the newest rows containing the text and rank them.
+     *
+     * @param reader The connection to read with
+     * @param index The full-text index, used if the text is long enough, or null to check the rows themselves
+     * @param table The table the index covers
+     * @param columns The columns to search, the first one ranking highest
+     * @param maxMatches The most matches to rank
+     * @param maxCandidates The most rows to check per lookup
+     * @return The ids of the matching rows in rank order
+     * @throws SQLException if the rows cannot be read
+     */
+    List<Long> findIds(Connection reader, String index, String table, String[] columns, int maxMatches,
+                       int maxCandidates) throws SQLException {
+        return rank(findHits(reader, index, table, columns, maxMatches, maxCandidates));
+    }
+
+    /**
+     * Find the newest rows containing the text, unranked.
+     *
+     * @see #findIds
+     */
+    List<Hit> findHits(Connection reader, String index, String table, String[] columns, int maxMatches,
+                       int maxCandidates) throws SQLException {
+        List<Hit> hits = new ArrayList<>();
+        if (index == null || !isIndexable()) {
+            scan(reader, "SELECT t.id, t." + String.join(", t.", columns) + " FROM " + table + " t"
+                + " ORDER BY t.id DESC LIMIT ?", null, columns.length, maxMatches, maxCandidates, hits);
+        } else {
+            List<String> rarest = new ArrayList<>(trigrams);
+            int used = rarest.size();
+            if (rarest.size() > 1) {
+                Map<String, Integer> counts = probe(reader, index, table);
+                rarest.sort(Comparator.comparing(counts::get));
+                // A trigram found in most of the newest rows narrows nothing down and only slows the lookup
+                used = 1;
+                while (used < Math.min(MATCH_TRIGRAMS, rarest.size()) && counts.get(rarest.get(used)) < PROBE_LIMIT) {
+                    used++;
+                }
+            }
+            // Rows are read lazily, newest first, until enough of them match: the join keeps the index order
+            String sql = "SELECT t.id, t." + String.join(", t.", columns) + " FROM (SELECT rowid FROM " + index
+                + " WHERE " + index + " MATCH ? ORDER BY rowid DESC LIMIT ?) m JOIN " + table + " t ON t.id = m.rowid";
+            while (!scan(reader, sql, toMatchExpression(rarest.subList(0, used)), columns.length, maxMatches,
+                    maxCandidates, hits) && used < rarest.size()) {
+                // The trigrams were too common for the candidates to reach every match: use all of them
+                hits.clear();
+                used = rarest.size();
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Sort hits into rank order.
+     *
+     * @param hits The hits, sorted in place
+     * @return Their ids in rank order
+     */
+    static List<Long> rank(List<Hit> hits) {
+        hits.sort(Comparator.comparing((Hit hit) -> !hit.primary)
+            .thenComparingInt(hit -> hit.length)
+            .thenComparing((a, b) -> Long.compare(b.id, a.id)));
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            ids.add(hit.id);
+        }
+        return ids;
+    }
+
+    /**
+     * Check candidate rows newest first until enough of them match.
+     *
+     * @return false if the candidates ran out before all of them were checked
+     */
+    private boolean scan(Connection reader, String sql, String match, int columns, int maxMatches, int maxCandidates,
+                         List<Hit> hits) throws SQLException {
+        String[] values = new String[columns];
+        int checked = 0;
+        try (PreparedStatement stmt = reader.prepareStatement(sql)) {
+            int param = 1;
+            if (match != null) {
+                stmt.setString(param++, match);
+            }
+            stmt.setInt(param, maxCandidates);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (hits.size() < maxMatches && rs.next()) {
+                    checked++;
+                    for (int i = 0; i < columns; i++) {
+                        values[i] = rs.getString(i + 2);
+                    }
+                    if (matches(values)) {
+                        hits.add(new Hit(rs.getLong(1), matches(values[0]), values[0] != null ? values[0].length() : 0));
+                    }
+                }
+            }
+        }
+        return hits.size() >= maxMatches || checked < maxCandidates;
+    }
+
+    /**
+     * Count how many of the newest rows contain each trigram of the text.
+     */
+    private Map<String, Integer> probe(Connection reader, String index, String table) throws SQLException {
+        long maxId;
+        try (Statement stmt = reader.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            maxId = rs.getLong(1);
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        try (PreparedStatement stmt = reader.prepareStatement("SELECT count(*) FROM (SELECT rowid FROM " + index
+                + " WHERE " + index + " MATCH ? AND rowid > ? LIMIT " + PROBE_LIMIT + ")")) {
+            for (String trigram : trigrams) {
+                stmt.setString(1, quote(trigram));
+                stmt.setLong(2, maxId - PROBE_ROWS);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    counts.put(trigram, rs.getInt(1));
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Build a full-text query for rows containing every one of the trigrams, anywhere.
+     */
+    private static String toMatchExpression(List<String> trigrams) {
+        List<String> terms = new ArrayList<>();
+        for (String trigram : trigrams) {
+            terms.add(quote(trigram));
+        }
+        return String.join(" AND ", terms);
+    }
+
+    private static String quote(String trigram) {
+        return "\"" + trigram.replace("\"", "\"\"") + "\"";
+    }
+
+    @Override
+    public String toString() {
+        return "SearchQuery{" +
+                "text='" + text + '\'' +
+                ", trigrams=" + trigrams.size() +
+                '}';
+    }
+}
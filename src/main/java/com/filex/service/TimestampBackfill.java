@@ -0,0 +1,147 @@
+package com.filex.service;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Converts timestamps stored as text by older versions to INTEGER epoch milliseconds
+ * while the application runs.
+ *
+ * Schema migration 4 records the highest row id of each table; this walks the ids up
+ * to it in small chunks on a background thread, pausing between chunks so event
+ * writes never wait long for the writer connection. Each chunk commits together with
+ * its progress, so the backfill resumes where it stopped on the next start. Reads
+ * handle both representations until it is complete.
+ */
+public class TimestampBackfill {
+
+    static final String EVENT_TIMESTAMPS = "file_events.timestamp";
+    static final String ALERT_TIMESTAMPS = "alerts.created_at";
+
+    /**
+     * A column to convert and the SQL expression that converts its text value.
+     */
+    static class Column {
+        private final String name;
+        private final String table;
+        private final String column;
+        private final String expression;
+
+        Column(String name, String table, String column, String expression) {
+            this.name = name;
+            this.table = table;
+            this.column = column;
+            this.expression = expression;
+        }
+    }
+
+    /**
+     * Event times were written as local time; alert times by CURRENT_TIMESTAMP, in UTC.
+     * Text that does not parse is left as it is.
+     */
+    static final List<Column> COLUMNS = List.of(
+        new Column(EVENT_TIMESTAMPS, "file_events", "timestamp",
+            "COALESCE(CAST(ROUND((julianday(timestamp, 'utc') - 2440587.5) * 86400000) AS INTEGER), timestamp)"),
+        new Column(ALERT_TIMESTAMPS, "alerts", "created_at",
+            "COALESCE(CAST(ROUND((julianday(created_at) - 2440587.5) * 86400000) AS INTEGER), created_at)")
+    );
+
+    private final DatabaseService databaseService;
+    private final int chunkRows;
+    private final long pauseMillis;
+    private volatile boolean stopped = false;
+    private Thread thread;
+
+    /**
+     * Constructor
+     *
+     * @param databaseService The database to convert
+     * @param chunkRows The number of row ids visited per transaction
+     * @param pauseMillis The pause between transactions
+     */
+    public TimestampBackfill(DatabaseService databaseService, int chunkRows, long pauseMillis) {
+        this.databaseService = databaseService;
+        this.chunkRows = Math.max(1, chunkRows);
+        this.pauseMillis = Math.max(0, pauseMillis);
+    }
+
+    /**
+     * Run the backfill in a background thread.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(this::run, "filex-timestamp-backfill");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Stop the backfill. Chunks already committed are not visited again.
+     */
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            current = thread;
+            thread = null;
+        }
+        stopped = true;
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Convert every column on the calling thread.
+     *
+     * @return true if every column is converted, false if stopped or failed
+     */
+    public boolean run() {
+        for (Column column : COLUMNS) {
+            if (!convert(column)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean convert(Column column) {
+        long start = System.currentTimeMillis();
+        long converted = 0;
+        boolean logged = false;
+        try {
+            while (!stopped) {
+                int rows = databaseService.backfillChunk(column.name, column.table, column.column,
+                    column.expression, chunkRows);
+                if (rows < 0) {
+                    if (logged) {
+                        System.out.println("Converted " + converted + " " + column.name + " values to epoch milliseconds in "
+                            + (System.currentTimeMillis() - start) + " ms");
+                    }
+                    return true;
+                }
+                if (!logged && rows > 0) {
+                    System.out.println("Converting " + column.name + " to epoch milliseconds in the background...");
+                    logged = true;
+                }
+                converted += rows;
+                if (pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SQLException e) {
+            System.err.println("Error converting " + column.name + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+}
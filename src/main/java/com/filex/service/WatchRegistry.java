@@ -0,0 +1,521 @@
+package com.filex.service;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Registry of watched directories across one or more monitored roots.
+ * The key type is whatever the watcher backend hands out per directory
+ * ({@code WatchKey} for the JDK watch service, the watch descriptor for inotify).
+ *
+ * Directories are stored as a tree in parallel int arrays (parent, first child,
+ * next sibling) with only the last path segment kept per entry, so a tree with
+ * hundreds of thousands of directories costs a few dozen bytes per directory
+ * instead of one {@link Path} object each. Full paths are rebuilt on demand.
+ */
+public class WatchRegistry<K> {
+
+    private static final int NO_ID = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Backend-specific registration of a single directory.
+     *
+     * @param <K> The key type
+     */
+    public interface Registrar<K> {
+        K register(Path dir) throws IOException;
+
+        void cancel(K key);
+    }
+
+    /**
+     * Registration statistics for a single monitored root.
+     */
+    public static class RootStats {
+        private final Path root;
+        private final int watchCount;
+        private final long registrationMillis;
+
+        public RootStats(Path root, int watchCount, long registrationMillis) {
+            this.root = root;
+            this.watchCount = watchCount;
+            this.registrationMillis = registrationMillis;
+        }
+
+        public Path getRoot() {
+            return root;
+        }
+
+        public int getWatchCount() {
+            return watchCount;
+        }
+
+        public long getRegistrationMillis() {
+            return registrationMillis;
+        }
+
+        @Override
+        public String toString() {
+            return root + ": " + watchCount + " watches registered in " + registrationMillis + " ms";
+        }
+    }
+
+    private int[] parent = new int[INITIAL_CAPACITY];
+    private int[] firstChild = new int[INITIAL_CAPACITY];
+    private int[] nextSibling = new int[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private Object[] keys = new Object[INITIAL_CAPACITY];
+    private int highWater = 0;
+    private int liveCount = 0;
+    private int freeHead = NO_ID; // Free slots are chained through nextSibling
+
+    private final Map<K, Integer> idsByKey = new HashMap<>();
+    private final Registrar<K> registrar;
+    private final Map<Path, RootStats> rootStats = new HashMap<>();
+    private final Map<Path, Integer> rootIds = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param registrar The backend used to register and cancel directory watches
+     */
+    public WatchRegistry(Registrar<K> registrar) {
+        this.registrar = registrar;
+    }
+
+    /**
+     * Register a monitored root and every directory below it.
+     *
+     * @param root The root directory
+     * @return Registration statistics for the root
+     * @throws IOException if the root itself cannot be registered
+     */
+    public RootStats registerRoot(Path root) throws IOException {
+        long start = System.nanoTime();
+        Path absoluteRoot = root.toAbsolutePath().normalize();
+        int count = registerTree(absoluteRoot, NO_ID, null);
+        RootStats stats = new RootStats(absoluteRoot, count, (System.nanoTime() - start) / 1_000_000);
+        synchronized (this) {
+            rootStats.put(absoluteRoot, stats);
+        }
+        System.out.println("Registered watches for " + stats);
+        return stats;
+    }
+
+    /**
+     * Register a directory created at runtime below an already watched directory.
+     *
+     * @param parentKey The key of the watched parent directory
+     * @param dir The new directory
+     * @param fileVisitor Called for every regular file already present in the new tree, may be null
+     * @return The number of directories registered
+     * @throws IOException if the directory cannot be registered
+     */
+    public int registerSubtree(K parentKey, Path dir, Consumer<Path> fileVisitor) throws IOException {
+        int parentId = getId(parentKey);
+        if (parentId == NO_ID) {
+            return 0;
+        }
+        return registerTree(dir, parentId, fileVisitor);
+    }
+
+    /**
+     * Walk a tree and register every directory in it.
+     */
+    private int registerTree(Path top, int topParentId, Consumer<Path> fileVisitor) throws IOException {
+        Deque<Integer> stack = new ArrayDeque<>();
+        int[] count = {0};
+        Files.walkFileTree(top, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                K key = registrar.register(dir);
+                int parentId = stack.isEmpty() ? topParentId : stack.peek();
+                String name = parentId == NO_ID ? dir.toString() : dir.getFileName().toString();
+                stack.push(add(parentId, name, key));
+                count[0]++;
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                stack.pop();
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (fileVisitor != null && attrs.isRegularFile()) {
+                    fileVisitor.accept(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                // Unreadable directories are skipped rather than aborting the whole root
+                System.err.println("Cannot watch " + file + ": " + exc.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * Add a directory entry to the registry.
+     *
+     * @param parentId The id of the parent directory, or -1 for a root
+     * @param name The last path segment, or the full path for a root
+     * @param key The watch key of the directory
+     * @return The id of the new entry
+     */
+    private synchronized int add(int parentId, String name, K key) {
+        Integer existing = idsByKey.get(key);
+        if (existing != null) {
+            // Registering an already watched directory returns the same key; if it
+            // shows up under a new path it was renamed, or a root was added inside or
+            // around it, so move the entry along
+            int id = existing;
+            if (parent[id] != parentId || !name.equals(names[id])) {
+                if (parent[id] == NO_ID) {
+                    rootIds.remove(Path.of(names[id]), id);
+                }
+                unlinkFromParent(id);
+                parent[id] = parentId;
+                names[id] = name;
+                nextSibling[id] = parentId != NO_ID ? firstChild[parentId] : NO_ID;
+                if (parentId != NO_ID) {
+                    firstChild[parentId] = id;
+                } else {
+                    rootIds.put(Path.of(name), id);
+                }
+            }
+            return id;
+        }
+        int id;
+        if (freeHead != NO_ID) {
+            id = freeHead;
+            freeHead = nextSibling[id];
+        } else {
+            if (highWater == parent.length) {
+                grow();
+            }
+            id = highWater++;
+        }
+        parent[id] = parentId;
+        firstChild[id] = NO_ID;
+        names[id] = name;
+        keys[id] = key;
+        if (parentId != NO_ID) {
+            nextSibling[id] = firstChild[parentId];
+            firstChild[parentId] = id;
+        } else {
+            nextSibling[id] = NO_ID;
+            rootIds.put(Path.of(name), id);
+        }
+        idsByKey.put(key, id);
+        liveCount++;
+        return id;
+    }
+
+    private void grow() {
+        int capacity = parent.length * 2;
+        parent = Arrays.copyOf(parent, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        names = Arrays.copyOf(names, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+    }
+
+    /**
+     * Get the registry id of a watch key.
+     *
+     * @param key The watch key
+     * @return The id, or -1 if the key is not registered
+     */
+    public synchronized int getId(K key) {
+        Integer id = idsByKey.get(key);
+        return id != null ? id : NO_ID;
+    }
+
+    /**
+     * Rebuild the full path of a watched directory.
+     *
+     * @param key The watch key of the directory
+     * @return The directory path, or null if the key is not registered
+     */
+    public synchronized Path getPath(K key) {
+        Integer id = idsByKey.get(key);
+        if (id == null) {
+            return null;
+        }
+        return buildPath(id);
+    }
+
+    private Path buildPath(int id) {
+        List<String> segments = new ArrayList<>();
+        int current = id;
+        while (parent[current] != NO_ID) {
+            segments.add(names[current]);
+            current = parent[current];
+        }
+        Path path = Path.of(names[current]);
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            path = path.resolve(segments.get(i));
+        }
+        return path;
+    }
+
+    /**
+     * Release a directory and everything below it, cancelling their watch keys.
+     * Called when a watched directory has been deleted or moved away.
+     *
+     * @param key The watch key of the directory
+     * @return The number of directories released
+     */
+    public synchronized int remove(K key) {
+        Integer id = idsByKey.get(key);
+        if (id == null) {
+            return 0;
+        }
+        unlinkFromParent(id);
+        int removed = 0;
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(id);
+        while (!pending.isEmpty()) {
+            int current = pending.pop();
+            for (int child = firstChild[current]; child != NO_ID; child = nextSibling[child]) {
+                pending.push(child);
+            }
+            release(current);
+            removed++;
+        }
+        return removed;
+    }
+
+    private void unlinkFromParent(int id) {
+        int parentId = parent[id];
+        if (parentId == NO_ID) {
+            return;
+        }
+        if (firstChild[parentId] == id) {
+            firstChild[parentId] = nextSibling[id];
+            return;
+        }
+        for (int sibling = firstChild[parentId]; sibling != NO_ID; sibling = nextSibling[sibling]) {
+            if (nextSibling[sibling] == id) {
+                nextSibling[sibling] = nextSibling[id];
+                return;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void release(int id) {
+        K key = (K) keys[id];
+        if (key != null) {
+            registrar.cancel(key);
+            idsByKey.remove(key);
+        }
+        if (parent[id] == NO_ID && names[id] != null) {
+            rootIds.remove(Path.of(names[id]), id);
+        }
+        keys[id] = null;
+        names[id] = null;
+        parent[id] = NO_ID;
+        firstChild[id] = NO_ID;
+        nextSibling[id] = freeHead;
+        freeHead = id;
+        liveCount--;
+    }
+
+    /**
+     * Move a watched directory to a new name and/or parent after a rename.
+     * The backend keeps watching the same directory; only its path changes.
+     *
+     * @param fromParentKey The key of the old parent directory
+     * @param fromName The old directory name
+     * @param toParentKey The key of the new parent directory
+     * @param toName The new directory name
+     * @return true if the directory was known and has been moved
+     */
+    public synchronized boolean rename(K fromParentKey, String fromName, K toParentKey, String toName) {
+        Integer fromParent = idsByKey.get(fromParentKey);
+        Integer toParent = idsByKey.get(toParentKey);
+        if (fromParent == null || toParent == null) {
+            return false;
+        }
+        int id = findChild(fromParent, fromName);
+        if (id == NO_ID) {
+            return false;
+        }
+        unlinkFromParent(id);
+        parent[id] = toParent;
+        names[id] = toName;
+        nextSibling[id] = firstChild[toParent];
+        firstChild[toParent] = id;
+        return true;
+    }
+
+    /**
+     * Find the key of a watched child directory.
+     *
+     * @param parentKey The key of the parent directory
+     * @param name The child directory name
+     * @return The child's key, or null if it is not watched
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized K getChildKey(K parentKey, String name) {
+        Integer parentId = idsByKey.get(parentKey);
+        if (parentId == null) {
+            return null;
+        }
+        int id = findChild(parentId, name);
+        return id == NO_ID ? null : (K) keys[id];
+    }
+
+    private int findChild(int parentId, String name) {
+        for (int child = firstChild[parentId]; child != NO_ID; child = nextSibling[child]) {
+            if (name.equals(names[child])) {
+                return child;
+            }
+        }
+        return NO_ID;
+    }
+
+    /**
+     * Find the key of a watched directory by path.
+     *
+     * @param dir The directory
+     * @return The key, or null if the directory is not watched
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized K findKey(Path dir) {
+        Path absolute = dir.toAbsolutePath().normalize();
+        // Roots may be nested, with the inner root's tree cut out of the outer one
+        roots:
+        for (Map.Entry<Path, Integer> root : rootIds.entrySet()) {
+            if (!absolute.startsWith(root.getKey())) {
+                continue;
+            }
+            int id = root.getValue();
+            for (Path segment : root.getKey().relativize(absolute)) {
+                if (segment.toString().isEmpty()) {
+                    continue;
+                }
+                id = findChild(id, segment.toString());
+                if (id == NO_ID) {
+                    continue roots;
+                }
+            }
+            return (K) keys[id];
+        }
+        return null;
+    }
+
+    /**
+     * Make sure a directory inside a monitored root is watched, registering it
+     * (and any unwatched ancestors) if events for its creation were lost.
+     *
+     * @param dir The directory
+     * @return The number of directories newly registered
+     * @throws IOException if a directory cannot be registered
+     */
+    public int ensureRegistered(Path dir) throws IOException {
+        if (findKey(dir) != null) {
+            return 0;
+        }
+        Path parentDir = dir.toAbsolutePath().normalize().getParent();
+        if (parentDir == null) {
+            return 0;
+        }
+        int registered = 0;
+        K parentKey = findKey(parentDir);
+        if (parentKey == null) {
+            registered += ensureRegistered(parentDir);
+            parentKey = findKey(parentDir);
+            if (parentKey == null) {
+                return registered; // Outside every monitored root
+            }
+            if (findKey(dir) != null) {
+                return registered; // Registered with the parent's subtree
+            }
+        }
+        return registered + registerSubtree(parentKey, dir, null);
+    }
+
+    /**
+     * Get the paths of all monitored roots, leaving out roots inside another one.
+     *
+     * @return The root paths
+     */
+    public synchronized List<Path> getRoots() {
+        List<Path> roots = new ArrayList<>();
+        for (Path root : rootStats.keySet()) {
+            boolean nested = false;
+            for (Path other : rootStats.keySet()) {
+                if (!other.equals(root) && root.startsWith(other)) {
+                    nested = true;
+                    break;
+                }
+            }
+            if (!nested) {
+                roots.add(root);
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * Cancel every registered watch and forget all roots.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void clear() {
+        for (int i = 0; i < highWater; i++) {
+            if (keys[i] != null) {
+                registrar.cancel((K) keys[i]);
+            }
+        }
+        idsByKey.clear();
+        rootStats.clear();
+        rootIds.clear();
+        parent = new int[INITIAL_CAPACITY];
+        firstChild = new int[INITIAL_CAPACITY];
+        nextSibling = new int[INITIAL_CAPACITY];
+        names = new String[INITIAL_CAPACITY];
+        keys = new Object[INITIAL_CAPACITY];
+        highWater = 0;
+        liveCount = 0;
+        freeHead = NO_ID;
+    }
+
+    /**
+     * Get the number of directories currently watched.
+     *
+     * @return The watch count
+     */
+    public synchronized int size() {
+        return liveCount;
+    }
+
+    /**
+     * Get the registration statistics of every monitored root.
+     *
+     * @return List of root statistics
+     */
+    public synchronized List<RootStats> getRootStats() {
+        return new ArrayList<>(rootStats.values());
+    }
+}
@@ -0,0 +1,161 @@
+package com.filex.service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+
+/**
+ * Watcher backend built on the JDK {@link WatchService}.
+ * Portable across platforms; this is the default backend.
+ */
+public class WatchServiceBackend implements WatcherBackend {
+
+    private final WatchService watchService;
+    private final WatchRegistry<WatchKey> registry;
+    private Thread readerThread;
+    private volatile boolean running = false;
+
+    /**
+     * Constructor
+     *
+     * @throws IOException if the watch service cannot be created
+     */
+    public WatchServiceBackend() throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.registry = new WatchRegistry<>(new WatchRegistry.Registrar<>() {
+            @Override
+            public WatchKey register(Path dir) throws IOException {
+                return dir.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+
+            @Override
+            public void cancel(WatchKey key) {
+                key.cancel();
+            }
+        });
+    }
+
+    @Override
+    public String getName() {
+        return WATCH_SERVICE;
+    }
+
+    @Override
+    public WatchRegistry.RootStats addRoot(Path root) throws IOException {
+        return registry.registerRoot(root);
+    }
+
+    @Override
+    public synchronized void start(Listener listener) {
+        if (running) {
+            return;
+        }
+        running = true;
+        readerThread = new Thread(() -> readEvents(listener), "filex-watcher");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    /**
+     * Reader loop: turn watch keys into listener callbacks.
+     */
+    @SuppressWarnings("unchecked")
+    private void readEvents(Listener listener) {
+        while (running) {
+            try {
+                WatchKey key = watchService.take();
+                Path dir = registry.getPath(key);
+                if (dir == null) {
+                    // Key was released after its directory disappeared
+                    continue;
+                }
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    WatchEvent.Kind<?> kind = event.kind();
+
+                    if (kind == StandardWatchEventKinds.OVERFLOW) {
+                        listener.onOverflow(dir);
+                        continue;
+                    }
+
+                    Path fullPath = dir.resolve(((WatchEvent<Path>) event).context());
+
+                    // Watch directories created at runtime, including anything already copied into them
+                    if (kind == StandardWatchEventKinds.ENTRY_CREATE
+                            && Files.isDirectory(fullPath, LinkOption.NOFOLLOW_LINKS)) {
+                        registerNewDirectory(key, fullPath, listener);
+                    }
+
+                    listener.onEvent(fullPath, kind.name().replace("ENTRY_", "")); // Remove "ENTRY_" prefix
+                }
+
+                boolean valid = key.reset();
+                if (!valid) {
+                    // Directory was deleted or moved; release it and its subtree
+                    int released = registry.remove(key);
+                    System.out.println("Released " + released + " watches under " + dir);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ClosedWatchServiceException e) {
+                break;
+            }
+        }
+    }
+
+    private void registerNewDirectory(WatchKey parentKey, Path newDir, Listener listener) {
+        try {
+            int registered = registry.registerSubtree(parentKey, newDir,
+                file -> listener.onEvent(file, "CREATE"));
+            System.out.println("Registered " + registered + " new watched directories under " + newDir);
+        } catch (IOException e) {
+            System.err.println("Error registering new directory " + newDir + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        registry.clear();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.err.println("Error closing watch service: " + e.getMessage());
+        }
+        if (readerThread != null) {
+            readerThread.interrupt();
+            readerThread = null;
+        }
+    }
+
+    @Override
+    public void ensureWatched(Path dir) {
+        try {
+            registry.ensureRegistered(dir);
+        } catch (IOException e) {
+            System.err.println("Error registering directory " + dir + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int getWatchCount() {
+        return registry.size();
+    }
+
+    @Override
+    public List<WatchRegistry.RootStats> getRootStats() {
+        return registry.getRootStats();
+    }
+}
@@ -0,0 +1,120 @@
+package com.filex.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Source of raw file system notifications for one or more recursively watched roots.
+ *
+ * Implementations:
+ * - {@link WatchServiceBackend}: portable JDK WatchService (default)
+ * - {@link InotifyWatcherBackend}: Linux inotify through the Foreign Function & Memory API
+ */
+public interface WatcherBackend {
+
+    String WATCH_SERVICE = "watchservice";
+    String INOTIFY = "inotify";
+
+    /**
+     * Receives notifications from the backend's reader thread.
+     */
+    interface Listener {
+        /**
+         * A file was created, modified or deleted.
+         *
+         * @param path The full path of the file
+         * @param eventType CREATE, MODIFY or DELETE
+         */
+        void onEvent(Path path, String eventType);
+
+        /**
+         * A file or directory was renamed within the watched trees.
+         * Backends that cannot pair renames report a DELETE and a CREATE instead.
+         *
+         * @param from The old path
+         * @param to The new path
+         */
+        void onMove(Path from, Path to);
+
+        /**
+         * The backend lost events for a directory.
+         *
+         * @param dir The directory whose events were lost, or a monitored root if unknown
+         */
+        void onOverflow(Path dir);
+    }
+
+    /**
+     * Get the backend name.
+     *
+     * @return The name, e.g. "watchservice" or "inotify"
+     */
+    String getName();
+
+    /**
+     * Recursively register a monitored root.
+     *
+     * @param root The root directory
+     * @return Registration statistics for the root
+     * @throws IOException if the root cannot be registered
+     */
+    WatchRegistry.RootStats addRoot(Path root) throws IOException;
+
+    /**
+     * Make sure a directory inside a monitored root is watched. Used after an
+     * overflow, when the CREATE of a new directory may have been lost.
+     *
+     * @param dir The directory
+     */
+    void ensureWatched(Path dir);
+
+    /**
+     * Start delivering events on a background thread.
+     *
+     * @param listener The listener to notify
+     */
+    void start(Listener listener);
+
+    /**
+     * Stop delivering events and release every watch.
+     */
+    void close();
+
+    /**
+     * Get the number of directories currently watched.
+     *
+     * @return The watch count
+     */
+    int getWatchCount();
+
+    /**
+     * Get per-root registration statistics.
+     *
+     * @return List of root statistics
+     */
+    List<WatchRegistry.RootStats> getRootStats();
+
+    /**
+     * Create a backend by name. Falls back to the WatchService backend when
+     * inotify is requested but not available on this platform.
+     *
+     * @param name The backend name
+     * @return A new backend
+     * @throws IOException if the backend cannot be created
+     */
+    static WatcherBackend create(String name) throws IOException {
+        if (INOTIFY.equalsIgnoreCase(name)) {
+            try {
+                if (InotifyWatcherBackend.isSupported()) {
+                    return new InotifyWatcherBackend();
+                }
+            } catch (LinkageError e) {
+                // Native linker unavailable on this platform or FFM not enabled
+                System.err.println("Cannot load inotify backend: " + e);
+            }
+            System.err.println("inotify backend is not available on this platform, using WatchService.");
+        }
+        return new WatchServiceBackend();
+    }
+}
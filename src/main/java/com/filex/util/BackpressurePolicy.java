@@ -0,0 +1,23 @@
+package com.filex.util;
+
+/**
+ * Policy applied by a {@link StageQueue} when a producer offers an item
+ * while the queue is already at its configured depth.
+ */
+public enum BackpressurePolicy {
+    /**
+     * Block the producer until the consumer frees a slot.
+     */
+    BLOCK,
+
+    /**
+     * Discard the oldest queued item to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Move the new item to an unbounded overflow buffer that the consumer
+     * drains once the bounded part of the queue is empty. Ordering is kept.
+     */
+    SPILL
+}
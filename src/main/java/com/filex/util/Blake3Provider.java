@@ -0,0 +1,272 @@
+package com.filex.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Pure-Java BLAKE3 in its default hash mode with a 32-byte output.
+ *
+ * BLAKE3 splits input into 1 KB chunks hashed independently and combined as a
+ * binary Merkle tree. This implementation is single-threaded and follows the
+ * structure of the reference implementation; it needs no native code.
+ */
+public class Blake3Provider implements HashProvider {
+
+    public static final String NAME = "BLAKE3";
+
+    private static final int OUT_LEN = 32;
+    private static final int BLOCK_LEN = 64;
+    private static final int CHUNK_LEN = 1024;
+
+    private static final int CHUNK_START = 1;
+    private static final int CHUNK_END = 1 << 1;
+    private static final int PARENT = 1 << 2;
+    private static final int ROOT = 1 << 3;
+
+    private static final int[] IV = {
+        0x6A09E667, 0xBB67AE85, 0x3C6EF372, 0xA54FF53A,
+        0x510E527F, 0x9B05688C, 0x1F83D9AB, 0x5BE0CD19
+    };
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getDigestLength() {
+        return OUT_LEN;
+    }
+
+    @Override
+    public boolean isCryptographic() {
+        return true;
+    }
+
+    @Override
+    public Hasher newHasher() {
+        return new Blake3Hasher();
+    }
+
+    /**
+     * The BLAKE3 compression function.
+     *
+     * @param cv The 8-word input chaining value
+     * @param m The 16-word message block
+     * @param counter The chunk counter (0 for parent nodes and root output)
+     * @param blockLen The number of message bytes in the block
+     * @param flags The domain flags
+     * @param out Receives the first 8 words of the output state
+     */
+    private static void compress(int[] cv, int[] m, long counter, int blockLen, int flags, int[] out) {
+        int s0 = cv[0], s1 = cv[1], s2 = cv[2], s3 = cv[3];
+        int s4 = cv[4], s5 = cv[5], s6 = cv[6], s7 = cv[7];
+        int s8 = IV[0], s9 = IV[1], s10 = IV[2], s11 = IV[3];
+        int s12 = (int) counter, s13 = (int) (counter >>> 32), s14 = blockLen, s15 = flags;
+
+        int m0 = m[0], m1 = m[1], m2 = m[2], m3 = m[3], m4 = m[4], m5 = m[5], m6 = m[6], m7 = m[7];
+        int m8 = m[8], m9 = m[9], m10 = m[10], m11 = m[11], m12 = m[12], m13 = m[13], m14 = m[14], m15 = m[15];
+
+        for (int round = 0; round < 7; round++) {
+            // Columns
+            s0 = s0 + s4 + m0; s12 = Integer.rotateRight(s12 ^ s0, 16);
+            s8 = s8 + s12; s4 = Integer.rotateRight(s4 ^ s8, 12);
+            s0 = s0 + s4 + m1; s12 = Integer.rotateRight(s12 ^ s0, 8);
+            s8 = s8 + s12; s4 = Integer.rotateRight(s4 ^ s8, 7);
+
+            s1 = s1 + s5 + m2; s13 = Integer.rotateRight(s13 ^ s1, 16);
+            s9 = s9 + s13; s5 = Integer.rotateRight(s5 ^ s9, 12);
+            s1 = s1 + s5 + m3; s13 = Integer.rotateRight(s13 ^ s1, 8);
+            s9 = s9 + s13; s5 = Integer.rotateRight(s5 ^ s9, 7);
+
+            s2 = s2 + s6 + m4; s14 = Integer.rotateRight(s14 ^ s2, 16);
+            s10 = s10 + s14; s6 = Integer.rotateRight(s6 ^ s10, 12);
+            s2 = s2 + s6 + m5; s14 = Integer.rotateRight(s14 ^ s2, 8);
+            s10 = s10 + s14; s6 = Integer.rotateRight(s6 ^ s10, 7);
+
+            s3 = s3 + s7 + m6; s15 = Integer.rotateRight(s15 ^ s3, 16);
+            s11 = s11 + s15; s7 = Integer.rotateRight(s7 ^ s11, 12);
+            s3 = s3 + s7 + m7; s15 = Integer.rotateRight(s15 ^ s3, 8);
+            s11 = s11 + s15; s7 = Integer.rotateRight(s7 ^ s11, 7);
+
+            // Diagonals
+            s0 = s0 + s5 + m8; s15 = Integer.rotateRight(s15 ^ s0, 16);
+            s10 = s10 + s15; s5 = Integer.rotateRight(s5 ^ s10, 12);
+            s0 = s0 + s5 + m9; s15 = Integer.rotateRight(s15 ^ s0, 8);
+            s10 = s10 + s15; s5 = Integer.rotateRight(s5 ^ s10, 7);
+
+            s1 = s1 + s6 + m10; s12 = Integer.rotateRight(s12 ^ s1, 16);
+            s11 = s11 + s12; s6 = Integer.rotateRight(s6 ^ s11, 12);
+            s1 = s1 + s6 + m11; s12 = Integer.rotateRight(s12 ^ s1, 8);
+            s11 = s11 + s12; s6 = Integer.rotateRight(s6 ^ s11, 7);
+
+            s2 = s2 + s7 + m12; s13 = Integer.rotateRight(s13 ^ s2, 16);
+            s8 = s8 + s13; s7 = Integer.rotateRight(s7 ^ s8, 12);
+            s2 = s2 + s7 + m13; s13 = Integer.rotateRight(s13 ^ s2, 8);
+            s8 = s8 + s13; s7 = Integer.rotateRight(s7 ^ s8, 7);
+
+            s3 = s3 + s4 + m14; s14 = Integer.rotateRight(s14 ^ s3, 16);
+            s9 = s9 + s14; s4 = Integer.rotateRight(s4 ^ s9, 12);
+            s3 = s3 + s4 + m15; s14 = Integer.rotateRight(s14 ^ s3, 8);
+            s9 = s9 + s14; s4 = Integer.rotateRight(s4 ^ s9, 7);
+
+            // Permute the message words for the next round
+            int t0 = m2, t1 = m6, t2 = m3, t3 = m10, t4 = m7, t5 = m0, t6 = m4, t7 = m13;
+            int t8 = m1, t9 = m11, t10 = m12, t11 = m5, t12 = m9, t13 = m14, t14 = m15, t15 = m8;
+            m0 = t0; m1 = t1; m2 = t2; m3 = t3; m4 = t4; m5 = t5; m6 = t6; m7 = t7;
+            m8 = t8; m9 = t9; m10 = t10; m11 = t11; m12 = t12; m13 = t13; m14 = t14; m15 = t15;
+        }
+
+        out[0] = s0 ^ s8;
+        out[1] = s1 ^ s9;
+        out[2] = s2 ^ s10;
+        out[3] = s3 ^ s11;
+        out[4] = s4 ^ s12;
+        out[5] = s5 ^ s13;
+        out[6] = s6 ^ s14;
+        out[7] = s7 ^ s15;
+    }
+
+    private static class Blake3Hasher implements Hasher {
+        private static final int MAX_DEPTH = 54; // Enough for 2^64 bytes of input
+
+        private final int[] cv = new int[8];
+        private final int[] blockWords = new int[16];
+        private final ByteBuffer block = ByteBuffer.allocate(BLOCK_LEN).order(ByteOrder.LITTLE_ENDIAN);
+        private final int[][] cvStack = new int[MAX_DEPTH][8];
+        private final int[] parentWords = new int[16];
+        private int cvStackSize;
+        private long chunkCounter;
+        private int chunkBytes;        // Bytes of the current chunk already compressed
+        private int blocksCompressed;
+
+        Blake3Hasher() {
+            reset();
+        }
+
+        @Override
+        public void reset() {
+            System.arraycopy(IV, 0, cv, 0, 8);
+            block.clear();
+            cvStackSize = 0;
+            chunkCounter = 0;
+            chunkBytes = 0;
+            blocksCompressed = 0;
+        }
+
+        @Override
+        public void update(ByteBuffer data) {
+            ByteBuffer in = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+            data.position(data.limit());
+            while (in.hasRemaining()) {
+                // A full block is only compressed once more input arrives, since
+                // the last block of a chunk needs the CHUNK_END flag
+                if (!block.hasRemaining()) {
+                    if (chunkBytes + BLOCK_LEN == CHUNK_LEN) {
+                        finishChunk();
+                    } else {
+                        compressBlock();
+                    }
+                }
+                // Fast path: whole blocks straight from the input
+                while (block.position() == 0 && in.remaining() > BLOCK_LEN
+                        && chunkBytes + BLOCK_LEN < CHUNK_LEN) {
+                    int at = in.position();
+                    for (int i = 0; i < 16; i++) {
+                        blockWords[i] = in.getInt(at + i * 4);
+                    }
+                    in.position(at + BLOCK_LEN);
+                    compress(cv, blockWords, chunkCounter, BLOCK_LEN, startFlag(), cv);
+                    blocksCompressed++;
+                    chunkBytes += BLOCK_LEN;
+                }
+                int take = Math.min(block.remaining(), in.remaining());
+                ByteBuffer slice = in.slice(in.position(), take);
+                block.put(slice);
+                in.position(in.position() + take);
+            }
+        }
+
+        private int startFlag() {
+            return blocksCompressed == 0 ? CHUNK_START : 0;
+        }
+
+        private void loadBlockWords() {
+            int length = block.position();
+            for (int i = length; i < BLOCK_LEN; i++) {
+                block.put(i, (byte) 0);
+            }
+            for (int i = 0; i < 16; i++) {
+                blockWords[i] = block.getInt(i * 4);
+            }
+        }
+
+        private void compressBlock() {
+            loadBlockWords();
+            compress(cv, blockWords, chunkCounter, BLOCK_LEN, startFlag(), cv);
+            blocksCompressed++;
+            chunkBytes += BLOCK_LEN;
+            block.clear();
+        }
+
+        /**
+         * Compress the last block of a full chunk, push its chaining value and start the next chunk.
+         */
+        private void finishChunk() {
+            loadBlockWords();
+            int[] chunkCv = new int[8];
+            compress(cv, blockWords, chunkCounter, block.position(), startFlag() | CHUNK_END, chunkCv);
+            long totalChunks = chunkCounter + 1;
+            // Merge completed subtrees: one merge per trailing zero bit of the chunk count
+            while ((totalChunks & 1) == 0) {
+                int[] left = cvStack[--cvStackSize];
+                parentCv(left, chunkCv, chunkCv);
+                totalChunks >>= 1;
+            }
+            System.arraycopy(chunkCv, 0, cvStack[cvStackSize++], 0, 8);
+
+            chunkCounter++;
+            System.arraycopy(IV, 0, cv, 0, 8);
+            block.clear();
+            chunkBytes = 0;
+            blocksCompressed = 0;
+        }
+
+        private void parentCv(int[] left, int[] right, int[] out) {
+            System.arraycopy(left, 0, parentWords, 0, 8);
+            System.arraycopy(right, 0, parentWords, 8, 8);
+            compress(IV, parentWords, 0, BLOCK_LEN, PARENT, out);
+        }
+
+        @Override
+        public byte[] digest() {
+            loadBlockWords();
+            int flags = startFlag() | CHUNK_END;
+            int[] outCv = new int[8];
+            int[] words = blockWords;
+            int[] inputCv = cv;
+            long counter = chunkCounter;
+            int blockLen = block.position();
+
+            // Fold the chunk output up through the stack; the last compression is the root
+            for (int i = cvStackSize - 1; i >= 0; i--) {
+                compress(inputCv, words, counter, blockLen, flags, outCv);
+                System.arraycopy(cvStack[i], 0, parentWords, 0, 8);
+                System.arraycopy(outCv, 0, parentWords, 8, 8);
+                inputCv = IV;
+                words = parentWords;
+                counter = 0;
+                blockLen = BLOCK_LEN;
+                flags = PARENT;
+            }
+            compress(inputCv, words, 0, blockLen, flags | ROOT, outCv);
+
+            ByteBuffer out = ByteBuffer.allocate(OUT_LEN).order(ByteOrder.LITTLE_ENDIAN);
+            for (int word : outCv) {
+                out.putInt(word);
+            }
+            reset();
+            return out.array();
+        }
+    }
+}
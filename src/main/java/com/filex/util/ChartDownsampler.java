@@ -0,0 +1,125 @@
+package com.filex.util;
+
+import java.util.Arrays;
+
+/**
+ * Reduces a series of points to the few a chart can actually draw, so the number of
+ * chart nodes depends on the chart's width rather than on the amount of data.
+ *
+ * Both methods return the indexes of the points to keep, in order, always keeping
+ * the first and last point. The x values must be in ascending order.
+ */
+public class ChartDownsampler {
+
+    /**
+     * Select points with largest-triangle-three-buckets: the points between the first
+     * and last are split into equal buckets, and from each the point forming the
+     * largest triangle with the point kept before it and the average of the next
+     * bucket is kept. This keeps the visual shape, including single spikes.
+     *
+     * @param xs The x values
+     * @param ys The y values
+     * @param threshold The number of points wanted, at least 3
+     * @return The indexes of the kept points
+     */
+    public static int[] largestTriangleThreeBuckets(double[] xs, double[] ys, int threshold) {
+        int length = xs.length;
+        if (threshold >= length || threshold < 3) {
+            return all(length);
+        }
+        int[] kept = new int[threshold];
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int previous = 0;
+        kept[0] = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+            // Average of the next bucket, or the last point for the last bucket
+            int nextStart = end;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, length);
+            if (bucket == threshold - 3) {
+                nextStart = length - 1;
+                nextEnd = length;
+            }
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += xs[i];
+                averageY += ys[i];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            double previousX = xs[previous];
+            double previousY = ys[previous];
+            double largestArea = -1;
+            int largest = start;
+            for (int i = start; i < end; i++) {
+                // Twice the triangle's area; only the comparison matters
+                double area = Math.abs((previousX - averageX) * (ys[i] - previousY)
+                    - (previousX - xs[i]) * (averageY - previousY));
+                if (area > largestArea) {
+                    largestArea = area;
+                    largest = i;
+                }
+            }
+            kept[bucket + 1] = largest;
+            previous = largest;
+        }
+        kept[threshold - 1] = length - 1;
+        return kept;
+    }
+
+    /**
+     * Select points with min/max bucketing: the x range is split into equal buckets,
+     * and from each the lowest and highest point are kept, in x order. Every extreme
+     * survives, at the cost of up to two points per bucket.
+     *
+     * @param xs The x values
+     * @param ys The y values
+     * @param buckets The number of buckets, e.g. the chart's width in pixels
+     * @return The indexes of the kept points
+     */
+    public static int[] minMax(double[] xs, double[] ys, int buckets) {
+        int length = xs.length;
+        if (length <= 2 * buckets + 2 || buckets < 1) {
+            return all(length);
+        }
+        int[] kept = new int[2 * buckets + 2];
+        int count = 0;
+        kept[count++] = 0;
+        double first = xs[0];
+        double width = (xs[length - 1] - first) / buckets;
+        int i = 1;
+        for (int bucket = 0; bucket < buckets && i < length - 1; bucket++) {
+            double end = bucket == buckets - 1 ? Double.POSITIVE_INFINITY : first + (bucket + 1) * width;
+            if (xs[i] >= end) {
+                continue; // Empty bucket
+            }
+            int min = i;
+            int max = i;
+            for (; i < length - 1 && xs[i] < end; i++) {
+                if (ys[i] < ys[min]) {
+                    min = i;
+                }
+                if (ys[i] > ys[max]) {
+                    max = i;
+                }
+            }
+            kept[count++] = Math.min(min, max);
+            if (min != max) {
+                kept[count++] = Math.max(min, max);
+            }
+        }
+        kept[count++] = length - 1;
+        return Arrays.copyOf(kept, count);
+    }
+
+    private static int[] all(int length) {
+        int[] indexes = new int[length];
+        for (int i = 0; i < length; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+}
@@ -6,9 +6,31 @@ package com.filex.util;
 public class DatabaseConfig {
     // Database configuration for SQLite
     public static final String DB_URL = "jdbc:sqlite:filex.db";
-    
-    // Connection pool settings
+
+    // Connection pool settings (read-only connections; there is a single writer)
     public static final int MAX_POOL_SIZE = 10;
     public static final int MIN_POOL_SIZE = 2;
     public static final long CONNECTION_TIMEOUT = 30000; // 30 seconds
-}
\ No newline at end of file
+
+    // Page cache per connection, in KB
+    public static final int WRITER_CACHE_KB = 16 * 1024;
+    public static final int READER_CACHE_KB = 8 * 1024;
+
+    // WAL checkpoint policy: checkpoint after this many WAL pages and trim the WAL file back to this size
+    public static final int WAL_AUTOCHECKPOINT_PAGES = 1000;
+    public static final long JOURNAL_SIZE_LIMIT_BYTES = 64L * 1024 * 1024;
+
+    // Online timestamp conversion: row ids visited per transaction and the pause between transactions
+    public static final int BACKFILL_CHUNK_ROWS = 2000;
+    public static final long BACKFILL_PAUSE_MILLIS = 20;
+
+    /**
+     * Get the JDBC URL of the database. The {@code filex.db.url} system property
+     * overrides the default, e.g. to point tests at a scratch database.
+     *
+     * @return The JDBC URL
+     */
+    public static String getDbUrl() {
+        return System.getProperty("filex.db.url", DB_URL);
+    }
+}
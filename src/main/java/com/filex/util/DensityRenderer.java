@@ -0,0 +1,109 @@
+package com.filex.util;
+
+import java.util.Arrays;
+
+/**
+ * Draws event densities into ARGB pixel buffers, so that timelines and heatmaps
+ * can be rendered on any thread and copied to a Canvas in one call.
+ *
+ * Values are shaded on a logarithmic scale relative to the largest value drawn,
+ * from a dark blue for quiet periods to red for the busiest, so a burst of a few
+ * hundred events still shows next to days with millions.
+ */
+public class DensityRenderer {
+
+    private static final int BACKGROUND = 0xFF1E1E2E;
+    private static final int GRID = 0xFF2E2E42;
+    private static final int[] PALETTE = buildPalette(256);
+
+    /**
+     * Draw a timeline: one bar per pixel column, its height and colour showing the
+     * column's value.
+     *
+     * @param values The value of each column, e.g. events per hour
+     * @param width The buffer width in pixels; values beyond it are ignored
+     * @param height The buffer height in pixels
+     * @param pixels The buffer, width * height ARGB pixels by rows
+     */
+    public static void renderTimeline(double[] values, int width, int height, int[] pixels) {
+        Arrays.fill(pixels, 0, width * height, BACKGROUND);
+        for (int quarter = 1; quarter < 4; quarter++) {
+            Arrays.fill(pixels, height * quarter / 4 * width, (height * quarter / 4 + 1) * width, GRID);
+        }
+        double scale = logScale(values, Math.min(width, values.length));
+        if (scale == 0) {
+            return;
+        }
+        for (int x = 0; x < Math.min(width, values.length); x++) {
+            double level = Math.log1p(values[x]) / scale;
+            int top = height - (int) Math.round(level * height);
+            int color = PALETTE[(int) (level * (PALETTE.length - 1))];
+            for (int y = Math.max(0, top); y < height; y++) {
+                pixels[y * width + x] = color;
+            }
+        }
+    }
+
+    /**
+     * Draw an hour-of-week heatmap: one row per day, Monday at the top, and one
+     * column per hour of the day.
+     *
+     * @param counts 168 values, Monday 00:00-01:00 first
+     * @param width The buffer width in pixels
+     * @param height The buffer height in pixels
+     * @param pixels The buffer, width * height ARGB pixels by rows
+     */
+    public static void renderHourOfWeek(long[] counts, int width, int height, int[] pixels) {
+        Arrays.fill(pixels, 0, width * height, BACKGROUND);
+        double[] values = new double[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            values[i] = counts[i];
+        }
+        double scale = logScale(values, values.length);
+        for (int y = 0; y < height; y++) {
+            int day = y * 7 / height;
+            boolean rowGap = (y + 1) * 7 / height != day; // Last pixel row of a day
+            for (int x = 0; x < width; x++) {
+                int hour = x * 24 / width;
+                boolean columnGap = (x + 1) * 24 / width != hour;
+                int color;
+                if (rowGap || columnGap) {
+                    color = BACKGROUND;
+                } else if (scale == 0) {
+                    color = PALETTE[0];
+                } else {
+                    color = PALETTE[(int) (Math.log1p(values[day * 24 + hour]) / scale * (PALETTE.length - 1))];
+                }
+                pixels[y * width + x] = color;
+            }
+        }
+    }
+
+    private static double logScale(double[] values, int length) {
+        double max = 0;
+        for (int i = 0; i < length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return Math.log1p(max);
+    }
+
+    /**
+     * Build a colour ramp through dark blue, cyan, yellow and red.
+     */
+    private static int[] buildPalette(int size) {
+        int[][] stops = {{0x1B, 0x2A, 0x5C}, {0x1F, 0xA2, 0xC4}, {0xF2, 0xD0, 0x3B}, {0xE0, 0x3A, 0x2F}};
+        int[] palette = new int[size];
+        for (int i = 0; i < size; i++) {
+            double position = (double) i / (size - 1) * (stops.length - 1);
+            int stop = Math.min((int) position, stops.length - 2);
+            double fraction = position - stop;
+            int color = 0xFF;
+            for (int channel = 0; channel < 3; channel++) {
+                int value = (int) Math.round(stops[stop][channel] + (stops[stop + 1][channel] - stops[stop][channel]) * fraction);
+                color = color << 8 | value;
+            }
+            palette[i] = color;
+        }
+        return palette;
+    }
+}
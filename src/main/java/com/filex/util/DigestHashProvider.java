@@ -0,0 +1,69 @@
+package com.filex.util;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hash provider backed by a JDK {@link MessageDigest} (SHA-256, SHA-512, SHA-512/256).
+ */
+public class DigestHashProvider implements HashProvider {
+
+    private final String name;
+    private final int digestLength;
+
+    /**
+     * Constructor
+     *
+     * @param name The JDK digest algorithm name
+     * @throws IllegalArgumentException if the JDK does not support the algorithm
+     */
+    public DigestHashProvider(String name) {
+        this.name = name;
+        this.digestLength = newDigest(name).getDigestLength();
+    }
+
+    private static MessageDigest newDigest(String name) {
+        try {
+            return MessageDigest.getInstance(name);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("Digest not available: " + name, e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getDigestLength() {
+        return digestLength;
+    }
+
+    @Override
+    public boolean isCryptographic() {
+        return true;
+    }
+
+    @Override
+    public Hasher newHasher() {
+        MessageDigest digest = newDigest(name);
+        return new Hasher() {
+            @Override
+            public void update(ByteBuffer data) {
+                digest.update(data);
+            }
+
+            @Override
+            public byte[] digest() {
+                return digest.digest();
+            }
+
+            @Override
+            public void reset() {
+                digest.reset();
+            }
+        };
+    }
+}
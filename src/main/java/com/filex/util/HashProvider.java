@@ -0,0 +1,68 @@
+package com.filex.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Service provider interface for file hash algorithms.
+ *
+ * Built-in providers are registered by {@link HashProviders}; additional ones can be
+ * contributed through {@link java.util.ServiceLoader}. Provider names are what gets
+ * stored with every event and fingerprint, so they must never change once released.
+ */
+public interface HashProvider {
+
+    /**
+     * Incremental hash state. Instances are not thread-safe; {@link HashUtil}
+     * keeps one per thread and algorithm.
+     */
+    interface Hasher {
+        /**
+         * Feed the remaining bytes of a buffer into the hash. The buffer position
+         * is advanced to its limit.
+         *
+         * @param data The data
+         */
+        void update(ByteBuffer data);
+
+        /**
+         * Finish the hash and reset the state for the next input.
+         *
+         * @return The digest bytes
+         */
+        byte[] digest();
+
+        /**
+         * Discard any input fed so far.
+         */
+        void reset();
+    }
+
+    /**
+     * Get the algorithm name, e.g. "SHA-256".
+     *
+     * @return The algorithm name
+     */
+    String getName();
+
+    /**
+     * Get the digest length in bytes.
+     *
+     * @return The digest length
+     */
+    int getDigestLength();
+
+    /**
+     * Whether the algorithm resists deliberate collisions. Non-cryptographic
+     * hashes are fine for change detection but not as tamper evidence.
+     *
+     * @return true for cryptographic hashes
+     */
+    boolean isCryptographic();
+
+    /**
+     * Create a fresh incremental hash state.
+     *
+     * @return The hasher
+     */
+    Hasher newHasher();
+}
@@ -0,0 +1,92 @@
+package com.filex.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the available {@link HashProvider}s, looked up by algorithm name.
+ * The JDK digests, xxHash64 and BLAKE3 are built in; further providers are
+ * discovered with {@link ServiceLoader}.
+ */
+public final class HashProviders {
+
+    public static final String DEFAULT = "SHA-256";
+
+    private static final Map<String, HashProvider> PROVIDERS = new LinkedHashMap<>();
+
+    static {
+        register(new DigestHashProvider("SHA-256"));
+        register(new DigestHashProvider("SHA-512"));
+        register(new DigestHashProvider("SHA-512/256"));
+        register(new XxHash64Provider());
+        register(new Blake3Provider());
+        try {
+            for (HashProvider provider : ServiceLoader.load(HashProvider.class)) {
+                register(provider);
+            }
+        } catch (ServiceConfigurationError e) {
+            System.err.println("Error loading hash providers: " + e.getMessage());
+        }
+    }
+
+    private HashProviders() {
+    }
+
+    /**
+     * Register a provider, replacing any provider with the same name.
+     *
+     * @param provider The provider
+     */
+    public static synchronized void register(HashProvider provider) {
+        PROVIDERS.put(provider.getName().toUpperCase(Locale.ROOT), provider);
+    }
+
+    /**
+     * Get the provider for an algorithm.
+     *
+     * @param name The algorithm name, case-insensitive
+     * @return The provider
+     * @throws IllegalArgumentException if no provider has that name
+     */
+    public static synchronized HashProvider get(String name) {
+        HashProvider provider = name != null ? PROVIDERS.get(name.toUpperCase(Locale.ROOT)) : null;
+        if (provider == null) {
+            throw new IllegalArgumentException("Unknown hash algorithm: " + name);
+        }
+        return provider;
+    }
+
+    /**
+     * Get the canonical name of an algorithm, falling back to {@link #DEFAULT}
+     * for unknown names (e.g. a stale preference).
+     *
+     * @param name The algorithm name, case-insensitive
+     * @return The canonical algorithm name
+     */
+    public static String resolve(String name) {
+        try {
+            return get(name).getName();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage() + ", using " + DEFAULT);
+            return DEFAULT;
+        }
+    }
+
+    /**
+     * Get the names of all available algorithms, e.g. for a settings combo box.
+     *
+     * @return The algorithm names in registration order
+     */
+    public static synchronized List<String> getAvailableNames() {
+        List<String> names = new ArrayList<>();
+        for (HashProvider provider : PROVIDERS.values()) {
+            names.add(provider.getName());
+        }
+        return names;
+    }
+}
@@ -1,47 +1,146 @@
 package com.filex.util;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
- * Utility class for computing file hashes.
+ * Utility class for computing file hashes with any registered {@link HashProvider}.
+ *
+ * Files are read through a {@link FileChannel} with positional reads into a reusable
+ * per-thread direct buffer, so hashing allocates nothing per call beyond the result.
+ * Files are deliberately not memory-mapped: a monitored file is often being written
+ * or truncated while it is hashed, and touching a mapped page past the new end of
+ * the file raises SIGBUS, which the JVM reports as an InternalError rather than an
+ * IOException. Hash state is reused per thread and algorithm.
  */
 public class HashUtil {
-    
+
+    private static final int BUFFER_SIZE = 1 << 20;           // 1 MB read buffer per thread
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<ByteBuffer> BUFFERS =
+        ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    private static final ThreadLocal<Map<String, HashProvider.Hasher>> HASHERS =
+        ThreadLocal.withInitial(HashMap::new);
+
     /**
      * Compute the SHA-256 hash of a file.
-     * 
+     *
      * @param filePath The path to the file
      * @return The SHA-256 hash as a hexadecimal string, or empty string if file doesn't exist
      */
     public static String computeSHA256(String filePath) {
+        return computeSHA256(Paths.get(filePath));
+    }
+
+    /**
+     * Compute the SHA-256 hash of a file.
+     *
+     * @param path The path to the file
+     * @return The SHA-256 hash as a hexadecimal string, or empty string if the file cannot be read
+     */
+    public static String computeSHA256(Path path) {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            FileInputStream fis = new FileInputStream(filePath);
-            
-            byte[] byteArray = new byte[1024];
-            int bytesCount = 0;
-            
-            while ((bytesCount = fis.read(byteArray)) != -1) {
-                digest.update(byteArray, 0, bytesCount);
-            }
-            
-            fis.close();
-            
-            byte[] bytes = digest.digest();
-            StringBuilder sb = new StringBuilder();
-            
-            for (int i = 0; i < bytes.length; i++) {
-                sb.append(Integer.toString((bytes[i] & 0xff) + 0x100, 16).substring(1));
-            }
-            
-            return sb.toString();
-        } catch (IOException | NoSuchAlgorithmException e) {
-            System.err.println("Error computing SHA-256 hash for file: " + filePath);
+            return toHex(sha256(path));
+        } catch (IOException e) {
+            System.err.println("Error computing SHA-256 hash for file: " + path);
+            e.printStackTrace();
+            return "";
+        }
+    }
+
+    /**
+     * Compute the hash of a file with the given algorithm.
+     *
+     * @param path The path to the file
+     * @param algorithm The algorithm name, see {@link HashProviders}
+     * @return The hash as a hexadecimal string, or empty string if the file cannot be read
+     */
+    public static String computeHash(Path path, String algorithm) {
+        try {
+            return toHex(hash(path, algorithm));
+        } catch (IOException e) {
+            System.err.println("Error computing " + algorithm + " hash for file: " + path);
             e.printStackTrace();
             return "";
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Compute the raw SHA-256 digest of a file.
+     *
+     * @param path The path to the file
+     * @return The 32-byte digest
+     * @throws IOException if the file cannot be read
+     */
+    public static byte[] sha256(Path path) throws IOException {
+        return hash(path, HashProviders.DEFAULT);
+    }
+
+    /**
+     * Compute the raw digest of a file with the given algorithm.
+     *
+     * @param path The path to the file
+     * @param algorithm The algorithm name, see {@link HashProviders}
+     * @return The digest bytes
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the algorithm is unknown
+     */
+    public static byte[] hash(Path path, String algorithm) throws IOException {
+        HashProvider.Hasher hasher = HASHERS.get()
+            .computeIfAbsent(algorithm, name -> HashProviders.get(name).newHasher());
+        try {
+            update(hasher, path);
+        } catch (IOException | RuntimeException e) {
+            hasher.reset(); // Leave the shared state clean for the next call
+            throw e;
+        }
+        return hasher.digest();
+    }
+
+    /**
+     * Feed the contents of a file into a hasher.
+     *
+     * @param hasher The hasher to update
+     * @param path The path to the file
+     * @throws IOException if the file cannot be read
+     */
+    public static void update(HashProvider.Hasher hasher, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = BUFFERS.get();
+            long position = 0;
+            buffer.clear();
+            int read;
+            while ((read = channel.read(buffer, position)) != -1) {
+                position += read;
+                buffer.flip();
+                hasher.update(buffer);
+                buffer.clear();
+            }
+        }
+    }
+
+    /**
+     * Encode bytes as lower-case hexadecimal.
+     *
+     * @param bytes The bytes to encode
+     * @return The hexadecimal string
+     */
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xff;
+            chars[i * 2] = HEX[b >>> 4];
+            chars[i * 2 + 1] = HEX[b & 0x0f];
+        }
+        return new String(chars);
+    }
+}
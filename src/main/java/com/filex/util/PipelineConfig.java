@@ -0,0 +1,230 @@
+package com.filex.util;
+
+/**
+ * Configuration for the event ingestion pipeline.
+ * Holds queue depths, backpressure policies and batching limits for every stage.
+ */
+public class PipelineConfig {
+    private int rawQueueDepth;            // Watcher -> hash/classify workers
+    private BackpressurePolicy rawQueuePolicy;
+    private int writeQueueDepth;          // Workers -> database writer
+    private BackpressurePolicy writeQueuePolicy;
+    private int uiQueueDepth;             // Database writer -> UI fan-out
+    private BackpressurePolicy uiQueuePolicy;
+    private int workerThreads;
+    private int writerBatchSize;
+    private long writerMaxDelayMillis;
+    private long shutdownDrainMillis;      // How long stopping waits for queued events to be persisted
+    private double rescanFilesPerSecond;   // I/O budget for overflow rescans
+    private long coalesceQuietMillis;      // Per-path quiet period before a burst is released, 0 disables
+    private long coalesceMaxDelayMillis;   // Longest a busy path is held back
+    private long quickHashThresholdBytes;  // Files this large get a quick hash at event time
+    private double hashUpgradeBytesPerSecond; // I/O budget for upgrading quick hashes to full hashes
+    private long hashCacheMemoryBytes;     // Memory budget of the in-memory hash cache
+    private int baselineHashThreads;
+    private double baselineBytesPerSecond; // I/O budget for the baseline scan
+    private int baselineBatchSize;         // Fingerprints saved per baseline transaction
+
+    /**
+     * Default constructor with default values
+     */
+    public PipelineConfig() {
+        this.rawQueueDepth = 10_000;
+        this.rawQueuePolicy = BackpressurePolicy.SPILL;
+        this.writeQueueDepth = 5_000;
+        this.writeQueuePolicy = BackpressurePolicy.BLOCK;
+        this.uiQueueDepth = 1_000;
+        this.uiQueuePolicy = BackpressurePolicy.DROP_OLDEST;
+        this.workerThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        this.writerBatchSize = 500;
+        this.writerMaxDelayMillis = 200;
+        this.shutdownDrainMillis = 30_000;
+        this.rescanFilesPerSecond = 2_000;
+        this.coalesceQuietMillis = 250;
+        this.coalesceMaxDelayMillis = 2_000;
+        this.quickHashThresholdBytes = 16L << 20;
+        this.hashUpgradeBytesPerSecond = 32L << 20;
+        this.hashCacheMemoryBytes = 32L << 20;
+        this.baselineHashThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.baselineBytesPerSecond = 64L << 20;
+        this.baselineBatchSize = 5_000;
+    }
+
+    // Getters and setters
+    public int getRawQueueDepth() {
+        return rawQueueDepth;
+    }
+
+    public void setRawQueueDepth(int rawQueueDepth) {
+        this.rawQueueDepth = rawQueueDepth;
+    }
+
+    public BackpressurePolicy getRawQueuePolicy() {
+        return rawQueuePolicy;
+    }
+
+    public void setRawQueuePolicy(BackpressurePolicy rawQueuePolicy) {
+        this.rawQueuePolicy = rawQueuePolicy;
+    }
+
+    public int getWriteQueueDepth() {
+        return writeQueueDepth;
+    }
+
+    public void setWriteQueueDepth(int writeQueueDepth) {
+        this.writeQueueDepth = writeQueueDepth;
+    }
+
+    public BackpressurePolicy getWriteQueuePolicy() {
+        return writeQueuePolicy;
+    }
+
+    public void setWriteQueuePolicy(BackpressurePolicy writeQueuePolicy) {
+        this.writeQueuePolicy = writeQueuePolicy;
+    }
+
+    public int getUiQueueDepth() {
+        return uiQueueDepth;
+    }
+
+    public void setUiQueueDepth(int uiQueueDepth) {
+        this.uiQueueDepth = uiQueueDepth;
+    }
+
+    public BackpressurePolicy getUiQueuePolicy() {
+        return uiQueuePolicy;
+    }
+
+    public void setUiQueuePolicy(BackpressurePolicy uiQueuePolicy) {
+        this.uiQueuePolicy = uiQueuePolicy;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public int getWriterBatchSize() {
+        return writerBatchSize;
+    }
+
+    public void setWriterBatchSize(int writerBatchSize) {
+        this.writerBatchSize = writerBatchSize;
+    }
+
+    public long getWriterMaxDelayMillis() {
+        return writerMaxDelayMillis;
+    }
+
+    public void setWriterMaxDelayMillis(long writerMaxDelayMillis) {
+        this.writerMaxDelayMillis = writerMaxDelayMillis;
+    }
+
+    public long getShutdownDrainMillis() {
+        return shutdownDrainMillis;
+    }
+
+    public void setShutdownDrainMillis(long shutdownDrainMillis) {
+        this.shutdownDrainMillis = shutdownDrainMillis;
+    }
+
+    public double getRescanFilesPerSecond() {
+        return rescanFilesPerSecond;
+    }
+
+    public void setRescanFilesPerSecond(double rescanFilesPerSecond) {
+        this.rescanFilesPerSecond = rescanFilesPerSecond;
+    }
+
+    public long getCoalesceQuietMillis() {
+        return coalesceQuietMillis;
+    }
+
+    public void setCoalesceQuietMillis(long coalesceQuietMillis) {
+        this.coalesceQuietMillis = coalesceQuietMillis;
+    }
+
+    public long getCoalesceMaxDelayMillis() {
+        return coalesceMaxDelayMillis;
+    }
+
+    public void setCoalesceMaxDelayMillis(long coalesceMaxDelayMillis) {
+        this.coalesceMaxDelayMillis = coalesceMaxDelayMillis;
+    }
+
+    public long getQuickHashThresholdBytes() {
+        return quickHashThresholdBytes;
+    }
+
+    public void setQuickHashThresholdBytes(long quickHashThresholdBytes) {
+        this.quickHashThresholdBytes = quickHashThresholdBytes;
+    }
+
+    public double getHashUpgradeBytesPerSecond() {
+        return hashUpgradeBytesPerSecond;
+    }
+
+    public void setHashUpgradeBytesPerSecond(double hashUpgradeBytesPerSecond) {
+        this.hashUpgradeBytesPerSecond = hashUpgradeBytesPerSecond;
+    }
+
+    public long getHashCacheMemoryBytes() {
+        return hashCacheMemoryBytes;
+    }
+
+    public void setHashCacheMemoryBytes(long hashCacheMemoryBytes) {
+        this.hashCacheMemoryBytes = hashCacheMemoryBytes;
+    }
+
+    public int getBaselineHashThreads() {
+        return baselineHashThreads;
+    }
+
+    public void setBaselineHashThreads(int baselineHashThreads) {
+        this.baselineHashThreads = baselineHashThreads;
+    }
+
+    public double getBaselineBytesPerSecond() {
+        return baselineBytesPerSecond;
+    }
+
+    public void setBaselineBytesPerSecond(double baselineBytesPerSecond) {
+        this.baselineBytesPerSecond = baselineBytesPerSecond;
+    }
+
+    public int getBaselineBatchSize() {
+        return baselineBatchSize;
+    }
+
+    public void setBaselineBatchSize(int baselineBatchSize) {
+        this.baselineBatchSize = baselineBatchSize;
+    }
+
+    @Override
+    public String toString() {
+        return "PipelineConfig{" +
+                "rawQueueDepth=" + rawQueueDepth +
+                ", rawQueuePolicy=" + rawQueuePolicy +
+                ", writeQueueDepth=" + writeQueueDepth +
+                ", writeQueuePolicy=" + writeQueuePolicy +
+                ", uiQueueDepth=" + uiQueueDepth +
+                ", uiQueuePolicy=" + uiQueuePolicy +
+                ", workerThreads=" + workerThreads +
+                ", writerBatchSize=" + writerBatchSize +
+                ", writerMaxDelayMillis=" + writerMaxDelayMillis +
+                ", shutdownDrainMillis=" + shutdownDrainMillis +
+                ", rescanFilesPerSecond=" + rescanFilesPerSecond +
+                ", coalesceQuietMillis=" + coalesceQuietMillis +
+                ", coalesceMaxDelayMillis=" + coalesceMaxDelayMillis +
+                ", quickHashThresholdBytes=" + quickHashThresholdBytes +
+                ", hashUpgradeBytesPerSecond=" + hashUpgradeBytesPerSecond +
+                ", hashCacheMemoryBytes=" + hashCacheMemoryBytes +
+                ", baselineHashThreads=" + baselineHashThreads +
+                ", baselineBytesPerSecond=" + baselineBytesPerSecond +
+                ", baselineBatchSize=" + baselineBatchSize +
+                '}';
+    }
+}
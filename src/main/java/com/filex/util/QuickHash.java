@@ -0,0 +1,83 @@
+package com.filex.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Quick fingerprint of a large file: xxHash64 over the file size, the first and
+ * last {@link #EDGE_BYTES} and {@link #SAMPLES} evenly spaced interior blocks.
+ *
+ * It reads a fixed ~200 KB however big the file is, so it is cheap enough to run
+ * on every event. It detects appends, truncation and most in-place edits, but an
+ * edit that falls entirely between samples goes unnoticed, so a quick hash is only
+ * a provisional stand-in for the full hash.
+ */
+public class QuickHash {
+
+    public static final String ALGORITHM = XxHash64Provider.NAME;
+
+    static final int EDGE_BYTES = 64 * 1024;
+    static final int SAMPLE_BYTES = 16 * 1024;
+    static final int SAMPLES = 4;
+
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(
+        () -> ByteBuffer.allocateDirect(EDGE_BYTES).order(ByteOrder.LITTLE_ENDIAN));
+
+    private static final ThreadLocal<HashProvider.Hasher> HASHERS = ThreadLocal.withInitial(
+        () -> HashProviders.get(ALGORITHM).newHasher());
+
+    /**
+     * Compute the quick fingerprint of a file.
+     *
+     * @param path The path to the file
+     * @return The quick hash as a hexadecimal string
+     * @throws IOException if the file cannot be read
+     */
+    public static String compute(Path path) throws IOException {
+        HashProvider.Hasher hasher = HASHERS.get();
+        ByteBuffer buffer = BUFFERS.get();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            // The size is part of the fingerprint, so appends and truncation always show
+            buffer.clear();
+            buffer.putLong(size).flip();
+            hasher.update(buffer);
+
+            if (size <= 2L * EDGE_BYTES + (long) SAMPLES * SAMPLE_BYTES) {
+                hashRange(channel, buffer, hasher, 0, size);
+            } else {
+                hashRange(channel, buffer, hasher, 0, EDGE_BYTES);
+                long interior = size - 2L * EDGE_BYTES;
+                for (int i = 1; i <= SAMPLES; i++) {
+                    long offset = EDGE_BYTES + interior * i / (SAMPLES + 1) - SAMPLE_BYTES / 2;
+                    hashRange(channel, buffer, hasher, offset, SAMPLE_BYTES);
+                }
+                hashRange(channel, buffer, hasher, size - EDGE_BYTES, EDGE_BYTES);
+            }
+        } catch (IOException | RuntimeException e) {
+            hasher.reset();
+            throw e;
+        }
+        return HashUtil.toHex(hasher.digest());
+    }
+
+    private static void hashRange(FileChannel channel, ByteBuffer buffer, HashProvider.Hasher hasher,
+                                  long position, long length) throws IOException {
+        long end = position + length;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return; // Truncated while reading; the size already differs
+            }
+            position += read;
+            buffer.flip();
+            hasher.update(buffer);
+        }
+    }
+}
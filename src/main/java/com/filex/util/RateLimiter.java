@@ -0,0 +1,55 @@
+package com.filex.util;
+
+/**
+ * Simple token-bucket rate limiter used to throttle background I/O.
+ * Permits can be files, bytes or any other unit; callers block in
+ * {@link #acquire(long)} until enough permits have accumulated.
+ */
+public class RateLimiter {
+    private final double permitsPerSecond;
+    private final double maxBurst;
+    private double available;
+    private long lastRefillNanos;
+
+    /**
+     * Constructor
+     *
+     * @param permitsPerSecond The sustained rate, or 0 for unlimited
+     */
+    public RateLimiter(double permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxBurst = Math.max(1, permitsPerSecond); // At most one second of burst
+        this.available = maxBurst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Block until the given number of permits is available and consume them.
+     *
+     * @param permits The number of permits needed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized void acquire(long permits) throws InterruptedException {
+        if (permitsPerSecond <= 0) {
+            return;
+        }
+        refill();
+        available -= permits;
+        if (available < 0) {
+            // Sleep off the debt; large requests may briefly exceed the burst size
+            long sleepMillis = (long) Math.ceil(-available / permitsPerSecond * 1000);
+            wait(sleepMillis);
+            refill();
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        available = Math.min(maxBurst, available + (now - lastRefillNanos) / 1_000_000_000.0 * permitsPerSecond);
+        lastRefillNanos = now;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+}
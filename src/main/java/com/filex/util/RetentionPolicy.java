@@ -0,0 +1,99 @@
+package com.filex.util;
+
+/**
+ * How long the database keeps each kind of data, and how the background
+ * maintenance that enforces it shares the writer with ingestion.
+ * A retention of 0 keeps that data forever.
+ */
+public class RetentionPolicy {
+    private int eventRetentionDays;             // Raw file events
+    private int minuteRollupRetentionDays;      // Minute buckets of the rollups
+    private int rollupRetentionMonths;          // Hour and day buckets of the rollups
+    private int acknowledgedAlertRetentionDays; // Counted from acknowledgement; open alerts are kept
+    private long maintenanceIntervalMillis;     // Time between maintenance runs
+    private long maintenanceSliceMillis;        // Longest the writer lock is held per step
+    private long maintenancePauseMillis;        // Pause between steps, left to ingestion
+
+    /**
+     * Default constructor with default values
+     */
+    public RetentionPolicy() {
+        this.eventRetentionDays = 90;
+        this.minuteRollupRetentionDays = 14;
+        this.rollupRetentionMonths = 24;
+        this.acknowledgedAlertRetentionDays = 30;
+        this.maintenanceIntervalMillis = 15 * 60 * 1000;
+        this.maintenanceSliceMillis = 20;
+        this.maintenancePauseMillis = 20;
+    }
+
+    // Getters and setters
+    public int getEventRetentionDays() {
+        return eventRetentionDays;
+    }
+
+    public void setEventRetentionDays(int eventRetentionDays) {
+        this.eventRetentionDays = eventRetentionDays;
+    }
+
+    public int getMinuteRollupRetentionDays() {
+        return minuteRollupRetentionDays;
+    }
+
+    public void setMinuteRollupRetentionDays(int minuteRollupRetentionDays) {
+        this.minuteRollupRetentionDays = minuteRollupRetentionDays;
+    }
+
+    public int getRollupRetentionMonths() {
+        return rollupRetentionMonths;
+    }
+
+    public void setRollupRetentionMonths(int rollupRetentionMonths) {
+        this.rollupRetentionMonths = rollupRetentionMonths;
+    }
+
+    public int getAcknowledgedAlertRetentionDays() {
+        return acknowledgedAlertRetentionDays;
+    }
+
+    public void setAcknowledgedAlertRetentionDays(int acknowledgedAlertRetentionDays) {
+        this.acknowledgedAlertRetentionDays = acknowledgedAlertRetentionDays;
+    }
+
+    public long getMaintenanceIntervalMillis() {
+        return maintenanceIntervalMillis;
+    }
+
+    public void setMaintenanceIntervalMillis(long maintenanceIntervalMillis) {
+        this.maintenanceIntervalMillis = maintenanceIntervalMillis;
+    }
+
+    public long getMaintenanceSliceMillis() {
+        return maintenanceSliceMillis;
+    }
+
+    public void setMaintenanceSliceMillis(long maintenanceSliceMillis) {
+        this.maintenanceSliceMillis = maintenanceSliceMillis;
+    }
+
+    public long getMaintenancePauseMillis() {
+        return maintenancePauseMillis;
+    }
+
+    public void setMaintenancePauseMillis(long maintenancePauseMillis) {
+        this.maintenancePauseMillis = maintenancePauseMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "RetentionPolicy{" +
+                "eventRetentionDays=" + eventRetentionDays +
+                ", minuteRollupRetentionDays=" + minuteRollupRetentionDays +
+                ", rollupRetentionMonths=" + rollupRetentionMonths +
+                ", acknowledgedAlertRetentionDays=" + acknowledgedAlertRetentionDays +
+                ", maintenanceIntervalMillis=" + maintenanceIntervalMillis +
+                ", maintenanceSliceMillis=" + maintenanceSliceMillis +
+                ", maintenancePauseMillis=" + maintenancePauseMillis +
+                '}';
+    }
+}
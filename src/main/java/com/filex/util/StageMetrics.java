@@ -0,0 +1,120 @@
+package com.filex.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput and latency counters for a single pipeline stage.
+ * All methods are thread-safe and cheap enough to call once per item.
+ */
+public class StageMetrics {
+    private final String name;
+    private final long startNanos = System.nanoTime();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder serviceNanos = new LongAdder();
+    private final AtomicLong maxServiceNanos = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param name The stage name used in reports
+     */
+    public StageMetrics(String name) {
+        this.name = name;
+    }
+
+    public void recordReceived() {
+        received.increment();
+    }
+
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    public void recordSpilled() {
+        spilled.increment();
+    }
+
+    public void recordQueueWait(long nanos) {
+        queueWaitNanos.add(nanos);
+    }
+
+    /**
+     * Record that the stage finished work on a number of items.
+     *
+     * @param items The number of items handled in this call
+     * @param nanos The time spent handling them
+     */
+    public void recordProcessed(int items, long nanos) {
+        processed.add(items);
+        serviceNanos.add(nanos);
+        maxServiceNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    public long getProcessed() {
+        return processed.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getSpilled() {
+        return spilled.sum();
+    }
+
+    /**
+     * Get the average time an item waited in the queue in front of this stage.
+     *
+     * @return Average queue wait in milliseconds
+     */
+    public double getAverageQueueWaitMillis() {
+        long count = processed.sum();
+        return count == 0 ? 0 : queueWaitNanos.sum() / 1_000_000.0 / count;
+    }
+
+    /**
+     * Get the average time the stage spent on a single item.
+     *
+     * @return Average service time in milliseconds
+     */
+    public double getAverageServiceMillis() {
+        long count = processed.sum();
+        return count == 0 ? 0 : serviceNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public double getMaxServiceMillis() {
+        return maxServiceNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Get the number of items processed per second since the stage was created.
+     *
+     * @return Items per second
+     */
+    public double getThroughputPerSecond() {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        return seconds <= 0 ? 0 : processed.sum() / seconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{received=%d, processed=%d, dropped=%d, spilled=%d, " +
+                        "throughput=%.1f/s, avgWait=%.2fms, avgService=%.2fms, maxService=%.2fms}",
+                name, getReceived(), getProcessed(), getDropped(), getSpilled(),
+                getThroughputPerSecond(), getAverageQueueWaitMillis(),
+                getAverageServiceMillis(), getMaxServiceMillis());
+    }
+}
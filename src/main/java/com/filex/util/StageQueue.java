@@ -0,0 +1,205 @@
+package com.filex.util;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded hand-off queue between two pipeline stages.
+ * The queue applies a {@link BackpressurePolicy} when it is full and records
+ * queue wait times into the {@link StageMetrics} of the consuming stage.
+ * Consumers waiting in {@link #poll} are woken by items added to either the
+ * bounded part or the spill buffer.
+ *
+ * @param <T> The item type
+ */
+public class StageQueue<T> {
+
+    private static final class Slot<T> {
+        final T item;
+        final long enqueuedAt;
+
+        Slot(T item) {
+            this.item = item;
+            this.enqueuedAt = System.nanoTime();
+        }
+    }
+
+    private final ArrayBlockingQueue<Slot<T>> queue;
+    private final ConcurrentLinkedQueue<Slot<T>> spill = new ConcurrentLinkedQueue<>();
+    private final Object spillLock = new Object();
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition notEmpty = waitLock.newCondition();
+    private final AtomicInteger waiting = new AtomicInteger(); // Consumers blocked in poll
+    private final BackpressurePolicy policy;
+    private final StageMetrics metrics;
+    private final Consumer<? super T> dropHandler;
+
+    /**
+     * Constructor
+     *
+     * @param capacity The maximum number of items held in the bounded part of the queue
+     * @param policy The policy applied when the queue is full
+     * @param metrics The metrics of the stage consuming from this queue
+     */
+    public StageQueue(int capacity, BackpressurePolicy policy, StageMetrics metrics) {
+        this(capacity, policy, metrics, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param capacity The maximum number of items held in the bounded part of the queue
+     * @param policy The policy applied when the queue is full
+     * @param metrics The metrics of the stage consuming from this queue
+     * @param dropHandler Given each item discarded by {@link BackpressurePolicy#DROP_OLDEST}, may be null
+     */
+    public StageQueue(int capacity, BackpressurePolicy policy, StageMetrics metrics, Consumer<? super T> dropHandler) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.policy = policy;
+        this.metrics = metrics;
+        this.dropHandler = dropHandler;
+    }
+
+    /**
+     * Offer an item to the queue, applying the backpressure policy if it is full.
+     *
+     * @param item The item to enqueue
+     * @return false if an item had to be dropped to accept this one
+     * @throws InterruptedException if interrupted while blocking
+     */
+    public boolean offer(T item) throws InterruptedException {
+        metrics.recordReceived();
+        Slot<T> slot = new Slot<>(item);
+        switch (policy) {
+            case BLOCK:
+                queue.put(slot);
+                signalNotEmpty();
+                return true;
+            case DROP_OLDEST:
+                boolean droppedAny = false;
+                while (!queue.offer(slot)) {
+                    Slot<T> dropped = queue.poll();
+                    if (dropped != null) {
+                        metrics.recordDropped();
+                        droppedAny = true;
+                        if (dropHandler != null) {
+                            dropHandler.accept(dropped.item);
+                        }
+                    }
+                }
+                signalNotEmpty();
+                return !droppedAny;
+            case SPILL:
+            default:
+                synchronized (spillLock) {
+                    // Once anything has spilled, keep spilling so that ordering is preserved
+                    if (!spill.isEmpty() || !queue.offer(slot)) {
+                        spill.add(slot);
+                        metrics.recordSpilled();
+                    }
+                }
+                signalNotEmpty();
+                return true;
+        }
+    }
+
+    /**
+     * Take the next item, waiting up to the given timeout.
+     *
+     * @param timeout How long to wait
+     * @param unit The unit of the timeout
+     * @return The next item, or null if none arrived in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        Slot<T> slot = next();
+        if (slot == null) {
+            long nanos = unit.toNanos(timeout);
+            waitLock.lockInterruptibly();
+            waiting.incrementAndGet();
+            try {
+                // Producers check the waiting count after adding, so an item added from here on is signalled
+                while ((slot = next()) == null) {
+                    if (nanos <= 0) {
+                        return null;
+                    }
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+            } finally {
+                waiting.decrementAndGet();
+                waitLock.unlock();
+            }
+        }
+        metrics.recordQueueWait(System.nanoTime() - slot.enqueuedAt);
+        return slot.item;
+    }
+
+    private Slot<T> next() {
+        Slot<T> slot = queue.poll();
+        return slot != null ? slot : spill.poll();
+    }
+
+    /**
+     * Wake a consumer blocked in poll, if there is one.
+     */
+    private void signalNotEmpty() {
+        if (waiting.get() == 0) {
+            return; // Keeps the uncontended path free of locking
+        }
+        waitLock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            waitLock.unlock();
+        }
+    }
+
+    /**
+     * Move up to {@code max} immediately available items into the target list.
+     *
+     * @param target The list to add items to
+     * @param max The maximum number of items to move
+     * @return The number of items moved
+     */
+    public int drainTo(List<T> target, int max) {
+        int count = 0;
+        long now = System.nanoTime();
+        while (count < max) {
+            Slot<T> slot = next();
+            if (slot == null) {
+                break;
+            }
+            metrics.recordQueueWait(now - slot.enqueuedAt);
+            target.add(slot.item);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of items currently waiting, including spilled ones.
+     *
+     * @return The queue depth
+     */
+    public int size() {
+        return queue.size() + spill.size();
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty() && spill.isEmpty();
+    }
+
+    public BackpressurePolicy getPolicy() {
+        return policy;
+    }
+
+    public StageMetrics getMetrics() {
+        return metrics;
+    }
+}
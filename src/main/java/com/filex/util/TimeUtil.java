@@ -0,0 +1,57 @@
+package com.filex.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+
+/**
+ * Utility class for converting between {@link LocalDateTime} and the epoch
+ * milliseconds the database stores.
+ *
+ * Times are stored as INTEGER milliseconds since 1970-01-01T00:00Z, which SQLite
+ * compares and indexes as plain integers. {@code LocalDateTime} values are in the
+ * system time zone and are only used at the API boundary.
+ */
+public class TimeUtil {
+
+    private static final ZoneRules RULES = ZoneId.systemDefault().getRules();
+
+    /**
+     * Convert a local date-time to epoch milliseconds.
+     *
+     * @param dateTime The date-time in the system time zone
+     * @return Milliseconds since the epoch
+     */
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        ZoneOffset offset = RULES.getOffset(dateTime);
+        return dateTime.toEpochSecond(offset) * 1000 + dateTime.getNano() / 1_000_000;
+    }
+
+    /**
+     * Convert epoch milliseconds to a local date-time.
+     *
+     * @param epochMillis Milliseconds since the epoch
+     * @return The date-time in the system time zone
+     */
+    public static LocalDateTime fromEpochMillis(long epochMillis) {
+        long seconds = Math.floorDiv(epochMillis, 1000);
+        int nanos = Math.floorMod(epochMillis, 1000) * 1_000_000;
+        ZoneOffset offset = RULES.getOffset(Instant.ofEpochSecond(seconds));
+        return LocalDateTime.ofEpochSecond(seconds, nanos, offset);
+    }
+
+    /**
+     * Parse a date-time stored as text by older versions, such as SQLite's
+     * {@code CURRENT_TIMESTAMP} ("yyyy-MM-dd HH:mm:ss", UTC).
+     *
+     * @param text The stored text
+     * @param utc Whether the text is in UTC rather than the system time zone
+     * @return The date-time in the system time zone
+     */
+    public static LocalDateTime parseLegacy(String text, boolean utc) {
+        LocalDateTime parsed = LocalDateTime.parse(text.trim().replace(' ', 'T'));
+        return utc ? fromEpochMillis(parsed.toInstant(ZoneOffset.UTC).toEpochMilli()) : parsed;
+    }
+}
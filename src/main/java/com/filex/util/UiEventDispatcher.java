@@ -0,0 +1,205 @@
+package com.filex.util;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers items from background threads to the UI in batches, once per frame,
+ * instead of one {@code Platform.runLater} per item.
+ *
+ * {@link #submit(Object)} only adds to a lock-free queue. While items are queued an
+ * {@link AnimationTimer} drains them on each pulse and hands them to the handler in
+ * lists of at most {@code maxBatch}, until the frame's time budget is used up; the
+ * rest waits for the next frame. When items arrive faster than the UI takes them,
+ * the oldest are dropped once {@code capacity} are queued, and the next batch says
+ * how many were dropped so the UI can show e.g. "N more events" instead.
+ *
+ * @param <T> The item type
+ */
+public class UiEventDispatcher<T> {
+
+    public static final int DEFAULT_CAPACITY = 5_000;
+    public static final int DEFAULT_MAX_BATCH = 500;
+    public static final long DEFAULT_FRAME_BUDGET_NANOS = 4_000_000; // A quarter of a 60 Hz frame
+
+    /**
+     * Receives the drained items on the UI thread.
+     *
+     * @param <T> The item type
+     */
+    public interface BatchHandler<T> {
+        /**
+         * Handle a batch of items, oldest first.
+         *
+         * @param items The items
+         * @param dropped The number of items dropped since the previous batch, for a summary
+         */
+        void onBatch(List<T> items, int dropped);
+    }
+
+    /**
+     * Runs the drain once per frame on the UI thread, from start until stop.
+     */
+    interface FrameSource {
+        void start(Runnable onFrame);
+
+        void stop();
+    }
+
+    private final BatchHandler<T> handler;
+    private final int capacity;
+    private final int maxBatch;
+    private final long frameBudgetNanos;
+    private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final FrameSource frames;
+
+    /**
+     * Constructor with the default capacity, batch size and frame budget.
+     *
+     * @param handler The handler to give batches to on the UI thread
+     */
+    public UiEventDispatcher(BatchHandler<T> handler) {
+        this(handler, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH, DEFAULT_FRAME_BUDGET_NANOS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param handler The handler to give batches to on the UI thread
+     * @param capacity The number of items queued before the oldest are dropped
+     * @param maxBatch The maximum number of items in a batch
+     * @param frameBudgetNanos The time to spend draining in one frame
+     */
+    public UiEventDispatcher(BatchHandler<T> handler, int capacity, int maxBatch, long frameBudgetNanos) {
+        this(handler, capacity, maxBatch, frameBudgetNanos, new AnimationFrames());
+    }
+
+    /**
+     * Constructor with the frames to drain on, for tests without a running toolkit.
+     */
+    UiEventDispatcher(BatchHandler<T> handler, int capacity, int maxBatch, long frameBudgetNanos,
+                      FrameSource frames) {
+        this.handler = handler;
+        this.capacity = capacity;
+        this.maxBatch = maxBatch;
+        this.frameBudgetNanos = frameBudgetNanos;
+        this.frames = frames;
+    }
+
+    /**
+     * Queue an item for the UI. Safe to call from any thread; never blocks.
+     *
+     * @param item The item
+     */
+    public void submit(T item) {
+        if (closed.get()) {
+            return;
+        }
+        queue.offer(item);
+        if (queued.incrementAndGet() > capacity && queue.poll() != null) {
+            queued.decrementAndGet();
+            dropped.incrementAndGet();
+        }
+        schedule();
+    }
+
+    /**
+     * Get the number of items waiting for the UI.
+     *
+     * @return The queue length
+     */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    /**
+     * Stop delivering items. Items still queued are discarded.
+     */
+    public void close() {
+        closed.set(true);
+        queue.clear();
+        queued.set(0);
+        frames.stop();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            frames.start(this::drain);
+        }
+    }
+
+    /**
+     * Hand queued items to the handler until the frame's budget is used up, and stop
+     * the timer once the queue is empty so an idle UI costs nothing.
+     */
+    private void drain() {
+        long deadline = System.nanoTime() + frameBudgetNanos;
+        while (!closed.get()) {
+            List<T> batch = new ArrayList<>(Math.min(maxBatch, Math.max(1, queued.get())));
+            T item;
+            while (batch.size() < maxBatch && (item = queue.poll()) != null) {
+                batch.add(item);
+            }
+            queued.addAndGet(-batch.size());
+            int droppedSince = dropped.getAndSet(0);
+            if (batch.isEmpty() && droppedSince == 0) {
+                frames.stop();
+                scheduled.set(false);
+                if (!queue.isEmpty()) {
+                    schedule(); // Submitted while stopping
+                }
+                return;
+            }
+            try {
+                handler.onBatch(batch, droppedSince);
+            } catch (RuntimeException e) {
+                System.err.println("Error delivering events to UI: " + e.getMessage());
+                e.printStackTrace();
+            }
+            if (System.nanoTime() >= deadline) {
+                return;
+            }
+        }
+        frames.stop();
+    }
+
+    /**
+     * Frames of an {@link AnimationTimer}, created on the UI thread once the toolkit is running.
+     */
+    private static class AnimationFrames implements FrameSource {
+        private AnimationTimer timer;
+
+        @Override
+        public void start(Runnable onFrame) {
+            FXUtil.runOnUiThread(() -> {
+                if (timer == null) {
+                    timer = new AnimationTimer() {
+                        @Override
+                        public void handle(long now) {
+                            onFrame.run();
+                        }
+                    };
+                }
+                timer.start();
+            });
+        }
+
+        @Override
+        public void stop() {
+            FXUtil.runOnUiThread(() -> {
+                if (timer != null) {
+                    timer.stop();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.filex.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Pure-Java xxHash64 (seed 0), a fast non-cryptographic hash.
+ * Digests are the 64-bit value in big-endian (canonical) byte order.
+ */
+public class XxHash64Provider implements HashProvider {
+
+    public static final String NAME = "XXH64";
+
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getDigestLength() {
+        return 8;
+    }
+
+    @Override
+    public boolean isCryptographic() {
+        return false;
+    }
+
+    @Override
+    public Hasher newHasher() {
+        return new XxHasher();
+    }
+
+    /**
+     * Hash a byte array in one call.
+     *
+     * @param data The data
+     * @param offset The start offset
+     * @param length The number of bytes
+     * @return The 64-bit hash
+     */
+    public static long hash(byte[] data, int offset, int length) {
+        XxHasher hasher = new XxHasher();
+        hasher.update(ByteBuffer.wrap(data, offset, length));
+        return hasher.finish();
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long mergeRound(long acc, long value) {
+        acc ^= round(0, value);
+        return acc * P1 + P4;
+    }
+
+    private static class XxHasher implements Hasher {
+        private final ByteBuffer pending = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+        private long v1, v2, v3, v4;
+        private long totalLength;
+
+        XxHasher() {
+            reset();
+        }
+
+        @Override
+        public void reset() {
+            v1 = P1 + P2;
+            v2 = P2;
+            v3 = 0;
+            v4 = -P1;
+            totalLength = 0;
+            pending.clear();
+        }
+
+        @Override
+        public void update(ByteBuffer data) {
+            totalLength += data.remaining();
+            ByteBuffer in = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+            data.position(data.limit());
+
+            // Top up a partial stripe left over from the previous call
+            if (pending.position() > 0) {
+                while (pending.hasRemaining() && in.hasRemaining()) {
+                    pending.put(in.get());
+                }
+                if (pending.hasRemaining()) {
+                    return;
+                }
+                stripe(pending, 0);
+                pending.clear();
+            }
+
+            int position = in.position();
+            int limit = in.limit();
+            while (limit - position >= 32) {
+                stripe(in, position);
+                position += 32;
+            }
+            in.position(position);
+            pending.put(in);
+        }
+
+        private void stripe(ByteBuffer buffer, int at) {
+            v1 = round(v1, buffer.getLong(at));
+            v2 = round(v2, buffer.getLong(at + 8));
+            v3 = round(v3, buffer.getLong(at + 16));
+            v4 = round(v4, buffer.getLong(at + 24));
+        }
+
+        long finish() {
+            long h;
+            if (totalLength >= 32) {
+                h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+                h = mergeRound(h, v1);
+                h = mergeRound(h, v2);
+                h = mergeRound(h, v3);
+                h = mergeRound(h, v4);
+            } else {
+                h = P5;
+            }
+            h += totalLength;
+
+            int length = pending.position();
+            int i = 0;
+            for (; i + 8 <= length; i += 8) {
+                h ^= round(0, pending.getLong(i));
+                h = Long.rotateLeft(h, 27) * P1 + P4;
+            }
+            if (i + 4 <= length) {
+                h ^= (pending.getInt(i) & 0xFFFFFFFFL) * P1;
+                h = Long.rotateLeft(h, 23) * P2 + P3;
+                i += 4;
+            }
+            for (; i < length; i++) {
+                h ^= (pending.get(i) & 0xFFL) * P5;
+                h = Long.rotateLeft(h, 11) * P1;
+            }
+
+            h ^= h >>> 33;
+            h *= P2;
+            h ^= h >>> 29;
+            h *= P3;
+            h ^= h >>> 32;
+            reset();
+            return h;
+        }
+
+        @Override
+        public byte[] digest() {
+            return ByteBuffer.allocate(8).putLong(finish()).array();
+        }
+    }
+}
@@ -4,6 +4,9 @@ module com.filex {
     requires javafx.graphics;
     requires java.prefs;
     requires java.sql;
+    requires static jdk.management; // Allocation counters in the benchmark harnesses only
+    
+    uses com.filex.util.HashProvider;
     
     opens com.filex to javafx.fxml;
     opens com.filex.controller to javafx.fxml;
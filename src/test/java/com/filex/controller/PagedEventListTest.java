@@ -0,0 +1,265 @@
+package com.filex.controller;
+
+import com.filex.model.EventQuery;
+import com.filex.model.FileEvent;
+import com.filex.service.DatabaseService;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedEventListTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    private static final int PAGE_SIZE = PagedEventList.PAGE_SIZE;
+    // Twenty full pages and a partial one
+    private static final int EVENTS = 20 * PAGE_SIZE + 50;
+    
+    /**
+     * Runs tasks only when the test asks, on the test's own thread.
+     */
+    private static class ManualExecutor extends AbstractExecutorService {
+        private final Deque<Runnable> tasks = new ArrayDeque<>();
+        private boolean shutdown;
+        
+        @Override
+        public void execute(Runnable task) {
+            if (shutdown) {
+                throw new RejectedExecutionException();
+            }
+            tasks.add(task);
+        }
+        
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+        
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+        
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            List<Runnable> queued = new ArrayList<>(tasks);
+            tasks.clear();
+            return queued;
+        }
+        
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+        
+        @Override
+        public boolean isTerminated() {
+            return shutdown && tasks.isEmpty();
+        }
+        
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return isTerminated();
+        }
+    }
+    
+    private DatabaseService databaseService;
+    private Path dbFile;
+    private String previousUrl;
+    private List<Long> newestFirst;
+    
+    private final ManualExecutor loader = new ManualExecutor();
+    private final ManualExecutor uiThread = new ManualExecutor();
+    private PagedEventList list;
+    // Pages in the order they were shown, and the rows replaced by each change
+    private final List<Integer> installed = new ArrayList<>();
+    private final Map<Integer, FileEvent> replaced = new HashMap<>();
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("filex-paged-list", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+        
+        LocalDateTime start = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<FileEvent> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            // Distinct timestamps, not in id order
+            events.add(new FileEvent("file" + i + ".txt", "MODIFY", start.plusSeconds(i * 7L % EVENTS), "", false));
+        }
+        databaseService.saveEvents(events);
+        newestFirst = databaseService.streamEvents(null, null, false)
+            .sorted(Comparator.comparing(FileEvent::getTimestamp).thenComparing(FileEvent::getId).reversed())
+            .map(FileEvent::getId)
+            .collect(Collectors.toList());
+        
+        list = new PagedEventList(databaseService, EventQuery.newestFirst(), loader, uiThread);
+        list.addListener((ListChangeListener<FileEvent>) change -> {
+            while (change.next()) {
+                if (!change.wasReplaced()) {
+                    continue;
+                }
+                for (int i = 0; i < change.getRemovedSize(); i++) {
+                    int index = change.getFrom() + i;
+                    if (change.getRemoved().get(i) != null) {
+                        replaced.put(index, change.getRemoved().get(i));
+                    } else if (index % PAGE_SIZE == 0) {
+                        installed.add(index / PAGE_SIZE);
+                    }
+                }
+            }
+        });
+        list.start();
+        load();
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        list.close();
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testLoadsRequestedPageBeforeItsNeighbour() {
+        assertEquals(EVENTS, list.size());
+        
+        assertNull(list.get(0));
+        load();
+        
+        assertEquals(List.of(0, 1), installed);
+        assertPageLoaded(0);
+        assertPageLoaded(1);
+        assertTrue(replaced.isEmpty());
+    }
+    
+    @Test
+    void testPagesCountFromTheNearestKnownRow() {
+        list.get(0);
+        load();
+        // 15: from the end, backward; 16: forward from 15; 14: backward from 15
+        list.get(15 * PAGE_SIZE);
+        load();
+        // 8: backward from 14, nearer than forward from 1; 9: forward from 8; 7: backward from 8
+        list.get(8 * PAGE_SIZE);
+        load();
+        // 20, the partial last page: from the end; 19: backward from 20
+        list.get(EVENTS - 1);
+        load();
+        
+        assertEquals(List.of(0, 1, 15, 16, 14, 8, 9, 7, 20, 19), installed);
+        for (int page : installed) {
+            assertPageLoaded(page);
+        }
+        assertEquals(EVENTS - 20 * PAGE_SIZE, rowsLoaded(20));
+    }
+    
+    @Test
+    void testEvictsLeastRecentlyReadPagesWithTheirOldRows() {
+        for (int page = 0; page < PagedEventList.MAX_PAGES; page += 2) {
+            list.get(page * PAGE_SIZE); // Loads the page and the one after it
+            load();
+        }
+        assertEquals(PagedEventList.MAX_PAGES, installed.size());
+        assertTrue(replaced.isEmpty());
+        list.get(0); // Page 1 is now the least recently read
+        
+        list.get(PagedEventList.MAX_PAGES * PAGE_SIZE);
+        load();
+        
+        assertEquals(2 * PAGE_SIZE, replaced.size());
+        for (int index = PAGE_SIZE; index < 3 * PAGE_SIZE; index++) {
+            assertEquals(newestFirst.get(index), replaced.get(index).getId(), "row " + index);
+        }
+        assertPageLoaded(0);
+        assertNull(list.get(PAGE_SIZE));
+        assertNull(list.get(2 * PAGE_SIZE));
+    }
+    
+    @Test
+    void testDropsOldestRequestsOverTheLimit() {
+        // Each read asks for the page before, the page after and then the page itself
+        for (int page = 2; page < 20; page += 3) {
+            list.get(page * PAGE_SIZE);
+        }
+        
+        load();
+        
+        assertEquals(PagedEventList.MAX_PENDING, installed.size());
+        assertEquals(List.of(17, 18, 16, 14, 15, 13, 11, 12), installed);
+        for (int page : installed) {
+            assertPageLoaded(page);
+        }
+        assertNull(list.get(2 * PAGE_SIZE));
+    }
+    
+    @Test
+    void testClosedListLoadsNothing() {
+        list.get(0);
+        list.close();
+        
+        load();
+        
+        assertTrue(installed.isEmpty());
+        assertNull(list.get(0));
+    }
+    
+    /**
+     * Run the queued page loads, then show what they read.
+     */
+    private void load() {
+        loader.runAll();
+        uiThread.runAll();
+    }
+    
+    private void assertPageLoaded(int page) {
+        int end = Math.min(EVENTS, (page + 1) * PAGE_SIZE);
+        for (int index = page * PAGE_SIZE; index < end; index++) {
+            FileEvent event = list.get(index);
+            assertNotNull(event, "row " + index);
+            assertEquals(newestFirst.get(index), event.getId(), "row " + index);
+        }
+    }
+    
+    private int rowsLoaded(int page) {
+        int rows = 0;
+        for (int index = page * PAGE_SIZE; index < Math.min(EVENTS, (page + 1) * PAGE_SIZE); index++) {
+            if (list.get(index) != null) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,102 @@
+package com.filex.service;
+
+import com.filex.model.FileEvent;
+import com.filex.util.BackpressurePolicy;
+import com.filex.util.StageMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncEventWriterTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    
+    private DatabaseService databaseService;
+    private AsyncEventWriter writer;
+    private Path dbFile;
+    private String previousUrl;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        dbFile = Files.createTempFile("filex-writer", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        if (writer != null) {
+            writer.stop();
+        }
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testFailedEventDoesNotFailItsBatch() throws Exception {
+        writer = new AsyncEventWriter(databaseService, 10, 1000, 100, BackpressurePolicy.BLOCK,
+                new StageMetrics("test-writer"));
+        writer.start();
+        
+        CompletableFuture<Long> first = writer.submit(event("good_1.txt", LocalDateTime.now()));
+        CompletableFuture<Long> bad = writer.submit(event("bad.txt", null));
+        CompletableFuture<Long> last = writer.submit(event("good_2.txt", LocalDateTime.now()));
+        
+        assertTrue(first.get(5, TimeUnit.SECONDS) > 0);
+        assertTrue(last.get(5, TimeUnit.SECONDS) > first.get());
+        assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertEquals(2, databaseService.getEventCount());
+    }
+    
+    @Test
+    void testDroppedEventCompletesExceptionally() throws Exception {
+        writer = new AsyncEventWriter(databaseService, 10, 0, 1, BackpressurePolicy.DROP_OLDEST,
+                new StageMetrics("test-writer"));
+        writer.start();
+        
+        CompletableFuture<Long> first;
+        CompletableFuture<Long> dropped;
+        CompletableFuture<Long> last;
+        // Hold the database so the writer stalls on its first batch
+        synchronized (databaseService) {
+            first = writer.submit(event("first.txt", LocalDateTime.now()));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (writer.getQueueSize() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            dropped = writer.submit(event("dropped.txt", LocalDateTime.now()));
+            last = writer.submit(event("last.txt", LocalDateTime.now()));
+            
+            ExecutionException e = assertThrows(ExecutionException.class, () -> dropped.get(1, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        }
+        
+        assertTrue(first.get(5, TimeUnit.SECONDS) > 0);
+        assertTrue(last.get(5, TimeUnit.SECONDS) > first.get());
+    }
+    
+    private static FileEvent event(String fileName, LocalDateTime timestamp) {
+        return new FileEvent(fileName, "CREATE", timestamp, "", false);
+    }
+}
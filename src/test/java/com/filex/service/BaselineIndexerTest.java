@@ -0,0 +1,124 @@
+package com.filex.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaselineIndexerTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    private static final String ALGORITHM = "SHA-256";
+    private static final int DIRECTORIES = 8;
+    private static final int FILES_PER_DIRECTORY = 4;
+    private static final int FILE_SIZE = 1000;
+    
+    @TempDir
+    Path root;
+    
+    private DatabaseService databaseService;
+    private Path dbFile;
+    private String previousUrl;
+    private final List<Path> files = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("filex-baseline", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+        
+        for (int d = 0; d < DIRECTORIES; d++) {
+            Path directory = Files.createDirectories(root.resolve("dir" + d));
+            for (int f = 0; f < FILES_PER_DIRECTORY; f++) {
+                byte[] content = new byte[FILE_SIZE];
+                content[0] = (byte) d;
+                content[1] = (byte) f;
+                files.add(Files.write(directory.resolve("file" + f + ".bin"), content));
+            }
+        }
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testFingerprintsEveryFile() {
+        List<Path> roots = List.of(root);
+        BaselineIndexer indexer = new BaselineIndexer(databaseService, null, ALGORITHM, 2, 0, 5);
+        
+        assertTrue(indexer.run(roots));
+        
+        assertEquals(files.size(), indexer.getFilesHashed());
+        assertEquals((long) files.size() * FILE_SIZE, indexer.getBytesHashed());
+        assertEquals(0, indexer.getErrorCount());
+        assertFalse(BaselineIndexer.hasUnfinishedRun(databaseService, roots));
+        for (Path file : files) {
+            assertEquals(FILE_SIZE, databaseService.getFingerprint(file.toString()).getSize(), file.toString());
+        }
+    }
+    
+    @Test
+    void testResumedRunSkipsIndexedDirectories() throws Exception {
+        List<Path> roots = List.of(root);
+        // Ten files a second, after a burst of ten, leaves time to stop part way
+        BaselineIndexer first = new BaselineIndexer(databaseService, null, ALGORITHM, 1, 10 * FILE_SIZE, 1);
+        first.start(roots);
+        waitFor(() -> completedDirectories().size() >= 3); // The root and two subdirectories
+        first.stop();
+        
+        assertFalse(first.isRunning());
+        assertTrue(BaselineIndexer.hasUnfinishedRun(databaseService, roots));
+        Set<String> completed = completedDirectories();
+        assertTrue(completed.size() < DIRECTORIES + 1, "Finished before it was stopped");
+        long alreadyIndexed = files.stream()
+            .filter(file -> completed.contains(file.getParent().toString()))
+            .count();
+        
+        BaselineIndexer resumed = new BaselineIndexer(databaseService, null, ALGORITHM, 2, 0, 5);
+        assertTrue(resumed.run(roots));
+        
+        assertEquals(completed.size(), resumed.getDirectoriesSkipped());
+        assertEquals(files.size() - alreadyIndexed, resumed.getFilesHashed());
+        assertFalse(BaselineIndexer.hasUnfinishedRun(databaseService, roots));
+        for (Path file : files) {
+            assertNotNull(databaseService.getFingerprint(file.toString()), file.toString());
+        }
+    }
+    
+    private Set<String> completedDirectories() {
+        String key = root.toAbsolutePath().normalize().toString();
+        long runId = databaseService.getUnfinishedBaselineRun(key);
+        return runId >= 0 ? databaseService.getCompletedBaselineDirectories(runId) : Set.of();
+    }
+    
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.filex.service;
+
+import com.filex.model.FileEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseConcurrencyTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    private static final int READERS = 4;
+    
+    private DatabaseService databaseService;
+    private Path dbFile;
+    private String previousUrl;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        dbFile = Files.createTempFile("filex-concurrency", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testWriterCommitsWhileReadIsOpen() throws Exception {
+        databaseService.saveEvents(events(100));
+        
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try (ReaderPool.Lease lease = databaseService.getReaderPool().acquire();
+             PreparedStatement stmt = lease.getConnection().prepareStatement("SELECT id FROM file_events ORDER BY id");
+             ResultSet rs = stmt.executeQuery()) {
+            // Stepping into the result set opens the read transaction and holds it
+            assertTrue(rs.next());
+            
+            Future<?> write = writer.submit(() -> databaseService.saveEvents(events(100)));
+            write.get(5, TimeUnit.SECONDS); // Would time out if the open read blocked the writer
+            
+            // Another reader runs meanwhile and sees the new rows
+            assertEquals(200, databaseService.getEventCount());
+            
+            // The open read still sees its own snapshot
+            int rows = 1;
+            while (rs.next()) {
+                rows++;
+            }
+            assertEquals(100, rows);
+        } finally {
+            writer.shutdownNow();
+        }
+    }
+    
+    @Test
+    void testReadersAndWriterMakeProgressConcurrently() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            databaseService.saveEvents(events(1000));
+        }
+        
+        AtomicBoolean stop = new AtomicBoolean(false);
+        AtomicInteger readsInFlight = new AtomicInteger();
+        AtomicInteger maxConcurrentReads = new AtomicInteger();
+        AtomicInteger reads = new AtomicInteger();
+        AtomicInteger commits = new AtomicInteger();
+        
+        ExecutorService pool = Executors.newFixedThreadPool(READERS + 1);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            tasks.add(pool.submit(() -> {
+                while (!stop.get()) {
+                    maxConcurrentReads.accumulateAndGet(readsInFlight.incrementAndGet(), Math::max);
+                    try {
+                        assertTrue(databaseService.streamEvents(null, null, false).count() >= 10_000);
+                    } finally {
+                        readsInFlight.decrementAndGet();
+                    }
+                    reads.incrementAndGet();
+                }
+            }));
+        }
+        tasks.add(pool.submit(() -> {
+            while (!stop.get()) {
+                databaseService.saveEvents(events(50));
+                commits.incrementAndGet();
+            }
+        }));
+        
+        Thread.sleep(3000);
+        stop.set(true);
+        for (Future<?> task : tasks) {
+            task.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        
+        assertTrue(commits.get() > 10, "writer made too little progress: " + commits.get() + " commits");
+        assertTrue(reads.get() >= READERS, "readers made too little progress: " + reads.get() + " reads");
+        assertTrue(maxConcurrentReads.get() >= 2, "reads never overlapped");
+    }
+    
+    private static List<FileEvent> events(int count) {
+        List<FileEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            FileEvent event = new FileEvent("file" + i + ".txt", "MODIFY", LocalDateTime.now(), "hash" + i, false);
+            event.setFilePath("/tmp/concurrency/file" + i + ".txt");
+            events.add(event);
+        }
+        return events;
+    }
+}
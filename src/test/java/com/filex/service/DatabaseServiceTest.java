@@ -1,5 +1,9 @@
 package com.filex.service;
 
+import com.filex.model.Alert;
+import com.filex.model.AlertDetails;
+import com.filex.model.AlertPage;
+import com.filex.model.EventQuery;
 import com.filex.model.FileEvent;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -38,4 +42,45 @@ class DatabaseServiceTest {
         // but we can verify the method works
         assertNotNull(events);
     }
-}
\ No newline at end of file
+    
+    @Test
+    void testSaveEventLinksAlert() {
+        FileEvent event = new FileEvent("linked_alert.txt", "CREATE", LocalDateTime.now(), "", true);
+        Alert alert = new Alert();
+        alert.setSeverity("CRITICAL");
+        alert.setCreatedAt(LocalDateTime.now());
+        alert.setActionsTaken("Linked alert test");
+        
+        long id = databaseService.saveEvent(event, alert);
+        
+        assertTrue(id > 0);
+        assertEquals(id, event.getId());
+        assertEquals(id, alert.getFileEventId());
+        AlertPage page = databaseService.getAlertsPage("CRITICAL", false, null, 10);
+        AlertDetails newest = page.getAlerts().get(0);
+        assertEquals(alert.getId(), newest.getAlert().getId());
+        assertNotNull(newest.getEvent());
+        assertEquals(id, newest.getEvent().getId());
+        assertEquals("linked_alert.txt", newest.getEvent().getFileName());
+    }
+    
+    @Test
+    void testEventsWindowContinuesFromKnownRow() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 3; i++) {
+            databaseService.saveEvent(new FileEvent("window_" + i + ".txt", "CREATE", now.plusSeconds(i), "", false));
+        }
+        EventQuery query = EventQuery.newestFirst().upTo(databaseService.getLastEventId());
+        
+        List<FileEvent> newest = databaseService.getEventsWindow(query, null, false, 0, 3);
+        List<FileEvent> next = databaseService.getEventsWindow(query, newest.get(0), false, 0, 2);
+        List<FileEvent> previous = databaseService.getEventsWindow(query, newest.get(2), true, 1, 1);
+        
+        assertEquals("window_2.txt", newest.get(0).getFileName());
+        assertEquals("window_0.txt", newest.get(2).getFileName());
+        assertEquals(newest.subList(1, 3).stream().map(FileEvent::getId).toList(),
+            next.stream().map(FileEvent::getId).toList());
+        assertEquals(newest.get(0).getId(), previous.get(0).getId());
+        assertTrue(databaseService.getEventCount(query) >= 3);
+    }
+}
@@ -0,0 +1,93 @@
+package com.filex.service;
+
+import com.filex.model.RawFileEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCoalescerTest {
+    
+    private final BlockingQueue<RawFileEvent> released = new LinkedBlockingQueue<>();
+    private EventCoalescer coalescer;
+    
+    @AfterEach
+    void tearDown() {
+        if (coalescer != null) {
+            coalescer.stop();
+        }
+    }
+    
+    @Test
+    void testBurstIsReleasedOnceQuiet() throws Exception {
+        coalescer = new EventCoalescer(100, 5000, released::add);
+        coalescer.start();
+        Path path = Path.of("/data/report.docx");
+        LocalDateTime first = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            coalescer.submit(new RawFileEvent(path, "MODIFY", first.plusNanos(i * 1000)));
+        }
+        coalescer.submit(new RawFileEvent(Path.of("/data/other.txt"), "CREATE", first));
+        
+        assertTrue(released.isEmpty());
+        assertEquals(2, coalescer.getPendingCount());
+        
+        RawFileEvent a = released.poll(5, TimeUnit.SECONDS);
+        RawFileEvent b = released.poll(5, TimeUnit.SECONDS);
+        RawFileEvent burst = path.equals(a.getPath()) ? a : b;
+        RawFileEvent other = burst == a ? b : a;
+        assertEquals("MODIFY", burst.getEventType());
+        assertEquals(5, burst.getMergedCount());
+        assertEquals(first, burst.getTimestamp()); // The first-seen time is kept
+        assertEquals("CREATE", other.getEventType());
+        assertEquals(0, coalescer.getPendingCount());
+    }
+    
+    @Test
+    void testBusyPathIsReleasedAfterMaxDelay() throws Exception {
+        coalescer = new EventCoalescer(200, 400, released::add);
+        coalescer.start();
+        Path path = Path.of("/data/growing.log");
+        long start = System.nanoTime();
+        RawFileEvent event = null;
+        // Never quiet for the quiet period, so only the max delay releases it
+        while (event == null && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5)) {
+            coalescer.submit(new RawFileEvent(path, "MODIFY", LocalDateTime.now()));
+            event = released.poll(20, TimeUnit.MILLISECONDS);
+        }
+        
+        assertNotNull(event);
+        assertTrue(event.getMergedCount() > 1);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    }
+    
+    @Test
+    void testStopReleasesHeldEvents() {
+        coalescer = new EventCoalescer(60_000, 60_000, released::add);
+        coalescer.start();
+        coalescer.submit(new RawFileEvent(Path.of("/data/a.txt"), "CREATE", LocalDateTime.now()));
+        coalescer.submit(new RawFileEvent(Path.of("/data/a.txt"), "MODIFY", LocalDateTime.now()));
+        
+        coalescer.stop();
+        
+        RawFileEvent event = released.poll();
+        assertNotNull(event);
+        assertEquals("CREATE", event.getEventType());
+        assertEquals(2, event.getMergedCount());
+    }
+    
+    @Test
+    void testMergeKeepsNetEffect() {
+        assertEquals("CREATE", EventCoalescer.merge("CREATE", "MODIFY"));
+        assertEquals("DELETE", EventCoalescer.merge("CREATE", "DELETE"));
+        assertEquals("MODIFY", EventCoalescer.merge("DELETE", "CREATE")); // Atomic save
+        assertEquals("MODIFY", EventCoalescer.merge("MODIFY", "CREATE"));
+        assertEquals("RENAME", EventCoalescer.merge("RENAME", "MODIFY"));
+    }
+}
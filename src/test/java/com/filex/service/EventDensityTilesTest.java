@@ -0,0 +1,128 @@
+package com.filex.service;
+
+import com.filex.model.FileEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Buckets events around the daylight saving changes of the system time zone in 2024:
+ * a day without the hour the clocks skip and a day with the repeated hour twice.
+ * In a zone without daylight saving time (e.g. UTC) the same days are ordinary;
+ * run with e.g. TZ=Europe/Berlin to cover the changes.
+ */
+class EventDensityTilesTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    
+    private DatabaseService databaseService;
+    private Path dbFile;
+    private String previousUrl;
+    private LocalDateTime gap;     // The start of the skipped hour
+    private LocalDateTime overlap; // The start of the repeated hour
+    private final List<LocalDateTime> saved = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("filex-tiles", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+        
+        gap = LocalDate.of(2024, 3, 31).atTime(2, 0);
+        overlap = LocalDate.of(2024, 10, 27).atTime(2, 0);
+        ZoneRules rules = ZoneId.systemDefault().getRules();
+        ZoneOffsetTransition transition = rules.nextTransition(
+            LocalDate.of(2024, 1, 1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        for (int i = 0; i < 2 && transition != null && transition.getDateTimeBefore().getYear() == 2024; i++) {
+            if (transition.isGap()) {
+                gap = transition.getDateTimeBefore();
+            } else {
+                overlap = transition.getDateTimeAfter();
+            }
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        
+        // Half past the hour before, during and after each change; the skipped hour has no events
+        for (LocalDateTime change : new LocalDateTime[] {gap, overlap}) {
+            for (int hours = -1; hours <= 1; hours++) {
+                LocalDateTime time = change.plusHours(hours).plusMinutes(30);
+                if (time.toLocalDate().equals(change.toLocalDate()) && !(change == gap && hours == 0)) {
+                    databaseService.saveEvent(new FileEvent("dst.txt", "MODIFY", time, "", false));
+                    saved.add(time);
+                }
+            }
+        }
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testColumnsFollowLocalHoursAcrossDaylightSavingChanges() {
+        EventDensityTiles tiles = new EventDensityTiles(databaseService);
+        
+        for (LocalDateTime change : new LocalDateTime[] {gap, overlap}) {
+            LocalDate day = change.toLocalDate();
+            double[] rates = tiles.getColumnRates(day.atStartOfDay(), day.plusDays(1).atStartOfDay(), 24);
+            
+            double[] expected = new double[24];
+            for (LocalDateTime time : saved) {
+                if (time.toLocalDate().equals(day)) {
+                    expected[time.getHour()] = 1.0;
+                }
+            }
+            assertArrayEquals(expected, rates, "hours of " + day);
+            if (change == gap) {
+                assertEquals(0.0, rates[gap.getHour()]);
+            }
+        }
+        
+        // Tiles that are over are read once
+        long reads = tiles.getTileReads();
+        tiles.getColumnRates(overlap.toLocalDate().atStartOfDay(), overlap.toLocalDate().plusDays(1).atStartOfDay(), 24);
+        assertEquals(reads, tiles.getTileReads());
+    }
+    
+    @Test
+    void testHourOfWeekCountsAcrossDaylightSavingChanges() {
+        EventDensityTiles tiles = new EventDensityTiles(databaseService);
+        LocalDate first = gap.isBefore(overlap) ? gap.toLocalDate() : overlap.toLocalDate();
+        LocalDate last = gap.isBefore(overlap) ? overlap.toLocalDate() : gap.toLocalDate();
+        
+        long[] counts = tiles.getHourOfWeekCounts(first.atStartOfDay(), last.plusDays(1).atStartOfDay());
+        
+        long[] expected = new long[7 * 24];
+        for (LocalDateTime time : saved) {
+            expected[(time.getDayOfWeek().getValue() - 1) * 24 + time.getHour()]++;
+        }
+        assertArrayEquals(expected, counts);
+        assertEquals(saved.size(), Arrays.stream(counts).sum());
+    }
+}
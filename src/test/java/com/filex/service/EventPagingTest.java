@@ -0,0 +1,124 @@
+package com.filex.service;
+
+import com.filex.model.EventCursor;
+import com.filex.model.EventPage;
+import com.filex.model.FileEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventPagingTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    // Over one stream fetch window, with several events per second
+    private static final int EVENTS = DatabaseService.STREAM_FETCH_SIZE + 250;
+    
+    private DatabaseService databaseService;
+    private Path dbFile;
+    private String previousUrl;
+    private LocalDateTime start;
+    private List<Long> newestFirst;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("filex-paging", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+        
+        start = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<FileEvent> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            // Timestamps are not in id order, and ties are broken by id
+            events.add(new FileEvent("file" + i + ".txt", "MODIFY", start.plusSeconds((i * 7) % 300),
+                "", i % 10 == 0));
+        }
+        databaseService.saveEvents(events);
+        
+        newestFirst = allEvents().stream()
+            .sorted(Comparator.comparing(FileEvent::getTimestamp).thenComparing(FileEvent::getId).reversed())
+            .map(FileEvent::getId)
+            .collect(Collectors.toList());
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testPagesHaveNoDuplicatesOrGaps() {
+        List<Long> paged = new ArrayList<>();
+        EventCursor cursor = null;
+        int pages = 0;
+        do {
+            EventPage page = databaseService.getEventsPage(cursor, 97);
+            assertTrue(page.getEvents().size() <= 97);
+            page.getEvents().forEach(event -> paged.add(event.getId()));
+            cursor = page.getNext();
+            pages++;
+        } while (cursor != null);
+        
+        assertEquals(newestFirst, paged);
+        assertEquals((EVENTS + 96) / 97, pages);
+    }
+    
+    @Test
+    void testNewEventsDoNotShiftLaterPages() {
+        EventPage first = databaseService.getEventsPage(null, 50);
+        databaseService.saveEvent(new FileEvent("newest.txt", "CREATE", start.plusDays(1), "", false));
+        
+        EventPage second = databaseService.getEventsPage(first.getNext(), 50);
+        
+        assertEquals(newestFirst.subList(50, 100),
+            second.getEvents().stream().map(FileEvent::getId).collect(Collectors.toList()));
+    }
+    
+    @Test
+    void testStreamReadsEveryEventAcrossWindows() {
+        assertEquals(EVENTS, newestFirst.size());
+        assertEquals(newestFirst, allEvents().stream().map(FileEvent::getId).collect(Collectors.toList()));
+        
+        assertEquals(EVENTS / 10, databaseService.streamEvents(null, null, true).count());
+        assertTrue(databaseService.streamEvents(null, null, true).allMatch(FileEvent::isSuspicious));
+        
+        // A stream may be abandoned part way without being closed
+        assertEquals(3, databaseService.streamEvents(null, null, false).limit(3).count());
+        
+        LocalDateTime from = start.plusSeconds(100);
+        LocalDateTime to = start.plusSeconds(199);
+        List<Long> inRange = allEvents().stream()
+            .filter(event -> !event.getTimestamp().isBefore(from) && !event.getTimestamp().isAfter(to))
+            .map(FileEvent::getId)
+            .collect(Collectors.toList());
+        assertEquals(inRange, databaseService.streamEvents(from, to, false)
+            .map(FileEvent::getId).collect(Collectors.toList()));
+        assertEquals(inRange.size(), databaseService.getEventCount(from, to, false));
+    }
+    
+    private List<FileEvent> allEvents() {
+        return databaseService.streamEvents(null, null, false).collect(Collectors.toList());
+    }
+}
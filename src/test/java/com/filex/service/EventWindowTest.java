@@ -0,0 +1,98 @@
+package com.filex.service;
+
+import com.filex.model.EventQuery;
+import com.filex.model.EventSort;
+import com.filex.model.FileEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventWindowTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    // Stored in an order unlike their names, so the type ids are not alphabetical
+    private static final String[] TYPES = {"MODIFY", "RENAME", "CREATE", "DELETE"};
+    
+    private DatabaseService databaseService;
+    private Path dbFile;
+    private String previousUrl;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("filex-window", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+        
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        int second = 0;
+        for (int round = 0; round < 2; round++) {
+            for (String type : TYPES) {
+                databaseService.saveEvent(new FileEvent(type + "_" + round + ".txt", type,
+                    now.plusSeconds(second++), "", false));
+            }
+        }
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testEventTypeSortsByName() {
+        EventQuery query = new EventQuery(null, null, false, EventSort.EVENT_TYPE, true,
+            databaseService.getLastEventId());
+        List<String> expected = List.of("CREATE_0.txt", "CREATE_1.txt", "DELETE_0.txt", "DELETE_1.txt",
+            "MODIFY_0.txt", "MODIFY_1.txt", "RENAME_0.txt", "RENAME_1.txt");
+        
+        assertEquals(expected, names(databaseService.getEventsWindow(query, null, false, 0, 8)));
+        
+        // Windows continue from a known row across types, and skip whole types
+        List<FileEvent> paged = new ArrayList<>(databaseService.getEventsWindow(query, null, false, 0, 3));
+        paged.addAll(databaseService.getEventsWindow(query, paged.get(2), false, 0, 3));
+        paged.addAll(databaseService.getEventsWindow(query, paged.get(5), false, 0, 3));
+        assertEquals(expected, names(paged));
+        assertEquals(List.of("MODIFY_1.txt", "RENAME_0.txt"),
+            names(databaseService.getEventsWindow(query, paged.get(0), false, 4, 2)));
+        assertEquals(List.of("CREATE_1.txt", "DELETE_0.txt"),
+            names(databaseService.getEventsWindow(query, paged.get(6), true, 3, 2)));
+        
+        EventQuery descending = new EventQuery(null, null, false, EventSort.EVENT_TYPE, false,
+            databaseService.getLastEventId());
+        List<String> reversed = new ArrayList<>(expected);
+        Collections.reverse(reversed);
+        assertEquals(reversed, names(databaseService.getEventsWindow(descending, null, false, 0, 8)));
+        
+        EventQuery deletes = new EventQuery("DELETE", null, false, EventSort.EVENT_TYPE, true,
+            databaseService.getLastEventId());
+        assertEquals(List.of("DELETE_0.txt", "DELETE_1.txt"),
+            names(databaseService.getEventsWindow(deletes, null, false, 0, 8)));
+    }
+    
+    private static List<String> names(List<FileEvent> events) {
+        return events.stream().map(FileEvent::getFileName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,130 @@
+package com.filex.service;
+
+import com.filex.model.Alert;
+import com.filex.model.AlertDetails;
+import com.filex.model.FileEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileEventDictionaryTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    
+    private DatabaseService databaseService;
+    private Path dbFile;
+    private String previousUrl;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("filex-dictionary", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testStringsRoundTripThroughTheDictionaries() throws Exception {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        List<FileEvent> saved = new ArrayList<>();
+        saved.add(event("report.docx", "/home/ann/docs/report.docx", "CREATE", now));
+        saved.add(event("budget.xlsx", "/home/ann/docs/budget.xlsx", "MODIFY", now.plusSeconds(1)));
+        saved.add(event("report.docx", "/home/bob/report.docx", "MODIFY", now.plusSeconds(2)));
+        saved.add(event("Plan.txt", "C:\\Users\\ann\\Plan.txt", "DELETE", now.plusSeconds(3)));
+        saved.add(event("renamed.txt", "/home/ann/docs/report.docx", "RENAME", now.plusSeconds(4))); // Name differs
+        saved.add(event("orphan.log", null, "COPY", now.plusSeconds(5)));                          // No path, new type
+        List<Long> ids = new ArrayList<>();
+        for (FileEvent event : saved) {
+            ids.add(databaseService.saveEvent(event));
+        }
+        
+        List<FileEvent> loaded = databaseService.getEventsByIds(ids);
+        assertEquals(saved.size(), loaded.size());
+        for (int i = 0; i < saved.size(); i++) {
+            FileEvent expected = saved.get(i);
+            FileEvent actual = loaded.get(i);
+            assertEquals(expected.getFileName(), actual.getFileName());
+            assertEquals(expected.getFilePath(), actual.getFilePath());
+            assertEquals(expected.getEventType(), actual.getEventType());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        }
+        
+        // Each directory and file name is stored once
+        assertEquals(3, count("SELECT COUNT(*) FROM directories"));
+        assertEquals(1, count("SELECT COUNT(*) FROM file_names WHERE name = 'report.docx'"));
+        assertEquals(5, count("SELECT COUNT(*) FROM file_paths"));
+    }
+    
+    @Test
+    void testSeverityRoundTripsWithItsAlert() {
+        Alert alert = new Alert();
+        alert.setSeverity("CRITICAL");
+        alert.setCreatedAt(LocalDateTime.now());
+        alert.setActionsTaken("Dictionary test");
+        databaseService.saveEvent(event("secret.pdf", "/srv/secret.pdf", "MODIFY", LocalDateTime.now()), alert);
+        
+        AlertDetails details = databaseService.getAlertsPage("CRITICAL", null, null, 10).getAlerts().get(0);
+        assertEquals("CRITICAL", details.getAlert().getSeverity());
+        assertEquals("/srv/secret.pdf", details.getEvent().getFilePath());
+        assertEquals("MODIFY", details.getEvent().getEventType());
+    }
+    
+    @Test
+    void testIdsOfARolledBackBatchAreNotReused() throws Exception {
+        FileEvent failing = event("broken.txt", "/new/dir/broken.txt", "TOUCH", null); // No timestamp
+        FileEvent first = event("first.txt", "/new/dir/first.txt", "TOUCH", LocalDateTime.now());
+        assertThrows(Exception.class,
+            () -> databaseService.insertEvents(Arrays.asList(first, failing), Arrays.asList(null, null)));
+        
+        // The directory and event type added by the rolled back batch must be stored again
+        long id = databaseService.saveEvent(event("first.txt", "/new/dir/first.txt", "TOUCH", LocalDateTime.now()));
+        FileEvent loaded = databaseService.getEventsByIds(List.of(id)).get(0);
+        assertEquals("/new/dir/first.txt", loaded.getFilePath());
+        assertEquals("TOUCH", loaded.getEventType());
+    }
+    
+    private static FileEvent event(String fileName, String filePath, String eventType, LocalDateTime timestamp) {
+        FileEvent event = new FileEvent(fileName, eventType, timestamp, "", false);
+        event.setFilePath(filePath);
+        return event;
+    }
+    
+    private long count(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile);
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.filex.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashCacheTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    private static final String ALGORITHM = "SHA-256";
+    
+    @TempDir
+    Path dir;
+    
+    private DatabaseService databaseService;
+    private Path dbFile;
+    private String previousUrl;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("filex-hash-cache", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testEvictsLeastRecentlyUsedOverMemoryBudget() throws IOException {
+        Path a = file("a.txt");
+        Path b = file("b.txt");
+        Path c = file("c.txt");
+        // Measure the three entries, then allow one byte less
+        HashCache unbounded = new HashCache(null, Long.MAX_VALUE);
+        put(unbounded, a);
+        put(unbounded, b);
+        put(unbounded, c);
+        HashCache cache = new HashCache(null, unbounded.getMemoryUsedBytes() - 1);
+        
+        put(cache, a);
+        put(cache, b);
+        assertEquals("hash-a.txt", lookup(cache, a)); // b is now the eldest
+        put(cache, c);
+        
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(1, cache.getEvictionCount());
+        assertTrue(cache.getMemoryUsedBytes() <= cache.getMemoryBudgetBytes());
+        assertNull(lookup(cache, b));
+        assertEquals("hash-a.txt", lookup(cache, a));
+        assertEquals("hash-c.txt", lookup(cache, c));
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+    
+    @Test
+    void testHitsFromPersistedFingerprints() throws IOException {
+        Path a = file("a.txt");
+        HashCache first = new HashCache(databaseService, 1 << 20);
+        put(first, a);
+        first.stop(); // Writes the pending entry
+        
+        HashCache cache = new HashCache(databaseService, 1 << 20);
+        
+        assertEquals("hash-a.txt", lookup(cache, a));
+        assertEquals(1, cache.getPersistedHitCount());
+        assertEquals("hash-a.txt", lookup(cache, a)); // Now held in memory
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getPersistedHitCount());
+        
+        // Another algorithm or a new mtime means the file has to be read again
+        BasicFileAttributes attrs = Files.readAttributes(a, BasicFileAttributes.class);
+        assertNull(cache.lookup(a, attrs, "BLAKE3"));
+        Files.setLastModifiedTime(a, FileTime.fromMillis(attrs.lastModifiedTime().toMillis() - 60_000));
+        assertNull(lookup(cache, a));
+        assertEquals(2, cache.getMissCount());
+    }
+    
+    @Test
+    void testInvalidateDeletesPersistedRowOnFlush() throws IOException {
+        Path a = file("a.txt");
+        HashCache cache = new HashCache(databaseService, 1 << 20);
+        put(cache, a);
+        cache.flush();
+        assertNotNull(databaseService.getFingerprint(a.toString()));
+        
+        cache.invalidate(a);
+        
+        // The pending deletion hides the persisted row until it is written
+        assertNull(lookup(cache, a));
+        assertEquals(0, cache.getPersistedHitCount());
+        assertEquals(0, cache.getEntryCount());
+        cache.flush();
+        assertNull(databaseService.getFingerprint(a.toString()));
+        assertNull(lookup(new HashCache(databaseService, 1 << 20), a));
+    }
+    
+    private Path file(String name) throws IOException {
+        return Files.writeString(dir.resolve(name), name);
+    }
+    
+    private static void put(HashCache cache, Path path) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        cache.put(path, attrs, ALGORITHM, "hash-" + path.getFileName());
+    }
+    
+    private static String lookup(HashCache cache, Path path) throws IOException {
+        return cache.lookup(path, Files.readAttributes(path, BasicFileAttributes.class), ALGORITHM);
+    }
+}
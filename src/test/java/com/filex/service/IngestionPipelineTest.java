@@ -0,0 +1,191 @@
+package com.filex.service;
+
+import com.filex.model.FileEvent;
+import com.filex.model.RawFileEvent;
+import com.filex.util.BackpressurePolicy;
+import com.filex.util.PipelineConfig;
+import com.filex.util.StageMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestionPipelineTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    
+    private DatabaseService databaseService;
+    private Path dbFile;
+    private String previousUrl;
+    private final List<IngestionPipeline.ProcessedEvent> delivered = new CopyOnWriteArrayList<>();
+    private final List<IngestionPipeline.ProcessedEvent> persisted = new CopyOnWriteArrayList<>();
+    private IngestionPipeline pipeline;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("filex-pipeline", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testEventsPassEveryStage() throws Exception {
+        PipelineConfig config = new PipelineConfig();
+        config.setCoalesceQuietMillis(50);
+        config.setCoalesceMaxDelayMillis(1_000);
+        config.setWorkerThreads(2);
+        config.setWriterMaxDelayMillis(20);
+        start(config, 0);
+        
+        // A burst for one path is merged into one event; another path stays separate
+        for (int i = 0; i < 5; i++) {
+            pipeline.submit(raw("burst.txt"));
+        }
+        pipeline.submit(raw("single.txt"));
+        
+        waitFor(() -> delivered.size() == 2);
+        assertEquals(2, databaseService.getEventCount());
+        assertEquals(2, persisted.size());
+        IngestionPipeline.ProcessedEvent burst = delivered.stream()
+            .filter(processed -> processed.getEvent().getFileName().equals("burst.txt")).findFirst().orElseThrow();
+        assertEquals(5, burst.getEvent().getMergedCount());
+        assertTrue(burst.getEvent().getId() > 0);
+        
+        Map<String, StageMetrics> metrics = pipeline.getStageMetrics();
+        assertEquals(6, metrics.get("watcher").getReceived());
+        assertEquals(2, metrics.get("hash-classify").getProcessed());
+        assertEquals(2, metrics.get("db-writer").getProcessed());
+        assertEquals(2, metrics.get("ui-fanout").getProcessed());
+        for (StageMetrics stage : metrics.values()) {
+            assertEquals(0, stage.getDropped(), stage.getName());
+        }
+    }
+    
+    @Test
+    void testUiDropsOldestWithoutLosingWrites() throws Exception {
+        PipelineConfig config = new PipelineConfig();
+        config.setCoalesceQuietMillis(0);
+        config.setUiQueueDepth(5);
+        config.setUiQueuePolicy(BackpressurePolicy.DROP_OLDEST);
+        Object uiBusy = new Object();
+        synchronized (uiBusy) {
+            pipeline = new IngestionPipeline(config, databaseService, IngestionPipelineTest::process, processed -> {
+                synchronized (uiBusy) {
+                    delivered.add(processed);
+                }
+            });
+            pipeline.start();
+            for (int i = 0; i < 50; i++) {
+                pipeline.submit(raw("file" + i + ".txt"));
+            }
+            // The fan-out thread holds at most one event while the UI is busy, the queue five
+            StageMetrics ui = pipeline.getStageMetrics().get("ui-fanout");
+            waitFor(() -> ui.getReceived() == 50 && ui.getDropped() >= 44);
+        }
+        pipeline.stop();
+        
+        StageMetrics ui = pipeline.getStageMetrics().get("ui-fanout");
+        assertEquals(50, ui.getDropped() + delivered.size());
+        assertEquals(50, databaseService.getEventCount());
+        assertEquals(0, pipeline.getStageMetrics().get("db-writer").getDropped());
+    }
+    
+    @Test
+    void testStopPersistsQueuedEvents() {
+        PipelineConfig config = new PipelineConfig();
+        config.setCoalesceQuietMillis(0);
+        config.setWorkerThreads(1);
+        start(config, 2);
+        for (int i = 0; i < 100; i++) {
+            pipeline.submit(raw("file" + i + ".txt"));
+        }
+        
+        pipeline.stop();
+        
+        assertEquals(100, databaseService.getEventCount());
+        assertEquals(100, delivered.size());
+        assertEquals(0, pipeline.getStageMetrics().get("hash-classify").getDropped());
+    }
+    
+    @Test
+    void testStopCountsEventsLeftAfterDrainTime() {
+        PipelineConfig config = new PipelineConfig();
+        config.setCoalesceQuietMillis(0);
+        config.setWorkerThreads(1);
+        config.setShutdownDrainMillis(100);
+        start(config, 20);
+        for (int i = 0; i < 50; i++) {
+            pipeline.submit(raw("file" + i + ".txt"));
+        }
+        
+        pipeline.stop();
+        
+        long dropped = pipeline.getStageMetrics().get("hash-classify").getDropped();
+        assertTrue(dropped > 0);
+        assertEquals(50, dropped + databaseService.getEventCount());
+    }
+    
+    private void start(PipelineConfig config, long processMillis) {
+        pipeline = new IngestionPipeline(config, databaseService, raw -> {
+            // Keeps going when interrupted, like hashing a file
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(processMillis);
+            while (System.nanoTime() < end) {
+                LockSupport.parkNanos(end - System.nanoTime());
+            }
+            return process(raw);
+        }, delivered::add);
+        pipeline.setPersistListener(persisted::add);
+        pipeline.start();
+    }
+    
+    private static IngestionPipeline.ProcessedEvent process(RawFileEvent raw) {
+        FileEvent event = new FileEvent(raw.getPath().getFileName().toString(), raw.getEventType(),
+            raw.getTimestamp(), "", false);
+        event.setFilePath(raw.getPath().toString());
+        event.setMergedCount(raw.getMergedCount());
+        return new IngestionPipeline.ProcessedEvent(event, null);
+    }
+    
+    private static RawFileEvent raw(String name) {
+        return new RawFileEvent(Path.of("/watched", name), "MODIFY", LocalDateTime.now());
+    }
+    
+    private static void waitFor(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out");
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.filex.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@EnabledOnOs(OS.LINUX)
+class InotifyWatcherBackendTest {
+    
+    // From <sys/inotify.h>
+    private static final int IN_MODIFY = 0x00000002;
+    private static final int IN_Q_OVERFLOW = 0x00004000;
+    private static final int IN_IGNORED = 0x00008000;
+    
+    /**
+     * Records notifications as "TYPE path" strings.
+     */
+    private static class Recorder implements WatcherBackend.Listener {
+        private final List<String> events = new ArrayList<>();
+        
+        @Override
+        public synchronized void onEvent(Path path, String eventType) {
+            events.add(eventType + " " + path);
+        }
+        
+        @Override
+        public synchronized void onMove(Path from, Path to) {
+            events.add("MOVE " + from + " " + to);
+        }
+        
+        @Override
+        public synchronized void onOverflow(Path dir) {
+            events.add("OVERFLOW " + dir);
+        }
+        
+        synchronized boolean contains(String event) {
+            return events.contains(event);
+        }
+    }
+    
+    @TempDir
+    Path tempDir;
+    
+    private Path root;
+    private Path outside;
+    private InotifyWatcherBackend backend;
+    private final Recorder recorder = new Recorder();
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        assumeTrue(InotifyWatcherBackend.isSupported());
+        root = Files.createDirectories(tempDir.toRealPath().resolve("root"));
+        outside = Files.createDirectories(tempDir.toRealPath().resolve("outside"));
+        Files.createDirectories(root.resolve("sub"));
+        backend = new InotifyWatcherBackend();
+        backend.addRoot(root);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (backend != null) {
+            backend.close();
+        }
+    }
+    
+    @Test
+    void testReportsCreateModifyAndDelete() throws Exception {
+        backend.start(recorder);
+        Path file = root.resolve("sub").resolve("a.txt");
+        
+        Files.writeString(file, "a");
+        waitFor("CREATE " + file);
+        Files.writeString(file, "ab");
+        waitFor("MODIFY " + file);
+        Files.delete(file);
+        waitFor("DELETE " + file);
+    }
+    
+    @Test
+    void testPairsRenamesInsideTheTree() throws Exception {
+        Path from = Files.writeString(root.resolve("a.txt"), "a");
+        backend.start(recorder);
+        Path to = root.resolve("sub").resolve("b.txt");
+        
+        Files.move(from, to);
+        waitFor("MOVE " + from + " " + to);
+        
+        // A renamed directory keeps its watch under the new name
+        Path renamed = root.resolve("renamed");
+        Files.move(root.resolve("sub"), renamed);
+        waitFor("MOVE " + root.resolve("sub") + " " + renamed);
+        Files.writeString(renamed.resolve("c.txt"), "c");
+        waitFor("CREATE " + renamed.resolve("c.txt"));
+        
+        assertFalse(recorder.contains("DELETE " + from));
+        assertEquals(2, backend.getWatchCount());
+    }
+    
+    @Test
+    void testMoveOutOfTheTreeIsADelete() throws Exception {
+        Path file = Files.writeString(root.resolve("a.txt"), "a");
+        backend.start(recorder);
+        
+        Files.move(file, outside.resolve("a.txt"));
+        // Left unpaired, so reported once the next poll comes up empty
+        waitFor("DELETE " + file);
+        
+        Files.move(root.resolve("sub"), outside.resolve("sub"));
+        waitFor("DELETE " + root.resolve("sub"));
+        waitFor(() -> backend.getWatchCount() == 1);
+        
+        // Files written to the old directory are no longer reported
+        Files.writeString(outside.resolve("sub").resolve("b.txt"), "b");
+        Files.writeString(root.resolve("marker.txt"), "m");
+        waitFor("CREATE " + root.resolve("marker.txt"));
+        assertFalse(recorder.contains("CREATE " + root.resolve("sub").resolve("b.txt")));
+    }
+    
+    @Test
+    void testWatchesNewSubdirectoriesAndTheirFiles() throws Exception {
+        backend.start(recorder);
+        Path created = root.resolve("new");
+        
+        // Files made before the new directory is watched are found by scanning it
+        Files.createDirectories(created.resolve("nested"));
+        Files.writeString(created.resolve("nested").resolve("early.txt"), "e");
+        waitFor("CREATE " + created);
+        waitFor("CREATE " + created.resolve("nested").resolve("early.txt"));
+        waitFor(() -> backend.getWatchCount() == 4);
+        
+        Files.writeString(created.resolve("nested").resolve("late.txt"), "l");
+        waitFor("CREATE " + created.resolve("nested").resolve("late.txt"));
+    }
+    
+    @Test
+    void testDeletedDirectoryReleasesItsWatch() throws Exception {
+        backend.start(recorder);
+        assertEquals(2, backend.getWatchCount());
+        
+        Files.delete(root.resolve("sub"));
+        
+        waitFor("DELETE " + root.resolve("sub"));
+        // The kernel drops the watch and sends IN_IGNORED
+        waitFor(() -> backend.getWatchCount() == 1);
+    }
+    
+    @Test
+    void testParsesPaddedNamesAndOverflow() {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment buffer = arena.allocate(128, 8);
+            long offset = 0;
+            // A watch descriptor that is not registered, with a name padded to 16 bytes
+            offset = putEvent(buffer, offset, 9999, IN_MODIFY, "unknown.txt", 16);
+            offset = putEvent(buffer, offset, 9999, IN_IGNORED, null, 0);
+            offset = putEvent(buffer, offset, -1, IN_Q_OVERFLOW, null, 0);
+            
+            backend.parseBatch(buffer, offset, recorder);
+        }
+        
+        synchronized (recorder) {
+            assertEquals(List.of("OVERFLOW " + root), recorder.events);
+        }
+        assertEquals(2, backend.getWatchCount());
+    }
+    
+    private static long putEvent(MemorySegment buffer, long offset, int wd, int mask, String name, int nameLength) {
+        buffer.set(ValueLayout.JAVA_INT, offset, wd);
+        buffer.set(ValueLayout.JAVA_INT, offset + 4, mask);
+        buffer.set(ValueLayout.JAVA_INT, offset + 8, 0);
+        buffer.set(ValueLayout.JAVA_INT, offset + 12, nameLength);
+        if (name != null) {
+            buffer.asSlice(offset + 16, nameLength).fill((byte) 0);
+            buffer.setUtf8String(offset + 16, name);
+        }
+        return offset + 16 + nameLength;
+    }
+    
+    private void waitFor(String event) throws InterruptedException {
+        waitFor(() -> recorder.contains(event), event);
+    }
+    
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        waitFor(condition, "Timed out waiting");
+    }
+    
+    private static void waitFor(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, message);
+            Thread.sleep(10);
+        }
+    }
+}
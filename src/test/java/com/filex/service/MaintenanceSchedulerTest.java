@@ -0,0 +1,89 @@
+package com.filex.service;
+
+import com.filex.model.Alert;
+import com.filex.model.EventRollup;
+import com.filex.model.FileEvent;
+import com.filex.model.RollupResolution;
+import com.filex.util.RetentionPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MaintenanceSchedulerTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    
+    private DatabaseService databaseService;
+    private Path dbFile;
+    private String previousUrl;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("filex-maintenance", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testRetentionDeletesExpiredEventsAndKeepsRollupTotals() {
+        LocalDateTime now = LocalDateTime.now();
+        long expired = databaseService.saveEvent(new FileEvent("expired.txt", "MODIFY", now.minusDays(40), "", false));
+        Alert open = new Alert();
+        open.setSeverity("HIGH");
+        open.setCreatedAt(now.minusDays(40));
+        open.setActionsTaken("Still under investigation");
+        long investigated = databaseService.saveEvent(
+            new FileEvent("investigated.txt", "DELETE", now.minusDays(40), "", true), open);
+        long recent = databaseService.saveEvent(new FileEvent("recent.txt", "CREATE", now.minusDays(1), "", false));
+        long dayTotal = total(databaseService.getEventRollups(RollupResolution.DAY, null, null));
+        
+        RetentionPolicy policy = new RetentionPolicy();
+        policy.setEventRetentionDays(30);
+        policy.setMinuteRollupRetentionDays(7);
+        policy.setMaintenancePauseMillis(0);
+        assertTrue(new MaintenanceScheduler(databaseService, policy).runOnce());
+        
+        // Events with an open alert are kept for the investigation
+        assertEquals(List.of(investigated, recent), databaseService.getEventsByIds(List.of(expired, investigated, recent))
+            .stream().map(FileEvent::getId).collect(Collectors.toList()));
+        // Day rollups keep counting expired events; minute rollups past their own retention are gone
+        assertEquals(3, dayTotal);
+        assertEquals(dayTotal, total(databaseService.getEventRollups(RollupResolution.DAY, null, null)));
+        List<EventRollup> minutes = databaseService.getEventRollups(RollupResolution.MINUTE, null, null);
+        assertEquals(1, total(minutes));
+        assertEquals("CREATE", minutes.get(0).getEventType());
+        
+        // A second run has nothing left to delete
+        assertTrue(new MaintenanceScheduler(databaseService, policy).runOnce());
+        assertEquals(2, databaseService.getEventCount());
+    }
+    
+    private static long total(List<EventRollup> rollups) {
+        return rollups.stream().mapToLong(EventRollup::getCount).sum();
+    }
+}
@@ -0,0 +1,38 @@
+package com.filex.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonitorServiceTest {
+    
+    @TempDir
+    Path dir;
+    
+    @Test
+    void testHashIsCachedOnlyForUnchangedFiles() throws Exception {
+        Path file = dir.resolve("hashed.txt");
+        Files.writeString(file, "before");
+        long written = System.currentTimeMillis() - 60_000;
+        Files.setLastModifiedTime(file, FileTime.fromMillis(written));
+        BasicFileAttributes before = Files.readAttributes(file, BasicFileAttributes.class);
+        long now = System.currentTimeMillis();
+        
+        assertTrue(MonitorService.isUnchangedSince(file, before, now));
+        // Modified just before the hash started: a later write could keep the same mtime
+        assertFalse(MonitorService.isUnchangedSince(file, before, written + 500));
+        
+        Files.writeString(file, "after, longer");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(written));
+        assertFalse(MonitorService.isUnchangedSince(file, before, now));
+        
+        Files.delete(file);
+        assertFalse(MonitorService.isUnchangedSince(file, before, now));
+    }
+}
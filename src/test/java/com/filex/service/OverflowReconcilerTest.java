@@ -0,0 +1,108 @@
+package com.filex.service;
+
+import com.filex.model.FileFingerprint;
+import com.filex.model.RawFileEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OverflowReconcilerTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    
+    @TempDir
+    Path dir;
+    
+    private DatabaseService databaseService;
+    private WatcherBackend watcherBackend;
+    private Path dbFile;
+    private String previousUrl;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        dbFile = Files.createTempFile("filex-reconciler", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+        watcherBackend = WatcherBackend.create(WatcherBackend.WATCH_SERVICE);
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        watcherBackend.close();
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testRescanAfterRestartComparesPersistedFingerprints() throws Exception {
+        FileTime lastWeek = FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(7));
+        Path unchanged = Files.writeString(dir.resolve("unchanged.txt"), "same");
+        Path modified = Files.writeString(dir.resolve("modified.txt"), "edited while the app was down");
+        Files.setLastModifiedTime(unchanged, lastWeek);
+        Files.setLastModifiedTime(modified, lastWeek);
+        // State persisted by the previous run
+        databaseService.saveFingerprints(List.of(
+                fingerprint(unchanged, 4, lastWeek.toMillis()),
+                fingerprint(modified, 8, lastWeek.toMillis() - 1000),
+                fingerprint(dir.resolve("deleted.txt"), 3, lastWeek.toMillis())));
+        Path created = Files.writeString(dir.resolve("created.txt"), "new");
+        
+        // A fresh store, as after a restart
+        List<RawFileEvent> events = new CopyOnWriteArrayList<>();
+        OverflowReconciler reconciler = new OverflowReconciler(new FingerprintStore(), databaseService,
+                watcherBackend, events::add, 0);
+        reconciler.start();
+        try {
+            reconciler.requestRescan(dir);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (reconciler.getRescanCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            reconciler.stop();
+        }
+        
+        Map<String, String> types = new TreeMap<>();
+        for (RawFileEvent event : events) {
+            types.put(event.getPath().getFileName().toString(), event.getEventType());
+            assertTrue(event.isReconstructed());
+        }
+        assertEquals(Map.of("created.txt", "CREATE", "deleted.txt", "DELETE", "modified.txt", "MODIFY"), types);
+        assertNull(databaseService.getFingerprint(dir.resolve("deleted.txt").toString()));
+    }
+    
+    private static FileFingerprint fingerprint(Path path, long size, long lastModifiedMillis) {
+        FileFingerprint fingerprint = new FileFingerprint();
+        fingerprint.setFilePath(path.toString());
+        fingerprint.setSha256("00");
+        fingerprint.setHashAlgorithm("SHA-256");
+        fingerprint.setSize(size);
+        fingerprint.setLastModifiedMillis(lastModifiedMillis);
+        fingerprint.setLastSeen(LocalDateTime.now());
+        return fingerprint;
+    }
+}
@@ -0,0 +1,109 @@
+package com.filex.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReaderPoolTest {
+    
+    private Path dbFile;
+    private String url;
+    private ReaderPool pool;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("filex-readers", ".db");
+        url = "jdbc:sqlite:" + dbFile;
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("CREATE TABLE numbers (value INTEGER)");
+            stmt.execute("INSERT INTO numbers VALUES (1), (2), (3)");
+        }
+        pool = new ReaderPool(url, 1, 2, 200, 1024);
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        pool.close();
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testOpensLazilyUpToMaximum() throws Exception {
+        assertEquals(1, pool.getOpenCount());
+        
+        try (ReaderPool.Lease first = pool.acquire(); ReaderPool.Lease second = pool.acquire()) {
+            assertNotSame(first.getConnection(), second.getConnection());
+            assertEquals(2, pool.getOpenCount());
+            assertThrows(SQLTimeoutException.class, pool::acquire);
+        }
+        
+        // Returned connections are reused
+        try (ReaderPool.Lease lease = pool.acquire()) {
+            assertEquals(2, pool.getOpenCount());
+        }
+    }
+    
+    @Test
+    void testWaiterGetsReturnedConnection() throws Exception {
+        ReaderPool slowPool = new ReaderPool(url, 0, 1, 5_000, 1024);
+        try {
+            ReaderPool.Lease held = slowPool.acquire();
+            CountDownLatch waiting = new CountDownLatch(1);
+            CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+                waiting.countDown();
+                try (ReaderPool.Lease lease = slowPool.acquire()) {
+                    return lease.getConnection();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertTrue(waiting.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            Connection connection = held.getConnection();
+            held.close();
+            
+            assertSame(connection, waiter.get(5, TimeUnit.SECONDS));
+            assertEquals(1, slowPool.getOpenCount());
+        } finally {
+            slowPool.close();
+        }
+    }
+    
+    @Test
+    void testConnectionsAreReadOnly() throws Exception {
+        try (ReaderPool.Lease lease = pool.acquire(); Statement stmt = lease.getConnection().createStatement()) {
+            assertEquals(3, stmt.executeQuery("SELECT COUNT(*) FROM numbers").getInt(1));
+            assertThrows(SQLException.class, () -> stmt.execute("INSERT INTO numbers VALUES (4)"));
+        }
+    }
+    
+    @Test
+    void testCloseRejectsNewLeasesAndClosesBorrowedOnReturn() throws Exception {
+        ReaderPool.Lease lease = pool.acquire();
+        
+        pool.close();
+        
+        assertThrows(SQLException.class, pool::acquire);
+        assertFalse(lease.getConnection().isClosed());
+        lease.close();
+        assertTrue(lease.getConnection().isClosed());
+        assertEquals(0, pool.getOpenCount());
+    }
+}
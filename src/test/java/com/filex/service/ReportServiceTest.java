@@ -0,0 +1,66 @@
+package com.filex.service;
+
+import com.filex.model.EventReport;
+import com.filex.model.FileEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportServiceTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    
+    private DatabaseService databaseService;
+    private Path dbFile;
+    private String previousUrl;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("filex-report", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testReportEndIsExclusive() {
+        LocalDate day = LocalDate.of(2024, 5, 14);
+        databaseService.saveEvent(new FileEvent("first.txt", "CREATE", day.atStartOfDay(), "", false));
+        // Within the last second of the day, which an end of 23:59:59 would miss
+        databaseService.saveEvent(new FileEvent("last.txt", "MODIFY", day.atTime(23, 59, 59, 500_000_000), "", true));
+        databaseService.saveEvent(new FileEvent("next_day.txt", "CREATE", day.plusDays(1).atStartOfDay(), "", false));
+        
+        EventReport report = new ReportService(databaseService).buildReport(day.atStartOfDay(),
+            day.plusDays(1).atStartOfDay(), false, null, () -> false);
+        
+        assertTrue(report.isComplete());
+        assertEquals(2, report.getTotalEvents());
+        assertEquals(1, report.getSuspiciousEvents());
+        assertEquals(List.of("last.txt", "first.txt"),
+            report.getNewestEvents().stream().map(FileEvent::getFileName).collect(Collectors.toList()));
+    }
+}
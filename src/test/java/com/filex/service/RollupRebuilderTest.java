@@ -0,0 +1,114 @@
+package com.filex.service;
+
+import com.filex.model.Alert;
+import com.filex.model.AlertRollup;
+import com.filex.model.EventRollup;
+import com.filex.model.FileEvent;
+import com.filex.model.RollupResolution;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollupRebuilderTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 58);
+    
+    private DatabaseService databaseService;
+    private Path dbFile;
+    private String previousUrl;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("filex-rollups", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+        
+        // Every 7 minutes for five hours, across minute, hour and day boundaries
+        String[] types = {"CREATE", "MODIFY", "MODIFY", "DELETE"};
+        for (int i = 0; i < 43; i++) {
+            LocalDateTime time = START.plusMinutes(7L * i).plusSeconds(i % 60);
+            boolean suspicious = i % 5 == 0;
+            Alert alert = null;
+            if (suspicious) {
+                alert = new Alert();
+                alert.setSeverity(i % 10 == 0 ? "HIGH" : "MEDIUM");
+                alert.setCreatedAt(time);
+                alert.setActionsTaken("Rollup test");
+            }
+            databaseService.saveEvent(new FileEvent("rollup_" + i + ".txt", types[i % types.length], time, "", suspicious),
+                alert);
+        }
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testWrittenRollupsMatchTheEvents() {
+        for (RollupResolution resolution : RollupResolution.values()) {
+            List<EventRollup> rollups = databaseService.getEventRollups(resolution, null, null);
+            assertEquals(43, rollups.stream().mapToLong(EventRollup::getCount).sum(), resolution.name());
+            assertEquals(9, rollups.stream().filter(EventRollup::isSuspicious).mapToLong(EventRollup::getCount).sum());
+            assertEquals(22, rollups.stream().filter(r -> "MODIFY".equals(r.getEventType()))
+                .mapToLong(EventRollup::getCount).sum());
+            for (EventRollup rollup : rollups) {
+                assertEquals(resolution.truncate(rollup.getBucketStart()), rollup.getBucketStart());
+            }
+        }
+        // 10:00 to 10:59 holds the events 1 to 8
+        long[] hours = databaseService.getEventCountSeries(RollupResolution.HOUR, START, START.plusHours(5));
+        assertEquals(8, hours[1]);
+        assertEquals(43, Arrays.stream(hours).sum());
+    }
+    
+    @Test
+    void testRebuildReproducesWrittenRollups() {
+        List<String> events = eventRollups();
+        List<String> alerts = alertRollups();
+        
+        assertTrue(databaseService.rebuildRollups());
+        
+        assertEquals(events, eventRollups());
+        assertEquals(alerts, alertRollups());
+        assertEquals(9, databaseService.getAlertRollups(RollupResolution.DAY, null, null).stream()
+            .mapToLong(AlertRollup::getCount).sum());
+    }
+    
+    private List<String> eventRollups() {
+        return Arrays.stream(RollupResolution.values())
+            .flatMap(resolution -> databaseService.getEventRollups(resolution, null, null).stream()
+                .map(rollup -> resolution + " " + rollup))
+            .sorted().collect(Collectors.toList());
+    }
+    
+    private List<String> alertRollups() {
+        return Arrays.stream(RollupResolution.values())
+            .flatMap(resolution -> databaseService.getAlertRollups(resolution, null, null).stream()
+                .map(rollup -> resolution + " " + rollup))
+            .sorted().collect(Collectors.toList());
+    }
+}
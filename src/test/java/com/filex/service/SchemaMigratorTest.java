@@ -0,0 +1,113 @@
+package com.filex.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest {
+    
+    private Connection connection;
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+    
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+    
+    @Test
+    void testFreshDatabaseGetsEveryMigrationOnce() throws SQLException {
+        List<SchemaMigrator.Migration> migrations = SchemaMigrations.all();
+        int latest = migrations.get(migrations.size() - 1).getVersion();
+        SchemaMigrator migrator = new SchemaMigrator(connection);
+        
+        assertEquals(latest, migrator.migrate(migrations));
+        assertEquals(latest, migrator.migrate(migrations));
+        
+        assertEquals(migrations.size(), count("SELECT COUNT(*) FROM schema_version"));
+        for (String index : List.of("idx_file_events_timestamp", "idx_file_events_suspicious_timestamp",
+                "idx_file_events_type_timestamp", "idx_alerts_acknowledged_created_at",
+                "idx_alerts_severity_created_at", "idx_alerts_file_event_id")) {
+            assertEquals(1, count("SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND name = '"
+                + index + "'"), index);
+        }
+    }
+    
+    @Test
+    void testQueriesUseTheIndexes() throws SQLException {
+        new SchemaMigrator(connection).migrate(SchemaMigrations.all());
+        
+        assertTrue(plan("SELECT id FROM file_events WHERE timestamp >= 0 ORDER BY timestamp DESC LIMIT 50")
+            .contains("idx_file_events_timestamp"));
+        assertTrue(plan("SELECT id FROM file_events WHERE suspicious = 1 ORDER BY timestamp DESC LIMIT 50")
+            .contains("idx_file_events_suspicious_timestamp"));
+        assertTrue(plan("SELECT id FROM alerts WHERE acknowledged = 0 ORDER BY created_at DESC")
+            .contains("idx_alerts_acknowledged"));
+    }
+    
+    @Test
+    void testMigratesUpToTargetVersion() throws SQLException {
+        List<SchemaMigrator.Migration> migrations = SchemaMigrations.all();
+        SchemaMigrator migrator = new SchemaMigrator(connection);
+        
+        assertEquals(3, migrator.migrate(migrations, 3));
+        assertEquals(3, migrator.getVersion());
+        assertEquals(0, count("SELECT COUNT(*) FROM sqlite_master WHERE name = 'idx_file_events_type_timestamp'"));
+        
+        assertEquals(migrations.get(migrations.size() - 1).getVersion(), migrator.migrate(migrations));
+        assertEquals(migrations.size(), count("SELECT COUNT(*) FROM schema_version"));
+    }
+    
+    @Test
+    void testFailedMigrationKeepsLastGoodVersion() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(connection);
+        List<SchemaMigrator.Migration> migrations = List.of(
+            new SchemaMigrator.Migration(1, "First", c -> execute(c, "CREATE TABLE first (id INTEGER)")),
+            new SchemaMigrator.Migration(2, "Broken", c -> {
+                execute(c, "CREATE TABLE second (id INTEGER)");
+                execute(c, "CREATE TABLE first (id INTEGER)");
+            }));
+        
+        SQLException e = assertThrows(SQLException.class, () -> migrator.migrate(migrations));
+        
+        assertTrue(e.getMessage().contains("Schema migration 2 (Broken)"));
+        assertEquals(1, migrator.getVersion());
+        assertEquals(0, count("SELECT COUNT(*) FROM sqlite_master WHERE name = 'second'"));
+        assertTrue(connection.getAutoCommit());
+    }
+    
+    private static void execute(Connection c, String sql) throws SQLException {
+        try (Statement stmt = c.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+    
+    private int count(String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.getInt(1);
+        }
+    }
+    
+    private String plan(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString("detail")).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
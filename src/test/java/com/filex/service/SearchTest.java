@@ -0,0 +1,108 @@
+package com.filex.service;
+
+import com.filex.model.Alert;
+import com.filex.model.FileEvent;
+import com.filex.model.SearchPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    
+    private DatabaseService databaseService;
+    private Path dbFile;
+    private String previousUrl;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("filex-search", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+        
+        LocalDateTime now = LocalDateTime.now();
+        save("/srv/Finance/q3_quarterly.xlsx", now.minusMinutes(4));
+        save("/srv/finance/archive/old_quarterly_report.xlsx", now.minusMinutes(3));
+        save("/home/ann/quarterly/notes.txt", now.minusMinutes(2)); // Matches in the directory only
+        save("/home/ann/holiday.jpg", now.minusMinutes(1));
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testFindsSubstringsAnywhereInThePath() {
+        // Names containing the text first, shorter names first, then matches in the directory
+        assertEquals(List.of("q3_quarterly.xlsx", "old_quarterly_report.xlsx", "notes.txt"),
+            names(databaseService.searchEvents("QUARTERLY", 0, 10)));
+        assertEquals(List.of("q3_quarterly.xlsx", "old_quarterly_report.xlsx"),
+            names(databaseService.searchEvents("finance/", 0, 10)));
+        assertEquals(List.of("old_quarterly_report.xlsx"), names(databaseService.searchEvents("ly_rep", 0, 10)));
+        assertTrue(databaseService.searchEvents("quarterlies", 0, 10).getResults().isEmpty());
+    }
+    
+    @Test
+    void testShortTextIsCheckedWithoutTheIndex() {
+        assertEquals(List.of("holiday.jpg"), names(databaseService.searchEvents("jp", 0, 10)));
+    }
+    
+    @Test
+    void testPagesOfResults() {
+        SearchPage<FileEvent> first = databaseService.searchEvents("quarterly", 0, 2);
+        SearchPage<FileEvent> second = databaseService.searchEvents("quarterly", first.getNextOffset(), 2);
+        
+        assertEquals(2, first.getResults().size());
+        assertTrue(first.hasMore());
+        assertEquals(List.of("notes.txt"), names(second));
+        assertFalse(second.hasMore());
+    }
+    
+    @Test
+    void testFindsAlertsByTheirActions() {
+        Alert alert = new Alert();
+        alert.setSeverity("HIGH");
+        alert.setCreatedAt(LocalDateTime.now());
+        alert.setActionsTaken("Copied to removable USB drive");
+        FileEvent event = new FileEvent("payroll.csv", "MODIFY", LocalDateTime.now(), "", true);
+        event.setFilePath("/srv/hr/payroll.csv");
+        databaseService.saveEvent(event, alert);
+        
+        List<Alert> found = databaseService.searchAlerts("removable usb", 0, 10).getResults();
+        assertEquals(1, found.size());
+        assertEquals(alert.getId(), found.get(0).getId());
+        assertTrue(databaseService.searchAlerts("network share", 0, 10).getResults().isEmpty());
+    }
+    
+    private void save(String filePath, LocalDateTime timestamp) {
+        FileEvent event = new FileEvent(filePath.substring(filePath.lastIndexOf('/') + 1), "MODIFY", timestamp, "", false);
+        event.setFilePath(filePath);
+        databaseService.saveEvent(event);
+    }
+    
+    private static List<String> names(SearchPage<FileEvent> page) {
+        return page.getResults().stream().map(FileEvent::getFileName).collect(Collectors.toList());
+    }
+}
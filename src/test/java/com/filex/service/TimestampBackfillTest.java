@@ -0,0 +1,117 @@
+package com.filex.service;
+
+import com.filex.model.EventPage;
+import com.filex.model.EventQuery;
+import com.filex.model.FileEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimestampBackfillTest {
+    
+    private static final String URL_PROPERTY = "filex.db.url";
+    private static final DateTimeFormatter LEGACY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    
+    private DatabaseService databaseService;
+    private Path dbFile;
+    private String previousUrl;
+    private LocalDateTime now;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("filex-backfill", ".db");
+        previousUrl = System.getProperty(URL_PROPERTY);
+        System.setProperty(URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        databaseService = DatabaseService.getInstance();
+        databaseService.close(); // Drop any connection to another database
+        databaseService.initialize();
+        
+        // Hours ago: 4 and 2 are stored as numbers, 3 and 1 as text written by an older version
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int hours = 4; hours >= 1; hours--) {
+            databaseService.saveEvent(new FileEvent("mixed_" + hours + ".txt", "MODIFY", now.minusHours(hours), "", false));
+        }
+        databaseService.close();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile);
+             Statement stmt = connection.createStatement();
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE file_events SET timestamp = ? WHERE id = ?")) {
+            for (int id : new int[] {2, 4}) {
+                update.setString(1, LEGACY_FORMAT.format(now.minusHours(5 - id)));
+                update.setInt(2, id);
+                update.executeUpdate();
+            }
+            stmt.execute("INSERT OR REPLACE INTO online_migrations (name, last_id, target_id, completed_at)"
+                    + " VALUES ('" + TimestampBackfill.EVENT_TIMESTAMPS + "', 0, 4, NULL)");
+        }
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        databaseService.close();
+        if (previousUrl != null) {
+            System.setProperty(URL_PROPERTY, previousUrl);
+        } else {
+            System.clearProperty(URL_PROPERTY);
+        }
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+    
+    @Test
+    void testReadsAcceptTextAndNumericTimestamps() {
+        // Holding the writer keeps the background backfill from converting the text rows
+        synchronized (databaseService) {
+            databaseService.initialize();
+            assertMixedReads();
+        }
+        
+        assertTrue(new TimestampBackfill(databaseService, 100, 0).run());
+        assertMixedReads();
+    }
+    
+    private void assertMixedReads() {
+        List<String> expectedNewestFirst = List.of("mixed_1.txt", "mixed_2.txt", "mixed_3.txt", "mixed_4.txt");
+        
+        assertEquals(List.of("mixed_2.txt", "mixed_3.txt"), names(databaseService.getEventsByDateRange(
+                now.minusHours(3), now.minusHours(2))));
+        assertEquals(2, databaseService.getEventCount(now.minusHours(3), now.minusHours(2), false));
+        
+        EventPage first = databaseService.getEventsPage(null, 2);
+        EventPage second = databaseService.getEventsPage(first.getNext(), 2);
+        List<FileEvent> paged = new ArrayList<>(first.getEvents());
+        paged.addAll(second.getEvents());
+        assertEquals(expectedNewestFirst, names(paged));
+        
+        List<String> scanned = new ArrayList<>();
+        assertTrue(databaseService.scanEvents(now.minusHours(4), now, false,
+                (id, pathId, eventTypeId, timestampMillis, suspicious) -> scanned.add("mixed_" + (5 - id) + ".txt")));
+        assertEquals(List.of("mixed_4.txt", "mixed_3.txt", "mixed_2.txt", "mixed_1.txt"), scanned);
+        
+        EventQuery query = EventQuery.newestFirst();
+        List<FileEvent> window = databaseService.getEventsWindow(query, null, false, 0, 2);
+        window.addAll(databaseService.getEventsWindow(query, window.get(1), false, 0, 2));
+        assertEquals(expectedNewestFirst, names(window));
+    }
+    
+    private static List<String> names(List<FileEvent> events) {
+        return events.stream().map(FileEvent::getFileName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,193 @@
+package com.filex.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WatchRegistryTest {
+    
+    @TempDir
+    Path dir;
+    
+    private final Map<Integer, Path> registered = new HashMap<>();
+    private final Set<Integer> cancelled = new HashSet<>();
+    private WatchRegistry<Integer> registry;
+    
+    @BeforeEach
+    void setUp() {
+        // Keys are handed out in registration order, like watch descriptors, and a
+        // directory that is still watched gets its key again
+        registry = new WatchRegistry<>(new WatchRegistry.Registrar<>() {
+            @Override
+            public Integer register(Path path) {
+                for (Map.Entry<Integer, Path> entry : registered.entrySet()) {
+                    if (entry.getValue().equals(path) && !cancelled.contains(entry.getKey())) {
+                        return entry.getKey();
+                    }
+                }
+                int key = registered.size() + 1;
+                registered.put(key, path);
+                return key;
+            }
+            
+            @Override
+            public void cancel(Integer key) {
+                cancelled.add(key);
+            }
+        });
+    }
+    
+    @Test
+    void testRegistersEveryDirectoryOfEveryRoot() throws Exception {
+        Path first = Files.createDirectories(dir.resolve("first"));
+        Files.createDirectories(first.resolve("a/b/c"));
+        Files.createDirectories(first.resolve("a/d"));
+        Files.writeString(first.resolve("a/file.txt"), "not a directory");
+        Path second = Files.createDirectories(dir.resolve("second"));
+        Files.createDirectories(second.resolve("x"));
+        
+        assertEquals(5, registry.registerRoot(first).getWatchCount());
+        assertEquals(2, registry.registerRoot(second).getWatchCount());
+        
+        assertEquals(7, registry.size());
+        assertEquals(Set.of(first, second), new HashSet<>(registry.getRoots()));
+        assertEquals(2, registry.getRootStats().size());
+        for (Map.Entry<Integer, Path> entry : registered.entrySet()) {
+            assertEquals(entry.getValue(), registry.getPath(entry.getKey()));
+            assertEquals(entry.getKey(), registry.findKey(entry.getValue()));
+        }
+        assertNull(registry.findKey(first.resolve("a/file.txt")));
+        assertNull(registry.findKey(dir));
+    }
+    
+    @Test
+    void testRemoveReleasesTheWholeSubtree() throws Exception {
+        Files.createDirectories(dir.resolve("a/b/c"));
+        Files.createDirectories(dir.resolve("a/d"));
+        registry.registerRoot(dir);
+        Integer b = registry.findKey(dir.resolve("a/b"));
+        Integer c = registry.findKey(dir.resolve("a/b/c"));
+        
+        assertEquals(2, registry.remove(b));
+        
+        assertEquals(Set.of(b, c), cancelled);
+        assertEquals(3, registry.size());
+        assertNull(registry.getPath(c));
+        assertNull(registry.findKey(dir.resolve("a/b")));
+        assertNotNull(registry.findKey(dir.resolve("a/d")));
+        assertEquals(0, registry.remove(b));
+        
+        // Lost creation events: the directory and its missing parent are registered again
+        assertEquals(2, registry.ensureRegistered(dir.resolve("a/b/c")));
+        assertEquals(dir.resolve("a/b/c"), registry.getPath(registry.findKey(dir.resolve("a/b/c"))));
+        assertEquals(5, registry.size());
+        assertEquals(0, registry.ensureRegistered(dir.resolve("a/b/c")));
+    }
+    
+    @Test
+    void testRenameMovesTheSubtree() throws Exception {
+        Files.createDirectories(dir.resolve("a/b/c"));
+        Files.createDirectories(dir.resolve("d"));
+        registry.registerRoot(dir);
+        Integer a = registry.findKey(dir.resolve("a"));
+        Integer b = registry.findKey(dir.resolve("a/b"));
+        Integer c = registry.findKey(dir.resolve("a/b/c"));
+        Integer d = registry.findKey(dir.resolve("d"));
+        
+        assertTrue(registry.rename(a, "b", d, "moved"));
+        
+        assertEquals(dir.resolve("d/moved"), registry.getPath(b));
+        assertEquals(dir.resolve("d/moved/c"), registry.getPath(c));
+        assertEquals(c, registry.findKey(dir.resolve("d/moved/c")));
+        assertEquals(b, registry.getChildKey(d, "moved"));
+        assertNull(registry.getChildKey(a, "b"));
+        assertFalse(registry.rename(a, "b", d, "again"));
+        assertTrue(cancelled.isEmpty());
+    }
+    
+    @Test
+    void testRegisterSubtreeVisitsFiles() throws Exception {
+        registry.registerRoot(dir);
+        Path created = Files.createDirectories(dir.resolve("new/inner"));
+        Files.writeString(created.resolve("one.txt"), "1");
+        Files.writeString(dir.resolve("new/two.txt"), "2");
+        List<Path> files = new ArrayList<>();
+        
+        assertEquals(2, registry.registerSubtree(registry.findKey(dir), dir.resolve("new"), files::add));
+        
+        assertEquals(Set.of(created.resolve("one.txt"), dir.resolve("new/two.txt")), new HashSet<>(files));
+        assertEquals(created, registry.getPath(registry.findKey(created)));
+    }
+    
+    @Test
+    void testRootInsideAnotherRoot() throws Exception {
+        Files.createDirectories(dir.resolve("a/b/c"));
+        registry.registerRoot(dir.resolve("a"));
+        registry.registerRoot(dir.resolve("a/b"));
+        Integer a = registry.findKey(dir.resolve("a"));
+        Integer b = registry.findKey(dir.resolve("a/b"));
+        Integer c = registry.findKey(dir.resolve("a/b/c"));
+        
+        assertNotNull(b);
+        assertNotNull(c);
+        assertEquals(3, registry.size());
+        assertEquals(dir.resolve("a/b/c"), registry.getPath(c));
+        assertEquals(List.of(dir.resolve("a")), registry.getRoots());
+        assertEquals(0, registry.ensureRegistered(dir.resolve("a/b/c")));
+        
+        // The inner root has its own tree, so it stays when the outer one goes
+        assertEquals(1, registry.remove(a));
+        assertEquals(c, registry.findKey(dir.resolve("a/b/c")));
+        assertEquals(2, registry.remove(b));
+        assertEquals(0, registry.size());
+        assertNull(registry.findKey(dir.resolve("a/b")));
+    }
+    
+    @Test
+    void testRootAroundAnotherRoot() throws Exception {
+        Files.createDirectories(dir.resolve("a/b/c"));
+        registry.registerRoot(dir.resolve("a/b"));
+        registry.registerRoot(dir.resolve("a"));
+        Integer a = registry.findKey(dir.resolve("a"));
+        Integer b = registry.findKey(dir.resolve("a/b"));
+        
+        assertEquals(3, registry.size());
+        assertEquals(b, registry.getChildKey(a, "b"));
+        assertEquals(dir.resolve("a/b/c"), registry.getPath(registry.findKey(dir.resolve("a/b/c"))));
+        assertEquals(List.of(dir.resolve("a")), registry.getRoots());
+        
+        assertEquals(3, registry.remove(a));
+        assertNull(registry.findKey(dir.resolve("a/b")));
+        
+        // Freed slots are reused without the old inner root pointing at them
+        Files.createDirectories(dir.resolve("x/y/z"));
+        registry.registerRoot(dir.resolve("x"));
+        assertNull(registry.findKey(dir.resolve("a/b")));
+        assertNull(registry.findKey(dir.resolve("a/b/z")));
+        assertEquals(dir.resolve("x/y/z"), registry.getPath(registry.findKey(dir.resolve("x/y/z"))));
+    }
+    
+    @Test
+    void testClearCancelsEveryWatch() throws Exception {
+        Files.createDirectories(dir.resolve("a/b"));
+        registry.registerRoot(dir);
+        
+        registry.clear();
+        
+        assertEquals(registered.keySet(), cancelled);
+        assertEquals(0, registry.size());
+        assertTrue(registry.getRoots().isEmpty());
+        assertNull(registry.findKey(dir));
+    }
+}
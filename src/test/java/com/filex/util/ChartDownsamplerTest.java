@@ -0,0 +1,93 @@
+package com.filex.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChartDownsamplerTest {
+    
+    private static final int POINTS = 100_000;
+    
+    @Test
+    void testLargestTriangleKeepsEndsAndExtrema() {
+        double[] xs = new double[POINTS];
+        double[] ys = new double[POINTS];
+        Random random = new Random(7);
+        for (int i = 0; i < POINTS; i++) {
+            xs[i] = i;
+            ys[i] = 100 + random.nextGaussian();
+        }
+        int spike = 31_337;
+        int dip = 77_777;
+        ys[spike] = 500;
+        ys[dip] = -300;
+        
+        int[] kept = ChartDownsampler.largestTriangleThreeBuckets(xs, ys, 800);
+        
+        assertEquals(800, kept.length);
+        assertEquals(0, kept[0]);
+        assertEquals(POINTS - 1, kept[kept.length - 1]);
+        assertAscending(kept);
+        assertTrue(contains(kept, spike), "the single spike is kept");
+        assertTrue(contains(kept, dip), "the single dip is kept");
+    }
+    
+    @Test
+    void testLargestTriangleKeepsShortSeries() {
+        double[] xs = {0, 1, 2, 3};
+        double[] ys = {5, 1, 9, 2};
+        
+        assertArrayEquals(new int[] {0, 1, 2, 3}, ChartDownsampler.largestTriangleThreeBuckets(xs, ys, 10));
+        assertArrayEquals(new int[] {0, 1, 2, 3}, ChartDownsampler.largestTriangleThreeBuckets(xs, ys, 2));
+    }
+    
+    @Test
+    void testMinMaxKeepsEveryBucketsExtremes() {
+        double[] xs = new double[POINTS];
+        double[] ys = new double[POINTS];
+        Random random = new Random(11);
+        for (int i = 0; i < POINTS; i++) {
+            xs[i] = i * 0.5;
+            ys[i] = random.nextDouble();
+        }
+        int buckets = 100;
+        
+        int[] kept = ChartDownsampler.minMax(xs, ys, buckets);
+        
+        assertTrue(kept.length <= 2 * buckets + 2);
+        assertEquals(0, kept[0]);
+        assertEquals(POINTS - 1, kept[kept.length - 1]);
+        assertAscending(kept);
+        double width = (xs[POINTS - 1] - xs[0]) / buckets;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int min = -1;
+            int max = -1;
+            for (int i = 1; i < POINTS - 1; i++) {
+                if ((int) Math.min(buckets - 1, (xs[i] - xs[0]) / width) != bucket) {
+                    continue;
+                }
+                if (min < 0 || ys[i] < ys[min]) {
+                    min = i;
+                }
+                if (max < 0 || ys[i] > ys[max]) {
+                    max = i;
+                }
+            }
+            assertTrue(contains(kept, min), "minimum of bucket " + bucket);
+            assertTrue(contains(kept, max), "maximum of bucket " + bucket);
+        }
+    }
+    
+    private static void assertAscending(int[] indexes) {
+        for (int i = 1; i < indexes.length; i++) {
+            assertTrue(indexes[i] > indexes[i - 1], "indexes in order at " + i);
+        }
+    }
+    
+    private static boolean contains(int[] indexes, int index) {
+        return Arrays.binarySearch(indexes, index) >= 0;
+    }
+}
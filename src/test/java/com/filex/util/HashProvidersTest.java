@@ -0,0 +1,87 @@
+package com.filex.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashProvidersTest {
+    
+    private static final String FOX = "The quick brown fox jumps over the lazy dog";
+    
+    @Test
+    void testBlake3KnownAnswers() {
+        HashProvider blake3 = HashProviders.get(Blake3Provider.NAME);
+        
+        assertEquals("af1349b9f5f9a1a6a0404dea36dcc9499bcb25c9adc112b7cc9a93cae41f3262", hash(blake3, new byte[0]));
+        assertEquals("6437b3ac38465133ffb63b75273a8db548c558465d79db03fd359c6cd5bd9d85", hash(blake3, ascii("abc")));
+        // Inputs from the official test vectors, one byte past one and two 1 KiB chunks
+        assertEquals("d00278ae47eb27b34faecf67b4fe263f82d5412916c1ffd97c8cb7fb814b8444",
+                hash(blake3, testInput(1025)));
+        assertEquals("e776b6028c7cd22a4d0ba182a8bf62205d2ef576467e838ed6f2529b85fba24a",
+                hash(blake3, testInput(2048)));
+        assertEquals("5f4d72f40d7a5f82b15ca2b2e44b1de3c2ef86c426c95c1af0b6879522563030",
+                hash(blake3, testInput(2049)));
+        assertEquals("628bd2cb2004694adaab7bbd778a25df25c47b9d4155a55f8fbd79f2fe154cff",
+                hash(blake3, testInput(5121)));
+    }
+    
+    @Test
+    void testXxHash64KnownAnswers() {
+        HashProvider xxh64 = HashProviders.get(XxHash64Provider.NAME);
+        
+        assertEquals("ef46db3751d8e999", hash(xxh64, new byte[0]));
+        assertEquals("0b242d361fda71bc", hash(xxh64, ascii(FOX)));
+        assertEquals(0x0b242d361fda71bcL, XxHash64Provider.hash(ascii(FOX), 0, FOX.length()));
+    }
+    
+    @Test
+    void testSplitUpdatesMatchOneUpdate() {
+        byte[] data = testInput(5121);
+        for (String name : new String[] {Blake3Provider.NAME, XxHash64Provider.NAME}) {
+            HashProvider provider = HashProviders.get(name);
+            String whole = hash(provider, data);
+            HashProvider.Hasher hasher = provider.newHasher();
+            // Uneven pieces that straddle block, stripe and chunk boundaries
+            for (int offset = 0, step = 1; offset < data.length; offset += step, step = step * 3 % 1031) {
+                hasher.update(ByteBuffer.wrap(data, offset, Math.min(step, data.length - offset)));
+            }
+            assertEquals(whole, HashUtil.toHex(hasher.digest()), name);
+            // digest() leaves the hasher ready for the next input
+            hasher.update(ByteBuffer.wrap(data));
+            assertEquals(whole, HashUtil.toHex(hasher.digest()), name);
+        }
+    }
+    
+    @Test
+    void testLookupIgnoresCase() {
+        assertEquals(Blake3Provider.NAME, HashProviders.get("blake3").getName());
+        assertEquals(HashProviders.DEFAULT, HashProviders.resolve("no-such-hash"));
+        assertThrows(IllegalArgumentException.class, () -> HashProviders.get("no-such-hash"));
+    }
+    
+    private static String hash(HashProvider provider, byte[] data) {
+        HashProvider.Hasher hasher = provider.newHasher();
+        hasher.update(ByteBuffer.wrap(data));
+        byte[] digest = hasher.digest();
+        assertEquals(provider.getDigestLength(), digest.length);
+        return HashUtil.toHex(digest);
+    }
+    
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    /**
+     * The repeating 0..250 byte pattern used by the BLAKE3 test vectors.
+     */
+    private static byte[] testInput(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (i % 251);
+        }
+        return data;
+    }
+}
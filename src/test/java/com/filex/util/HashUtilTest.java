@@ -0,0 +1,54 @@
+package com.filex.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashUtilTest {
+    
+    @TempDir
+    Path dir;
+    
+    @Test
+    void testKnownDigests() throws Exception {
+        Path abc = Files.writeString(dir.resolve("abc.txt"), "abc", StandardCharsets.US_ASCII);
+        Path empty = Files.createFile(dir.resolve("empty.txt"));
+        
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                HashUtil.computeSHA256(abc));
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                HashUtil.computeSHA256(empty));
+    }
+    
+    @Test
+    void testFileLargerThanBufferMatchesMessageDigest() throws Exception {
+        // Several read buffers plus a partial one
+        byte[] data = new byte[(3 << 20) + 17];
+        new Random(7).nextBytes(data);
+        Path file = Files.write(dir.resolve("large.bin"), data);
+        
+        String expected = HashUtil.toHex(MessageDigest.getInstance("SHA-256").digest(data));
+        
+        assertEquals(expected, HashUtil.computeSHA256(file));
+        // Hashing again reuses the per-thread buffer and hasher
+        assertEquals(expected, HashUtil.computeSHA256(file));
+        assertEquals(HashUtil.toHex(MessageDigest.getInstance("SHA-512").digest(data)),
+                HashUtil.computeHash(file, "SHA-512"));
+    }
+    
+    @Test
+    void testMissingFileReturnsEmptyAndLeavesHasherClean() throws Exception {
+        Path abc = Files.writeString(dir.resolve("abc.txt"), "abc", StandardCharsets.US_ASCII);
+        
+        assertEquals("", HashUtil.computeSHA256(dir.resolve("missing.txt")));
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                HashUtil.computeSHA256(abc));
+    }
+}
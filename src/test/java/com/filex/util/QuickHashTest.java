@@ -0,0 +1,81 @@
+package com.filex.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuickHashTest {
+    
+    private static final int SIZE = 1 << 20;
+    
+    @TempDir
+    Path dir;
+    
+    @Test
+    void testSmallFileIsHashedWhole() throws Exception {
+        byte[] content = randomBytes(2 * QuickHash.EDGE_BYTES + QuickHash.SAMPLES * QuickHash.SAMPLE_BYTES);
+        Path file = write("small.bin", content);
+        String hash = QuickHash.compute(file);
+        
+        assertEquals(hash, QuickHash.compute(file));
+        content[content.length / 2 + 1] ^= 1; // Between where samples would be in a large file
+        assertNotEquals(hash, QuickHash.compute(write("small.bin", content)));
+    }
+    
+    @Test
+    void testLargeFileSamplesEdgesAndInterior() throws Exception {
+        byte[] content = randomBytes(SIZE);
+        Path file = write("large.bin", content);
+        String hash = QuickHash.compute(file);
+        long interior = SIZE - 2L * QuickHash.EDGE_BYTES;
+        int firstSample = (int) (QuickHash.EDGE_BYTES + interior / (QuickHash.SAMPLES + 1));
+        
+        assertNotEquals(hash, hashWithFlippedByte(content, 10));
+        assertNotEquals(hash, hashWithFlippedByte(content, SIZE - 10));
+        assertNotEquals(hash, hashWithFlippedByte(content, firstSample));
+        // An edit between the first edge and the first sample is not read
+        int unsampled = (QuickHash.EDGE_BYTES + firstSample - QuickHash.SAMPLE_BYTES / 2) / 2;
+        assertEquals(hash, hashWithFlippedByte(content, unsampled));
+    }
+    
+    @Test
+    void testSizeChangeAlwaysShows() throws Exception {
+        byte[] content = randomBytes(SIZE);
+        String hash = QuickHash.compute(write("grown.bin", content));
+        
+        byte[] grown = new byte[SIZE + 1];
+        System.arraycopy(content, 0, grown, 0, SIZE);
+        assertNotEquals(hash, QuickHash.compute(write("grown.bin", grown)));
+    }
+    
+    @Test
+    void testMissingFileThrowsAndLeavesHasherClean() throws Exception {
+        Path file = write("after.bin", randomBytes(1000));
+        String hash = QuickHash.compute(file);
+        
+        assertThrows(IOException.class, () -> QuickHash.compute(dir.resolve("missing.bin")));
+        assertEquals(hash, QuickHash.compute(file));
+    }
+    
+    private String hashWithFlippedByte(byte[] content, int offset) throws IOException {
+        byte[] edited = content.clone();
+        edited[offset] ^= 1;
+        return QuickHash.compute(write("edited.bin", edited));
+    }
+    
+    private Path write(String name, byte[] content) throws IOException {
+        return Files.write(dir.resolve(name), content);
+    }
+    
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,124 @@
+package com.filex.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageQueueTest {
+    
+    @Test
+    void testBlockWaitsForConsumer() throws Exception {
+        StageQueue<Integer> queue = new StageQueue<>(1, BackpressurePolicy.BLOCK, new StageMetrics("block"));
+        queue.offer(1);
+        
+        CompletableFuture<Boolean> blocked = CompletableFuture.supplyAsync(() -> {
+            try {
+                return queue.offer(2);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+        
+        assertEquals(1, queue.poll(1, TimeUnit.SECONDS));
+        assertTrue(blocked.get(5, TimeUnit.SECONDS));
+        assertEquals(2, queue.poll(1, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    void testDropOldestDropsOldestAndReportsIt() throws Exception {
+        List<Integer> dropped = new ArrayList<>();
+        StageMetrics metrics = new StageMetrics("drop");
+        StageQueue<Integer> queue = new StageQueue<>(2, BackpressurePolicy.DROP_OLDEST, metrics, dropped::add);
+        
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertFalse(queue.offer(3));
+        
+        assertEquals(List.of(1), dropped);
+        assertEquals(1, metrics.getDropped());
+        List<Integer> remaining = new ArrayList<>();
+        assertEquals(2, queue.drainTo(remaining, 10));
+        assertEquals(List.of(2, 3), remaining);
+    }
+    
+    @Test
+    void testSpillKeepsOrderBeyondCapacity() throws Exception {
+        StageMetrics metrics = new StageMetrics("spill");
+        StageQueue<Integer> queue = new StageQueue<>(2, BackpressurePolicy.SPILL, metrics);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertEquals(3, metrics.getSpilled());
+        assertEquals(5, queue.size());
+        
+        // Items offered after the bounded part frees up still follow the spilled ones
+        assertEquals(0, queue.poll(1, TimeUnit.SECONDS));
+        queue.offer(5);
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            order.add(queue.poll(1, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of(1, 2, 3, 4, 5), order);
+        assertTrue(queue.isEmpty());
+    }
+    
+    @Test
+    void testSpilledItemsWakeBlockedConsumers() throws Exception {
+        // Consumers wait far longer than the test allows, so an item that only
+        // landed in the spill buffer while they were blocked would time it out
+        int consumers = 4;
+        int items = 20_000;
+        StageQueue<Integer> queue = new StageQueue<>(2, BackpressurePolicy.SPILL, new StageMetrics("spill"));
+        ConcurrentHashMap<Integer, Boolean> received = new ConcurrentHashMap<>();
+        AtomicInteger remaining = new AtomicInteger(items);
+        ExecutorService pool = Executors.newFixedThreadPool(consumers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < consumers; c++) {
+                futures.add(pool.submit(() -> {
+                    while (remaining.get() > 0) {
+                        Integer item = queue.poll(30, TimeUnit.SECONDS);
+                        if (item != null) {
+                            received.put(item, Boolean.TRUE);
+                            remaining.decrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < items; i++) {
+                queue.offer(i);
+                if (i % 64 == 0) {
+                    Thread.sleep(0, 50_000); // Bursts, so consumers keep going idle
+                }
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (remaining.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(0, remaining.get(), "items left waiting behind blocked consumers");
+            assertEquals(items, received.size());
+            // Release the consumers still blocked in poll
+            for (int c = 0; c < consumers; c++) {
+                queue.offer(-1);
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
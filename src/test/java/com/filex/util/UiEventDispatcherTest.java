@@ -0,0 +1,142 @@
+package com.filex.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UiEventDispatcherTest {
+    
+    private static final long NO_BUDGET = 0;
+    private static final long WHOLE_FRAME = 1_000_000_000;
+    
+    /**
+     * Frames that only come when the test asks for one.
+     */
+    private static class ManualFrames implements UiEventDispatcher.FrameSource {
+        private Runnable onFrame;
+        private boolean running;
+        private int starts;
+        
+        @Override
+        public void start(Runnable onFrame) {
+            this.onFrame = onFrame;
+            running = true;
+            starts++;
+        }
+        
+        @Override
+        public void stop() {
+            running = false;
+        }
+        
+        void frame() {
+            if (running) {
+                onFrame.run();
+            }
+        }
+    }
+    
+    private final ManualFrames frames = new ManualFrames();
+    private final List<List<Integer>> batches = new ArrayList<>();
+    private final List<Integer> drops = new ArrayList<>();
+    
+    private UiEventDispatcher<Integer> dispatcher(int capacity, int maxBatch, long frameBudgetNanos) {
+        return new UiEventDispatcher<>((items, dropped) -> {
+            batches.add(items);
+            drops.add(dropped);
+        }, capacity, maxBatch, frameBudgetNanos, frames);
+    }
+    
+    @Test
+    void testDeliversInBatchesOnTheNextFrame() {
+        UiEventDispatcher<Integer> dispatcher = dispatcher(100, 2, WHOLE_FRAME);
+        for (int i = 0; i < 5; i++) {
+            dispatcher.submit(i);
+        }
+        
+        assertTrue(batches.isEmpty());
+        assertEquals(5, dispatcher.getQueuedCount());
+        assertEquals(1, frames.starts);
+        
+        frames.frame();
+        
+        assertEquals(List.of(List.of(0, 1), List.of(2, 3), List.of(4)), batches);
+        assertEquals(List.of(0, 0, 0), drops);
+        assertEquals(0, dispatcher.getQueuedCount());
+        assertFalse(frames.running); // Idle until the next submit
+        
+        dispatcher.submit(5);
+        assertEquals(2, frames.starts);
+        frames.frame();
+        assertEquals(List.of(5), batches.get(3));
+    }
+    
+    @Test
+    void testLeavesTheRestForLaterFramesOnceTheBudgetIsUsed() {
+        UiEventDispatcher<Integer> dispatcher = dispatcher(100, 2, NO_BUDGET);
+        for (int i = 0; i < 5; i++) {
+            dispatcher.submit(i);
+        }
+        
+        frames.frame();
+        assertEquals(List.of(List.of(0, 1)), batches);
+        assertEquals(3, dispatcher.getQueuedCount());
+        frames.frame();
+        frames.frame();
+        assertEquals(List.of(List.of(0, 1), List.of(2, 3), List.of(4)), batches);
+        assertTrue(frames.running);
+        
+        frames.frame();
+        assertEquals(3, batches.size());
+        assertFalse(frames.running);
+    }
+    
+    @Test
+    void testDropsOldestOverCapacityAndReportsThem() {
+        UiEventDispatcher<Integer> dispatcher = dispatcher(3, 10, WHOLE_FRAME);
+        for (int i = 0; i < 10; i++) {
+            dispatcher.submit(i);
+        }
+        assertEquals(3, dispatcher.getQueuedCount());
+        
+        frames.frame();
+        
+        assertEquals(List.of(List.of(7, 8, 9)), batches);
+        assertEquals(List.of(7), drops);
+    }
+    
+    @Test
+    void testHandlerErrorsDoNotStopDelivery() {
+        List<List<Integer>> delivered = new ArrayList<>();
+        UiEventDispatcher<Integer> dispatcher = new UiEventDispatcher<>((items, dropped) -> {
+            delivered.add(items);
+            if (delivered.size() == 1) {
+                throw new IllegalStateException("Expected by the test");
+            }
+        }, 100, 1, WHOLE_FRAME, frames);
+        dispatcher.submit(1);
+        dispatcher.submit(2);
+        
+        frames.frame();
+        
+        assertEquals(List.of(List.of(1), List.of(2)), delivered);
+    }
+    
+    @Test
+    void testCloseDiscardsQueuedItems() {
+        UiEventDispatcher<Integer> dispatcher = dispatcher(100, 10, WHOLE_FRAME);
+        dispatcher.submit(1);
+        
+        dispatcher.close();
+        dispatcher.submit(2);
+        frames.frame();
+        
+        assertTrue(batches.isEmpty());
+        assertEquals(0, dispatcher.getQueuedCount());
+        assertFalse(frames.running);
+        assertEquals(1, frames.starts);
+    }
+}